@@ -0,0 +1,48 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.util.List;
+
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.OptionType;
+
+/**
+ * A typical annotated command used by the benchmarks
+ */
+@Command(name = "bench", description = "A command used for benchmarking")
+public class BenchmarkCommand {
+
+    @Option(name = { "-v", "--verbose" }, type = OptionType.GLOBAL, description = "Enables verbose output")
+    public boolean verbose;
+
+    @Option(name = { "-D", "--define" }, description = "Defines a property")
+    public List<String> defines;
+
+    @Option(name = { "-n", "--number" }, description = "Sets a number")
+    public int number;
+
+    @Option(name = { "--name" }, title = "name", description = "Sets a name")
+    public String name;
+
+    @Option(name = { "-f", "--force" }, description = "Forces the operation")
+    public boolean force;
+
+    @Arguments(description = "Arguments")
+    public List<String> arguments;
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rvesse.airline.help.GlobalUsageGenerator;
+import com.github.rvesse.airline.help.cli.CliGlobalUsageGenerator;
+import com.github.rvesse.airline.help.cli.bash.BashCompletionGenerator;
+import com.github.rvesse.airline.help.man.ManGlobalUsageGenerator;
+import com.github.rvesse.airline.help.markdown.MarkdownGlobalUsageGenerator;
+import com.github.rvesse.airline.model.GlobalMetadata;
+
+/**
+ * Benchmarks the global help generators, including bash completion script
+ * generation, over a {@link SyntheticCli}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HelpBenchmark {
+
+    @Param({ "cli", "man", "markdown", "bash" })
+    public String generator;
+
+    /**
+     * Total number of commands, split into groups of at most 100 commands
+     */
+    @Param({ "10", "500" })
+    public int commands;
+
+    @Param({ "10" })
+    public int options;
+
+    private GlobalMetadata<SyntheticCommand> metadata;
+    private GlobalUsageGenerator<SyntheticCommand> usageGenerator;
+    private final OutputStream output = new NullOutputStream();
+
+    @Setup
+    public void setup() {
+        int groups = Math.max(1, this.commands / 100);
+        this.metadata = new SyntheticCli(groups, this.commands / groups, this.options, 0, false).getMetadata();
+        switch (this.generator) {
+        case "cli":
+            this.usageGenerator = new CliGlobalUsageGenerator<SyntheticCommand>();
+            break;
+        case "man":
+            this.usageGenerator = new ManGlobalUsageGenerator<SyntheticCommand>();
+            break;
+        case "markdown":
+            this.usageGenerator = new MarkdownGlobalUsageGenerator<SyntheticCommand>();
+            break;
+        case "bash":
+            this.usageGenerator = new BashCompletionGenerator<SyntheticCommand>();
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown generator " + this.generator);
+        }
+    }
+
+    @Benchmark
+    public void usage() throws IOException {
+        this.usageGenerator.usage(this.metadata, this.output);
+    }
+}
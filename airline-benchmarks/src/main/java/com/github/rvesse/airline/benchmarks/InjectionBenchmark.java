@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParserUtil;
+
+/**
+ * Benchmarks {@link ParserUtil#injectOptions} in isolation from parsing
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InjectionBenchmark {
+
+    @Param({ "10", "100" })
+    public int options;
+
+    /**
+     * Total number of parsed option values, spread evenly over the options
+     */
+    @Param({ "100", "10000" })
+    public int values;
+
+    private CommandMetadata command;
+    private List<Pair<OptionMetadata, Object>> parsedOptions;
+    private List<Object> parsedArguments;
+    private Map<Class<?>, Object> bindings;
+
+    @Setup
+    public void setup() {
+        this.command = new SyntheticCli(1, 1, this.options, 0, false).getMetadata().getCommandGroups().get(0)
+                .getCommands().get(0);
+        List<OptionMetadata> allOptions = this.command.getAllOptions();
+        this.parsedOptions = new ArrayList<>();
+        for (int i = 0; i < this.values; i++) {
+            this.parsedOptions.add(Pair.<OptionMetadata, Object> of(allOptions.get(i % allOptions.size()), "value" + i));
+        }
+        this.parsedArguments = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            this.parsedArguments.add("arg" + i);
+        }
+        this.bindings = Collections.<Class<?>, Object> emptyMap();
+    }
+
+    @Benchmark
+    public SyntheticCommand injectOptions() {
+        return ParserUtil.injectOptions(new SyntheticCommand(), this.command.getAllOptions(), this.parsedOptions,
+                this.command.getArguments(), this.parsedArguments, this.command.getMetadataInjections(),
+                this.bindings);
+    }
+}
@@ -0,0 +1,43 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.util.List;
+
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.OptionType;
+import com.github.rvesse.airline.annotations.restrictions.AllowedRawValues;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+
+/**
+ * Another annotated command used by the benchmarks
+ */
+@Command(name = "other", description = "Another command used for benchmarking")
+public class OtherCommand {
+
+    @Option(name = { "-v", "--verbose" }, type = OptionType.GLOBAL, description = "Enables verbose output")
+    public boolean verbose;
+
+    @Option(name = { "-m", "--mode" }, description = "Sets the mode")
+    @AllowedRawValues(allowedValues = { "fast", "slow", "balanced" })
+    @Required
+    public String mode;
+
+    @Arguments(description = "Arguments")
+    public List<String> arguments;
+}
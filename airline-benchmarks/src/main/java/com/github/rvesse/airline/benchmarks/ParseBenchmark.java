@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.builder.ParserBuilder;
+
+/**
+ * Benchmarks parsing with {@link Cli} and {@link SingleCommand}
+ * <p>
+ * {@link Cli} parsing uses a {@link SyntheticCli} so the effect of the number
+ * of commands, options, arguments, alias chain length and abbreviation can be
+ * seen, {@link SingleCommand} parsing uses the annotated
+ * {@link BenchmarkCommand}.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+
+    /**
+     * Total number of commands, split into groups of at most 100 commands
+     */
+    @Param({ "10", "1000" })
+    public int commands;
+
+    @Param({ "10", "100" })
+    public int options;
+
+    @Param({ "0", "1000" })
+    public int arguments;
+
+    @Param({ "0", "4" })
+    public int aliasChain;
+
+    @Param({ "false", "true" })
+    public boolean abbreviate;
+
+    private Cli<SyntheticCommand> cli;
+    private String[] cliArgs;
+    private SingleCommand<BenchmarkCommand> singleCommand;
+    private String[] singleCommandArgs;
+
+    @Setup
+    public void setup() {
+        int groups = Math.max(1, this.commands / 100);
+        SyntheticCli synthetic = new SyntheticCli(groups, this.commands / groups, this.options, this.aliasChain,
+                this.abbreviate);
+        this.cli = synthetic.createCli();
+        this.cliArgs = synthetic.createArgs(this.arguments);
+
+        ParserBuilder<BenchmarkCommand> parser = new ParserBuilder<BenchmarkCommand>();
+        if (this.abbreviate) {
+            parser = parser.withCommandAbbreviation().withOptionAbbreviation();
+        }
+        this.singleCommand = SingleCommand.singleCommand(BenchmarkCommand.class, parser.build());
+        List<String> args = new ArrayList<>();
+        args.add("--verbose");
+        for (int i = 0; i < this.options; i++) {
+            args.add("-D");
+            args.add("key" + i + "=value" + i);
+        }
+        args.add("--number");
+        args.add("42");
+        for (int i = 0; i < this.arguments; i++) {
+            args.add("arg" + i);
+        }
+        this.singleCommandArgs = args.toArray(new String[args.size()]);
+    }
+
+    @Benchmark
+    public SyntheticCommand cli() {
+        return this.cli.parse(this.cliArgs);
+    }
+
+    @Benchmark
+    public BenchmarkCommand singleCommand() {
+        return this.singleCommand.parse(this.singleCommandArgs);
+    }
+}
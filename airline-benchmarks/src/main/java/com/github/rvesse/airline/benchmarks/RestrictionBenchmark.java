@@ -0,0 +1,164 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.AllowedRawValues;
+import com.github.rvesse.airline.annotations.restrictions.AllowedValues;
+import com.github.rvesse.airline.annotations.restrictions.Path;
+import com.github.rvesse.airline.annotations.restrictions.PathKind;
+import com.github.rvesse.airline.annotations.restrictions.Pattern;
+import com.github.rvesse.airline.annotations.restrictions.ranges.IntegerRange;
+
+/**
+ * Benchmarks parsing options that carry each family of restriction, so the
+ * cost of restriction enforcement is visible relative to the unrestricted
+ * baseline
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RestrictionBenchmark {
+
+    @Command(name = "none")
+    public static class Unrestricted {
+        @Option(name = "--value")
+        public List<String> values;
+    }
+
+    @Command(name = "pattern")
+    public static class PatternRestricted {
+        @Option(name = "--value")
+        @Pattern(pattern = "[a-z]+\\d*")
+        public List<String> values;
+    }
+
+    @Command(name = "path")
+    public static class PathRestricted {
+        @Option(name = "--value")
+        @Path(mustExist = true, readable = true, writable = false, kind = PathKind.FILE)
+        public List<String> values;
+    }
+
+    @Command(name = "allowed-values")
+    public static class AllowedValuesRestricted {
+        @Option(name = "--value")
+        @AllowedValues(allowedValues = { "1", "2", "3", "5", "8", "13", "21", "34" })
+        public List<Integer> values;
+    }
+
+    @Command(name = "allowed-raw-values")
+    public static class AllowedRawValuesRestricted {
+        @Option(name = "--value")
+        @AllowedRawValues(allowedValues = { "alpha", "beta", "gamma", "delta" })
+        public List<String> values;
+    }
+
+    @Command(name = "range")
+    public static class RangeRestricted {
+        @Option(name = "--value")
+        @IntegerRange(min = 0, max = 1000)
+        public List<Integer> values;
+    }
+
+    @Param({ "none", "pattern", "path", "allowed-values", "allowed-raw-values", "range" })
+    public String restriction;
+
+    /**
+     * Number of times the option is specified
+     */
+    @Param({ "1", "1000" })
+    public int values;
+
+    private File file;
+    private SingleCommand<?> command;
+    private String[] args;
+
+    @Setup
+    public void setup() throws IOException {
+        this.file = File.createTempFile("airline", ".bench");
+        String value;
+        switch (this.restriction) {
+        case "none":
+            this.command = SingleCommand.singleCommand(Unrestricted.class);
+            value = "abc123";
+            break;
+        case "pattern":
+            this.command = SingleCommand.singleCommand(PatternRestricted.class);
+            value = "abc123";
+            break;
+        case "path":
+            this.command = SingleCommand.singleCommand(PathRestricted.class);
+            value = this.file.getAbsolutePath();
+            break;
+        case "allowed-values":
+            this.command = SingleCommand.singleCommand(AllowedValuesRestricted.class);
+            value = "21";
+            break;
+        case "allowed-raw-values":
+            this.command = SingleCommand.singleCommand(AllowedRawValuesRestricted.class);
+            value = "gamma";
+            break;
+        case "range":
+            this.command = SingleCommand.singleCommand(RangeRestricted.class);
+            value = "500";
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown restriction " + this.restriction);
+        }
+
+        List<String> args = new ArrayList<>();
+        for (int i = 0; i < this.values; i++) {
+            args.add("--value");
+            args.add(value);
+        }
+        this.args = args.toArray(new String[args.size()]);
+    }
+
+    @TearDown
+    public void teardown() {
+        this.file.delete();
+    }
+
+    @Benchmark
+    public Object parse() {
+        return this.command.parse(this.args);
+    }
+}
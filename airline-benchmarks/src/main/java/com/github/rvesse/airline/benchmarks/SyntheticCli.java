@@ -0,0 +1,212 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.github.rvesse.airline.Accessor;
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.annotations.Group;
+import com.github.rvesse.airline.annotations.OptionType;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.help.sections.HelpSection;
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.model.ParserMetadata;
+import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
+import com.github.rvesse.airline.restrictions.GlobalRestriction;
+import com.github.rvesse.airline.restrictions.OptionRestriction;
+
+/**
+ * Generates CLI definitions of a configurable size directly as metadata so
+ * that benchmarks can show how costs scale with the size of a CLI
+ * <p>
+ * The generated CLI has {@code groups} groups named {@code group-N}, each
+ * containing {@code commandsPerGroup} commands named {@code command-N}. Every
+ * command has {@code optionsPerCommand} options named {@code --option-N}
+ * taking a single value plus arguments, and there are a handful of global
+ * options named {@code --global-N}. Optionally a chain of aliases
+ * {@code alias-0} through {@code alias-N} is defined where {@code alias-0}
+ * invokes the first command of the first group and each subsequent alias
+ * invokes the previous one.
+ * </p>
+ */
+public class SyntheticCli {
+
+    /**
+     * Number of global options in every synthetic CLI
+     */
+    public static final int GLOBAL_OPTIONS = 5;
+
+    private final int groups, commandsPerGroup, optionsPerCommand, aliasChain;
+    private final GlobalMetadata<SyntheticCommand> metadata;
+
+    /**
+     * Creates a new synthetic CLI
+     * 
+     * @param groups
+     *            Number of groups
+     * @param commandsPerGroup
+     *            Number of commands in each group
+     * @param optionsPerCommand
+     *            Number of options for each command
+     * @param aliasChain
+     *            Length of the alias chain, 0 for no aliases
+     * @param abbreviate
+     *            Whether command and option abbreviation are enabled
+     */
+    public SyntheticCli(int groups, int commandsPerGroup, int optionsPerCommand, int aliasChain, boolean abbreviate) {
+        if (groups < 1 || commandsPerGroup < 1)
+            throw new IllegalArgumentException("Must have at least one group and command");
+        this.groups = groups;
+        this.commandsPerGroup = commandsPerGroup;
+        this.optionsPerCommand = optionsPerCommand;
+        this.aliasChain = aliasChain;
+
+        ParserBuilder<SyntheticCommand> parser = new ParserBuilder<SyntheticCommand>();
+        if (abbreviate) {
+            parser = parser.withCommandAbbreviation().withOptionAbbreviation();
+        }
+        if (aliasChain > 0) {
+            parser = parser.withAliasesChaining();
+            parser = parser.withAlias("alias-0").withArguments(getGroupName(0), getCommandName(0)).parent();
+            for (int i = 1; i < aliasChain; i++) {
+                parser = parser.withAlias("alias-" + i).withArguments("alias-" + (i - 1)).parent();
+            }
+        }
+        this.metadata = createMetadata(parser.build());
+    }
+
+    private GlobalMetadata<SyntheticCommand> createMetadata(ParserMetadata<SyntheticCommand> parserConfig) {
+        List<Field> values = getField("values");
+        List<OptionMetadata> globalOptions = new ArrayList<>();
+        for (int i = 0; i < GLOBAL_OPTIONS; i++) {
+            globalOptions.add(createOption(OptionType.GLOBAL, "--global-" + i, values));
+        }
+        List<OptionMetadata> commandOptions = new ArrayList<>();
+        for (int i = 0; i < this.optionsPerCommand; i++) {
+            commandOptions.add(createOption(OptionType.COMMAND, getOptionName(i), values));
+        }
+        ArgumentsMetadata arguments = new ArgumentsMetadata(Collections.singletonList("arg"), "Arguments",
+                Collections.<ArgumentsRestriction> emptyList(), null, getField("arguments"));
+
+        List<CommandGroupMetadata> groupMetadata = new ArrayList<>();
+        for (int g = 0; g < this.groups; g++) {
+            List<CommandMetadata> commands = new ArrayList<>();
+            for (int c = 0; c < this.commandsPerGroup; c++) {
+                //@formatter:off
+                commands.add(new CommandMetadata(getCommandName(c), 
+                                                 "Synthetic command " + c, 
+                                                 false, 
+                                                 globalOptions,
+                                                 Collections.<OptionMetadata> emptyList(), 
+                                                 commandOptions, 
+                                                 null, 
+                                                 arguments,
+                                                 Collections.<Accessor> emptyList(), 
+                                                 SyntheticCommand.class,
+                                                 Collections.singletonList(getGroupName(g)), 
+                                                 Collections.<Group> emptyList(),
+                                                 Collections.<HelpSection> emptyList()));
+                //@formatter:on
+            }
+            groupMetadata.add(new CommandGroupMetadata(getGroupName(g), "Synthetic group " + g, false,
+                    Collections.<OptionMetadata> emptyList(), Collections.<CommandGroupMetadata> emptyList(), null,
+                    commands));
+        }
+
+        return new GlobalMetadata<SyntheticCommand>("synthetic", "Synthetic CLI for benchmarking", globalOptions,
+                null, Collections.<CommandMetadata> emptyList(), groupMetadata,
+                Collections.<GlobalRestriction> emptyList(), Collections.<HelpSection> emptyList(), parserConfig);
+    }
+
+    private static OptionMetadata createOption(OptionType type, String name, List<Field> path) {
+        return new OptionMetadata(type, Collections.singletonList(name), Collections.singletonList("value"),
+                "Synthetic option " + name, 1, false, false, false, Collections.<OptionRestriction> emptyList(), null,
+                path);
+    }
+
+    private static List<Field> getField(String name) {
+        try {
+            return Collections.singletonList(SyntheticCommand.class.getField(name));
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String getGroupName(int i) {
+        return "group-" + i;
+    }
+
+    static String getCommandName(int i) {
+        return "command-" + i;
+    }
+
+    static String getOptionName(int i) {
+        return "--option-" + i;
+    }
+
+    /**
+     * Gets the generated metadata
+     * 
+     * @return Metadata
+     */
+    public GlobalMetadata<SyntheticCommand> getMetadata() {
+        return this.metadata;
+    }
+
+    /**
+     * Creates a CLI from the generated metadata
+     * 
+     * @return CLI
+     */
+    public Cli<SyntheticCommand> createCli() {
+        return new Cli<SyntheticCommand>(this.metadata);
+    }
+
+    /**
+     * Creates arguments that invoke the last command of the last group, or the
+     * end of the alias chain if there is one, specifying every option once
+     * followed by the given number of arguments
+     * 
+     * @param arguments
+     *            Number of arguments
+     * @return Arguments
+     */
+    public String[] createArgs(int arguments) {
+        List<String> args = new ArrayList<>();
+        if (this.aliasChain > 0) {
+            args.add("alias-" + (this.aliasChain - 1));
+        } else {
+            args.add(getGroupName(this.groups - 1));
+            args.add(getCommandName(this.commandsPerGroup - 1));
+        }
+        for (int i = 0; i < this.optionsPerCommand; i++) {
+            args.add(getOptionName(i));
+            args.add("value" + i);
+        }
+        for (int i = 0; i < arguments; i++) {
+            args.add("arg" + i);
+        }
+        return args.toArray(new String[args.size()]);
+    }
+}
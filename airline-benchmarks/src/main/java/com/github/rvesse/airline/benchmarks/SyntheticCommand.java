@@ -0,0 +1,29 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.util.List;
+
+/**
+ * Command class used by all commands of a {@link SyntheticCli}, every synthetic
+ * option writes into {@link #values} and arguments into {@link #arguments}
+ */
+public class SyntheticCommand {
+
+    public List<String> values;
+
+    public List<String> arguments;
+}
@@ -17,13 +17,20 @@ package com.github.rvesse.airline;
 
 import com.github.rvesse.airline.parser.ParserUtil;
 import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.types.PrimitiveBuffer;
+import com.github.rvesse.airline.types.PrimitiveValues;
 import com.github.rvesse.airline.utils.AirlineUtils;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
+import java.lang.reflect.UndeclaredThrowableException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -34,7 +41,6 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
-import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.IteratorUtils;
 import org.apache.commons.collections4.ListUtils;
 
@@ -44,6 +50,22 @@ public class Accessor
     private final Class<?> javaType;
     private final List<Field> path;
     private boolean multiValued;
+    /**
+     * Whether the field is an {@link Iterator} which is bound to an iterator
+     * over its values rather than having its values added to it
+     */
+    private final boolean iterator;
+    /**
+     * Whether the field is a primitive array which is set to a new array of
+     * its values
+     */
+    private final boolean array;
+    /**
+     * Getters and setters for each field of the path resolved once up front,
+     * {@code null} if they could not be resolved in which case we fall back to
+     * plain reflection
+     */
+    private final MethodHandle[] getters, setters;
 
     public Accessor(Field... path)
     {
@@ -74,8 +96,81 @@ public class Accessor
         this.name = nameBuilder.toString();
 
         Field field = this.path.get(this.path.size() - 1);
-        multiValued = Collection.class.isAssignableFrom(field.getType());
+        iterator = Iterator.class.equals(field.getType());
+        array = field.getType().isArray() && PrimitiveBuffer.isSupported(field.getType().getComponentType());
+        multiValued = iterator || array || Collection.class.isAssignableFrom(field.getType());
         javaType = getItemType(name, field.getGenericType());
+
+        MethodHandle[] getters = new MethodHandle[this.path.size()];
+        MethodHandle[] setters = new MethodHandle[this.path.size()];
+        if (resolveHandles(this.path, getters, setters)) {
+            this.getters = getters;
+            this.setters = setters;
+        } else {
+            this.getters = null;
+            this.setters = null;
+        }
+    }
+
+    private static boolean resolveHandles(List<Field> path, MethodHandle[] getters, MethodHandle[] setters) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodType getterType = MethodType.methodType(Object.class, Object.class);
+        MethodType setterType = MethodType.methodType(void.class, Object.class, Object.class);
+        try {
+            for (int i = 0; i < path.size(); i++) {
+                Field field = path.get(i);
+                field.setAccessible(true);
+                MethodHandle getter = lookup.unreflectGetter(field);
+                MethodHandle setter = lookup.unreflectSetter(field);
+                if (Modifier.isStatic(field.getModifiers())) {
+                    getter = MethodHandles.dropArguments(getter, 0, Object.class);
+                    setter = MethodHandles.dropArguments(setter, 0, Object.class);
+                }
+                getters[i] = getter.asType(getterType);
+                setters[i] = setter.asType(setterType);
+            }
+            return true;
+        } catch (IllegalAccessException | RuntimeException e) {
+            // e.g. final fields or fields in modules that are not open to us
+            return false;
+        }
+    }
+
+    private Object get(int index, Object instance) throws Exception {
+        if (getters == null)
+            return path.get(index).get(instance);
+        try {
+            return (Object) getters[index].invokeExact(instance);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    private void set(int index, Object instance, Object value) throws Exception {
+        if (setters == null) {
+            path.get(index).set(instance, value);
+            return;
+        }
+        try {
+            setters[index].invokeExact(instance, value);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    private String getPathName(int index) {
+        StringBuilder pathName = new StringBuilder();
+        for (Field intermediateField : path.subList(0, index + 1)) {
+            if (pathName.length() != 0) {
+                pathName.append(".");
+            }
+            pathName.append(intermediateField.getName());
+        }
+        return pathName.toString();
     }
 
     public String getName()
@@ -93,25 +188,42 @@ public class Accessor
         return multiValued;
     }
 
-    public Object getValue(Object instance)
+    /**
+     * Gets whether the field is an {@link Iterator}, such fields are set to an
+     * iterator over the values so values may be produced lazily as the
+     * iterator is consumed
+     * 
+     * @return True if an iterator field, false otherwise
+     */
+    public boolean isIterator()
     {
-        StringBuilder pathName = new StringBuilder();
-        for (Field intermediateField : path.subList(0, path.size() - 1)) {
-            if (pathName.length() != 0) {
-                pathName.append(".");
-            }
-            pathName.append(intermediateField.getName());
+        return iterator;
+    }
+
+    /**
+     * Gets whether the field is a primitive array e.g. {@code int[]}, such
+     * fields are set to a new array containing the values
+     * 
+     * @return True if an array field, false otherwise
+     */
+    public boolean isArray()
+    {
+        return array;
+    }
 
+    public Object getValue(Object instance)
+    {
+        for (int i = 0; i < path.size() - 1; i++) {
             try {
-                Object nextInstance = intermediateField.get(instance);
+                Object nextInstance = get(i, instance);
                 if (nextInstance == null) {
-                    nextInstance = ParserUtil.createInstance(intermediateField.getType());
-                    intermediateField.set(instance, nextInstance);
+                    nextInstance = ParserUtil.createInstance(path.get(i).getType());
+                    set(i, instance, nextInstance);
                 }
                 instance = nextInstance;
             }
             catch (Exception e) {
-                throw new ParseException(e, "Error getting value of %s", pathName);
+                throw new ParseException(e, "Error getting value of %s", getPathName(i));
             }
         }
         return instance;
@@ -131,18 +243,42 @@ public class Accessor
         // get the actual instance
         Object instance = getValue(commandInstance);
 
-        Field field = path.get(path.size() - 1);
-        field.setAccessible(true);
-        if (Collection.class.isAssignableFrom(field.getType())) {
-            Collection<Object> collection = getOrCreateCollectionField(name, instance, field);
-            CollectionUtils.addAll(collection, values);
+        int last = path.size() - 1;
+        if (iterator) {
+            try {
+                set(last, instance, values.iterator());
+            }
+            catch (Exception e) {
+                throw new ParseException(e, "Error setting %s for argument %s", path.get(last).getName(), name);
+            }
+        }
+        else if (array) {
+            try {
+                set(last, instance, toArray(values));
+            }
+            catch (ParseException e) {
+                throw e;
+            }
+            catch (Exception e) {
+                throw new ParseException(e, "Error setting %s for argument %s", path.get(last).getName(), name);
+            }
+        }
+        else if (multiValued) {
+            Collection<Object> collection = getOrCreateCollectionField(instance);
+            if (values instanceof Collection) {
+                collection.addAll((Collection<?>) values);
+            } else {
+                for (Object value : values) {
+                    collection.add(value);
+                }
+            }
         }
         else {
             try {
-                field.set(instance, AirlineUtils.last(values));
+                set(last, instance, AirlineUtils.last(values));
             }
             catch (Exception e) {
-                throw new ParseException(e, "Error setting %s for argument %s", field.getName(), name);
+                throw new ParseException(e, "Error setting %s for argument %s", path.get(last).getName(), name);
             }
         }
 
@@ -183,6 +319,21 @@ public class Accessor
     // Private reflection helper methods
     //
 
+    private Object toArray(Iterable<?> values)
+    {
+        // Values already held as primitives of the right type can be copied
+        // directly
+        if (values instanceof PrimitiveValues && javaType.equals(((PrimitiveValues) values).getPrimitiveType())) {
+            return ((PrimitiveValues) values).toPrimitiveArray();
+        }
+
+        PrimitiveBuffer buffer = new PrimitiveBuffer(javaType);
+        for (Object value : values) {
+            buffer.add(value);
+        }
+        return buffer.toPrimitiveArray();
+    }
+
     @SuppressWarnings({ "unchecked", "rawtypes" })
     private static Collection<Object> newCollection(Class<?> type)
     {
@@ -206,11 +357,13 @@ public class Accessor
     }
 
     @SuppressWarnings("unchecked")
-    private static Collection<Object> getOrCreateCollectionField(String name, Object object, Field field)
+    private Collection<Object> getOrCreateCollectionField(Object object)
     {
+        int last = path.size() - 1;
+        Field field = path.get(last);
         Collection<Object> collection;
         try {
-            collection = (Collection<Object>) field.get(object);
+            collection = (Collection<Object>) get(last, object);
         }
         catch (Exception e) {
             throw new ParseException(e, "Error getting collection field %s for argument %s", field.getName(), name);
@@ -219,7 +372,7 @@ public class Accessor
         if (collection == null) {
             collection = newCollection(field.getType());
             try {
-                field.set(object, collection);
+                set(last, object, collection);
             }
             catch (Exception e) {
                 throw new ParseException(e, "Error setting collection field %s for argument %s", field.getName(), name);
@@ -235,6 +388,18 @@ public class Accessor
             throw new ParseException("Type of option %s be an exact type", name);
         }
 
+        if (Iterator.class.equals(rawClass)) {
+            Type[] types = getTypeParameters(Iterator.class, type);
+            if ((types == null) || (types.length != 1) || !(types[0] instanceof Class)) {
+                throw new ParseException("Iterator type option %s must be an exact type", name);
+            }
+            return (Class<?>) types[0];
+        }
+
+        if (rawClass.isArray() && PrimitiveBuffer.isSupported(rawClass.getComponentType())) {
+            return rawClass.getComponentType();
+        }
+
         if (!Collection.class.isAssignableFrom(rawClass)) {
             return rawClass;
         }
@@ -100,6 +100,16 @@ public class Cli<C> {
         return metadata;
     }
 
+    /**
+     * Compiles the CLI into a form that is optimised for parsing many command
+     * lines and may be safely shared between threads
+     * 
+     * @return Compiled CLI
+     */
+    public CompiledCli<C> compile() {
+        return CompiledCli.compile(metadata);
+    }
+
     /**
      * Parses the arguments to produce a command instance, this may be
      * {@code null} if the arguments don't identify a command and there was no
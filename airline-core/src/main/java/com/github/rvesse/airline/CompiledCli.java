@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline;
+
+import java.util.Arrays;
+
+import org.apache.commons.collections4.ListUtils;
+
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.command.CliParser;
+
+/**
+ * A reusable and thread safe form of a {@link Cli} intended for long running
+ * hosts that parse many command lines
+ * <p>
+ * All the work that does not depend upon the arguments being parsed, such as
+ * building the command, group and option indexes and resolving type
+ * conversion strategies, is done once when the CLI is compiled. Each parse
+ * then only allocates state for that invocation, and a single instance may be
+ * used for concurrent parses from many threads without any locking.
+ * </p>
+ * <p>
+ * Concurrent use requires that any custom error handler, type converter,
+ * command factory or restrictions in use are themselves thread safe, all the
+ * built-in implementations are.
+ * </p>
+ *
+ * @param <C>
+ *            Command type
+ */
+public final class CompiledCli<C> {
+
+    private final GlobalMetadata<C> metadata;
+    private final CliParser<C> parser = new CliParser<C>();
+
+    private CompiledCli(GlobalMetadata<C> metadata) {
+        if (metadata == null)
+            throw new NullPointerException("metadata cannot be null");
+        this.metadata = metadata;
+
+        // Do all the one-time preparation now
+        for (CommandMetadata command : metadata.getDefaultGroupCommands()) {
+            CompiledCommand.prepare(metadata.getParserConfiguration(), command);
+        }
+        if (metadata.getDefaultCommand() != null) {
+            CompiledCommand.prepare(metadata.getParserConfiguration(), metadata.getDefaultCommand());
+        }
+        metadata.findDefaultGroupCommand("", false);
+        for (CommandGroupMetadata group : metadata.getCommandGroups()) {
+            prepare(group);
+        }
+    }
+
+    private void prepare(CommandGroupMetadata group) {
+        this.metadata.getGroupScopeOptions(group);
+        group.findCommand("", false);
+        group.findSubGroup("", false);
+        for (CommandMetadata command : group.getCommands()) {
+            CompiledCommand.prepare(this.metadata.getParserConfiguration(), command);
+        }
+        for (CommandGroupMetadata subGroup : group.getSubGroups()) {
+            prepare(subGroup);
+        }
+    }
+
+    /**
+     * Compiles a CLI
+     * 
+     * @param metadata
+     *            CLI metadata
+     * @param <C>
+     *            Command type
+     * @return Compiled CLI
+     */
+    public static <C> CompiledCli<C> compile(GlobalMetadata<C> metadata) {
+        return new CompiledCli<C>(metadata);
+    }
+
+    /**
+     * Gets the global meta-data
+     * 
+     * @return Meta-data
+     */
+    public GlobalMetadata<C> getMetadata() {
+        return this.metadata;
+    }
+
+    /**
+     * Parses the arguments to produce a command instance, this may be
+     * {@code null} if the arguments don't identify a command and there was no
+     * appropriate default command configured
+     * 
+     * @param args
+     *            Arguments
+     * @return Command instance
+     */
+    public C parse(String... args) {
+        return parse(ListUtils.unmodifiableList(Arrays.asList(args)));
+    }
+
+    /**
+     * Parses the arguments to produce a command instance, this may be
+     * {@code null} if the arguments don't identify a command and there was no
+     * appropriate default command configured
+     * 
+     * @param args
+     *            Arguments
+     * @return Command instance
+     */
+    public C parse(Iterable<String> args) {
+        return this.parser.parse(this.metadata, args);
+    }
+
+    /**
+     * Parses the arguments to produce a result. The result can be inspected to
+     * see errors (assuming a suitable error handler was used e.g.
+     * {@code CollectAll}) and to get a command instance. This may be
+     * {@code null} if the arguments don't identify a command and there was no
+     * appropriate default command configured
+     * 
+     * @param args
+     *            Arguments
+     * @return Parse result
+     */
+    public ParseResult<C> parseWithResult(String... args) {
+        return parseWithResult(Arrays.asList(args));
+    }
+
+    /**
+     * Parses the arguments to produce a result. The result can be inspected to
+     * see errors (assuming a suitable error handler was used e.g.
+     * {@code CollectAll}) and to get a command instance. This may be
+     * {@code null} if the arguments don't identify a command and there was no
+     * appropriate default command configured
+     * 
+     * @param args
+     *            Arguments
+     * @return Parse result
+     */
+    public ParseResult<C> parseWithResult(Iterable<String> args) {
+        return this.parser.parseWithResult(this.metadata, args);
+    }
+}
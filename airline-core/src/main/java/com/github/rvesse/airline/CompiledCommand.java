@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.model.ParserMetadata;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.command.SingleCommandParser;
+import com.github.rvesse.airline.restrictions.GlobalRestriction;
+import com.github.rvesse.airline.types.DefaultTypeConverter;
+import com.github.rvesse.airline.utils.AirlineUtils;
+
+/**
+ * A reusable and thread safe form of a {@link SingleCommand} intended for long
+ * running hosts that parse many command lines
+ * <p>
+ * See {@link CompiledCli} for details of what is done up front and the thread
+ * safety guarantees.
+ * </p>
+ *
+ * @param <C>
+ *            Command type
+ */
+public final class CompiledCommand<C> {
+
+    private final ParserMetadata<C> parserConfig;
+    private final CommandMetadata commandMetadata;
+    private final List<GlobalRestriction> restrictions;
+    private final SingleCommandParser<C> parser = new SingleCommandParser<C>();
+
+    CompiledCommand(ParserMetadata<C> parserConfig, CommandMetadata commandMetadata,
+            List<GlobalRestriction> restrictions) {
+        if (parserConfig == null)
+            throw new NullPointerException("parserConfig cannot be null");
+        if (commandMetadata == null)
+            throw new NullPointerException("commandMetadata cannot be null");
+        this.parserConfig = parserConfig;
+        this.commandMetadata = commandMetadata;
+        this.restrictions = AirlineUtils.unmodifiableListCopy(restrictions);
+
+        prepare(parserConfig, commandMetadata);
+    }
+
+    /**
+     * Does the one-time preparation for parsing a command
+     * 
+     * @param parserConfig
+     *            Parser configuration
+     * @param command
+     *            Command
+     */
+    static void prepare(ParserMetadata<?> parserConfig, CommandMetadata command) {
+        if (!(parserConfig.getTypeConverter() instanceof DefaultTypeConverter))
+            return;
+
+        // Resolve the conversion strategies for all the types we may need to
+        // convert to
+        for (OptionMetadata option : command.getAllOptions()) {
+            DefaultTypeConverter.prepare(option.getJavaType());
+        }
+        ArgumentsMetadata arguments = command.getArguments();
+        if (arguments != null) {
+            DefaultTypeConverter.prepare(arguments.getJavaType());
+        }
+    }
+
+    /**
+     * Gets the command meta-data
+     * 
+     * @return Command meta-data
+     */
+    public CommandMetadata getCommandMetadata() {
+        return this.commandMetadata;
+    }
+
+    /**
+     * Gets the parser configuration
+     * 
+     * @return Parser configuration
+     */
+    public ParserMetadata<C> getParserConfiguration() {
+        return this.parserConfig;
+    }
+
+    /**
+     * Parses the arguments to produce a command instance
+     * 
+     * @param args
+     *            Arguments
+     * @return Command instance
+     */
+    public C parse(String... args) {
+        return parse(Arrays.asList(args));
+    }
+
+    /**
+     * Parses the arguments to produce a command instance
+     * 
+     * @param args
+     *            Arguments
+     * @return Command instance
+     */
+    public C parse(Iterable<String> args) {
+        return this.parser.parse(this.parserConfig, this.commandMetadata, this.restrictions, args);
+    }
+
+    /**
+     * Parses the arguments to produce a result. The result can be inspected to
+     * see errors (assuming a suitable error handler was used e.g.
+     * {@code CollectAll}) and to get a command instance
+     * 
+     * @param args
+     *            Arguments
+     * @return Parse result
+     */
+    public ParseResult<C> parseWithResult(String... args) {
+        return parseWithResult(Arrays.asList(args));
+    }
+
+    /**
+     * Parses the arguments to produce a result. The result can be inspected to
+     * see errors (assuming a suitable error handler was used e.g.
+     * {@code CollectAll}) and to get a command instance
+     * 
+     * @param args
+     *            Arguments
+     * @return Parse result
+     */
+    public ParseResult<C> parseWithResult(Iterable<String> args) {
+        return this.parser.parseWithResult(this.parserConfig, this.commandMetadata, this.restrictions, args);
+    }
+}
@@ -125,6 +125,16 @@ public class SingleCommand<C> {
         return parserConfig;
     }
 
+    /**
+     * Compiles the command into a form that is optimised for parsing many
+     * command lines and may be safely shared between threads
+     * 
+     * @return Compiled command
+     */
+    public CompiledCommand<C> compile() {
+        return new CompiledCommand<C>(parserConfig, commandMetadata, restrictions);
+    }
+
     /**
      * Parses the arguments to produce a command instance
      * 
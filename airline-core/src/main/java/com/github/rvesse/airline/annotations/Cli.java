@@ -94,4 +94,18 @@ public @interface Cli {
      * @return True if default restrictions are applied, false otherwise
      */
     boolean includeDefaultRestrictions() default true;
+
+    /**
+     * Sets whether commands are loaded lazily
+     * <p>
+     * When enabled only the {@code @Command} annotation and the global and
+     * group scoped options of each command are loaded when the CLI is created,
+     * the remainder of each command's meta-data is loaded the first time it is
+     * needed e.g. when the command is parsed or help is requested for it. This
+     * reduces the start up cost of CLIs with many commands.
+     * </p>
+     * 
+     * @return True if commands are loaded lazily, false otherwise
+     */
+    boolean lazyCommands() default false;
 }
@@ -28,6 +28,8 @@ import com.github.rvesse.airline.SingleCommand;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.errors.handlers.FailFast;
 import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
+import com.github.rvesse.airline.parser.instrumentation.NoopParseListener;
+import com.github.rvesse.airline.parser.instrumentation.ParseListener;
 import com.github.rvesse.airline.parser.options.OptionParser;
 import com.github.rvesse.airline.parser.resources.ResourceLocator;
 import com.github.rvesse.airline.types.DefaultTypeConverter;
@@ -247,6 +249,29 @@ public @interface Parser {
      */
     Class<? extends ParserErrorHandler> errorHandler() default FailFast.class;
 
+    /**
+     * Sets whether parse errors should be lightweight
+     * <p>
+     * Lightweight errors do not capture stack traces and only format their
+     * messages when they are first requested, this is useful in conjunction
+     * with a collecting {@link #errorHandler()} when parsing input that may
+     * produce many errors.
+     * </p>
+     * 
+     * @return True if lightweight errors should be used, false otherwise
+     */
+    boolean lightweightErrors() default false;
+
+    /**
+     * Sets the parse listener to use, this receives instrumentation events
+     * from the parser such as the start and end of each parse phase and counts
+     * of tokens read and values converted. Defaults to
+     * {@code NoopParseListener} which ignores all events.
+     * 
+     * @return Parse listener class
+     */
+    Class<? extends ParseListener> parseListener() default NoopParseListener.class;
+
     /**
      * Sets the flag negation prefix
      * <p>
@@ -261,4 +286,19 @@ public @interface Parser {
      * @return Flag negation prefix
      */
     String flagNegationPrefix() default "";
+
+    /**
+     * Sets the argument file prefix
+     * <p>
+     * If set any token that begins with this prefix, conventionally {@code @},
+     * is treated as the path to an argument file whose contents are expanded
+     * in place of the token. Argument files are tokenized using the same
+     * quoting rules as alias definitions and are read lazily. A token that
+     * begins with the prefix twice is passed through with the first prefix
+     * removed.
+     * </p>
+     * 
+     * @return Argument file prefix
+     */
+    String argumentFilePrefix() default "";
 }
@@ -56,4 +56,17 @@ public @interface File {
      * @return True if must be executable, false otherwise
      */
     public boolean executable() default false;
+
+    /**
+     * Gets/Sets whether argument values are checked in parallel once all the
+     * arguments have been parsed rather than as each is parsed
+     * <p>
+     * This can significantly speed up validation when large numbers of paths
+     * on high latency file systems, e.g. network file systems, are given.
+     * This has no effect on options.
+     * </p>
+     * 
+     * @return True if checked in parallel, false otherwise
+     */
+    public boolean parallel() default false;
 }
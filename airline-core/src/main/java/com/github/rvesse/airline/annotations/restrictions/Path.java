@@ -63,4 +63,17 @@ public @interface Path {
      * @return Expected file kind
      */
     public PathKind kind() default PathKind.ANY;
+
+    /**
+     * Gets/Sets whether argument values are checked in parallel once all the
+     * arguments have been parsed rather than as each is parsed
+     * <p>
+     * This can significantly speed up validation when large numbers of paths
+     * on high latency file systems, e.g. network file systems, are given.
+     * This has no effect on options.
+     * </p>
+     * 
+     * @return True if checked in parallel, false otherwise
+     */
+    public boolean parallel() default false;
 }
@@ -54,6 +54,7 @@ public class CliBuilder<C> extends AbstractBuilder<Cli<C>> {
     protected final List<GlobalRestriction> restrictions = new ArrayList<>();
     protected final ParserBuilder<C> parserBuilder = new ParserBuilder<C>();
     protected final Map<String, HelpSection> baseHelpSections = new HashMap<>();
+    protected boolean lazyCommands = false;
 
     public CliBuilder(String name) {
         checkNotBlank(name, "Program name");
@@ -140,6 +141,35 @@ public class CliBuilder<C> extends AbstractBuilder<Cli<C>> {
         return withDefaultRestrictions();
     }
 
+    /**
+     * Sets that commands should be loaded lazily
+     * 
+     * @return Builder
+     * @see #withLazyCommands(boolean)
+     */
+    public CliBuilder<C> withLazyCommands() {
+        return withLazyCommands(true);
+    }
+
+    /**
+     * Sets whether commands should be loaded lazily
+     * <p>
+     * When enabled only the {@code @Command} annotation and the global and
+     * group scoped options of each command are loaded when the CLI is built,
+     * the remainder of each command's meta-data is loaded the first time it is
+     * needed e.g. when the command is parsed or help is requested for it.
+     * Commands are loaded eagerly by default.
+     * </p>
+     * 
+     * @param lazy
+     *            Whether commands are loaded lazily
+     * @return Builder
+     */
+    public CliBuilder<C> withLazyCommands(boolean lazy) {
+        this.lazyCommands = lazy;
+        return this;
+    }
+
     public ParserBuilder<C> withParser() {
         return parserBuilder;
     }
@@ -156,11 +186,11 @@ public class CliBuilder<C> extends AbstractBuilder<Cli<C>> {
         CommandMetadata defaultCommandMetadata = null;
         List<CommandMetadata> allCommands = new ArrayList<CommandMetadata>();
         if (defaultCommand != null) {
-            defaultCommandMetadata = MetadataLoader.loadCommand(defaultCommand, baseHelpSections);
+            defaultCommandMetadata = MetadataLoader.loadCommand(defaultCommand, baseHelpSections, lazyCommands);
         }
 
         List<CommandMetadata> defaultCommandGroup = defaultCommandGroupCommands != null
-                ? MetadataLoader.loadCommands(defaultCommandGroupCommands, baseHelpSections)
+                ? MetadataLoader.loadCommands(defaultCommandGroupCommands, baseHelpSections, lazyCommands)
                 : new ArrayList<CommandMetadata>();
 
         allCommands.addAll(defaultCommandGroup);
@@ -202,7 +232,7 @@ public class CliBuilder<C> extends AbstractBuilder<Cli<C>> {
         // rather than change the entire way metadata is loaded, I figured just
         // post-processing was an easier, yet uglier, way to go
         MetadataLoader.loadCommandsIntoGroupsByAnnotation(allCommands, commandGroups, defaultCommandGroup,
-                baseHelpSections);
+                baseHelpSections, lazyCommands);
 
         // Build restrictions
         // Use defaults if none specified
@@ -144,8 +144,11 @@ public class GroupBuilder<C> extends AbstractChildBuilder<CommandGroupMetadata,
 
     @Override
     public CommandGroupMetadata build() {
-        CommandMetadata groupDefault = MetadataLoader.loadCommand(defaultCommand, this.parent().baseHelpSections);
-        List<CommandMetadata> groupCommands = MetadataLoader.loadCommands(commands, this.parent().baseHelpSections);
+        boolean lazy = this.parent().lazyCommands;
+        CommandMetadata groupDefault = MetadataLoader.loadCommand(defaultCommand, this.parent().baseHelpSections,
+                lazy);
+        List<CommandMetadata> groupCommands = MetadataLoader.loadCommands(commands, this.parent().baseHelpSections,
+                lazy);
         List<CommandGroupMetadata> subGroups = new ArrayList<CommandGroupMetadata>();
         for (GroupBuilder<C> builder : this.subGroups.values()) {
             subGroups.add(builder.build());
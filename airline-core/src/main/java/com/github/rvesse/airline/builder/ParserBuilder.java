@@ -25,7 +25,10 @@ import com.github.rvesse.airline.DefaultCommandFactory;
 import com.github.rvesse.airline.model.AliasMetadata;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.aliases.UserAliasesSource;
+import com.github.rvesse.airline.parser.errors.handlers.CollectAll;
 import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
+import com.github.rvesse.airline.parser.instrumentation.HistogramParseListener;
+import com.github.rvesse.airline.parser.instrumentation.ParseListener;
 import com.github.rvesse.airline.parser.options.ClassicGetOptParser;
 import com.github.rvesse.airline.parser.options.LongGetOptParser;
 import com.github.rvesse.airline.parser.options.OptionParser;
@@ -51,9 +54,11 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
     protected boolean allowAbbreviatedCommands, allowAbbreviatedOptions, aliasesOverrideBuiltIns, aliasesMayChain;
     private char forceBuiltInPrefix = '!';
     protected final List<OptionParser<C>> optionParsers = new ArrayList<>();
-    protected String argsSeparator, flagNegationPrefix;
+    protected String argsSeparator, flagNegationPrefix, argumentFilePrefix;
     protected UserAliasSourceBuilder<C> userAliasesBuilder = new UserAliasSourceBuilder<>(this);
     protected ParserErrorHandler errorHandler;
+    protected boolean lightweightErrors = false;
+    protected ParseListener parseListener;
 
     /**
      * Gets the default configuration
@@ -452,6 +457,66 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
         return this;
     }
 
+    /**
+     * Sets that parse errors should be lightweight
+     * 
+     * @return Builder
+     * @see #withLightweightErrors(boolean)
+     */
+    public ParserBuilder<C> withLightweightErrors() {
+        return withLightweightErrors(true);
+    }
+
+    /**
+     * Sets whether parse errors should be lightweight
+     * <p>
+     * Lightweight errors do not capture stack traces and only format their
+     * messages when they are first requested. This greatly reduces the cost of
+     * errors when using a collecting error handler, e.g. {@link CollectAll},
+     * on input that produces many errors. Lightweight errors are disabled by
+     * default.
+     * </p>
+     * 
+     * @param lightweight
+     *            Whether errors should be lightweight
+     * @return Builder
+     */
+    public ParserBuilder<C> withLightweightErrors(boolean lightweight) {
+        this.lightweightErrors = lightweight;
+        return this;
+    }
+
+    /**
+     * Sets the parse listener that receives instrumentation events from the
+     * parser
+     * <p>
+     * The listener receives the start and end of each parse phase plus counts
+     * of events such as tokens read and values converted, see
+     * {@link HistogramParseListener} for an implementation that records these
+     * in-memory. Listeners may be shared by concurrent parses so must be
+     * thread-safe.
+     * </p>
+     * 
+     * @param listener
+     *            Parse listener
+     * @return Builder
+     */
+    public ParserBuilder<C> withParseListener(ParseListener listener) {
+        this.parseListener = listener;
+        return this;
+    }
+
+    /**
+     * Sets that the default parse listener should be used, the default
+     * listener ignores all events
+     * 
+     * @return Builder
+     */
+    public ParserBuilder<C> withDefaultParseListener() {
+        this.parseListener = null;
+        return this;
+    }
+
     /**
      * Configures the CLI to use the given option parser
      * <p>
@@ -565,6 +630,37 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
         return this;
     }
 
+    /**
+     * Enables argument files using the conventional {@code @} prefix
+     * 
+     * @return Builder
+     * @see #withArgumentFilePrefix(String)
+     */
+    public ParserBuilder<C> withArgumentFiles() {
+        return withArgumentFilePrefix("@");
+    }
+
+    /**
+     * Sets the argument file prefix, when set any token that starts with this
+     * prefix is treated as a reference to a file whose contents are expanded
+     * in place of the token. This is useful when the number of arguments
+     * exceeds what the operating system permits on a command line.
+     * <p>
+     * Argument files are tokenized using the same quoting rules as alias
+     * definitions and are read lazily as parsing proceeds. A token that starts
+     * with the prefix twice is passed through with the first prefix removed.
+     * Argument files are disabled by default.
+     * </p>
+     * 
+     * @param prefix
+     *            Argument file prefix, {@code null} or empty to disable
+     * @return Builder
+     */
+    public ParserBuilder<C> withArgumentFilePrefix(String prefix) {
+        this.argumentFilePrefix = prefix;
+        return this;
+    }
+
     @Override
     public ParserMetadata<C> build() {
         // Ensure we have some option parsers if none configured
@@ -575,13 +671,11 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
         // Load user aliases
         // These may override explicitly defined aliases
         UserAliasesSource<C> userAliases = null;
+        List<AliasMetadata> userAliasData = null;
         if (this.userAliasesBuilder.isBuildable()) {
             try {
                 userAliases = this.userAliasesBuilder.build();
-                for (AliasMetadata alias : userAliases.load()) {
-                    aliases.put(alias.getName(), new AliasBuilder<C>(this, alias.getName())
-                            .withArguments(alias.getArguments().toArray(new String[alias.getArguments().size()])));
-                }
+                userAliasData = userAliases.getCachedAliases();
             } catch (IOException e) {
                 throw new IllegalStateException("Failed to load user aliases", e);
             }
@@ -604,7 +698,8 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
         typeConverter.setNumericConverter(this.numericTypeConverter);
 
         return new ParserMetadata<C>(commandFactory, optionParsers, typeConverter, errorHandler,
-                allowAbbreviatedCommands, allowAbbreviatedOptions, aliasData, userAliases, aliasesOverrideBuiltIns,
-                aliasesMayChain, forceBuiltInPrefix, argsSeparator, flagNegationPrefix);
+                allowAbbreviatedCommands, allowAbbreviatedOptions, aliasData, userAliases, userAliasData,
+                aliasesOverrideBuiltIns, aliasesMayChain, forceBuiltInPrefix, argsSeparator, flagNegationPrefix,
+                argumentFilePrefix, lightweightErrors, parseListener);
     }
 }
\ No newline at end of file
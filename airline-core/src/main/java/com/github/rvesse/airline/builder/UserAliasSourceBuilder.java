@@ -16,6 +16,7 @@
 
 package com.github.rvesse.airline.builder;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -38,6 +39,7 @@ public class UserAliasSourceBuilder<C> extends AbstractChildBuilder<UserAliasesS
     private List<String> searchLocations = new ArrayList<>();
     private String filename, prefix;
     private List<ResourceLocator> locators = new ArrayList<>();
+    private boolean reloadable, watch;
     
     public UserAliasSourceBuilder(ParserBuilder<C> parserBuilder) {
         super(parserBuilder);
@@ -99,6 +101,32 @@ public class UserAliasSourceBuilder<C> extends AbstractChildBuilder<UserAliasesS
         return this;
     }
     
+    /**
+     * Indicates that the user aliases should be reloadable i.e. parsers
+     * should reflect changes to the alias files made after the parser was
+     * built. Changes are detected by checking the last modified time and size
+     * of the alias files.
+     * 
+     * @return Builder
+     */
+    public UserAliasSourceBuilder<C> withReloading() {
+        this.reloadable = true;
+        return this;
+    }
+
+    /**
+     * Indicates that the user aliases should be reloadable and that the alias
+     * files should be watched for changes by a background thread so changes
+     * are picked up without the parser needing to check the files
+     * 
+     * @return Builder
+     */
+    public UserAliasSourceBuilder<C> withWatching() {
+        this.reloadable = true;
+        this.watch = true;
+        return this;
+    }
+
     public boolean isBuildable() {
         return this.filename != null && !this.searchLocations.isEmpty();
     }
@@ -111,7 +139,16 @@ public class UserAliasSourceBuilder<C> extends AbstractChildBuilder<UserAliasesS
         if (this.searchLocations.isEmpty()) {
             throw new IllegalStateException("Must specify at least one search location");
         }
-        return new UserAliasesSource<>(filename, prefix, locators.size() > 0 ? locators : null, searchLocations);
+        UserAliasesSource<C> source = new UserAliasesSource<>(filename, prefix,
+                locators.size() > 0 ? locators : null, searchLocations, reloadable);
+        if (watch) {
+            try {
+                source.watch();
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to watch user aliases", e);
+            }
+        }
+        return source;
     }
 
 }
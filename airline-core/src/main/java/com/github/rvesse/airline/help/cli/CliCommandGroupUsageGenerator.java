@@ -59,6 +59,22 @@ public class CliCommandGroupUsageGenerator<T> extends AbstractPrintedCommandGrou
         this.hideGlobalOptions = hideGlobalOptions;
     }
 
+    /**
+     * Output is only cacheable for this exact class, subclasses that wish to
+     * cache their output must override this to opt in
+     */
+    @Override
+    protected boolean isCacheable() {
+        return getClass() == CliCommandGroupUsageGenerator.class;
+    }
+
+    @Override
+    protected List<Object> getCacheKey(Object... parts) {
+        List<Object> key = super.getCacheKey(parts);
+        key.add(this.hideGlobalOptions);
+        return key;
+    }
+
     @Override
     protected void usage(GlobalMetadata<T> global, CommandGroupMetadata[] groups, UsagePrinter out) throws IOException {
         // Description and Name
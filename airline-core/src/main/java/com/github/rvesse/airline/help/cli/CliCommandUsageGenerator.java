@@ -57,6 +57,15 @@ public class CliCommandUsageGenerator extends AbstractPrintedCommandUsageGenerat
         helper = createHelper(optionComparator, includeHidden);
     }
 
+    /**
+     * Output is only cacheable for this exact class, subclasses that wish to
+     * cache their output must override this to opt in
+     */
+    @Override
+    protected boolean isCacheable() {
+        return getClass() == CliCommandUsageGenerator.class;
+    }
+
     protected CliUsageHelper createHelper(Comparator<? super OptionMetadata> optionComparator, boolean includeHidden) {
         return new CliUsageHelper(optionComparator, includeHidden);
     }
@@ -65,6 +65,13 @@ public abstract class AbstractCommandUsageGenerator extends AbstractUsageGenerat
         super(hintComparator, optionComparator, UsageHelper.DEFAULT_COMMAND_COMPARATOR, includeHidden);
         this.exitCodeComparator = exitCodeComparator;
     }
+
+    @Override
+    protected List<Object> getCacheKey(Object... parts) {
+        List<Object> key = super.getCacheKey(parts);
+        key.add(this.exitCodeComparator);
+        return key;
+    }
     
     @Override
     public <T> void usage(CommandMetadata command, ParserMetadata<T> parserConfig, OutputStream output) throws IOException {
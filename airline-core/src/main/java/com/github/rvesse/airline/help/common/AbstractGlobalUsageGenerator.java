@@ -62,6 +62,10 @@ public abstract class AbstractGlobalUsageGenerator<T> extends AbstractUsageGener
         usage(global, Channels.output());
     }
 
+    protected final Comparator<? super CommandGroupMetadata> getCommandGroupComparator() {
+        return this.commandGroupComparator;
+    }
+
     /**
      * Sorts the command groups assumign a non-null comparator was provided at
      * instantiation time
@@ -15,10 +15,13 @@
  */
 package com.github.rvesse.airline.help.common;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 
 import com.github.rvesse.airline.help.sections.HelpHint;
 import com.github.rvesse.airline.io.printers.UsagePrinter;
@@ -73,9 +76,25 @@ public abstract class AbstractPrintedCommandGroupUsageGenerator<T> extends Abstr
 
     @Override
     public void usage(GlobalMetadata<T> global, CommandGroupMetadata[] groups, OutputStream out) throws IOException {
-        UsagePrinter printer = createUsagePrinter(out);
-        usage(global, groups, printer);
-        printer.flush();
+        if (!isCacheable()) {
+            UsagePrinter printer = createUsagePrinter(out);
+            usage(global, groups, printer);
+            printer.flush();
+            return;
+        }
+
+        List<Object> key = getCacheKey(this.columnSize, Arrays.asList(groups));
+        byte[] output = UsageCache.get(global, key);
+        if (output == null) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            UsagePrinter printer = createUsagePrinter(buffer);
+            usage(global, groups, printer);
+            printer.flush();
+            output = buffer.toByteArray();
+            UsageCache.put(global, key, output);
+        }
+        out.write(output);
+        out.flush();
     }
 
 }
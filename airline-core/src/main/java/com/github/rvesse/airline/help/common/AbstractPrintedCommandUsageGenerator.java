@@ -15,10 +15,13 @@
  */
 package com.github.rvesse.airline.help.common;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 
 import com.github.rvesse.airline.io.printers.UsagePrinter;
 import com.github.rvesse.airline.model.CommandMetadata;
@@ -81,7 +84,29 @@ public abstract class AbstractPrintedCommandUsageGenerator extends AbstractComma
     @Override
     public <T> void usage(String programName, String[] groupNames, String commandName, CommandMetadata command,
             ParserMetadata<T> parserConfig, OutputStream out) throws IOException {
-        UsagePrinter printer = createUsagePrinter(out);
+        if (!isCacheable()) {
+            UsagePrinter printer = createUsagePrinter(out);
+            render(programName, groupNames, commandName, command, parserConfig, printer);
+            return;
+        }
+
+        // When no parser configuration is given it is always loaded from the
+        // command type so a null configuration is a valid part of the key
+        List<Object> key = getCacheKey(this.columnSize, programName,
+                groupNames != null ? Arrays.asList(groupNames) : null, commandName, parserConfig);
+        byte[] output = UsageCache.get(command, key);
+        if (output == null) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            render(programName, groupNames, commandName, command, parserConfig, createUsagePrinter(buffer));
+            output = buffer.toByteArray();
+            UsageCache.put(command, key, output);
+        }
+        out.write(output);
+        out.flush();
+    }
+
+    private <T> void render(String programName, String[] groupNames, String commandName, CommandMetadata command,
+            ParserMetadata<T> parserConfig, UsagePrinter printer) throws IOException {
         if (parserConfig == null) {
             parserConfig = MetadataLoader.loadParser(command.getType());
         }
@@ -63,6 +63,43 @@ public class AbstractUsageGenerator {
         return this.includeHidden;
     }
 
+    /**
+     * Gets whether the output of this generator may be cached, see
+     * {@link UsageCache}
+     * <p>
+     * Generators should only return true if their output is fully determined
+     * by their type, the configuration held by this class, their column width
+     * and the metadata they are rendering. Subclasses of cacheable generators
+     * that add further configuration affecting their output should override
+     * this to return false.
+     * </p>
+     * 
+     * @return True if cacheable, false otherwise
+     */
+    protected boolean isCacheable() {
+        return false;
+    }
+
+    /**
+     * Gets a key that identifies this generators configuration along with
+     * the given additional inputs to rendering for use with
+     * {@link UsageCache}
+     * 
+     * @param parts
+     *            Additional inputs to the rendering
+     * @return Cache key
+     */
+    protected List<Object> getCacheKey(Object... parts) {
+        List<Object> key = new ArrayList<>(parts.length + 5);
+        key.add(getClass());
+        key.add(this.includeHidden);
+        key.add(this.hintComparator);
+        key.add(this.optionComparator);
+        key.add(this.commandComparator);
+        Collections.addAll(key, parts);
+        return key;
+    }
+
     protected final Comparator<? super OptionMetadata> getOptionComparator() {
         return this.optionComparator;
     }
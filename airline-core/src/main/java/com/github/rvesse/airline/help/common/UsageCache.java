@@ -0,0 +1,103 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.common;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.collections4.map.AbstractReferenceMap.ReferenceStrength;
+import org.apache.commons.collections4.map.ReferenceIdentityMap;
+
+/**
+ * Cache of rendered usage output
+ * <p>
+ * Metadata is immutable so the output a generator produces for a given piece
+ * of metadata only depends upon the generator configuration, e.g. its type,
+ * column width and whether hidden options and commands are included. Printed
+ * usage generators that declare themselves cacheable use this to render each
+ * distinct help output once and thereafter copy the rendered bytes straight to
+ * the output stream.
+ * </p>
+ * <p>
+ * Entries are keyed on the identity of the metadata and are only weakly
+ * referenced so rendered output is discarded once its metadata is no longer in
+ * use.
+ * </p>
+ */
+public final class UsageCache {
+
+    /**
+     * Maximum number of distinct outputs cached for a single piece of metadata
+     */
+    private static final int MAX_ENTRIES_PER_METADATA = 64;
+
+    private static final Map<Object, ConcurrentMap<List<Object>, byte[]>> CACHE = Collections
+            .synchronizedMap(new ReferenceIdentityMap<Object, ConcurrentMap<List<Object>, byte[]>>(
+                    ReferenceStrength.WEAK, ReferenceStrength.HARD));
+
+    private UsageCache() {
+    }
+
+    /**
+     * Gets previously rendered output
+     * 
+     * @param metadata
+     *            Metadata the output was rendered from
+     * @param key
+     *            Key identifying the generator configuration and any other
+     *            inputs to the rendering
+     * @return Rendered output, {@code null} if not cached
+     */
+    public static byte[] get(Object metadata, List<Object> key) {
+        ConcurrentMap<List<Object>, byte[]> outputs = CACHE.get(metadata);
+        return outputs != null ? outputs.get(key) : null;
+    }
+
+    /**
+     * Caches rendered output
+     * 
+     * @param metadata
+     *            Metadata the output was rendered from
+     * @param key
+     *            Key identifying the generator configuration and any other
+     *            inputs to the rendering
+     * @param output
+     *            Rendered output
+     */
+    public static void put(Object metadata, List<Object> key, byte[] output) {
+        ConcurrentMap<List<Object>, byte[]> outputs;
+        synchronized (CACHE) {
+            outputs = CACHE.get(metadata);
+            if (outputs == null) {
+                outputs = new ConcurrentHashMap<>();
+                CACHE.put(metadata, outputs);
+            }
+        }
+        if (outputs.size() >= MAX_ENTRIES_PER_METADATA)
+            outputs.clear();
+        outputs.put(key, output);
+    }
+
+    /**
+     * Discards all cached output
+     */
+    public static void clear() {
+        CACHE.clear();
+    }
+}
@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.model.MetadataLoader;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.model.ParserMetadata;
@@ -30,6 +31,9 @@ import org.apache.commons.collections4.ListUtils;
 public class CommandSuggester
         implements Suggester
 {
+    @Inject
+    public GlobalMetadata<?> global;
+
     @Inject
     public CommandMetadata command;
 
@@ -42,8 +46,10 @@ public class CommandSuggester
         }
 
         if (command.getArguments() != null) {
-            // Include arguments separator
-            ParserMetadata<?> parserConfig = MetadataLoader.loadParser(command.getType());
+            // Include arguments separator, prefer the configuration of the CLI
+            // we are suggesting for over reloading it from the command type
+            ParserMetadata<?> parserConfig = global != null ? global.getParserConfiguration()
+                    : MetadataLoader.loadParser(command.getType());
             suggestions.add(parserConfig.getArgumentsSeparator());
         }
 
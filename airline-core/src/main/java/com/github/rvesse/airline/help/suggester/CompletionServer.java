@@ -0,0 +1,314 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.suggester;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.rvesse.airline.model.GlobalMetadata;
+
+/**
+ * A server that answers completion requests for a CLI
+ * <p>
+ * Generating completions by invoking a CLI requires starting a new JVM and
+ * loading the CLI metadata for every request. A completion server instead
+ * keeps the metadata for a CLI loaded and answers requests over a socket bound
+ * to the loopback interface, the bash completion scripts generated by
+ * {@code BashCompletionGenerator} may be configured to use such a server when
+ * it is running.
+ * </p>
+ * <p>
+ * The protocol is deliberately trivial so clients can be written with nothing
+ * more than shell redirections. A client connects and sends the arguments
+ * entered so far, one per line, followed by an empty line. The server responds
+ * with the suggestions, one per line, and then closes the connection. If no
+ * suggestions can be made, e.g. because the arguments could not be parsed,
+ * the response is empty.
+ * </p>
+ * <p>
+ * Since any local process may connect to, or bind first, a port on the
+ * loopback interface a server may be created with a token file. The server
+ * writes a pair of freshly generated tokens to this file, readable only by the
+ * current user where the file system permits. A client must then send the
+ * first token as the first line of its request, requests without it are
+ * ignored, and the server sends the second token as the first line of its
+ * response so that clients can verify they are talking to the genuine server
+ * and not one that has squatted the port.
+ * </p>
+ * <p>
+ * Each request is answered on its own thread so a slow or idle client does
+ * not delay requests from other clients.
+ * </p>
+ *
+ * @param <T>
+ *            Command type
+ */
+public class CompletionServer<T> implements Runnable, Closeable {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final int REQUEST_TIMEOUT = 1000;
+
+    private final GlobalMetadata<T> metadata;
+    private final ServerSocket socket;
+    private final File tokenFile;
+    private final String clientToken, serverToken;
+    private final ExecutorService executor;
+
+    /**
+     * Creates a new completion server bound to an ephemeral port on the
+     * loopback interface
+     * 
+     * @param metadata
+     *            Global metadata for the CLI to answer completion requests for
+     * @throws IOException
+     *             Thrown if the server cannot be bound
+     */
+    public CompletionServer(GlobalMetadata<T> metadata) throws IOException {
+        this(metadata, 0);
+    }
+
+    /**
+     * Creates a new completion server bound to the given port on the loopback
+     * interface
+     * 
+     * @param metadata
+     *            Global metadata for the CLI to answer completion requests for
+     * @param port
+     *            Port, zero to use an ephemeral port
+     * @throws IOException
+     *             Thrown if the server cannot be bound
+     */
+    public CompletionServer(GlobalMetadata<T> metadata, int port) throws IOException {
+        this(metadata, port, null);
+    }
+
+    /**
+     * Creates a new completion server bound to the given port on the loopback
+     * interface that authenticates requests using tokens written to the given
+     * file
+     * 
+     * @param metadata
+     *            Global metadata for the CLI to answer completion requests for
+     * @param port
+     *            Port, zero to use an ephemeral port
+     * @param tokenFile
+     *            File to write the tokens to, {@code null} to not authenticate
+     *            requests
+     * @throws IOException
+     *             Thrown if the server cannot be bound or the token file cannot
+     *             be written
+     */
+    public CompletionServer(GlobalMetadata<T> metadata, int port, File tokenFile) throws IOException {
+        if (metadata == null)
+            throw new NullPointerException("metadata cannot be null");
+        this.metadata = metadata;
+        this.tokenFile = tokenFile;
+        if (tokenFile != null) {
+            SecureRandom random = new SecureRandom();
+            this.clientToken = generateToken(random);
+            this.serverToken = generateToken(random);
+            writeTokens(tokenFile.toPath(), this.clientToken + " " + this.serverToken + "\n");
+        } else {
+            this.clientToken = null;
+            this.serverToken = null;
+        }
+        this.socket = new ServerSocket(port, 50, InetAddress.getByName(null));
+        this.executor = Executors.newCachedThreadPool(new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "airline-completion-request-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    private static String generateToken(SecureRandom random) {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        StringBuilder builder = new StringBuilder();
+        for (byte b : bytes) {
+            builder.append(String.format("%02x", b));
+        }
+        return builder.toString();
+    }
+
+    private static void writeTokens(Path path, String tokens) throws IOException {
+        // Create the file afresh so only the current user can read it
+        Files.deleteIfExists(path);
+        if (path.getParent() != null)
+            Files.createDirectories(path.getParent());
+        try {
+            Files.createFile(path, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } catch (UnsupportedOperationException e) {
+            Files.createFile(path);
+            File file = path.toFile();
+            file.setReadable(false, false);
+            file.setReadable(true, true);
+            file.setWritable(false, false);
+            file.setWritable(true, true);
+        }
+        Files.write(path, tokens.getBytes(UTF8));
+    }
+
+    /**
+     * Gets the file the tokens used to authenticate requests are written to
+     * 
+     * @return Token file, {@code null} if requests are not authenticated
+     */
+    public File getTokenFile() {
+        return this.tokenFile;
+    }
+
+    /**
+     * Gets the port the server is bound to
+     * 
+     * @return Port
+     */
+    public int getPort() {
+        return this.socket.getLocalPort();
+    }
+
+    /**
+     * Gets whether the server has been closed
+     * 
+     * @return True if closed, false otherwise
+     */
+    public boolean isClosed() {
+        return this.socket.isClosed();
+    }
+
+    /**
+     * Starts answering requests on a background daemon thread
+     * 
+     * @return Thread that is answering requests
+     */
+    public Thread start() {
+        Thread thread = new Thread(this, "airline-completion-server-" + getPort());
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Answers requests on the current thread until the server is closed
+     */
+    @Override
+    public void run() {
+        while (!this.socket.isClosed()) {
+            try {
+                final Socket client = this.socket.accept();
+                client.setSoTimeout(REQUEST_TIMEOUT);
+                try {
+                    this.executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            try (Socket c = client) {
+                                answer(c);
+                            } catch (IOException e) {
+                                // Problem with an individual client
+                            }
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    // Server is being closed
+                    client.close();
+                }
+            } catch (SocketException e) {
+                // Thrown when the server is closed
+                if (this.socket.isClosed())
+                    return;
+            } catch (IOException e) {
+                // Problem with an individual client, keep serving
+            }
+        }
+    }
+
+    private void answer(Socket client) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(client.getInputStream(), UTF8));
+        String line;
+        if (this.clientToken != null) {
+            // Ignore requests from clients that don't know the token
+            line = reader.readLine();
+            if (line == null || !MessageDigest.isEqual(line.getBytes(UTF8), this.clientToken.getBytes(UTF8)))
+                return;
+        }
+        List<String> arguments = new ArrayList<>();
+        while ((line = reader.readLine()) != null && !line.isEmpty()) {
+            arguments.add(line);
+        }
+
+        Writer writer = new OutputStreamWriter(client.getOutputStream(), UTF8);
+        if (this.serverToken != null)
+            writer.append(this.serverToken).append('\n');
+        for (String suggestion : suggest(arguments)) {
+            writer.append(suggestion).append('\n');
+        }
+        writer.flush();
+    }
+
+    /**
+     * Generates suggestions for the given arguments
+     * 
+     * @param arguments
+     *            Arguments entered so far
+     * @return Suggestions, empty if no suggestions can be made
+     */
+    public Iterable<String> suggest(List<String> arguments) {
+        try {
+            return SuggestCommand.generateSuggestions(this.metadata, arguments);
+        } catch (RuntimeException e) {
+            // Incomplete arguments may not be parseable in which case we
+            // have no suggestions and clients fall back to their own logic
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Stops the server
+     */
+    @Override
+    public void close() throws IOException {
+        this.socket.close();
+        this.executor.shutdownNow();
+        if (this.tokenFile != null)
+            Files.deleteIfExists(this.tokenFile.toPath());
+    }
+}
@@ -52,6 +52,14 @@ public class SuggestCommand<T> implements Runnable, Callable<Void> {
         BUILTIN_SUGGESTERS.put(Context.COMMAND, CommandSuggester.class);
     }
 
+    private static final ClassValue<SuggesterMetadata> SUGGESTER_METADATA = new ClassValue<SuggesterMetadata>() {
+        @SuppressWarnings("unchecked")
+        @Override
+        protected SuggesterMetadata computeValue(Class<?> type) {
+            return MetadataLoader.loadSuggester((Class<? extends Suggester>) type);
+        }
+    };
+
     @Inject
     public GlobalMetadata<T> metadata;
 
@@ -59,12 +67,32 @@ public class SuggestCommand<T> implements Runnable, Callable<Void> {
     public List<String> arguments = new ArrayList<>();
 
     public Iterable<String> generateSuggestions() {
+        return generateSuggestions(metadata, arguments);
+    }
+
+    /**
+     * Generates suggestions for the given arguments
+     * <p>
+     * Suggester metadata is loaded once per suggester class and then reused so
+     * this may be called repeatedly, e.g. by a {@link CompletionServer},
+     * without repeatedly reflecting over the suggesters.
+     * </p>
+     * 
+     * @param metadata
+     *            Global metadata for the CLI to generate suggestions for
+     * @param arguments
+     *            Arguments entered so far
+     * @param <T>
+     *            Command type
+     * @return Suggestions
+     */
+    public static <T> Iterable<String> generateSuggestions(GlobalMetadata<T> metadata, Iterable<String> arguments) {
         SuggestionParser<T> parser = new SuggestionParser<T>();
         ParseState<T> state = parser.parse(metadata, arguments);
 
         Class<? extends Suggester> suggesterClass = BUILTIN_SUGGESTERS.get(state.getLocation());
         if (suggesterClass != null) {
-            SuggesterMetadata suggesterMetadata = MetadataLoader.loadSuggester(suggesterClass);
+            SuggesterMetadata suggesterMetadata = SUGGESTER_METADATA.get(suggesterClass);
 
             if (suggesterMetadata != null) {
                 Map<Class<?>, Object> bindings = new HashMap<Class<?>, Object>();
@@ -17,6 +17,7 @@ package com.github.rvesse.airline.model;
 
 import com.github.rvesse.airline.Accessor;
 import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
+import com.github.rvesse.airline.restrictions.ArgumentsValidationPlan;
 import com.github.rvesse.airline.types.DefaultTypeConverterProvider;
 import com.github.rvesse.airline.types.TypeConverterProvider;
 import com.github.rvesse.airline.utils.AirlineUtils;
@@ -39,6 +40,7 @@ public class ArgumentsMetadata {
     private final String description;
     private final Set<Accessor> accessors;
     private final List<ArgumentsRestriction> restrictions;
+    private final ArgumentsValidationPlan validationPlan;
     private final TypeConverterProvider provider;
 
     //@formatter:off
@@ -59,6 +61,7 @@ public class ArgumentsMetadata {
         this.description = description;
         this.restrictions = restrictions != null ? AirlineUtils.unmodifiableListCopy(restrictions)
                 : Collections.<ArgumentsRestriction> emptyList();
+        this.validationPlan = new ArgumentsValidationPlan(this.restrictions);
         this.provider = typeConverterProvider != null ? typeConverterProvider : new DefaultTypeConverterProvider();
         this.accessors = SetUtils.unmodifiableSet(Collections.singleton(new Accessor(path)));
     }
@@ -74,6 +77,7 @@ public class ArgumentsMetadata {
         this.titles = first.titles;
         this.description = first.description;
         this.restrictions = first.restrictions;
+        this.validationPlan = first.validationPlan;
         this.provider = first.provider;
 
         Set<Accessor> accessors = new HashSet<>();
@@ -107,6 +111,26 @@ public class ArgumentsMetadata {
         return accessors.iterator().next().isMultiValued();
     }
 
+    /**
+     * Gets whether the arguments are lazily bound, this is the case when all
+     * the fields the arguments are bound to are {@link java.util.Iterator}
+     * fields
+     * <p>
+     * Lazy arguments are not converted and validated during parsing, rather
+     * each value is converted and validated as the iterator is consumed. Any
+     * conversion or validation error is thrown directly from the iterator.
+     * </p>
+     * 
+     * @return True if lazily bound, false otherwise
+     */
+    public boolean isLazy() {
+        for (Accessor accessor : accessors) {
+            if (!accessor.isIterator())
+                return false;
+        }
+        return true;
+    }
+
     public Class<?> getJavaType() {
         return accessors.iterator().next().getJavaType();
     }
@@ -114,6 +138,16 @@ public class ArgumentsMetadata {
     public List<ArgumentsRestriction> getRestrictions() {
         return this.restrictions;
     }
+
+    /**
+     * Gets the validation plan i.e. the restrictions that participate in each
+     * validation phase
+     * 
+     * @return Validation plan
+     */
+    public ArgumentsValidationPlan getValidationPlan() {
+        return this.validationPlan;
+    }
     
     public TypeConverterProvider getTypeConverterProvider() {
         return this.provider;
@@ -35,6 +35,8 @@ public class CommandGroupMetadata {
     private final List<CommandMetadata> commands;
     private final List<CommandGroupMetadata> subGroups;
     private CommandGroupMetadata parentGroup;
+    private volatile NameIndex<CommandMetadata> commandIndex;
+    private volatile NameIndex<CommandGroupMetadata> subGroupIndex;
 
     //@formatter:off
     public CommandGroupMetadata(String name, 
@@ -53,7 +55,7 @@ public class CommandGroupMetadata {
         this.name = name;
         this.description = description;
         this.hidden = hidden;
-        this.options = AirlineUtils.unmodifiableListCopy(options);
+        this.options = OptionIndex.of(options);
         this.subGroups = AirlineUtils.listCopy(subGroups);
         this.defaultCommand = defaultCommand;
         this.commands = AirlineUtils.listCopy(commands);
@@ -125,9 +127,29 @@ public class CommandGroupMetadata {
     public void addCommand(CommandMetadata command) {
         if (!commands.contains(command)) {
             commands.add(command);
+            this.commandIndex = null;
         }
     }
 
+    /**
+     * Finds the command with the given name within this group
+     * 
+     * @param name
+     *            Command name
+     * @param allowAbbreviations
+     *            Whether unambiguous abbreviations of command names are
+     *            permitted
+     * @return Command if found, {@code null} otherwise
+     */
+    public CommandMetadata findCommand(String name, boolean allowAbbreviations) {
+        NameIndex<CommandMetadata> index = this.commandIndex;
+        if (index == null) {
+            index = NameIndex.ofCommands(this.commands);
+            this.commandIndex = index;
+        }
+        return index.find(name, allowAbbreviations);
+    }
+
     /**
      * Gets the sub-groups of this group
      * 
@@ -146,7 +168,27 @@ public class CommandGroupMetadata {
     public void addSubGroup(CommandGroupMetadata subGroup) {
         if (!subGroups.contains(subGroup)) {
             subGroups.add(subGroup);
+            this.subGroupIndex = null;
+        }
+    }
+
+    /**
+     * Finds the sub-group with the given name within this group
+     * 
+     * @param name
+     *            Sub-group name
+     * @param allowAbbreviations
+     *            Whether unambiguous abbreviations of group names are
+     *            permitted
+     * @return Sub-group if found, {@code null} otherwise
+     */
+    public CommandGroupMetadata findSubGroup(String name, boolean allowAbbreviations) {
+        NameIndex<CommandGroupMetadata> index = this.subGroupIndex;
+        if (index == null) {
+            index = NameIndex.ofGroups(this.subGroups);
+            this.subGroupIndex = index;
         }
+        return index.find(name, allowAbbreviations);
     }
 
     /**
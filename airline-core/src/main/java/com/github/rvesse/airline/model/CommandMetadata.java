@@ -23,7 +23,6 @@ import com.github.rvesse.airline.utils.AirlineUtils;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.lang3.StringUtils;
 
 public class CommandMetadata {
@@ -33,6 +32,7 @@ public class CommandMetadata {
     private final List<OptionMetadata> globalOptions;
     private final List<OptionMetadata> groupOptions;
     private final List<OptionMetadata> commandOptions;
+    private final OptionIndex allOptions;
     private final OptionMetadata defaultOption;
     private final ArgumentsMetadata arguments;
     private final List<Accessor> metadataInjections;
@@ -67,6 +67,11 @@ public class CommandMetadata {
         this.globalOptions = AirlineUtils.unmodifiableListCopy(globalOptions);
         this.groupOptions = AirlineUtils.unmodifiableListCopy(groupOptions);
         this.commandOptions = AirlineUtils.unmodifiableListCopy(commandOptions);
+        List<OptionMetadata> allOptions = new ArrayList<OptionMetadata>();
+        allOptions.addAll(this.globalOptions);
+        allOptions.addAll(this.groupOptions);
+        allOptions.addAll(this.commandOptions);
+        this.allOptions = OptionIndex.of(allOptions);
         this.defaultOption = defaultOption;
         this.arguments = arguments;
 
@@ -82,6 +87,47 @@ public class CommandMetadata {
         this.sections = AirlineUtils.unmodifiableListCopy(sections);
     }
 
+    /**
+     * Creates a command descriptor that carries only the name, description,
+     * hidden flag, type and group information of a command, used by
+     * {@link LazyCommandMetadata} which must override all other accessors
+     * 
+     * @param name
+     *            Name
+     * @param description
+     *            Description
+     * @param hidden
+     *            Whether the command is hidden
+     * @param type
+     *            Command type
+     * @param groupNames
+     *            Group names
+     * @param groups
+     *            Group annotations
+     */
+    protected CommandMetadata(String name, String description, boolean hidden, Class<?> type,
+            List<String> groupNames, List<Group> groups) {
+        if (StringUtils.isEmpty(name))
+            throw new IllegalArgumentException("Command name may not be null/empty");
+        if (StringUtils.containsWhitespace(name))
+            throw new IllegalArgumentException("Command name may not contain whitespace");
+
+        this.name = name;
+        this.description = description;
+        this.hidden = hidden;
+        this.type = type;
+        this.groupNames = groupNames;
+        this.groups = groups;
+        this.globalOptions = null;
+        this.groupOptions = null;
+        this.commandOptions = null;
+        this.allOptions = null;
+        this.defaultOption = null;
+        this.arguments = null;
+        this.metadataInjections = null;
+        this.sections = null;
+    }
+
     public String getName() {
         return name;
     }
@@ -95,11 +141,7 @@ public class CommandMetadata {
     }
 
     public List<OptionMetadata> getAllOptions() {
-        List<OptionMetadata> allOptions = new ArrayList<OptionMetadata>();
-        allOptions.addAll(globalOptions);
-        allOptions.addAll(groupOptions);
-        allOptions.addAll(commandOptions);
-        return ListUtils.unmodifiableList(allOptions);
+        return allOptions;
     }
 
     /**
@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+/**
+ * Build time generated index of the fields of a class that are relevant to
+ * Airline
+ * <p>
+ * Implementations are normally generated by the annotation processor provided
+ * by the {@code airline-processor} module. For a class {@code Foo} the
+ * generated index is a class named {@code Foo}{@value #SUFFIX} in the same
+ * package, for a nested class {@code Outer.Inner} it is named
+ * {@code Outer$Inner}{@value #SUFFIX}. When {@link MetadataLoader} finds an
+ * index for a class it only inspects the fields listed in the index rather
+ * than reflecting over every declared field, if no index is present, or the
+ * index is out of date, it falls back to reflection.
+ * </p>
+ */
+public interface FieldIndex {
+
+    /**
+     * Suffix appended to the binary name of an indexed class to give the name
+     * of its index class
+     */
+    public static final String SUFFIX = "_AirlineIndex";
+
+    /**
+     * Gets the names of the fields declared directly on the indexed class that
+     * carry Airline relevant annotations i.e. {@code @Option},
+     * {@code @Arguments}, {@code @DefaultOption} or {@code @Inject}, in
+     * declaration order
+     *
+     * @return Field names
+     */
+    public String[] getAnnotatedFields();
+}
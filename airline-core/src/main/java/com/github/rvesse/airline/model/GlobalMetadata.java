@@ -15,9 +15,12 @@
  */
 package com.github.rvesse.airline.model;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -40,6 +43,9 @@ public class GlobalMetadata<T> {
     private final ParserMetadata<T> parserConfig;
     private final List<GlobalRestriction> restrictions;
     private final List<HelpSection> baseHelpSections;
+    private final NameIndex<CommandMetadata> defaultGroupCommandIndex;
+    private final NameIndex<CommandGroupMetadata> commandGroupIndex;
+    private final ConcurrentMap<CommandGroupMetadata, OptionIndex> groupScopeOptions = new ConcurrentHashMap<>();
 
     public GlobalMetadata(String name, String description, Iterable<OptionMetadata> options,
             CommandMetadata defaultCommand, Iterable<CommandMetadata> defaultGroupCommands,
@@ -52,13 +58,15 @@ public class GlobalMetadata<T> {
 
         this.name = name;
         this.description = description;
-        this.options = AirlineUtils.unmodifiableListCopy(options);
+        this.options = OptionIndex.of(options);
         this.defaultCommand = defaultCommand;
         this.defaultGroupCommands = AirlineUtils.unmodifiableListCopy(defaultGroupCommands);
         this.commandGroups = AirlineUtils.unmodifiableListCopy(commandGroups);
         this.restrictions = AirlineUtils.unmodifiableListCopy(restrictions);
         this.baseHelpSections = AirlineUtils.unmodifiableListCopy(baseHelpSections);
         this.parserConfig = parserConfig != null ? parserConfig : ParserBuilder.<T> defaultConfiguration();
+        this.defaultGroupCommandIndex = NameIndex.ofCommands(this.defaultGroupCommands);
+        this.commandGroupIndex = NameIndex.ofGroups(this.commandGroups);
 
         // Look for duplicate command names on different classes
         checkForSuppressedCommands(this.defaultGroupCommands, this.defaultCommand, "");
@@ -160,6 +168,20 @@ public class GlobalMetadata<T> {
         return defaultGroupCommands;
     }
 
+    /**
+     * Finds the command with the given name within the default group
+     * 
+     * @param name
+     *            Command name
+     * @param allowAbbreviations
+     *            Whether unambiguous abbreviations of command names are
+     *            permitted
+     * @return Command if found, {@code null} otherwise
+     */
+    public CommandMetadata findDefaultGroupCommand(String name, boolean allowAbbreviations) {
+        return defaultGroupCommandIndex.find(name, allowAbbreviations);
+    }
+
     /**
      * Gets the command groups for the CLI
      * 
@@ -169,6 +191,41 @@ public class GlobalMetadata<T> {
         return commandGroups;
     }
 
+    /**
+     * Finds the top level command group with the given name
+     * 
+     * @param name
+     *            Group name
+     * @param allowAbbreviations
+     *            Whether unambiguous abbreviations of group names are
+     *            permitted
+     * @return Group if found, {@code null} otherwise
+     */
+    public CommandGroupMetadata findCommandGroup(String name, boolean allowAbbreviations) {
+        return commandGroupIndex.find(name, allowAbbreviations);
+    }
+
+    /**
+     * Gets the options that may be used once the given group has been
+     * specified i.e. the global options followed by the group options
+     * 
+     * @param group
+     *            Group
+     * @return Options
+     */
+    public OptionIndex getGroupScopeOptions(CommandGroupMetadata group) {
+        OptionIndex options = groupScopeOptions.get(group);
+        if (options == null) {
+            List<OptionMetadata> union = new ArrayList<>(this.options);
+            union.addAll(group.getOptions());
+            options = OptionIndex.of(union);
+            OptionIndex existing = groupScopeOptions.putIfAbsent(group, options);
+            if (existing != null)
+                options = existing;
+        }
+        return options;
+    }
+
     /**
      * Gets the global restrictions
      * 
@@ -0,0 +1,146 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.rvesse.airline.Accessor;
+import com.github.rvesse.airline.annotations.Group;
+import com.github.rvesse.airline.help.sections.HelpSection;
+import com.github.rvesse.airline.utils.AirlineUtils;
+
+/**
+ * Command meta-data that is only fully loaded when first needed
+ * <p>
+ * A lazy command is created from the {@link com.github.rvesse.airline.annotations.Command}
+ * annotation of its class plus its global and group scoped options, which are
+ * needed to build the CLI and group meta-data. Everything else, i.e. the
+ * command options, arguments, restrictions, metadata injections and help
+ * sections, is loaded via {@link MetadataLoader#loadCommand(Class, Map)} the
+ * first time any of it is requested, typically when the parser selects the
+ * command or a help generator describes it. This means that the start up cost
+ * of a CLI with many commands is proportional to the commands actually used
+ * rather than the number of commands defined.
+ * </p>
+ * <p>
+ * Since most of the command class is not examined until the command is loaded
+ * any errors in its annotations are also only detected at that point.
+ * </p>
+ */
+public final class LazyCommandMetadata extends CommandMetadata {
+
+    private final Map<String, HelpSection> baseHelpSections;
+    private final List<OptionMetadata> globalOptions, groupOptions;
+    private volatile CommandMetadata loaded;
+
+    LazyCommandMetadata(String name, String description, boolean hidden, Class<?> type, List<String> groupNames,
+            List<Group> groups, Iterable<OptionMetadata> globalOptions, Iterable<OptionMetadata> groupOptions,
+            Map<String, HelpSection> baseHelpSections) {
+        super(name, description, hidden, type, groupNames, groups);
+        this.globalOptions = AirlineUtils.unmodifiableListCopy(globalOptions);
+        this.groupOptions = AirlineUtils.unmodifiableListCopy(groupOptions);
+        this.baseHelpSections = new HashMap<>(baseHelpSections);
+    }
+
+    /**
+     * Gets whether the full command meta-data has been loaded
+     * 
+     * @return True if loaded, false otherwise
+     */
+    public boolean isLoaded() {
+        return this.loaded != null;
+    }
+
+    /**
+     * Gets the full command meta-data, loading it if necessary
+     * 
+     * @return Command meta-data
+     */
+    public CommandMetadata load() {
+        CommandMetadata command = this.loaded;
+        if (command == null) {
+            synchronized (this) {
+                command = this.loaded;
+                if (command == null) {
+                    command = MetadataLoader.loadCommand(getType(), this.baseHelpSections);
+                    this.loaded = command;
+                }
+            }
+        }
+        return command;
+    }
+
+    @Override
+    public List<OptionMetadata> getAllOptions() {
+        return load().getAllOptions();
+    }
+
+    @Override
+    public List<HelpSection> getHelpSections() {
+        return load().getHelpSections();
+    }
+
+    @Override
+    public List<OptionMetadata> getGlobalOptions() {
+        // Scoped options are known without loading the command
+        return this.globalOptions;
+    }
+
+    @Override
+    public List<OptionMetadata> getGroupOptions() {
+        // Scoped options are known without loading the command
+        return this.groupOptions;
+    }
+
+    @Override
+    public List<OptionMetadata> getCommandOptions() {
+        return load().getCommandOptions();
+    }
+
+    @Override
+    public OptionMetadata getDefaultOption() {
+        return load().getDefaultOption();
+    }
+
+    @Override
+    public ArgumentsMetadata getArguments() {
+        return load().getArguments();
+    }
+
+    @Override
+    public List<Accessor> getMetadataInjections() {
+        return load().getMetadataInjections();
+    }
+
+    @Override
+    public String toString() {
+        // Don't force loading just to describe the command
+        CommandMetadata command = this.loaded;
+        if (command != null)
+            return command.toString();
+        final StringBuilder sb = new StringBuilder();
+        sb.append("LazyCommandMetadata {").append('\n');
+        sb.append(" name='").append(getName()).append('\'').append('\n');
+        sb.append(" , description='").append(getDescription()).append('\'').append('\n');
+        sb.append(" , globalOptions=").append(globalOptions).append('\n');
+        sb.append(" , groupOptions=").append(groupOptions).append('\n');
+        sb.append(" , type=").append(getType()).append('\n');
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -34,6 +34,7 @@ import com.github.rvesse.airline.help.sections.factories.HelpSectionRegistry;
 import com.github.rvesse.airline.help.suggester.Suggester;
 import com.github.rvesse.airline.parser.ParserUtil;
 import com.github.rvesse.airline.parser.errors.handlers.FailFast;
+import com.github.rvesse.airline.parser.instrumentation.NoopParseListener;
 import com.github.rvesse.airline.parser.options.OptionParser;
 import com.github.rvesse.airline.parser.resources.ResourceLocator;
 import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
@@ -68,6 +69,130 @@ import java.util.*;
  */
 public class MetadataLoader {
 
+    /**
+     * Guice's {@code @Inject} annotation, {@code null} if Guice is not on the
+     * class path
+     */
+    private static final Class<? extends Annotation> GUICE_INJECT = findGuiceInject();
+
+    /**
+     * Placeholder for classes that have no generated field index
+     */
+    private static final FieldIndex NO_INDEX = new FieldIndex() {
+        @Override
+        public String[] getAnnotatedFields() {
+            return new String[0];
+        }
+    };
+
+    /**
+     * Cache of generated field indexes
+     */
+    private static final ClassValue<FieldIndex> FIELD_INDEXES = new ClassValue<FieldIndex>() {
+        @Override
+        protected FieldIndex computeValue(Class<?> type) {
+            return findFieldIndex(type);
+        }
+    };
+
+    @SuppressWarnings("unchecked")
+    private static Class<? extends Annotation> findGuiceInject() {
+        try {
+            Class<?> cls = Class.forName("com.google.inject.Inject");
+            if (Annotation.class.isAssignableFrom(cls))
+                return (Class<? extends Annotation>) cls;
+        } catch (ClassNotFoundException e) {
+            // this is ok, means Guice is not on the class path, so
+            // probably not being used
+        }
+        return null;
+    }
+
+    private static FieldIndex findFieldIndex(Class<?> type) {
+        ClassLoader loader = type.getClassLoader();
+        if (loader == null)
+            return NO_INDEX;
+        try {
+            Class<?> indexClass = Class.forName(type.getName() + FieldIndex.SUFFIX, true, loader);
+            if (FieldIndex.class.isAssignableFrom(indexClass))
+                return (FieldIndex) indexClass.getConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            // No generated index for this class
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Unusable index, fall back to reflection
+        }
+        return NO_INDEX;
+    }
+
+    /**
+     * Gets the fields declared on a class that have annotations and thus may
+     * be relevant to Airline
+     * <p>
+     * If a {@link MetadataSnapshot} is installed for the class, or a generated
+     * {@link FieldIndex} is available for the class, this is used to find the
+     * relevant fields directly, otherwise we reflect over all the declared
+     * fields.
+     * </p>
+     * 
+     * @param cls
+     *            Class
+     * @return Annotated fields
+     */
+    private static List<Field> getAnnotatedFields(Class<?> cls) {
+        MetadataSnapshot.ClassEntry entry = MetadataSnapshot.getEntry(cls);
+        if (entry != null) {
+            List<Field> fields = entry.getAnnotatedFields(cls);
+            if (fields != null)
+                return fields;
+        }
+
+        FieldIndex index = FIELD_INDEXES.get(cls);
+        if (index != NO_INDEX) {
+            try {
+                String[] names = index.getAnnotatedFields();
+                List<Field> fields = new ArrayList<>(names.length);
+                for (String name : names) {
+                    fields.add(cls.getDeclaredField(name));
+                }
+                return fields;
+            } catch (NoSuchFieldException e) {
+                // Index is out of date, fall back to reflection
+            }
+        }
+
+        List<Field> fields = new ArrayList<>();
+        for (Field field : cls.getDeclaredFields()) {
+            if (field.getDeclaredAnnotations().length > 0)
+                fields.add(field);
+        }
+        return fields;
+    }
+
+    /**
+     * Gets the annotations of a field that may yield restrictions
+     * <p>
+     * If a {@link MetadataSnapshot} is installed for the declaring class this
+     * is only those annotations recorded as yielding restrictions, otherwise it
+     * is all the annotations of the field.
+     * </p>
+     * 
+     * @param field
+     *            Field
+     * @param arguments
+     *            Whether arguments restrictions are wanted, otherwise option
+     *            restrictions
+     * @return Annotations
+     */
+    private static List<Annotation> getRestrictionAnnotations(Field field, boolean arguments) {
+        MetadataSnapshot.ClassEntry entry = MetadataSnapshot.getEntry(field.getDeclaringClass());
+        if (entry != null) {
+            List<Annotation> annotations = entry.getRestrictionAnnotations(field, arguments);
+            if (annotations != null)
+                return annotations;
+        }
+        return Arrays.asList(field.getAnnotations());
+    }
+
     public static <C> ParserMetadata<C> loadParser(Class<?> cliClass) {
         if (cliClass == null)
             return ParserBuilder.<C> defaultConfiguration();
@@ -104,6 +229,12 @@ public class MetadataLoader {
         } else {
             builder = builder.withDefaultErrorHandler();
         }
+        builder = builder.withLightweightErrors(parserConfig.lightweightErrors());
+        if (!parserConfig.parseListener().equals(NoopParseListener.class)) {
+            builder = builder.withParseListener(ParserUtil.createInstance(parserConfig.parseListener()));
+        } else {
+            builder = builder.withDefaultParseListener();
+        }
 
         // Abbreviation options
         if (parserConfig.allowCommandAbbreviation()) {
@@ -152,6 +283,7 @@ public class MetadataLoader {
         // Parsing options
         builder.withArgumentsSeparator(parserConfig.argumentsSeparator());
         builder.withFlagNegationPrefix(parserConfig.flagNegationPrefix());
+        builder.withArgumentFilePrefix(parserConfig.argumentFilePrefix());
         if (parserConfig.defaultParsersFirst() && parserConfig.useDefaultOptionParsers()) {
             builder = builder.withDefaultOptionParsers();
         }
@@ -199,13 +331,14 @@ public class MetadataLoader {
                 Collections.<String, HelpSection> emptyMap());
 
         // Prepare commands
+        boolean lazy = cliConfig.lazyCommands();
         CommandMetadata defaultCommand = null;
         if (!cliConfig.defaultCommand().equals(com.github.rvesse.airline.annotations.Cli.NO_DEFAULT.class)) {
-            defaultCommand = loadCommand(cliConfig.defaultCommand(), new HashMap<>(baseHelpSections));
+            defaultCommand = loadCommand(cliConfig.defaultCommand(), new HashMap<>(baseHelpSections), lazy);
         }
         List<CommandMetadata> defaultGroupCommands = new ArrayList<CommandMetadata>();
         for (Class<?> cls : cliConfig.commands()) {
-            defaultGroupCommands.add(loadCommand(cls, new HashMap<>(baseHelpSections)));
+            defaultGroupCommands.add(loadCommand(cls, new HashMap<>(baseHelpSections), lazy));
         }
 
         // Prepare parser configuration
@@ -261,7 +394,7 @@ public class MetadataLoader {
 
             List<CommandMetadata> groupCommands = new ArrayList<CommandMetadata>();
             for (Class<?> cls : groupAnno.commands()) {
-                groupCommands.add(loadCommand(cls, new HashMap<>(baseHelpSections)));
+                groupCommands.add(loadCommand(cls, new HashMap<>(baseHelpSections), lazy));
             }
 
             if (group == null) {
@@ -271,7 +404,7 @@ public class MetadataLoader {
                                          groupAnno.description(),
                                          groupAnno.hidden(),
                                          Collections.<CommandGroupMetadata>emptyList(),
-                                         !groupAnno.defaultCommand().equals(Group.NO_DEFAULT.class) ? loadCommand(groupAnno.defaultCommand(), baseHelpSections) : null, 
+                                         !groupAnno.defaultCommand().equals(Group.NO_DEFAULT.class) ? loadCommand(groupAnno.defaultCommand(), baseHelpSections, lazy) : null, 
                                          groupCommands);
                 //@formatter:on
                 if (subGroupPath == null) {
@@ -313,12 +446,39 @@ public class MetadataLoader {
         }
 
         // Post-process to find possible further group assignments
-        loadCommandsIntoGroupsByAnnotation(allCommands, groups, defaultGroupCommands, baseHelpSections);
+        loadCommandsIntoGroupsByAnnotation(allCommands, groups, defaultGroupCommands, baseHelpSections, lazy);
 
         return loadGlobal(cliConfig.name(), cliConfig.description(), defaultCommand, defaultGroupCommands, groups,
                 restrictions, baseHelpSections.values(), parserConfig);
     }
 
+    /**
+     * Loads the metadata for a CLI using a {@link MetadataSnapshot}
+     * <p>
+     * The snapshot for the CLI is loaded, from the class path or the given
+     * cache directory, and installed before the metadata is loaded so that
+     * the recorded descriptors are used in place of reflective discovery. If
+     * no valid snapshot is available a fresh one is captured and written to
+     * the cache directory for use by future loads. The resulting metadata is
+     * identical to that produced by {@link #loadGlobal(Class, ParserMetadata)}.
+     * </p>
+     * 
+     * @param cliClass
+     *            Class that has the
+     *            {@link com.github.rvesse.airline.annotations.Cli} annotation
+     * @param parserConfigOverride
+     *            Optional parser configuration
+     * @param snapshotDirectory
+     *            Snapshot cache directory, may be {@code null} in which case
+     *            only snapshots shipped on the class path are used
+     * @return Global metadata
+     */
+    public static <C> GlobalMetadata<C> loadGlobal(Class<?> cliClass, ParserMetadata<C> parserConfigOverride,
+            File snapshotDirectory) {
+        MetadataSnapshot.load(cliClass, snapshotDirectory);
+        return loadGlobal(cliClass, parserConfigOverride);
+    }
+
     /**
      * Loads global meta-data
      * 
@@ -416,10 +576,27 @@ public class MetadataLoader {
      */
     public static <T> List<CommandMetadata> loadCommands(Iterable<Class<? extends T>> defaultCommands,
             Map<String, HelpSection> baseHelpSections) {
+        return loadCommands(defaultCommands, baseHelpSections, false);
+    }
+
+    /**
+     * Loads command meta-data
+     * 
+     * @param defaultCommands
+     *            Default command classes
+     * @param baseHelpSections
+     *            Base set of help sections
+     * @param lazy
+     *            Whether to create {@link LazyCommandMetadata} that is only
+     *            fully loaded when first needed
+     * @return Command meta-data
+     */
+    public static <T> List<CommandMetadata> loadCommands(Iterable<Class<? extends T>> defaultCommands,
+            Map<String, HelpSection> baseHelpSections, boolean lazy) {
         List<CommandMetadata> commandMetadata = new ArrayList<CommandMetadata>();
         Iterator<Class<? extends T>> iter = defaultCommands.iterator();
         while (iter.hasNext()) {
-            commandMetadata.add(loadCommand(iter.next(), baseHelpSections));
+            commandMetadata.add(loadCommand(iter.next(), baseHelpSections, lazy));
         }
         return commandMetadata;
     }
@@ -445,6 +622,29 @@ public class MetadataLoader {
      * @return Command meta-data
      */
     public static CommandMetadata loadCommand(Class<?> commandType, Map<String, HelpSection> baseHelpSections) {
+        return loadCommand(commandType, baseHelpSections, false);
+    }
+
+    /**
+     * Loads command meta-data
+     * <p>
+     * When {@code lazy} is true a {@link LazyCommandMetadata} is returned,
+     * this is created from only the {@link Command} annotation and the global
+     * and group scoped options of the command, the remainder of the command
+     * meta-data is loaded when it is first needed.
+     * </p>
+     * 
+     * @param commandType
+     *            Command Type
+     * @param baseHelpSections
+     *            Base set of help sections
+     * @param lazy
+     *            Whether to create {@link LazyCommandMetadata} that is only
+     *            fully loaded when first needed
+     * @return Command meta-data
+     */
+    public static CommandMetadata loadCommand(Class<?> commandType, Map<String, HelpSection> baseHelpSections,
+            boolean lazy) {
         if (commandType == null) {
             return null;
         }
@@ -466,14 +666,23 @@ public class MetadataLoader {
             throw new IllegalArgumentException(
                     String.format("Command %s is not annotated with @Command", commandType.getName()));
 
-        // Find help sections
-        Map<String, HelpSection> helpSections = loadHelpSections(commandType, baseHelpSections);
-
         String name = command.name();
         String description = command.description().isEmpty() ? null : command.description();
         List<String> groupNames = Arrays.asList(command.groupNames());
         boolean hidden = command.hidden();
 
+        if (lazy) {
+            // Only the scoped options are needed up front
+            InjectionMetadata scopedMetadata = new InjectionMetadata();
+            loadInjectionMetadata(commandType, scopedMetadata, Collections.<Field> emptyList(), true);
+            scopedMetadata.compact();
+            return new LazyCommandMetadata(name, description, hidden, commandType, groupNames, groups,
+                    scopedMetadata.globalOptions, scopedMetadata.groupOptions, baseHelpSections);
+        }
+
+        // Find help sections
+        Map<String, HelpSection> helpSections = loadHelpSections(commandType, baseHelpSections);
+
         InjectionMetadata injectionMetadata = loadInjectionMetadata(commandType);
 
         //@formatter:off
@@ -501,7 +710,10 @@ public class MetadataLoader {
 
         // Search for help section annotations in the class hierarchy
         for (Class<?> cls = sourceClass; !Object.class.equals(cls); cls = cls.getSuperclass()) {
-            for (Class<? extends Annotation> helpAnnotationClass : HelpSectionRegistry.getAnnotationClasses()) {
+            MetadataSnapshot.ClassEntry entry = MetadataSnapshot.getEntry(cls);
+            Collection<Class<? extends Annotation>> helpAnnotationClasses = entry != null
+                    ? entry.getHelpSectionAnnotations() : HelpSectionRegistry.getAnnotationClasses();
+            for (Class<? extends Annotation> helpAnnotationClass : helpAnnotationClasses) {
                 Annotation annotation = cls.getAnnotation(helpAnnotationClass);
                 if (annotation == null)
                     continue;
@@ -572,11 +784,16 @@ public class MetadataLoader {
      *            Fields
      */
     public static void loadInjectionMetadata(Class<?> type, InjectionMetadata injectionMetadata, List<Field> fields) {
+        loadInjectionMetadata(type, injectionMetadata, fields, false);
+    }
+
+    private static void loadInjectionMetadata(Class<?> type, InjectionMetadata injectionMetadata, List<Field> fields,
+            boolean scopedOnly) {
         if (type.isInterface()) {
             return;
         }
         for (Class<?> cls = type; !Object.class.equals(cls); cls = cls.getSuperclass()) {
-            for (Field field : cls.getDeclaredFields()) {
+            for (Field field : getAnnotatedFields(cls)) {
                 field.setAccessible(true);
                 List<Field> path = new ArrayList<>(fields);
                 path.add(field);
@@ -586,36 +803,34 @@ public class MetadataLoader {
                     if (field.getType().equals(GlobalMetadata.class)
                             || field.getType().equals(CommandGroupMetadata.class)
                             || field.getType().equals(CommandMetadata.class)) {
-                        injectionMetadata.metadataInjections.add(new Accessor(path));
+                        if (!scopedOnly)
+                            injectionMetadata.metadataInjections.add(new Accessor(path));
                     } else {
-                        loadInjectionMetadata(field.getType(), injectionMetadata, path);
+                        loadInjectionMetadata(field.getType(), injectionMetadata, path, scopedOnly);
                     }
                 }
 
-                try {
-                    @SuppressWarnings("unchecked")
-                    Annotation aGuiceInject = field
-                            .getAnnotation((Class<? extends Annotation>) Class.forName("com.google.inject.Inject"));
+                if (GUICE_INJECT != null) {
+                    Annotation aGuiceInject = field.getAnnotation(GUICE_INJECT);
                     if (aGuiceInject != null) {
                         if (field.getType().equals(GlobalMetadata.class)
                                 || field.getType().equals(CommandGroupMetadata.class)
                                 || field.getType().equals(CommandMetadata.class)) {
-                            injectionMetadata.metadataInjections.add(new Accessor(path));
+                            if (!scopedOnly)
+                                injectionMetadata.metadataInjections.add(new Accessor(path));
                         } else {
-                            loadInjectionMetadata(field.getType(), injectionMetadata, path);
+                            loadInjectionMetadata(field.getType(), injectionMetadata, path, scopedOnly);
                         }
                     }
-                } catch (ClassNotFoundException e) {
-                    // this is ok, means Guice is not on the class path, so
-                    // probably not being used
-                    // and thus, ok that this did not work.
-                } catch (ClassCastException e) {
-                    // ignore this too, we're doing some funky cross your
-                    // fingers type reflect stuff to play
-                    // nicely with Guice
                 }
 
                 Option optionAnnotation = field.getAnnotation(Option.class);
+                if (scopedOnly) {
+                    // Only global and group scoped options are needed so skip
+                    // everything else
+                    if (optionAnnotation == null || optionAnnotation.type() == OptionType.COMMAND)
+                        continue;
+                }
                 DefaultOption defaultOptionAnnotation = field.getAnnotation(DefaultOption.class);
                 if (optionAnnotation != null) {
                     OptionType optionType = optionAnnotation.type();
@@ -655,11 +870,8 @@ public class MetadataLoader {
                     // Find and create restrictions
                     Map<Class<? extends Annotation>, Set<Integer>> partials = loadPartials(field);
                     List<OptionRestriction> restrictions = new ArrayList<OptionRestriction>();
-                    for (Class<? extends Annotation> annotationClass : RestrictionRegistry
-                            .getOptionRestrictionAnnotationClasses()) {
-                        Annotation annotation = field.getAnnotation(annotationClass);
-                        if (annotation == null)
-                            continue;
+                    for (Annotation annotation : getRestrictionAnnotations(field, false)) {
+                        Class<? extends Annotation> annotationClass = annotation.annotationType();
                         OptionRestriction restriction = RestrictionRegistry.getOptionRestriction(annotationClass,
                                 annotation);
                         if (restriction != null) {
@@ -736,7 +948,7 @@ public class MetadataLoader {
                 }
 
                 Arguments argumentsAnnotation = field.getAnnotation(Arguments.class);
-                if (field.isAnnotationPresent(Arguments.class)) {
+                if (!scopedOnly && field.isAnnotationPresent(Arguments.class)) {
                     // Can't have both @DefaultOption and @Arguments
                     if (injectionMetadata.defaultOption != null)
                         throw new IllegalArgumentException(String.format(
@@ -757,11 +969,8 @@ public class MetadataLoader {
 
                     Map<Class<? extends Annotation>, Set<Integer>> partials = loadPartials(field);
                     List<ArgumentsRestriction> restrictions = new ArrayList<>();
-                    for (Class<? extends Annotation> annotationClass : RestrictionRegistry
-                            .getArgumentsRestrictionAnnotationClasses()) {
-                        Annotation annotation = field.getAnnotation(annotationClass);
-                        if (annotation == null)
-                            continue;
+                    for (Annotation annotation : getRestrictionAnnotations(field, true)) {
+                        Class<? extends Annotation> annotationClass = annotation.annotationType();
                         ArgumentsRestriction restriction = RestrictionRegistry.getArgumentsRestriction(annotationClass,
                                 annotation);
                         if (restriction != null) {
@@ -911,10 +1120,17 @@ public class MetadataLoader {
     public static void loadCommandsIntoGroupsByAnnotation(List<CommandMetadata> allCommands,
             List<CommandGroupMetadata> commandGroups, List<CommandMetadata> defaultCommandGroup,
             Map<String, HelpSection> baseHelpSections) {
+        loadCommandsIntoGroupsByAnnotation(allCommands, commandGroups, defaultCommandGroup, baseHelpSections, false);
+    }
+
+    public static void loadCommandsIntoGroupsByAnnotation(List<CommandMetadata> allCommands,
+            List<CommandGroupMetadata> commandGroups, List<CommandMetadata> defaultCommandGroup,
+            Map<String, HelpSection> baseHelpSections, boolean lazy) {
         List<CommandMetadata> newCommands = new ArrayList<CommandMetadata>();
 
         // first, create any groups explicitly annotated
-        createGroupsFromAnnotations(allCommands, newCommands, commandGroups, defaultCommandGroup, baseHelpSections);
+        createGroupsFromAnnotations(allCommands, newCommands, commandGroups, defaultCommandGroup, baseHelpSections,
+                lazy);
 
         for (CommandMetadata command : allCommands) {
             boolean addedToGroup = false;
@@ -983,7 +1199,7 @@ public class MetadataLoader {
     @SuppressWarnings("rawtypes")
     private static void createGroupsFromAnnotations(List<CommandMetadata> allCommands,
             List<CommandMetadata> newCommands, List<CommandGroupMetadata> commandGroups,
-            List<CommandMetadata> defaultCommandGroup, Map<String, HelpSection> baseHelpSections) {
+            List<CommandMetadata> defaultCommandGroup, Map<String, HelpSection> baseHelpSections, boolean lazy) {
 
         // We sort sub-groups by name length then lexically
         // This means that when we build the groups hierarchy we'll ensure we
@@ -1003,7 +1219,7 @@ public class MetadataLoader {
                     defaultCommandClass = groupAnno.defaultCommand();
                     defaultCommand = CollectionUtils.find(allCommands, new CommandTypeFinder(defaultCommandClass));
                     if (null == defaultCommand) {
-                        defaultCommand = loadCommand(defaultCommandClass, baseHelpSections);
+                        defaultCommand = loadCommand(defaultCommandClass, baseHelpSections, lazy);
                         newCommands.add(defaultCommand);
                     }
                 }
@@ -1014,7 +1230,7 @@ public class MetadataLoader {
                 for (Class commandClass : groupAnno.commands()) {
                     groupCommand = CollectionUtils.find(allCommands, new CommandTypeFinder(commandClass));
                     if (null == groupCommand) {
-                        groupCommand = loadCommand(commandClass, baseHelpSections);
+                        groupCommand = loadCommand(commandClass, baseHelpSections, lazy);
                         newCommands.add(groupCommand);
                         groupCommands.add(groupCommand);
                     }
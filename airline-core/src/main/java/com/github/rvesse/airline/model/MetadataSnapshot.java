@@ -0,0 +1,780 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.ProtectionDomain;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.inject.Inject;
+
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Cli;
+import com.github.rvesse.airline.annotations.Group;
+import com.github.rvesse.airline.annotations.Groups;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.help.sections.factories.HelpSectionRegistry;
+import com.github.rvesse.airline.restrictions.factories.RestrictionRegistry;
+
+/**
+ * A compact binary snapshot of the results of the reflective discovery that
+ * {@link MetadataLoader} performs when loading the metadata for a CLI
+ * <p>
+ * Restrictions, type converter providers, accessors etc. are live objects that
+ * may be user supplied so they cannot be faithfully serialised. Instead a
+ * snapshot records, for each class that contributes to a CLI, the annotated
+ * fields it declares, which restriction annotations are present on its option
+ * and arguments fields and which help section annotations are present on the
+ * class. Once a snapshot is installed {@link MetadataLoader} builds exactly
+ * the same metadata as it otherwise would but uses these recorded descriptors
+ * rather than reflecting over every declared field and probing the
+ * {@link RestrictionRegistry} and {@link HelpSectionRegistry}.
+ * </p>
+ * <p>
+ * A snapshot carries a fingerprint of the classes it describes so it is only
+ * installed if the classes it was captured from are unchanged. By default this
+ * is computed from the modification times and sizes of their jars, or of their
+ * class files when loaded from a directory, which is cheap to verify and
+ * suitable for snapshots cached on disk. Snapshots that are shipped inside a
+ * jar should instead be captured with a fingerprint computed from the bytecode
+ * of the classes since that does not depend upon where the classes are loaded
+ * from.
+ * </p>
+ */
+public final class MetadataSnapshot {
+
+    /**
+     * Class path location under which snapshots shipped with an application
+     * are searched for
+     */
+    public static final String RESOURCE_PREFIX = "META-INF/airline/snapshots/";
+
+    /**
+     * File extension for snapshots
+     */
+    public static final String EXTENSION = ".snapshot";
+
+    private static final int MAGIC = 0x41495253;
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Installed snapshot entries
+     */
+    private static final ClassValue<AtomicReference<ClassEntry>> ENTRIES = new ClassValue<AtomicReference<ClassEntry>>() {
+        @Override
+        protected AtomicReference<ClassEntry> computeValue(Class<?> type) {
+            return new AtomicReference<>();
+        }
+    };
+
+    private final String cliClassName;
+    private final boolean bytecode;
+    private final byte[] fingerprint;
+    private final Map<String, ClassRecord> records;
+
+    private MetadataSnapshot(String cliClassName, boolean bytecode, byte[] fingerprint,
+            Map<String, ClassRecord> records) {
+        this.cliClassName = cliClassName;
+        this.bytecode = bytecode;
+        this.fingerprint = fingerprint;
+        this.records = records;
+    }
+
+    /**
+     * Gets the name of the class bearing the {@link Cli} annotation that this
+     * snapshot was captured from
+     *
+     * @return CLI class name
+     */
+    public String getCliClassName() {
+        return cliClassName;
+    }
+
+    /**
+     * Gets the names of the classes described by this snapshot
+     *
+     * @return Class names
+     */
+    public Set<String> getClassNames() {
+        return Collections.unmodifiableSet(records.keySet());
+    }
+
+    /**
+     * Gets whether the fingerprint of this snapshot is computed from the
+     * bytecode of the described classes
+     *
+     * @return True if fingerprinted by bytecode, false if fingerprinted by
+     *         modification times and sizes
+     */
+    public boolean isBytecodeFingerprint() {
+        return bytecode;
+    }
+
+    /**
+     * Captures a snapshot for a CLI fingerprinted by the modification times
+     * and sizes of the described classes
+     *
+     * @param cliClass
+     *            Class bearing the {@link Cli} annotation
+     * @return Snapshot
+     */
+    public static MetadataSnapshot capture(Class<?> cliClass) {
+        return capture(cliClass, false);
+    }
+
+    /**
+     * Captures a snapshot for a CLI
+     * <p>
+     * This walks the CLI class, its commands, including those declared via
+     * {@link Group} and {@link Groups} annotations on commands, their class
+     * hierarchies and any classes they compose via {@code @Inject}, recording
+     * the descriptors for each.
+     * </p>
+     *
+     * @param cliClass
+     *            Class bearing the {@link Cli} annotation
+     * @param bytecode
+     *            Whether to fingerprint the snapshot by the bytecode of the
+     *            described classes, this should be used for snapshots that
+     *            will be shipped inside a jar
+     * @return Snapshot
+     */
+    public static MetadataSnapshot capture(Class<?> cliClass, boolean bytecode) {
+        Cli cliConfig = cliClass.getAnnotation(Cli.class);
+        if (cliConfig == null)
+            throw new IllegalArgumentException(String.format("Class %s does not have the @Cli annotation", cliClass));
+
+        Map<String, Class<?>> classes = new LinkedHashMap<>();
+        Deque<Class<?>> commands = new ArrayDeque<>();
+        addHierarchy(cliClass, classes);
+        addCommand(cliConfig.defaultCommand(), Cli.NO_DEFAULT.class, commands);
+        addCommands(cliConfig.commands(), commands);
+        for (Group group : cliConfig.groups()) {
+            addCommand(group.defaultCommand(), Group.NO_DEFAULT.class, commands);
+            addCommands(group.commands(), commands);
+        }
+
+        Set<Class<?>> seen = new HashSet<>();
+        while (!commands.isEmpty()) {
+            Class<?> command = commands.removeFirst();
+            if (!seen.add(command))
+                continue;
+            addHierarchy(command, classes);
+
+            // Commands may declare further commands via group annotations
+            for (Class<?> cls = command; cls != null && !Object.class.equals(cls); cls = cls.getSuperclass()) {
+                List<Group> groups = new ArrayList<>();
+                Groups groupsAnnotation = cls.getAnnotation(Groups.class);
+                if (groupsAnnotation != null)
+                    groups.addAll(Arrays.asList(groupsAnnotation.value()));
+                Group groupAnnotation = cls.getAnnotation(Group.class);
+                if (groupAnnotation != null)
+                    groups.add(groupAnnotation);
+                for (Group group : groups) {
+                    addCommand(group.defaultCommand(), Group.NO_DEFAULT.class, commands);
+                    addCommands(group.commands(), commands);
+                }
+            }
+        }
+
+        Map<String, ClassRecord> records = new LinkedHashMap<>();
+        for (Class<?> cls : classes.values()) {
+            records.put(cls.getName(), ClassRecord.capture(cls));
+        }
+        return new MetadataSnapshot(cliClass.getName(), bytecode, fingerprint(classes.values(), bytecode), records);
+    }
+
+    private static void addCommand(Class<?> command, Class<?> noDefault, Deque<Class<?>> commands) {
+        if (!noDefault.equals(command))
+            commands.add(command);
+    }
+
+    private static void addCommands(Class<?>[] commandClasses, Deque<Class<?>> commands) {
+        commands.addAll(Arrays.asList(commandClasses));
+    }
+
+    private static void addHierarchy(Class<?> type, Map<String, Class<?>> classes) {
+        if (type.isInterface() || type.isPrimitive() || type.isArray())
+            return;
+        for (Class<?> cls = type; cls != null && !Object.class.equals(cls); cls = cls.getSuperclass()) {
+            if (classes.containsKey(cls.getName()))
+                return;
+            classes.put(cls.getName(), cls);
+
+            // Follow composed classes
+            for (Field field : cls.getDeclaredFields()) {
+                if (isInjected(field) && !GlobalMetadata.class.equals(field.getType())
+                        && !CommandGroupMetadata.class.equals(field.getType())
+                        && !CommandMetadata.class.equals(field.getType())) {
+                    addHierarchy(field.getType(), classes);
+                }
+            }
+        }
+    }
+
+    private static boolean isInjected(Field field) {
+        for (Annotation annotation : field.getDeclaredAnnotations()) {
+            Class<? extends Annotation> annotationClass = annotation.annotationType();
+            if (Inject.class.equals(annotationClass)
+                    || "com.google.inject.Inject".equals(annotationClass.getName()))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Determines whether the classes described by this snapshot are unchanged
+     * since it was captured
+     *
+     * @param loader
+     *            Class loader used to find the described classes
+     * @return True if valid, false if any class is missing or has changed
+     */
+    public boolean isValid(ClassLoader loader) {
+        List<Class<?>> classes = new ArrayList<>();
+        try {
+            for (String name : records.keySet()) {
+                classes.add(Class.forName(name, false, loader));
+            }
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+        return MessageDigest.isEqual(this.fingerprint, fingerprint(classes, bytecode));
+    }
+
+    /**
+     * Installs this snapshot, provided it is valid, so that future metadata
+     * loading for the described classes uses the recorded descriptors
+     *
+     * @param loader
+     *            Class loader used to find the described classes
+     * @return True if installed, false if the snapshot was not valid
+     */
+    public boolean install(ClassLoader loader) {
+        if (!isValid(loader))
+            return false;
+        installEntries(loader);
+        return true;
+    }
+
+    private void installEntries(ClassLoader loader) {
+        for (ClassRecord record : records.values()) {
+            try {
+                Class<?> cls = Class.forName(record.name, false, loader);
+                ENTRIES.get(cls).set(record.resolve(cls.getClassLoader()));
+            } catch (ClassNotFoundException | LinkageError e) {
+                // Leave the class to normal reflective discovery
+            }
+        }
+    }
+
+    /**
+     * Loads and installs the snapshot for a CLI
+     * <p>
+     * A snapshot shipped on the class path under {@value #RESOURCE_PREFIX} is
+     * preferred, otherwise a snapshot is read from the given cache directory.
+     * If no valid snapshot is found then one is captured and written to the
+     * cache directory so that subsequent loads are warm. Snapshots are named
+     * for the binary name of the CLI class followed by {@value #EXTENSION}.
+     * </p>
+     *
+     * @param cliClass
+     *            Class bearing the {@link Cli} annotation
+     * @param directory
+     *            Cache directory, may be {@code null} in which case only
+     *            snapshots shipped on the class path are used
+     * @return Installed snapshot, or {@code null} if no snapshot was available
+     */
+    public static MetadataSnapshot load(Class<?> cliClass, File directory) {
+        String name = cliClass.getName() + EXTENSION;
+        ClassLoader loader = cliClass.getClassLoader();
+        if (loader == null)
+            return null;
+
+        // Prefer a snapshot shipped with the application
+        MetadataSnapshot snapshot = null;
+        try (InputStream input = loader.getResourceAsStream(RESOURCE_PREFIX + name)) {
+            if (input != null)
+                snapshot = read(input);
+        } catch (IOException e) {
+            // Unusable snapshot, ignore
+        }
+        if (snapshot != null && snapshot.cliClassName.equals(cliClass.getName()) && snapshot.install(loader))
+            return snapshot;
+        if (directory == null)
+            return null;
+
+        // Then a previously cached snapshot
+        File file = new File(directory, name);
+        snapshot = null;
+        if (file.isFile()) {
+            try (InputStream input = new FileInputStream(file)) {
+                snapshot = read(input);
+            } catch (IOException e) {
+                // Unusable snapshot, ignore
+            }
+        }
+        if (snapshot != null && snapshot.cliClassName.equals(cliClass.getName()) && snapshot.install(loader))
+            return snapshot;
+
+        // Otherwise capture a fresh snapshot and cache it for next time
+        snapshot = capture(cliClass);
+        try {
+            snapshot.writeTo(directory, file);
+        } catch (IOException e) {
+            // Caching is best effort only
+        }
+        snapshot.installEntries(loader);
+        return snapshot;
+    }
+
+    private void writeTo(File directory, File file) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Unable to create snapshot directory " + directory);
+
+        // Write to a temporary file and move it into place so concurrent
+        // readers never see a partial snapshot
+        File temp = File.createTempFile(file.getName(), ".tmp", directory);
+        try {
+            try (OutputStream output = new FileOutputStream(temp)) {
+                write(output);
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    /**
+     * Writes the snapshot
+     *
+     * @param output
+     *            Output stream
+     * @throws IOException
+     *             Thrown if the snapshot cannot be written
+     */
+    public void write(OutputStream output) throws IOException {
+        DataOutputStream data = new DataOutputStream(output);
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeUTF(cliClassName);
+        data.writeBoolean(bytecode);
+        data.writeShort(fingerprint.length);
+        data.write(fingerprint);
+        data.writeInt(records.size());
+        for (ClassRecord record : records.values()) {
+            record.write(data);
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads a snapshot
+     *
+     * @param input
+     *            Input stream
+     * @return Snapshot
+     * @throws IOException
+     *             Thrown if the snapshot cannot be read or is not in a
+     *             supported format
+     */
+    public static MetadataSnapshot read(InputStream input) throws IOException {
+        DataInputStream data = new DataInputStream(input);
+        if (data.readInt() != MAGIC)
+            throw new IOException("Not an Airline metadata snapshot");
+        int version = data.readInt();
+        if (version != FORMAT_VERSION)
+            throw new IOException(String.format("Unsupported metadata snapshot format version %d", version));
+        String cliClassName = data.readUTF();
+        boolean bytecode = data.readBoolean();
+        byte[] fingerprint = new byte[data.readUnsignedShort()];
+        data.readFully(fingerprint);
+        int count = data.readInt();
+        Map<String, ClassRecord> records = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            ClassRecord record = ClassRecord.read(data);
+            records.put(record.name, record);
+        }
+        return new MetadataSnapshot(cliClassName, bytecode, fingerprint, records);
+    }
+
+    /**
+     * Gets the installed entry for a class
+     *
+     * @param cls
+     *            Class
+     * @return Entry, or {@code null} if none is installed or the installed
+     *         entry no longer reflects the registries
+     */
+    static ClassEntry getEntry(Class<?> cls) {
+        ClassEntry entry = ENTRIES.get(cls).get();
+        return entry != null && entry.isCurrent() ? entry : null;
+    }
+
+    private static byte[] fingerprint(Collection<Class<?>> classes, boolean bytecode) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        Map<URL, String> stamps = new HashMap<>();
+        update(digest, Integer.toString(FORMAT_VERSION));
+        update(digest, bytecode ? hash(MetadataLoader.class) : stamp(MetadataLoader.class, stamps));
+
+        // The descriptors depend on which annotations are registered
+        updateNames(digest, RestrictionRegistry.getOptionRestrictionAnnotationClasses());
+        updateNames(digest, RestrictionRegistry.getArgumentsRestrictionAnnotationClasses());
+        updateNames(digest, HelpSectionRegistry.getAnnotationClasses());
+
+        List<Class<?>> sorted = new ArrayList<>(classes);
+        Collections.sort(sorted, new Comparator<Class<?>>() {
+            @Override
+            public int compare(Class<?> a, Class<?> b) {
+                return a.getName().compareTo(b.getName());
+            }
+        });
+        for (Class<?> cls : sorted) {
+            update(digest, cls.getName());
+            update(digest, bytecode ? hash(cls) : stamp(cls, stamps));
+        }
+        return digest.digest();
+    }
+
+    private static void updateNames(MessageDigest digest, Set<Class<? extends Annotation>> annotationClasses) {
+        List<String> names = new ArrayList<>();
+        for (Class<? extends Annotation> annotationClass : annotationClasses) {
+            names.add(annotationClass.getName());
+        }
+        Collections.sort(names);
+        for (String name : names) {
+            update(digest, name);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    /**
+     * Stamps a class with the modification time and size of the jar it was
+     * loaded from, or of its class file if it was not loaded from a jar
+     */
+    private static String stamp(Class<?> cls, Map<URL, String> stamps) {
+        ProtectionDomain domain = cls.getProtectionDomain();
+        CodeSource source = domain != null ? domain.getCodeSource() : null;
+        URL location = source != null ? source.getLocation() : null;
+        if (location != null && "file".equals(location.getProtocol())) {
+            String stamp = stamps.get(location);
+            if (stamp == null) {
+                File file = toFile(location);
+                stamp = file.isFile() ? file.lastModified() + ":" + file.length() : "";
+                stamps.put(location, stamp);
+            }
+            if (!stamp.isEmpty())
+                return stamp;
+        }
+
+        String name = cls.getName();
+        URL url = cls.getResource(name.substring(name.lastIndexOf('.') + 1) + ".class");
+        if (url == null)
+            return "?";
+        if ("file".equals(url.getProtocol())) {
+            File file = toFile(url);
+            return file.lastModified() + ":" + file.length();
+        }
+        try {
+            URLConnection connection = url.openConnection();
+            connection.connect();
+            return connection.getLastModified() + ":" + connection.getContentLengthLong();
+        } catch (IOException e) {
+            return "?";
+        }
+    }
+
+    /**
+     * Hashes the bytecode of a class
+     */
+    private static String hash(Class<?> cls) {
+        String name = cls.getName();
+        try (InputStream input = cls.getResourceAsStream(name.substring(name.lastIndexOf('.') + 1) + ".class")) {
+            if (input == null)
+                return "?";
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            StringBuilder builder = new StringBuilder();
+            for (byte b : digest.digest()) {
+                builder.append(String.format("%02x", b));
+            }
+            return builder.toString();
+        } catch (IOException | NoSuchAlgorithmException e) {
+            return "?";
+        }
+    }
+
+    private static File toFile(URL url) {
+        try {
+            return new File(url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return new File(url.getPath());
+        }
+    }
+
+    /**
+     * The serialisable descriptors for a class
+     */
+    private static final class ClassRecord {
+        private final String name;
+        private final String[] fields;
+        private final Map<String, String[]> optionRestrictions;
+        private final Map<String, String[]> argumentsRestrictions;
+        private final String[] helpSections;
+
+        private ClassRecord(String name, String[] fields, Map<String, String[]> optionRestrictions,
+                Map<String, String[]> argumentsRestrictions, String[] helpSections) {
+            this.name = name;
+            this.fields = fields;
+            this.optionRestrictions = optionRestrictions;
+            this.argumentsRestrictions = argumentsRestrictions;
+            this.helpSections = helpSections;
+        }
+
+        static ClassRecord capture(Class<?> cls) {
+            List<String> fields = new ArrayList<>();
+            Map<String, String[]> optionRestrictions = new LinkedHashMap<>();
+            Map<String, String[]> argumentsRestrictions = new LinkedHashMap<>();
+            for (Field field : cls.getDeclaredFields()) {
+                Annotation[] annotations = field.getDeclaredAnnotations();
+                if (annotations.length == 0)
+                    continue;
+                fields.add(field.getName());
+
+                List<String> restrictions = new ArrayList<>();
+                if (field.isAnnotationPresent(Option.class)) {
+                    for (Annotation annotation : annotations) {
+                        if (RestrictionRegistry.getOptionRestriction(annotation.annotationType(), annotation) != null)
+                            restrictions.add(annotation.annotationType().getName());
+                    }
+                    optionRestrictions.put(field.getName(), restrictions.toArray(new String[0]));
+                }
+                restrictions.clear();
+                if (field.isAnnotationPresent(Arguments.class)) {
+                    for (Annotation annotation : annotations) {
+                        if (RestrictionRegistry.getArgumentsRestriction(annotation.annotationType(),
+                                annotation) != null)
+                            restrictions.add(annotation.annotationType().getName());
+                    }
+                    argumentsRestrictions.put(field.getName(), restrictions.toArray(new String[0]));
+                }
+            }
+
+            List<String> helpSections = new ArrayList<>();
+            for (Class<? extends Annotation> helpAnnotationClass : HelpSectionRegistry.getAnnotationClasses()) {
+                Annotation annotation = cls.getAnnotation(helpAnnotationClass);
+                if (annotation != null && HelpSectionRegistry.getHelpSection(helpAnnotationClass, annotation) != null)
+                    helpSections.add(helpAnnotationClass.getName());
+            }
+
+            return new ClassRecord(cls.getName(), fields.toArray(new String[0]), optionRestrictions,
+                    argumentsRestrictions, helpSections.toArray(new String[0]));
+        }
+
+        ClassEntry resolve(ClassLoader loader) throws ClassNotFoundException {
+            return new ClassEntry(fields, resolve(optionRestrictions, loader), resolve(argumentsRestrictions, loader),
+                    resolve(helpSections, loader));
+        }
+
+        private static Map<String, List<Class<? extends Annotation>>> resolve(Map<String, String[]> restrictions,
+                ClassLoader loader) throws ClassNotFoundException {
+            Map<String, List<Class<? extends Annotation>>> resolved = new HashMap<>();
+            for (Map.Entry<String, String[]> e : restrictions.entrySet()) {
+                resolved.put(e.getKey(), resolve(e.getValue(), loader));
+            }
+            return resolved;
+        }
+
+        private static List<Class<? extends Annotation>> resolve(String[] names, ClassLoader loader)
+                throws ClassNotFoundException {
+            List<Class<? extends Annotation>> resolved = new ArrayList<>(names.length);
+            for (String name : names) {
+                resolved.add(Class.forName(name, false, loader).asSubclass(Annotation.class));
+            }
+            return resolved;
+        }
+
+        void write(DataOutputStream data) throws IOException {
+            data.writeUTF(name);
+            writeNames(data, fields);
+            writeNames(data, optionRestrictions);
+            writeNames(data, argumentsRestrictions);
+            writeNames(data, helpSections);
+        }
+
+        static ClassRecord read(DataInputStream data) throws IOException {
+            String name = data.readUTF();
+            String[] fields = readNames(data);
+            Map<String, String[]> optionRestrictions = readNameMap(data);
+            Map<String, String[]> argumentsRestrictions = readNameMap(data);
+            String[] helpSections = readNames(data);
+            return new ClassRecord(name, fields, optionRestrictions, argumentsRestrictions, helpSections);
+        }
+
+        private static void writeNames(DataOutputStream data, String[] names) throws IOException {
+            data.writeShort(names.length);
+            for (String name : names) {
+                data.writeUTF(name);
+            }
+        }
+
+        private static void writeNames(DataOutputStream data, Map<String, String[]> names) throws IOException {
+            data.writeShort(names.size());
+            for (Map.Entry<String, String[]> e : names.entrySet()) {
+                data.writeUTF(e.getKey());
+                writeNames(data, e.getValue());
+            }
+        }
+
+        private static String[] readNames(DataInputStream data) throws IOException {
+            String[] names = new String[data.readUnsignedShort()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = data.readUTF();
+            }
+            return names;
+        }
+
+        private static Map<String, String[]> readNameMap(DataInputStream data) throws IOException {
+            int count = data.readUnsignedShort();
+            Map<String, String[]> names = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                names.put(data.readUTF(), readNames(data));
+            }
+            return names;
+        }
+    }
+
+    /**
+     * The installed descriptors for a class
+     */
+    static final class ClassEntry {
+        private final String[] fields;
+        private final Map<String, List<Class<? extends Annotation>>> optionRestrictions;
+        private final Map<String, List<Class<? extends Annotation>>> argumentsRestrictions;
+        private final List<Class<? extends Annotation>> helpSections;
+        private final int optionRestrictionCount = RestrictionRegistry.getOptionRestrictionAnnotationClasses().size();
+        private final int argumentsRestrictionCount = RestrictionRegistry.getArgumentsRestrictionAnnotationClasses()
+                .size();
+        private final int helpSectionCount = HelpSectionRegistry.getAnnotationClasses().size();
+
+        private ClassEntry(String[] fields, Map<String, List<Class<? extends Annotation>>> optionRestrictions,
+                Map<String, List<Class<? extends Annotation>>> argumentsRestrictions,
+                List<Class<? extends Annotation>> helpSections) {
+            this.fields = fields;
+            this.optionRestrictions = optionRestrictions;
+            this.argumentsRestrictions = argumentsRestrictions;
+            this.helpSections = helpSections;
+        }
+
+        /**
+         * Whether the entry still reflects the registries, factories may be
+         * registered after an entry is installed
+         */
+        boolean isCurrent() {
+            return optionRestrictionCount == RestrictionRegistry.getOptionRestrictionAnnotationClasses().size()
+                    && argumentsRestrictionCount == RestrictionRegistry.getArgumentsRestrictionAnnotationClasses()
+                            .size()
+                    && helpSectionCount == HelpSectionRegistry.getAnnotationClasses().size();
+        }
+
+        /**
+         * Gets the annotated fields of the class
+         *
+         * @param cls
+         *            Class
+         * @return Annotated fields, or {@code null} if the recorded fields no
+         *         longer exist
+         */
+        List<Field> getAnnotatedFields(Class<?> cls) {
+            try {
+                List<Field> annotated = new ArrayList<>(fields.length);
+                for (String name : fields) {
+                    annotated.add(cls.getDeclaredField(name));
+                }
+                return annotated;
+            } catch (NoSuchFieldException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Gets the annotations present on a field that yield restrictions
+         *
+         * @param field
+         *            Field
+         * @param arguments
+         *            Whether to get arguments restrictions, otherwise option
+         *            restrictions
+         * @return Annotations, or {@code null} if none were recorded for the
+         *         field
+         */
+        List<Annotation> getRestrictionAnnotations(Field field, boolean arguments) {
+            List<Class<? extends Annotation>> annotationClasses = (arguments ? argumentsRestrictions
+                    : optionRestrictions).get(field.getName());
+            if (annotationClasses == null)
+                return null;
+            List<Annotation> annotations = new ArrayList<>(annotationClasses.size());
+            for (Class<? extends Annotation> annotationClass : annotationClasses) {
+                Annotation annotation = field.getAnnotation(annotationClass);
+                if (annotation != null)
+                    annotations.add(annotation);
+            }
+            return annotations;
+        }
+
+        /**
+         * Gets the help section annotations present on the class
+         *
+         * @return Help section annotation classes
+         */
+        List<Class<? extends Annotation>> getHelpSectionAnnotations() {
+            return helpSections;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An index over a list of named items, i.e. commands or groups, which allows
+ * resolving a token to an item in constant time for exact names or via a
+ * binary search over the sorted names for abbreviations
+ * <p>
+ * Lookups give identical results to the
+ * {@link com.github.rvesse.airline.utils.predicates.parser.CommandFinder},
+ * {@link com.github.rvesse.airline.utils.predicates.parser.GroupFinder} and
+ * their abbreviated equivalents applied over the list.
+ * </p>
+ *
+ * @param <T>
+ *            Item type
+ */
+final class NameIndex<T> {
+
+    private final List<T> items;
+    private final Map<String, T> exact = new HashMap<>();
+    private final Map<String, T> exactAbbreviated = new HashMap<>();
+    private final String[] names;
+    private final int[] owners;
+
+    private NameIndex(List<T> items, final List<String> names) {
+        this.items = items;
+
+        Map<String, T> lastExact = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            String name = names.get(i);
+            if (!this.exact.containsKey(name))
+                this.exact.put(name, items.get(i));
+            lastExact.put(name, items.get(i));
+        }
+
+        // When abbreviations are enabled the last exact match wins but the
+        // result is the first item equal to it
+        for (Map.Entry<String, T> e : lastExact.entrySet()) {
+            this.exactAbbreviated.put(e.getKey(), items.get(items.indexOf(e.getValue())));
+        }
+
+        // Sort the names so all names sharing a prefix are contiguous
+        Integer[] order = new Integer[names.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return names.get(a).compareTo(names.get(b));
+            }
+        });
+        this.names = new String[order.length];
+        this.owners = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            this.names[i] = names.get(order[i]);
+            this.owners[i] = order[i];
+        }
+    }
+
+    /**
+     * Creates an index over commands
+     *
+     * @param commands
+     *            Commands
+     * @return Command index
+     */
+    static NameIndex<CommandMetadata> ofCommands(List<CommandMetadata> commands) {
+        List<CommandMetadata> copy = new ArrayList<>(commands);
+        List<String> names = new ArrayList<>(copy.size());
+        for (CommandMetadata command : copy) {
+            names.add(command.getName());
+        }
+        return new NameIndex<>(copy, names);
+    }
+
+    /**
+     * Creates an index over groups
+     *
+     * @param groups
+     *            Groups
+     * @return Group index
+     */
+    static NameIndex<CommandGroupMetadata> ofGroups(List<CommandGroupMetadata> groups) {
+        List<CommandGroupMetadata> copy = new ArrayList<>(groups);
+        List<String> names = new ArrayList<>(copy.size());
+        for (CommandGroupMetadata group : copy) {
+            names.add(group.getName());
+        }
+        return new NameIndex<>(copy, names);
+    }
+
+    /**
+     * Finds the item with the given name
+     *
+     * @param name
+     *            Name
+     * @param allowAbbreviations
+     *            Whether unambiguous abbreviations of names are permitted
+     * @return Item if found, {@code null} otherwise
+     */
+    T find(String name, boolean allowAbbreviations) {
+        if (name == null)
+            return null;
+        if (!allowAbbreviations)
+            return this.exact.get(name);
+
+        T item = this.exactAbbreviated.get(name);
+        if (item != null)
+            return item;
+
+        // Binary search for the first name which is >= the prefix, then all
+        // names starting with the prefix follow contiguously
+        int low = 0, high = this.names.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (this.names[mid].compareTo(name) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        // Abbreviation is only valid if it identifies precisely one item
+        if (low < this.names.length && this.names[low].startsWith(name)) {
+            if (low + 1 < this.names.length && this.names[low + 1].startsWith(name))
+                return null;
+            return this.items.get(this.owners[low]);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,272 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.restrictions.options.MutuallyExclusiveRestriction;
+import com.github.rvesse.airline.restrictions.options.RequireFromRestriction;
+import com.github.rvesse.airline.utils.AirlineUtils;
+
+/**
+ * An immutable list of options which is additionally indexed by option name
+ * <p>
+ * Metadata classes expose their options as instances of this class so that
+ * option parsers can resolve a token to an option via a hash lookup for exact
+ * names or a binary search over the sorted names for abbreviations, rather
+ * than scanning every option for every token. The first characters of all
+ * option names are also indexed so tokens which cannot possibly be options
+ * can be identified without any lookup. Lookups give identical results
+ * to the {@link com.github.rvesse.airline.utils.predicates.parser.OptionFinder}
+ * and
+ * {@link com.github.rvesse.airline.utils.predicates.parser.AbbreviatedOptionFinder}
+ * predicates applied over the list.
+ * </p>
+ * <p>
+ * Options are also indexed by the tags of their mutual exclusion and require
+ * from restrictions so those restrictions can find the other options in their
+ * group without scanning every option.
+ * </p>
+ */
+public final class OptionIndex extends AbstractList<OptionMetadata> implements RandomAccess {
+
+    private static final OptionIndex EMPTY = new OptionIndex(Collections.<OptionMetadata> emptyList());
+
+    /**
+     * Option names shorter than this are never considered as abbreviations
+     */
+    private static final int MIN_ABBREVIATABLE_LENGTH = 3;
+
+    private final List<OptionMetadata> options;
+    private final Map<String, OptionMetadata> exact = new HashMap<>();
+    private final Map<String, OptionMetadata> exactAbbreviated = new HashMap<>();
+    private final String[] names;
+    private final int[] owners;
+    private final BitSet nameStarts = new BitSet();
+    private final Map<String, List<OptionMetadata>> mutuallyExclusive = new HashMap<>();
+    private final Map<String, List<OptionMetadata>> requiredFrom = new HashMap<>();
+
+    private OptionIndex(List<OptionMetadata> options) {
+        this.options = options;
+
+        Map<String, OptionMetadata> lastExact = new HashMap<>();
+        final List<String> names = new ArrayList<>();
+        final List<Integer> owners = new ArrayList<>();
+        for (int i = 0; i < options.size(); i++) {
+            OptionMetadata option = options.get(i);
+            for (String name : option.getOptions()) {
+                if (!name.isEmpty())
+                    this.nameStarts.set(name.charAt(0));
+                if (!this.exact.containsKey(name))
+                    this.exact.put(name, option);
+                lastExact.put(name, option);
+                if (name.length() >= MIN_ABBREVIATABLE_LENGTH) {
+                    names.add(name);
+                    owners.add(i);
+                }
+            }
+            indexTags(option);
+        }
+
+        // When abbreviations are enabled the last exact match wins but the
+        // result is the first option equal to it
+        for (Map.Entry<String, OptionMetadata> e : lastExact.entrySet()) {
+            this.exactAbbreviated.put(e.getKey(), options.get(options.indexOf(e.getValue())));
+        }
+
+        // Sort the abbreviatable names so all names sharing a prefix are
+        // contiguous
+        Integer[] order = new Integer[names.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return names.get(a).compareTo(names.get(b));
+            }
+        });
+        this.names = new String[order.length];
+        this.owners = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            this.names[i] = names.get(order[i]);
+            this.owners[i] = owners.get(order[i]);
+        }
+    }
+
+    private void indexTags(OptionMetadata option) {
+        // Options may have several restrictions with the same tag but should
+        // only be indexed once per tag
+        Set<String> mutuallyExclusive = new LinkedHashSet<>(), requiredFrom = new LinkedHashSet<>();
+        for (OptionRestriction restriction : option.getRestrictions()) {
+            if (restriction instanceof MutuallyExclusiveRestriction) {
+                mutuallyExclusive.add(((MutuallyExclusiveRestriction) restriction).getTag());
+            } else if (restriction instanceof RequireFromRestriction) {
+                requiredFrom.add(((RequireFromRestriction) restriction).getTag());
+            }
+        }
+        addTagged(this.mutuallyExclusive, mutuallyExclusive, option);
+        addTagged(this.requiredFrom, requiredFrom, option);
+    }
+
+    private static void addTagged(Map<String, List<OptionMetadata>> index, Set<String> tags, OptionMetadata option) {
+        if (tags.isEmpty())
+            return;
+        // A null tag matches any option with the relevant restriction
+        if (!tags.contains(null))
+            tags.add(null);
+        for (String tag : tags) {
+            List<OptionMetadata> options = index.get(tag);
+            if (options == null) {
+                options = new ArrayList<>();
+                index.put(tag, options);
+            }
+            options.add(option);
+        }
+    }
+
+    /**
+     * Gets an empty index
+     *
+     * @return Empty index
+     */
+    public static OptionIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates an index over the given options, if the options are already an
+     * index they are returned as-is
+     *
+     * @param options
+     *            Options
+     * @return Option index
+     */
+    public static OptionIndex of(Iterable<OptionMetadata> options) {
+        if (options instanceof OptionIndex)
+            return (OptionIndex) options;
+        List<OptionMetadata> copy = AirlineUtils.unmodifiableListCopy(options);
+        return copy.isEmpty() ? EMPTY : new OptionIndex(copy);
+    }
+
+    /**
+     * Finds the option with the given name
+     *
+     * @param name
+     *            Name
+     * @param allowAbbreviations
+     *            Whether unambiguous abbreviations of option names are
+     *            permitted
+     * @return Option if found, {@code null} otherwise
+     */
+    public OptionMetadata find(String name, boolean allowAbbreviations) {
+        if (name == null)
+            return null;
+        if (!allowAbbreviations)
+            return this.exact.get(name);
+
+        OptionMetadata option = this.exactAbbreviated.get(name);
+        if (option != null)
+            return option;
+
+        // Binary search for the first name which is >= the prefix, then all
+        // names starting with the prefix follow contiguously
+        int low = 0, high = this.names.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (this.names[mid].compareTo(name) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        // Abbreviation is only valid if it identifies precisely one option
+        int candidate = -1;
+        for (int i = low; i < this.names.length && this.names[i].startsWith(name); i++) {
+            if (candidate == -1) {
+                candidate = this.owners[i];
+            } else if (candidate != this.owners[i]) {
+                return null;
+            }
+        }
+        return candidate != -1 ? this.options.get(candidate) : null;
+    }
+
+    /**
+     * Gets whether any option name starts with the given character, since
+     * abbreviations are prefixes of option names a token that does not start
+     * with such a character can never be resolved to an option
+     * 
+     * @param c
+     *            Character
+     * @return True if some option name starts with the character, false
+     *         otherwise
+     */
+    public boolean isOptionNameStart(char c) {
+        return this.nameStarts.get(c);
+    }
+
+    /**
+     * Gets the options that are mutually exclusive with other options with the
+     * given tag
+     * 
+     * @param tag
+     *            Tag, if {@code null} all options with a mutual exclusion
+     *            restriction are returned
+     * @return Options in the order they appear in this index
+     */
+    public List<OptionMetadata> getMutuallyExclusiveOptions(String tag) {
+        List<OptionMetadata> options = this.mutuallyExclusive.get(tag);
+        return options != null ? Collections.unmodifiableList(options) : Collections.<OptionMetadata> emptyList();
+    }
+
+    /**
+     * Gets the options from which one/more options are required with the given
+     * tag
+     * 
+     * @param tag
+     *            Tag, if {@code null} all options with a require from
+     *            restriction are returned
+     * @return Options in the order they appear in this index
+     */
+    public List<OptionMetadata> getRequiredFromOptions(String tag) {
+        List<OptionMetadata> options = this.requiredFrom.get(tag);
+        return options != null ? Collections.unmodifiableList(options) : Collections.<OptionMetadata> emptyList();
+    }
+
+    @Override
+    public OptionMetadata get(int index) {
+        return this.options.get(index);
+    }
+
+    @Override
+    public int size() {
+        return this.options.size();
+    }
+}
@@ -18,6 +18,7 @@ package com.github.rvesse.airline.model;
 import com.github.rvesse.airline.Accessor;
 import com.github.rvesse.airline.annotations.OptionType;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.restrictions.OptionValidationPlan;
 import com.github.rvesse.airline.types.DefaultTypeConverterProvider;
 import com.github.rvesse.airline.types.TypeConverterProvider;
 import com.github.rvesse.airline.utils.AirlineUtils;
@@ -40,8 +41,10 @@ public class OptionMetadata {
     private final int arity;
     private final boolean hidden, overrides, sealed;
     private final List<OptionRestriction> restrictions;
+    private final OptionValidationPlan validationPlan;
     private final TypeConverterProvider provider;
     private Set<Accessor> accessors;
+    private int hash;
 
     //@formatter:off
     public OptionMetadata(OptionType optionType, 
@@ -77,6 +80,7 @@ public class OptionMetadata {
         this.sealed = sealed;
         this.restrictions = restrictions != null ? AirlineUtils.unmodifiableListCopy(restrictions)
                 : Collections.<OptionRestriction> emptyList();
+        this.validationPlan = new OptionValidationPlan(this.restrictions);
         this.provider = typeConverterProvider != null ? typeConverterProvider : new DefaultTypeConverterProvider();
 
         if (path != null) {
@@ -101,6 +105,7 @@ public class OptionMetadata {
         this.overrides = option.overrides;
         this.sealed = option.sealed;
         this.restrictions = option.restrictions;
+        this.validationPlan = option.validationPlan;
         this.provider = option.provider;
 
         Set<Accessor> accessors = new LinkedHashSet<Accessor>();
@@ -193,6 +198,16 @@ public class OptionMetadata {
         return this.restrictions;
     }
 
+    /**
+     * Gets the validation plan i.e. the restrictions that participate in each
+     * validation phase
+     * 
+     * @return Validation plan
+     */
+    public OptionValidationPlan getValidationPlan() {
+        return this.validationPlan;
+    }
+
     public TypeConverterProvider getTypeConverterProvider() {
         return this.provider;
     }
@@ -238,7 +253,12 @@ public class OptionMetadata {
 
     @Override
     public int hashCode() {
-        int result = optionType.hashCode();
+        // Options are frequently used as map keys during parsing so cache the
+        // hash code, all the fields it depends upon are immutable
+        int result = this.hash;
+        if (result != 0)
+            return result;
+        result = optionType.hashCode();
         result = 31 * result + options.hashCode();
         result = 31 * result + titles.hashCode();
         result = 31 * result + (description != null ? description.hashCode() : 0);
@@ -246,6 +266,7 @@ public class OptionMetadata {
         result = 31 * result + (hidden ? 1 : 0);
         result = 31 * result + (overrides ? 1 : 0);
         result = 31 * result + (sealed ? 1 : 0);
+        this.hash = result;
         return result;
     }
 
@@ -15,16 +15,26 @@
  */
 package com.github.rvesse.airline.model;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
 
 import com.github.rvesse.airline.CommandFactory;
 import com.github.rvesse.airline.DefaultCommandFactory;
+import com.github.rvesse.airline.parser.aliases.AliasTemplate;
 import com.github.rvesse.airline.parser.aliases.UserAliasesSource;
 import com.github.rvesse.airline.parser.errors.handlers.FailFast;
 import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
+import com.github.rvesse.airline.parser.instrumentation.NoopParseListener;
+import com.github.rvesse.airline.parser.instrumentation.ParseListener;
+import com.github.rvesse.airline.parser.options.AbstractOptionParser;
 import com.github.rvesse.airline.parser.options.OptionParser;
+import com.github.rvesse.airline.parser.options.TokenShape;
 import com.github.rvesse.airline.types.DefaultTypeConverter;
 import com.github.rvesse.airline.types.TypeConverter;
 import com.github.rvesse.airline.utils.AirlineUtils;
@@ -39,21 +49,50 @@ public class ParserMetadata<T> {
      */
     public static final String DEFAULT_ARGUMENTS_SEPARATOR = "--";
 
-    private final boolean allowAbbreviatedCommands, allowAbbreviatedOptions, aliasesOverrideBuiltIns, aliasesMayChain;
+    private final boolean allowAbbreviatedCommands, allowAbbreviatedOptions, aliasesOverrideBuiltIns, aliasesMayChain,
+            lightweightErrors;
     private final List<OptionParser<T>> optionParsers;
+    private final List<List<OptionParser<T>>> shapedOptionParsers;
     private final List<AliasMetadata> aliases;
+    private volatile AliasTable aliasTable;
     private final UserAliasesSource<T> userAliases;
     private final TypeConverter typeConverter;
     private final CommandFactory<T> commandFactory;
-    private final String argsSeparator, flagNegationPrefix;
+    private final String argsSeparator, flagNegationPrefix, argumentFilePrefix;
     private final ParserErrorHandler errorHandler;
+    private final ParseListener parseListener;
     private final char forceBuiltInPrefix;
 
+    /**
+     * Creates new parser metadata
+     * <p>
+     * Settings added since this constructor was introduced, e.g. argument
+     * files, lightweight errors and parse listeners, take their default
+     * values, use {@link com.github.rvesse.airline.builder.ParserBuilder} to
+     * configure them.
+     * </p>
+     */
     public ParserMetadata(CommandFactory<T> commandFactory, List<OptionParser<T>> optionParsers,
             TypeConverter typeConverter, ParserErrorHandler errorHandler, boolean allowAbbreviateCommands,
             boolean allowAbbreviatedOptions, List<AliasMetadata> aliases, UserAliasesSource<T> userAliases,
             boolean aliasesOverrideBuiltIns, boolean aliasesMayChain, char forceBuiltInPrefix,
             String argumentsSeparator, String flagNegationPrefix) {
+        this(commandFactory, optionParsers, typeConverter, errorHandler, allowAbbreviateCommands,
+                allowAbbreviatedOptions, aliases, userAliases, null, aliasesOverrideBuiltIns, aliasesMayChain,
+                forceBuiltInPrefix, argumentsSeparator, flagNegationPrefix, null, false, null);
+    }
+
+    /**
+     * Creates new parser metadata with all settings, this is used by
+     * {@link com.github.rvesse.airline.builder.ParserBuilder} which is the
+     * preferred way to create parser metadata
+     */
+    public ParserMetadata(CommandFactory<T> commandFactory, List<OptionParser<T>> optionParsers,
+            TypeConverter typeConverter, ParserErrorHandler errorHandler, boolean allowAbbreviateCommands,
+            boolean allowAbbreviatedOptions, List<AliasMetadata> aliases, UserAliasesSource<T> userAliases,
+            List<AliasMetadata> userAliasData, boolean aliasesOverrideBuiltIns, boolean aliasesMayChain,
+            char forceBuiltInPrefix, String argumentsSeparator, String flagNegationPrefix, String argumentFilePrefix,
+            boolean lightweightErrors, ParseListener parseListener) {
         if (optionParsers == null)
             throw new NullPointerException("optionParsers cannot be null");
         if (aliases == null)
@@ -61,6 +100,10 @@ public class ParserMetadata<T> {
 
         // Error handling
         this.errorHandler = errorHandler != null ? errorHandler : new FailFast();
+        this.lightweightErrors = lightweightErrors;
+
+        // Instrumentation
+        this.parseListener = parseListener != null ? parseListener : NoopParseListener.INSTANCE;
 
         // Command parsing
         this.commandFactory = commandFactory != null ? commandFactory : new DefaultCommandFactory<T>();
@@ -69,11 +112,15 @@ public class ParserMetadata<T> {
         // Option Parsing
         this.typeConverter = typeConverter != null ? typeConverter : new DefaultTypeConverter();
         this.optionParsers = AirlineUtils.unmodifiableListCopy(optionParsers);
+        this.shapedOptionParsers = groupByShape(this.optionParsers);
         this.allowAbbreviatedOptions = allowAbbreviatedOptions;
 
         // Aliases
         this.aliases = AirlineUtils.unmodifiableListCopy(aliases);
         this.userAliases = userAliases;
+        // User aliases are loaded by the caller, a reloadable source refreshes
+        // them on first use since generation 0 means not yet loaded
+        this.aliasTable = new AliasTable(this.aliases, userAliasData, 0);
         this.aliasesOverrideBuiltIns = aliasesOverrideBuiltIns;
         this.aliasesMayChain = aliasesMayChain;
         this.forceBuiltInPrefix = forceBuiltInPrefix;
@@ -89,6 +136,13 @@ public class ParserMetadata<T> {
         // Flag negation
         this.flagNegationPrefix = StringUtils.isNotEmpty(flagNegationPrefix) ? flagNegationPrefix : null;
 
+        // Argument files
+        if (StringUtils.isNotEmpty(argumentFilePrefix)) {
+            if (StringUtils.containsWhitespace(argumentFilePrefix))
+                throw new IllegalArgumentException("argumentFilePrefix cannot contain any whitespace");
+        }
+        this.argumentFilePrefix = StringUtils.isNotEmpty(argumentFilePrefix) ? argumentFilePrefix : null;
+
     }
 
     /**
@@ -118,13 +172,98 @@ public class ParserMetadata<T> {
         return errorHandler;
     }
 
+    /**
+     * Gets whether parse errors should be lightweight i.e. created without
+     * stack traces and with lazily formatted messages
+     * 
+     * @return True if lightweight errors are used, false otherwise
+     */
+    public boolean usesLightweightErrors() {
+        return lightweightErrors;
+    }
+
+    /**
+     * Gets the parse listener that receives instrumentation events from the
+     * parser
+     * 
+     * @return Parse listener, the {@link NoopParseListener} if none was
+     *         configured
+     */
+    public ParseListener getParseListener() {
+        return parseListener;
+    }
+
+    /**
+     * Aliases and their precompiled templates
+     */
+    private static final class AliasTable {
+        private final List<AliasMetadata> aliases;
+        private final Map<String, AliasTemplate> templates = new HashMap<>();
+        private final long generation;
+
+        private AliasTable(List<AliasMetadata> aliases, List<AliasMetadata> userAliases, long generation) {
+            if (userAliases != null && !userAliases.isEmpty()) {
+                // User aliases override explicitly defined aliases
+                Map<String, AliasMetadata> merged = new LinkedHashMap<>();
+                for (AliasMetadata alias : aliases) {
+                    if (!merged.containsKey(alias.getName()))
+                        merged.put(alias.getName(), alias);
+                }
+                for (AliasMetadata alias : userAliases) {
+                    merged.put(alias.getName(), alias);
+                }
+                aliases = AirlineUtils.unmodifiableListCopy(new ArrayList<>(merged.values()));
+            }
+            this.aliases = aliases;
+            this.generation = generation;
+            for (AliasMetadata alias : this.aliases) {
+                // First definition of an alias wins
+                if (!this.templates.containsKey(alias.getName()))
+                    this.templates.put(alias.getName(), new AliasTemplate(alias));
+            }
+        }
+    }
+
+    private AliasTable getAliasTable() {
+        AliasTable table = this.aliasTable;
+        if (this.userAliases == null || !this.userAliases.isReloadable())
+            return table;
+
+        try {
+            long generation = this.userAliases.refresh();
+            if (generation != table.generation) {
+                table = new AliasTable(this.aliases, this.userAliases.getCachedAliases(), generation);
+                this.aliasTable = table;
+            }
+        } catch (IOException e) {
+            // Keep using the last successfully loaded aliases
+        }
+        return table;
+    }
+
     /**
      * Gets the defined command aliases
+     * <p>
+     * This includes any user aliases, if the user aliases source is
+     * {@link UserAliasesSource#isReloadable()} then this reflects the current
+     * contents of the user alias files.
+     * </p>
      * 
      * @return Aliases
      */
     public List<AliasMetadata> getAliases() {
-        return aliases;
+        return getAliasTable().aliases;
+    }
+
+    /**
+     * Finds the precompiled template for the alias with the given name
+     * 
+     * @param name
+     *            Alias name
+     * @return Alias template, {@code null} if no such alias
+     */
+    public AliasTemplate findAlias(String name) {
+        return name != null ? getAliasTable().templates.get(name) : null;
     }
 
     /**
@@ -175,6 +314,37 @@ public class ParserMetadata<T> {
         return optionParsers;
     }
 
+    /**
+     * Gets the option parsers which may accept a token of the given shape in
+     * the order they are configured
+     * 
+     * @param shape
+     *            Token shape as determined by
+     *            {@link TokenShape#classify(String, List, String)}
+     * @return Option parsers
+     */
+    public List<OptionParser<T>> getOptionParsers(int shape) {
+        return shapedOptionParsers.get(TokenShape.indexOf(shape));
+    }
+
+    private static <T> List<List<OptionParser<T>>> groupByShape(List<OptionParser<T>> optionParsers) {
+        List<List<OptionParser<T>>> shaped = new ArrayList<>();
+        for (int i = 0; i < TokenShape.COUNT; i++) {
+            int shape = 1 << i;
+            List<OptionParser<T>> parsers = new ArrayList<>();
+            for (OptionParser<T> parser : optionParsers) {
+                // Parsers not derived from our abstract parser may accept
+                // anything
+                int accepted = parser instanceof AbstractOptionParser
+                        ? ((AbstractOptionParser<T>) parser).getAcceptedTokenShapes() : TokenShape.ANY;
+                if ((accepted & shape) != 0)
+                    parsers.add(parser);
+            }
+            shaped.add(AirlineUtils.unmodifiableListCopy(parsers));
+        }
+        return AirlineUtils.unmodifiableListCopy(shaped);
+    }
+
     /**
      * Gets whether command/group name abbreviation is allowed
      * 
@@ -220,6 +390,24 @@ public class ParserMetadata<T> {
         return this.flagNegationPrefix;
     }
 
+    /**
+     * Gets whether this configuration allows argument files
+     * 
+     * @return True if argument files are allowed, false otherwise
+     */
+    public boolean allowsArgumentFiles() {
+        return this.argumentFilePrefix != null;
+    }
+
+    /**
+     * Gets the argument file prefix that is in use (if any)
+     * 
+     * @return Argument file prefix, may be {@code null} if not enabled
+     */
+    public String getArgumentFilePrefix() {
+        return this.argumentFilePrefix;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -229,10 +417,13 @@ public class ParserMetadata<T> {
         sb.append(", optionParsers=").append(optionParsers);
         sb.append(", typeConverter=").append(typeConverter.getClass().getCanonicalName());
         sb.append(", allowAbbreviatedOptions=").append(allowAbbreviatedOptions);
-        sb.append(", aliases=").append(aliases);
+        sb.append(", aliases=").append(getAliases());
         sb.append(", aliasesOverrideBuiltIns=").append(aliasesOverrideBuiltIns);
         sb.append(", argumentsSeparator='").append(argsSeparator).append("'");
         sb.append(", flagNegationPrefix='").append(flagNegationPrefix).append("'");
+        sb.append(", argumentFilePrefix='").append(argumentFilePrefix).append("'");
+        sb.append(", lightweightErrors=").append(lightweightErrors);
+        sb.append(", parseListener=").append(parseListener.getClass().getCanonicalName());
         sb.append("}");
         return sb.toString();
     }
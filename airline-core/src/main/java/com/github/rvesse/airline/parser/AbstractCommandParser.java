@@ -23,18 +23,20 @@ import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.aliases.AliasResolver;
+import com.github.rvesse.airline.parser.errors.ParseErrorLimitException;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.instrumentation.NoopParseListener;
+import com.github.rvesse.airline.parser.instrumentation.ParseListener;
+import com.github.rvesse.airline.parser.instrumentation.ParsePhase;
 import com.github.rvesse.airline.parser.options.OptionParser;
+import com.github.rvesse.airline.parser.options.TokenShape;
 import com.github.rvesse.airline.utils.AirlineUtils;
-import com.github.rvesse.airline.utils.predicates.parser.AbbreviatedCommandFinder;
-import com.github.rvesse.airline.utils.predicates.parser.AbbreviatedGroupFinder;
-import com.github.rvesse.airline.utils.predicates.parser.CommandFinder;
-import com.github.rvesse.airline.utils.predicates.parser.GroupFinder;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
 
-import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.collections4.ListUtils;
-import org.apache.commons.collections4.Predicate;
 import org.apache.commons.collections4.iterators.PeekingIterator;
 
 /**
@@ -46,6 +48,8 @@ import org.apache.commons.collections4.iterators.PeekingIterator;
  */
 public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
 
+    private final AliasResolver<T> aliasResolver = new AliasResolver<T>();
+
     /**
      * Tries to parse the arguments
      * 
@@ -69,32 +73,58 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
      * @return Parser State
      */
     protected ParseState<T> tryParse(GlobalMetadata<T> metadata, Iterable<String> args) {
-        PeekingIterator<String> tokens = new PeekingIterator<String>(args.iterator());
+        ParseListener listener = metadata.getParserConfiguration().getParseListener();
+        Iterator<String> source = countTokens(
+                expandArgumentFiles(args.iterator(), metadata.getParserConfiguration()), listener);
+        try {
+            PeekingIterator<String> tokens = new PeekingIterator<String>(source);
 
-        //@formatter:off
-        ParseState<T> state = ParseState.<T> newInstance()
-                                        .pushContext(Context.GLOBAL)
-                                        .withGlobal(metadata);
-        //@formatter:on
+            //@formatter:off
+            ParseState<T> state = ParseState.<T> newInstance()
+                                            .pushContext(Context.GLOBAL)
+                                            .withGlobal(metadata);
+            //@formatter:on
 
-        // Parse global options
-        state = parseOptions(tokens, state, metadata.getOptions());
+            // Parse global options
+            long start = listener.phaseStarted(ParsePhase.GLOBAL_OPTIONS);
+            try {
+                state = parseOptions(tokens, state, metadata.getOptions());
+            } finally {
+                listener.phaseFinished(ParsePhase.GLOBAL_OPTIONS, start);
+            }
 
-        // Apply aliases
-        tokens = applyAliases(tokens, state);
+            // Apply aliases
+            start = listener.phaseStarted(ParsePhase.ALIASES);
+            try {
+                tokens = applyAliases(tokens, state);
+            } finally {
+                listener.phaseFinished(ParsePhase.ALIASES, start);
+            }
 
-        // Parse group
-        state = parseGroup(tokens, state);
+            // Parse group
+            start = listener.phaseStarted(ParsePhase.GROUP);
+            try {
+                state = parseGroup(tokens, state);
+            } finally {
+                listener.phaseFinished(ParsePhase.GROUP, start);
+            }
 
-        // parse command
-        state = parseCommand(tokens, state);
+            // parse command
+            start = listener.phaseStarted(ParsePhase.COMMAND);
+            try {
+                state = parseCommand(tokens, state);
+            } finally {
+                listener.phaseFinished(ParsePhase.COMMAND, start);
+            }
 
-        return state;
+            return state;
+        } finally {
+            close(source);
+        }
     }
 
     protected PeekingIterator<String> applyAliases(PeekingIterator<String> tokens, ParseState<T> state) {
-        AliasResolver<T> resolver = new AliasResolver<T>();
-        return resolver.resolveAliases(tokens, state);
+        return aliasResolver.resolveAliases(tokens, state);
     }
 
     /**
@@ -109,34 +139,97 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
      * @return Parser State
      */
     protected ParseState<T> tryParse(ParserMetadata<T> parserConfig, CommandMetadata command, Iterable<String> args) {
-        PeekingIterator<String> tokens = new PeekingIterator<String>(args.iterator());
-        //@formatter:off
-        ParseState<T> state = ParseState.<T> newInstance()
-                                        .pushContext(Context.GLOBAL)
-                                        .withConfiguration(parserConfig)
-                                        .withCommand(command)
-                                        .pushContext(Context.COMMAND);
-        //@formatter:off
-
-        state = parseCommandOptionsAndArguments(tokens, state, command);
-        return state;
+        Iterator<String> source = countTokens(expandArgumentFiles(args.iterator(), parserConfig),
+                parserConfig.getParseListener());
+        try {
+            PeekingIterator<String> tokens = new PeekingIterator<String>(source);
+            //@formatter:off
+            ParseState<T> state = ParseState.<T> newInstance()
+                                            .pushContext(Context.GLOBAL)
+                                            .withConfiguration(parserConfig)
+                                            .withCommand(command)
+                                            .pushContext(Context.COMMAND);
+            //@formatter:off
+
+            state = parseCommandOptionsAndArguments(tokens, state, command);
+            return state;
+        } finally {
+            close(source);
+        }
     }
 
-    protected ParseState<T> parseCommand(PeekingIterator<String> tokens, ParseState<T> state) {
-        Predicate<CommandMetadata> findCommandPredicate;
-        List<CommandMetadata> expectedCommands = state.getGlobal().getDefaultGroupCommands();
-        if (state.getGroup() != null) {
-            expectedCommands = state.getGroup().getCommands();
+    /**
+     * Applies argument file expansion to the tokens if the parser
+     * configuration enables it
+     * 
+     * @param tokens
+     *            Tokens
+     * @param parserConfig
+     *            Parser configuration
+     * @return Tokens with argument files expanded
+     */
+    protected Iterator<String> expandArgumentFiles(Iterator<String> tokens, ParserMetadata<T> parserConfig) {
+        if (!parserConfig.allowsArgumentFiles())
+            return tokens;
+        return new ArgumentFileExpander(tokens, parserConfig.getArgumentFilePrefix(),
+                parserConfig.getErrorHandler());
+    }
+
+    /**
+     * Wraps the tokens so that the number of tokens read is reported to the
+     * given listener, if the listener is the {@link NoopParseListener} the
+     * tokens are returned as-is
+     * 
+     * @param tokens
+     *            Tokens
+     * @param listener
+     *            Parse listener
+     * @return Tokens
+     */
+    protected Iterator<String> countTokens(Iterator<String> tokens, ParseListener listener) {
+        if (listener == NoopParseListener.INSTANCE)
+            return tokens;
+        return new TokenCounter(tokens, listener);
+    }
+
+    /**
+     * Gets how many errors a parse exception represents for the purposes of
+     * reporting to a {@link ParseListener}
+     * 
+     * @param e
+     *            Parse exception
+     * @return Number of errors
+     */
+    protected static int countErrors(ParseException e) {
+        if (e instanceof ParseErrorLimitException)
+            return ((ParseErrorLimitException) e).getErrors().size();
+        // Collecting handlers may aggregate multiple errors as suppressed
+        // errors of a single exception
+        int suppressed = e.getSuppressed().length;
+        return suppressed > 0 ? suppressed : 1;
+    }
+
+    private static void close(Iterator<String> tokens) {
+        if (tokens instanceof Closeable) {
+            try {
+                ((Closeable) tokens).close();
+            } catch (IOException e) {
+                // Ignore
+            }
         }
+    }
 
+    protected ParseState<T> parseCommand(PeekingIterator<String> tokens, ParseState<T> state) {
         if (tokens.hasNext()) {
-            //@formatter:off
-            findCommandPredicate = state.getParserConfiguration().allowsAbbreviatedCommands() 
-                                   ? new AbbreviatedCommandFinder(tokens.peek(), expectedCommands)
-                                   : new CommandFinder(tokens.peek());
-            //@formatter:on
-            CommandMetadata command = AirlineUtils.find(expectedCommands, findCommandPredicate,
-                    state.getGroup() != null ? state.getGroup().getDefaultCommand() : null);
+            boolean abbreviate = state.getParserConfiguration().allowsAbbreviatedCommands();
+            CommandMetadata command;
+            if (state.getGroup() != null) {
+                command = state.getGroup().findCommand(tokens.peek(), abbreviate);
+                if (command == null)
+                    command = state.getGroup().getDefaultCommand();
+            } else {
+                command = state.getGlobal().findDefaultGroupCommand(tokens.peek(), abbreviate);
+            }
 
             boolean usingDefault = false;
             if (command == null && state.getGroup() == null && state.getGlobal().getDefaultCommand() != null) {
@@ -169,42 +262,36 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
 
     protected ParseState<T> parseCommandOptionsAndArguments(PeekingIterator<String> tokens, ParseState<T> state,
             CommandMetadata command) {
-        while (tokens.hasNext()) {
-            state = parseOptions(tokens, state, command.getAllOptions());
+        ParseListener listener = state.getParserConfiguration().getParseListener();
+        long start = listener.phaseStarted(ParsePhase.OPTIONS_AND_ARGUMENTS);
+        try {
+            while (tokens.hasNext()) {
+                state = parseOptions(tokens, state, command.getAllOptions());
 
-            state = parseArgs(state, tokens, command.getArguments(), command.getDefaultOption());
+                state = parseArgs(state, tokens, command.getArguments(), command.getDefaultOption());
+            }
+        } finally {
+            listener.phaseFinished(ParsePhase.OPTIONS_AND_ARGUMENTS, start);
         }
         return state;
     }
 
     protected ParseState<T> parseGroup(PeekingIterator<String> tokens, ParseState<T> state) {
-        Predicate<CommandGroupMetadata> findGroupPredicate;
         if (tokens.hasNext()) {
-            //@formatter:off
-            findGroupPredicate = state.getParserConfiguration().allowsAbbreviatedCommands() 
-                                 ? new AbbreviatedGroupFinder(tokens.peek(), state.getGlobal().getCommandGroups()) 
-                                 : new GroupFinder(tokens.peek());
-            //@formatter:on
-            CommandGroupMetadata group = CollectionUtils.find(state.getGlobal().getCommandGroups(), findGroupPredicate);
+            boolean abbreviate = state.getParserConfiguration().allowsAbbreviatedCommands();
+            CommandGroupMetadata group = state.getGlobal().findCommandGroup(tokens.peek(), abbreviate);
             if (group != null) {
                 tokens.next();
                 state = state.withGroup(group).pushContext(Context.GROUP);
-                state = parseOptions(tokens, state,
-                        ListUtils.union(state.getGlobal().getOptions(), state.getGroup().getOptions()));
+                state = parseOptions(tokens, state, state.getGlobal().getGroupScopeOptions(group));
 
                 // Possibly may have sub-groups specified
                 while (tokens.hasNext() && state.getGroup().getSubGroups().size() > 0) {
-                    //@formatter:off
-                    findGroupPredicate = state.getParserConfiguration().allowsAbbreviatedCommands() 
-                                         ? new AbbreviatedGroupFinder(tokens.peek(), state.getGroup().getSubGroups()) 
-                                         : new GroupFinder(tokens.peek());
-                    //@formatter:on
-                    group = CollectionUtils.find(state.getGroup().getSubGroups(), findGroupPredicate);
+                    group = state.getGroup().findSubGroup(tokens.peek(), abbreviate);
                     if (group != null) {
                         tokens.next();
                         state = state.withGroup(group).pushContext(Context.GROUP);
-                        state = parseOptions(tokens, state,
-                                ListUtils.union(state.getGlobal().getOptions(), state.getGroup().getOptions()));
+                        state = parseOptions(tokens, state, state.getGlobal().getGroupScopeOptions(group));
                     } else {
                         // Either a group that has a mixture of sub-groups and
                         // commands in which case we need to break out of this
@@ -222,10 +309,16 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
     private ParseState<T> parseOptions(PeekingIterator<String> tokens, ParseState<T> state,
             List<OptionMetadata> allowedOptions) {
 
-        // Get the option parsers in use
-        List<OptionParser<T>> optionParsers = state.getParserConfiguration().getOptionParsers();
+        ParserMetadata<T> parserConfig = state.getParserConfiguration();
+        String argsSeparator = parserConfig.getArgumentsSeparator();
 
         while (tokens.hasNext()) {
+            // Classify the token once so we only try the option parsers that
+            // could accept a token of that shape, tokens which cannot be
+            // options skip the option parsers entirely
+            int shape = TokenShape.classify(tokens.peek(), allowedOptions, argsSeparator);
+            List<OptionParser<T>> optionParsers = parserConfig.getOptionParsers(shape);
+
             // Try to parse next option(s) using different styles. If code
             // matches it returns the next parser state, otherwise it returns
             // null.
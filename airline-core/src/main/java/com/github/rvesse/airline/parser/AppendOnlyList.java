@@ -0,0 +1,245 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+import com.github.rvesse.airline.types.PrimitiveBuffer;
+import com.github.rvesse.airline.types.PrimitiveValues;
+
+/**
+ * An immutable list view over append-only storage that may be shared between
+ * many views
+ * <p>
+ * Appending to the most recent view of some storage simply writes into the
+ * shared storage and returns a new view that is one element longer, so a
+ * sequence of appends costs amortised {@code O(1)} per element rather than
+ * copying the whole list each time. Older views remain valid since they only
+ * ever see the prefix of the storage they were created with. Appending to an
+ * older view branches off into a private copy of the storage so that views
+ * never observe each others changes.
+ * </p>
+ * <p>
+ * Storage may alternatively be a {@link PrimitiveBuffer} in which case values
+ * are stored without boxing, they are boxed on demand when accessed as list
+ * elements and the primitive values may be copied directly into a primitive
+ * array via {@link #toPrimitiveArray()}.
+ * </p>
+ * <p>
+ * This is not thread safe, views are intended to be used by a single parser
+ * thread as is the case for {@link ParseState}
+ * </p>
+ *
+ * @param <E>
+ *            Element type
+ */
+final class AppendOnlyList<E> extends AbstractList<E> implements RandomAccess, PrimitiveValues {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private static final class Storage {
+        private Object[] elements;
+        private final PrimitiveBuffer primitives;
+        private int size;
+
+        private Storage(Object[] elements, int size) {
+            this.elements = elements;
+            this.primitives = null;
+            this.size = size;
+        }
+
+        private Storage(PrimitiveBuffer primitives) {
+            this.elements = null;
+            this.primitives = primitives;
+            this.size = primitives.size();
+        }
+    }
+
+    private final Storage storage;
+    private final int size;
+
+    private AppendOnlyList(Storage storage, int size) {
+        this.storage = storage;
+        this.size = size;
+    }
+
+    /**
+     * Creates a new empty list
+     *
+     * @return Empty list
+     */
+    static <E> AppendOnlyList<E> empty() {
+        return new AppendOnlyList<E>(new Storage(new Object[0], 0), 0);
+    }
+
+    /**
+     * Creates a new empty list which stores its elements as primitives of the
+     * given type
+     * 
+     * @param type
+     *            Primitive type, see {@link PrimitiveBuffer#isSupported(Class)}
+     * @return Empty list
+     */
+    static <E> AppendOnlyList<E> primitive(Class<?> type) {
+        return new AppendOnlyList<E>(new Storage(new PrimitiveBuffer(type)), 0);
+    }
+
+    /**
+     * Gets whether this is the most recent view of its storage i.e. whether
+     * appending to it will avoid a copy
+     *
+     * @return True if the latest view, false otherwise
+     */
+    boolean isLatest() {
+        return this.storage.size == this.size;
+    }
+
+    /**
+     * Returns a new view with the given element appended, this view is left
+     * unchanged
+     *
+     * @param e
+     *            Element
+     * @return New view
+     */
+    AppendOnlyList<E> append(E e) {
+        Storage target = appendTarget();
+        if (target.primitives != null) {
+            target.primitives.add(e);
+        } else {
+            target.elements[target.size] = e;
+        }
+        target.size++;
+        return new AppendOnlyList<E>(target, this.size + 1);
+    }
+
+    /**
+     * Returns a new view with the given integral value appended, see
+     * {@link PrimitiveBuffer#add(long)}, this view is left unchanged
+     * 
+     * @param value
+     *            Value
+     * @return New view
+     */
+    AppendOnlyList<E> appendLong(long value) {
+        Storage target = primitiveAppendTarget();
+        target.primitives.add(value);
+        target.size++;
+        return new AppendOnlyList<E>(target, this.size + 1);
+    }
+
+    /**
+     * Returns a new view with the given floating point value appended, see
+     * {@link PrimitiveBuffer#add(double)}, this view is left unchanged
+     * 
+     * @param value
+     *            Value
+     * @return New view
+     */
+    AppendOnlyList<E> appendDouble(double value) {
+        Storage target = primitiveAppendTarget();
+        target.primitives.add(value);
+        target.size++;
+        return new AppendOnlyList<E>(target, this.size + 1);
+    }
+
+    /**
+     * Returns a new view with the given boolean value appended, this view is
+     * left unchanged
+     * 
+     * @param value
+     *            Value
+     * @return New view
+     */
+    AppendOnlyList<E> appendBoolean(boolean value) {
+        Storage target = primitiveAppendTarget();
+        target.primitives.add(value);
+        target.size++;
+        return new AppendOnlyList<E>(target, this.size + 1);
+    }
+
+    private Storage primitiveAppendTarget() {
+        if (this.storage.primitives == null)
+            throw new IllegalStateException("Not a primitive list");
+        return appendTarget();
+    }
+
+    /**
+     * Gets the storage to append to ensuring it has capacity for another
+     * element
+     * 
+     * @return Storage
+     */
+    private Storage appendTarget() {
+        Storage target = this.storage;
+        if (!isLatest()) {
+            // Another view has already appended beyond our end so we must
+            // branch off into our own storage
+            if (target.primitives != null)
+                return new Storage(target.primitives.copy(this.size));
+            Object[] elements = new Object[Math.max(INITIAL_CAPACITY, this.size * 2)];
+            System.arraycopy(target.elements, 0, elements, 0, this.size);
+            target = new Storage(elements, this.size);
+        } else if (target.primitives == null && target.size == target.elements.length) {
+            Object[] elements = new Object[Math.max(INITIAL_CAPACITY, target.size * 2)];
+            System.arraycopy(target.elements, 0, elements, 0, target.size);
+            target.elements = elements;
+        }
+        return target;
+    }
+
+    /**
+     * Returns a view of the first {@code size} elements of this view, this
+     * view is left unchanged
+     *
+     * @param size
+     *            Size of the prefix
+     * @return Prefix view
+     */
+    AppendOnlyList<E> prefix(int size) {
+        if (size < 0 || size > this.size)
+            throw new IndexOutOfBoundsException("Size: " + size + ", Available: " + this.size);
+        return size == this.size ? this : new AppendOnlyList<E>(this.storage, size);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E get(int index) {
+        if (index < 0 || index >= this.size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        if (this.storage.primitives != null)
+            return (E) this.storage.primitives.get(index);
+        return (E) this.storage.elements[index];
+    }
+
+    @Override
+    public Class<?> getPrimitiveType() {
+        return this.storage.primitives != null ? this.storage.primitives.getPrimitiveType() : null;
+    }
+
+    @Override
+    public Object toPrimitiveArray() {
+        if (this.storage.primitives == null)
+            throw new IllegalStateException("Not a primitive list");
+        return this.storage.primitives.toPrimitiveArray(this.size);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.github.rvesse.airline.parser.errors.ParseArgumentFileException;
+import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
+
+/**
+ * Token iterator that expands argument files
+ * <p>
+ * Any token starting with the configured prefix is treated as a reference to
+ * an argument file and is replaced by the tokens of that file, these are read
+ * lazily as the parser consumes them. A token starting with the prefix twice
+ * is an escape and is passed through with the first prefix removed. Tokens
+ * read from argument files are never themselves expanded. If an argument file
+ * cannot be read the error is passed to the error handler and the file is
+ * skipped.
+ * </p>
+ */
+final class ArgumentFileExpander implements Iterator<String>, Closeable {
+
+    private final Iterator<String> tokens;
+    private final String prefix;
+    private final ParserErrorHandler errorHandler;
+    private ArgumentFileTokenizer current;
+    private String next;
+    private boolean ready;
+
+    ArgumentFileExpander(Iterator<String> tokens, String prefix, ParserErrorHandler errorHandler) {
+        this.tokens = tokens;
+        this.prefix = prefix;
+        this.errorHandler = errorHandler;
+    }
+
+    private boolean computeNext() {
+        while (true) {
+            if (this.current != null) {
+                try {
+                    if (this.current.hasNext()) {
+                        this.next = this.current.next();
+                        return true;
+                    }
+                } catch (ParseArgumentFileException e) {
+                    this.errorHandler.handleError(e);
+                }
+                close();
+            }
+
+            if (!this.tokens.hasNext())
+                return false;
+            String token = this.tokens.next();
+            if (token == null || !token.startsWith(this.prefix) || token.length() == this.prefix.length()) {
+                this.next = token;
+                return true;
+            }
+
+            String file = token.substring(this.prefix.length());
+            if (file.startsWith(this.prefix)) {
+                // Escaped
+                this.next = file;
+                return true;
+            }
+            try {
+                this.current = ArgumentFileTokenizer.open(file);
+            } catch (ParseArgumentFileException e) {
+                this.errorHandler.handleError(e);
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!this.ready)
+            this.ready = computeNext();
+        return this.ready;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        this.ready = false;
+        return this.next;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() {
+        if (this.current != null) {
+            this.current.close();
+            this.current = null;
+        }
+    }
+}
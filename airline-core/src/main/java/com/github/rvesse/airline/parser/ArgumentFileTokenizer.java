@@ -0,0 +1,191 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.github.rvesse.airline.parser.aliases.AliasArgumentsParser;
+import com.github.rvesse.airline.parser.errors.ParseArgumentFileException;
+
+/**
+ * Lazily tokenizes an argument file
+ * <p>
+ * The file is read as UTF-8 through a file channel in fixed size chunks and
+ * tokens are produced on demand so the file is never fully materialised in
+ * memory. Tokenization follows the same rules as {@link AliasArgumentsParser}
+ * i.e. tokens are separated by white space, may be enclosed in double quotes
+ * within which {@code \"} is an escaped quote, and outside of quotes white
+ * space may be escaped with a preceding {@code \}.
+ * </p>
+ */
+final class ArgumentFileTokenizer implements Iterator<String>, Closeable {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String file;
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder arg = new StringBuilder();
+    private int position, limit;
+    private String next;
+    private boolean closed;
+
+    ArgumentFileTokenizer(String file, Reader reader) {
+        this.file = file;
+        this.reader = reader;
+    }
+
+    /**
+     * Opens an argument file
+     * 
+     * @param file
+     *            File
+     * @return Tokenizer
+     * @throws ParseArgumentFileException
+     *             Thrown if the file cannot be opened
+     */
+    static ArgumentFileTokenizer open(String file) {
+        try {
+            Path path = Paths.get(file);
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            return new ArgumentFileTokenizer(file,
+                    Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), BUFFER_SIZE));
+        } catch (IOException | InvalidPathException e) {
+            throw new ParseArgumentFileException(e, file, "Unable to read argument file %s: %s", file,
+                    e.getMessage());
+        }
+    }
+
+    private int read() {
+        if (this.position == this.limit) {
+            if (this.closed)
+                return -1;
+            try {
+                int read;
+                do {
+                    read = this.reader.read(this.buffer, 0, this.buffer.length);
+                } while (read == 0);
+                if (read == -1) {
+                    close();
+                    return -1;
+                }
+                this.position = 0;
+                this.limit = read;
+            } catch (IOException e) {
+                throw new ParseArgumentFileException(e, this.file, "Error reading argument file %s: %s", this.file,
+                        e.getMessage());
+            }
+        }
+        return this.buffer[this.position++];
+    }
+
+    private int peek() {
+        int c = read();
+        if (c != -1)
+            this.position--;
+        return c;
+    }
+
+    private String computeNext() {
+        // Skip separating white space
+        int c;
+        do {
+            c = read();
+        } while (c != -1 && Character.isWhitespace(c));
+        if (c == -1)
+            return null;
+
+        this.arg.setLength(0);
+        if (c == '"') {
+            // Quoted argument
+            while (true) {
+                c = read();
+                if (c == -1)
+                    throw new ParseArgumentFileException(this.file, "Mismatched quotes in argument file %s",
+                            this.file);
+                if (c == '"')
+                    return this.arg.toString();
+                if (c == '\\' && peek() == '"') {
+                    // Escaped quote
+                    c = read();
+                }
+                this.arg.append((char) c);
+            }
+        }
+
+        // Unquoted argument, runs to the next unescaped white space
+        while (c != -1) {
+            if (c == '\\') {
+                int next = peek();
+                if (next != -1 && Character.isWhitespace(next)) {
+                    // Escaped white space
+                    this.arg.append((char) read());
+                    c = read();
+                    continue;
+                }
+            } else if (Character.isWhitespace(c)) {
+                break;
+            }
+            this.arg.append((char) c);
+            c = read();
+        }
+        return this.arg.toString();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.next == null)
+            this.next = computeNext();
+        return this.next != null;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        String token = this.next;
+        this.next = null;
+        return token;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() {
+        if (this.closed)
+            return;
+        this.closed = true;
+        try {
+            this.reader.close();
+        } catch (IOException e) {
+            // Ignore, nothing further will be read
+        }
+    }
+}
@@ -28,6 +28,8 @@ import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.instrumentation.ParseListener;
+import com.github.rvesse.airline.parser.instrumentation.ParsePhase;
 import com.github.rvesse.airline.utils.AirlineUtils;
 
 /**
@@ -109,15 +111,15 @@ public class ParseResult<T> {
         bindings.put(ParserMetadata.class, state.getParserConfiguration());
         bindings = AirlineUtils.unmodifiableMapCopy(bindings);
 
-        if (state.getGlobal() != null) {
-            // Create instance
+        // Create instance
+        ParseListener listener = state.getParserConfiguration().getParseListener();
+        long start = listener.phaseStarted(ParsePhase.INSTANTIATION);
+        try {
             return createInstance(command.getType(), command.getAllOptions(), state.getParsedOptions(),
-                    command.getArguments(), state.getParsedArguments(), command.getMetadataInjections(), bindings,
-                    state.getParserConfiguration().getCommandFactory());
-        } else {
-            return createInstance(command.getType(), command.getAllOptions(), state.getParsedOptions(),
-                    command.getArguments(), state.getParsedArguments(), command.getMetadataInjections(), bindings,
+                    command.getArguments(), state.getArgumentValues(), command.getMetadataInjections(), bindings,
                     state.getParserConfiguration().getCommandFactory());
+        } finally {
+            listener.phaseFinished(ParsePhase.INSTANTIATION, start);
         }
 
     }
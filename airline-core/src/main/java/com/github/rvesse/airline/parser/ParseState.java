@@ -24,35 +24,70 @@ import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.errors.ParseException;
-import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
-import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.parser.instrumentation.ParseCounter;
+import com.github.rvesse.airline.restrictions.ArgumentsValidationPlan;
+import com.github.rvesse.airline.restrictions.OptionValidationPlan;
+import com.github.rvesse.airline.restrictions.common.PathStatCache;
+import com.github.rvesse.airline.types.PrimitiveBuffer;
+import com.github.rvesse.airline.types.PrimitiveTypeConverter;
 import com.github.rvesse.airline.types.TypeConverter;
-import com.github.rvesse.airline.utils.AirlineUtils;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.AbstractList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 import org.apache.commons.lang3.tuple.Pair;
 
 public class ParseState<T> {
-    private final List<Context> locationStack;
+    private final LocationStack locationStack;
     private final GlobalMetadata<T> global;
     private final ParserMetadata<T> parserConfig;
     private final CommandGroupMetadata group;
     private final CommandMetadata command;
-    private final List<Pair<OptionMetadata, Object>> parsedOptions;
+    private final AppendOnlyList<Pair<OptionMetadata, Object>> parsedOptions;
     private final Map<OptionMetadata, Integer> optionsCount;
-    private final List<Object> parsedArguments;
+    private final AppendOnlyList<Object> parsedArguments;
+    /**
+     * Raw values of lazy arguments, see {@link ArgumentsMetadata#isLazy()},
+     * which are only converted when consumed
+     */
+    private final AppendOnlyList<String> rawArguments;
     private final OptionMetadata currentOption;
-    private final List<String> unparsedInput;
+    private final AppendOnlyList<String> unparsedInput;
+    /**
+     * File system state cache shared by all states derived from the same
+     * initial state i.e. for the duration of a single parse
+     */
+    private final PathStatCache pathStats;
+    private volatile ParsedOptionCounts parsedOptionCounts;
+
+    /**
+     * Persistent stack of contexts, pushing and popping are both {@code O(1)}
+     * and never affect other states sharing the stack
+     */
+    private static final class LocationStack {
+        private final Context location;
+        private final LocationStack parent;
+
+        private LocationStack(Context location, LocationStack parent) {
+            this.location = location;
+            this.parent = parent;
+        }
+
+        @Override
+        public String toString() {
+            return this.parent != null ? this.parent.toString() + ", " + this.location : this.location.toString();
+        }
+    }
 
     ParseState(GlobalMetadata<T> global, ParserMetadata<T> parserConfig, CommandGroupMetadata group,
-            CommandMetadata command, List<Pair<OptionMetadata, Object>> parsedOptions,
-            Map<OptionMetadata, Integer> optionsCount, List<Context> locationStack, List<Object> parsedArguments,
-            OptionMetadata currentOption, List<String> unparsedInput) {
+            CommandMetadata command, AppendOnlyList<Pair<OptionMetadata, Object>> parsedOptions,
+            Map<OptionMetadata, Integer> optionsCount, LocationStack locationStack,
+            AppendOnlyList<Object> parsedArguments, AppendOnlyList<String> rawArguments,
+            OptionMetadata currentOption, AppendOnlyList<String> unparsedInput, PathStatCache pathStats) {
         this.global = global;
         if (global != null) {
             this.parserConfig = global.getParserConfiguration();
@@ -67,159 +102,195 @@ public class ParseState<T> {
         this.optionsCount = optionsCount;
         this.locationStack = locationStack;
         this.parsedArguments = parsedArguments;
+        this.rawArguments = rawArguments;
         this.currentOption = currentOption;
         this.unparsedInput = unparsedInput;
+        this.pathStats = pathStats;
     }
 
     public static <T> ParseState<T> newInstance() {
-        return new ParseState<T>(null, null, null, null, new ArrayList<Pair<OptionMetadata, Object>>(),
-                new HashMap<OptionMetadata, Integer>(), Collections.<Context> emptyList(),
-                Collections.<Object> emptyList(), null, Collections.<String> emptyList());
+        return new ParseState<T>(null, null, null, null, AppendOnlyList.<Pair<OptionMetadata, Object>> empty(),
+                new HashMap<OptionMetadata, Integer>(), null, AppendOnlyList.<Object> empty(),
+                AppendOnlyList.<String> empty(), null, AppendOnlyList.<String> empty(), new PathStatCache());
     }
 
     public ParseState<T> pushContext(Context location) {
-        List<Context> locations = AirlineUtils.listCopy(this.locationStack);
-        locations.add(location);
-
-        return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locations,
-                parsedArguments, currentOption, unparsedInput);
+        return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount,
+                new LocationStack(location, this.locationStack), parsedArguments, rawArguments, currentOption,
+                unparsedInput, pathStats);
     }
 
     public ParseState<T> popContext() {
-        List<Context> locationStack = AirlineUtils
-                .unmodifiableListCopy(this.locationStack.subList(0, this.locationStack.size() - 1));
-        return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                parsedArguments, currentOption, unparsedInput);
+        if (this.locationStack == null)
+            throw new IndexOutOfBoundsException("No context to pop");
+        return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount,
+                this.locationStack.parent, parsedArguments, rawArguments, currentOption, unparsedInput, pathStats);
     }
 
     public ParseState<T> withOptionValue(OptionMetadata option, String rawValue) {
         // Pre-validate
-        for (OptionRestriction restriction : option.getRestrictions()) {
-            try {
-                restriction.preValidate(this, option, rawValue);
-            } catch (ParseException e) {
-                this.parserConfig.getErrorHandler().handleError(e);
-            }
-        }
+        OptionValidationPlan plan = option.getValidationPlan();
+        plan.preValidate(this, option, rawValue, this.parserConfig.getErrorHandler());
 
         try {
             // Convert value
-            Integer index = optionsCount.get(option);
-            if (index == null)
-                index = 0;
+            int index = getOptionValuesSeen(option);
             TypeConverter converter = option.getTypeConverterProvider().getTypeConverter(option, this);
+            this.parserConfig.getParseListener().count(ParseCounter.CONVERSIONS, 1);
             Object value = converter.convert(option.getTitle(option.getArity() > 0 ? index % option.getArity() : 0), option.getJavaType(), rawValue);
 
             // Post-validate
-            for (OptionRestriction restriction : option.getRestrictions()) {
-                try {
-                    restriction.postValidate(this, option, value);
-                } catch (ParseException e) {
-                    this.parserConfig.getErrorHandler().handleError(e);
-                }
-            }
-
-            List<Pair<OptionMetadata, Object>> newOptions = AirlineUtils.listCopy(parsedOptions);
-            newOptions.add(Pair.of(option, value));
-            Map<OptionMetadata, Integer> newOptionsCount = new HashMap<>(optionsCount);
+            plan.postValidate(this, option, value, this.parserConfig.getErrorHandler());
+
+            // The counts map is shared along with the parsed options storage
+            // so is only accurate for the latest view of that storage, if we
+            // are branching from an older state we need our own counts
+            Map<OptionMetadata, Integer> newOptionsCount = this.parsedOptions.isLatest() ? this.optionsCount
+                    : countOptionValues(this.parsedOptions);
+            AppendOnlyList<Pair<OptionMetadata, Object>> newOptions = this.parsedOptions
+                    .append(Pair.<OptionMetadata, Object> of(option, value));
             newOptionsCount.put(option, ++index);
 
-            return new ParseState<T>(global, parserConfig, group, command, newOptions, newOptionsCount, locationStack,
-                    parsedArguments, currentOption, unparsedInput);
+            return new ParseState<T>(global, parserConfig, group, command, newOptions, newOptionsCount,
+                    locationStack, parsedArguments, rawArguments, currentOption, unparsedInput, pathStats);
         } catch (ParseException e) {
             this.parserConfig.getErrorHandler().handleError(e);
 
-            List<String> newUnparsed = AirlineUtils.listCopy(unparsedInput);
-            newUnparsed.add(rawValue);
-
             return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                    parsedArguments, currentOption, newUnparsed);
+                    parsedArguments, rawArguments, currentOption, unparsedInput.append(rawValue), pathStats);
         }
     }
 
     public ParseState<T> withGlobal(GlobalMetadata<T> global) {
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                parsedArguments, currentOption, unparsedInput);
+                parsedArguments, rawArguments, currentOption, unparsedInput, pathStats);
     }
 
     public ParseState<T> withConfiguration(ParserMetadata<T> parserConfig) {
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                parsedArguments, currentOption, unparsedInput);
+                parsedArguments, rawArguments, currentOption, unparsedInput, pathStats);
     }
 
     public ParseState<T> withGroup(CommandGroupMetadata group) {
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                parsedArguments, currentOption, unparsedInput);
+                parsedArguments, rawArguments, currentOption, unparsedInput, pathStats);
     }
 
     public ParseState<T> withCommand(CommandMetadata command) {
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                parsedArguments, currentOption, unparsedInput);
+                parsedArguments, rawArguments, currentOption, unparsedInput, pathStats);
     }
 
     public ParseState<T> withOption(OptionMetadata option) {
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                parsedArguments, option, unparsedInput);
+                parsedArguments, rawArguments, option, unparsedInput, pathStats);
     }
 
     public ParseState<T> withArgument(ArgumentsMetadata arguments, String rawValue) {
-        // Pre-validate
-        for (ArgumentsRestriction restriction : arguments.getRestrictions()) {
-            try {
-                restriction.preValidate(this, arguments, rawValue);
-            } catch (ParseException e) {
-                this.parserConfig.getErrorHandler().handleError(e);
-            }
+        if (arguments.isLazy()) {
+            // Conversion and validation are deferred until the value is
+            // consumed, see getParsedArguments()
+            return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
+                    parsedArguments, rawArguments.append(rawValue), currentOption, unparsedInput, pathStats);
         }
 
+        // Pre-validate
+        ArgumentsValidationPlan plan = arguments.getValidationPlan();
+        plan.preValidate(this, arguments, rawValue, this.parserConfig.getErrorHandler());
+
         // Convert value
         try {
             TypeConverter converter = arguments.getTypeConverterProvider().getTypeConverter(arguments, this);
-            Object value = converter.convert(arguments.getTitle().get(0), arguments.getJavaType(), rawValue);
+            this.parserConfig.getParseListener().count(ParseCounter.CONVERSIONS, 1);
+            AppendOnlyList<Object> newArguments;
+            if (isPrimitiveArray(arguments)) {
+                newArguments = appendPrimitiveArgument(arguments, plan, converter, rawValue);
+            } else {
+                Object value = converter.convert(arguments.getTitle().get(0), arguments.getJavaType(), rawValue);
 
-            // Post-validate
-            for (ArgumentsRestriction restriction : arguments.getRestrictions()) {
-                try {
-                    restriction.postValidate(this, arguments, value);
-                } catch (ParseException e) {
-                    this.parserConfig.getErrorHandler().handleError(e);
-                }
-            }
+                // Post-validate
+                plan.postValidate(this, arguments, value, this.parserConfig.getErrorHandler());
 
-            List<Object> newArguments = AirlineUtils.listCopy(parsedArguments);
-            newArguments.add(value);
+                newArguments = parsedArguments.append(value);
+            }
 
             return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                    newArguments, currentOption, unparsedInput);
+                    newArguments, rawArguments, currentOption, unparsedInput, pathStats);
         } catch (ParseException e) {
             this.parserConfig.getErrorHandler().handleError(e);
 
-            List<String> newUnparsed = AirlineUtils.listCopy(unparsedInput);
-            newUnparsed.add(rawValue);
-
             return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                    parsedArguments, currentOption, newUnparsed);
+                    parsedArguments, rawArguments, currentOption, unparsedInput.append(rawValue), pathStats);
         }
     }
 
-    public ParseState<T> withUnparsedInput(String input) {
-        List<String> newUnparsedInput = AirlineUtils.listCopy(unparsedInput);
-        newUnparsedInput.add(input);
+    /**
+     * Gets whether the arguments are bound to a primitive array, the only way
+     * a multi-valued arguments can have a primitive type
+     * 
+     * @param arguments
+     *            Arguments
+     * @return True if bound to a primitive array, false otherwise
+     */
+    private static boolean isPrimitiveArray(ArgumentsMetadata arguments) {
+        return arguments.isMultiValued() && PrimitiveBuffer.isSupported(arguments.getJavaType());
+    }
 
+    /**
+     * Converts and appends a value for arguments that are bound to a
+     * primitive array, values are stored without boxing unless the value has
+     * to be boxed for post-validation or conversion
+     * 
+     * @param arguments
+     *            Arguments
+     * @param plan
+     *            Validation plan
+     * @param converter
+     *            Type converter
+     * @param rawValue
+     *            Raw value
+     * @return Parsed arguments with the value appended
+     */
+    private AppendOnlyList<Object> appendPrimitiveArgument(ArgumentsMetadata arguments,
+            ArgumentsValidationPlan plan, TypeConverter converter, String rawValue) {
+        String title = arguments.getTitle().get(0);
+        Class<?> type = arguments.getJavaType();
+        AppendOnlyList<Object> args = this.parsedArguments;
+        if (args.isEmpty() && args.getPrimitiveType() != type)
+            args = AppendOnlyList.primitive(type);
+
+        if (converter instanceof PrimitiveTypeConverter && !plan.hasPostValidation()) {
+            PrimitiveTypeConverter primitives = (PrimitiveTypeConverter) converter;
+            if (Boolean.TYPE.equals(type)) {
+                return args.appendBoolean(primitives.convertBoolean(title, type, rawValue));
+            } else if (Float.TYPE.equals(type) || Double.TYPE.equals(type)) {
+                return args.appendDouble(primitives.convertDouble(title, type, rawValue));
+            } else {
+                return args.appendLong(primitives.convertLong(title, type, rawValue));
+            }
+        }
+
+        Object value = converter.convert(title, type, rawValue);
+        plan.postValidate(this, arguments, value, this.parserConfig.getErrorHandler());
+        return args.append(value);
+    }
+
+    public ParseState<T> withUnparsedInput(String input) {
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount, locationStack,
-                parsedArguments, currentOption, newUnparsedInput);
+                parsedArguments, rawArguments, currentOption, unparsedInput.append(input), pathStats);
     }
 
     @Override
     public String toString() {
-        return "ParseState{" + "locationStack=" + locationStack + ", global=" + global + ", group=" + group
-                + ", command=" + command + ", parsedOptions=" + parsedOptions + ", optionsCount=" + optionsCount
-                + ", parsedArguments=" + parsedArguments + ", currentOption=" + currentOption + ", unparsedInput="
+        return "ParseState{" + "locationStack=[" + (locationStack != null ? locationStack : "") + "]" + ", global=" + global + ", group=" + group
+                + ", command=" + command + ", parsedOptions=" + parsedOptions + ", parsedArguments=" + parsedArguments + ", rawArguments=" + rawArguments + ", currentOption=" + currentOption + ", unparsedInput="
                 + unparsedInput + '}';
     }
 
     public Context getLocation() {
-        return locationStack.get(locationStack.size() - 1);
+        if (this.locationStack == null)
+            throw new IndexOutOfBoundsException("No current context");
+        return this.locationStack.location;
     }
 
     public GlobalMetadata<T> getGlobal() {
@@ -247,15 +318,148 @@ public class ParseState<T> {
     }
 
     public int getOptionValuesSeen(OptionMetadata option) {
-        Integer count = optionsCount.get(option);
-        return count == null ? 0 : count.intValue();
+        if (this.parsedOptions.isLatest()) {
+            Integer count = optionsCount.get(option);
+            return count == null ? 0 : count.intValue();
+        }
+
+        // An older state, shared counts will include values parsed after this
+        // state was created so count directly
+        int count = 0;
+        for (Pair<OptionMetadata, Object> parsedOption : this.parsedOptions) {
+            if (option.equals(parsedOption.getLeft()))
+                count++;
+        }
+        return count;
+    }
+
+    private static Map<OptionMetadata, Integer> countOptionValues(List<Pair<OptionMetadata, Object>> parsedOptions) {
+        Map<OptionMetadata, Integer> counts = new HashMap<>();
+        for (Pair<OptionMetadata, Object> parsedOption : parsedOptions) {
+            Integer count = counts.get(parsedOption.getLeft());
+            counts.put(parsedOption.getLeft(), count == null ? 1 : count + 1);
+        }
+        return counts;
     }
 
+    /**
+     * Gets the counts of the option values parsed, these are computed the
+     * first time they are requested for a state
+     * 
+     * @return Parsed option counts
+     */
+    public ParsedOptionCounts getParsedOptionCounts() {
+        ParsedOptionCounts counts = this.parsedOptionCounts;
+        if (counts == null) {
+            counts = new ParsedOptionCounts(this.parsedOptions);
+            this.parsedOptionCounts = counts;
+        }
+        return counts;
+    }
+
+    /**
+     * Gets the parsed argument values
+     * <p>
+     * For lazy arguments, see {@link ArgumentsMetadata#isLazy()}, only the raw
+     * values are held and the returned list converts and validates each value
+     * whenever it is accessed, so accessing a value may throw a
+     * {@link ParseException}. Each value is validated against a state as it
+     * was when that argument was seen so restrictions that depend upon an
+     * arguments position behave exactly as if the arguments were converted
+     * during parsing. The size of the list is always available without
+     * converting any values.
+     * </p>
+     * 
+     * @return Parsed argument values
+     */
     public List<Object> getParsedArguments() {
-        return parsedArguments;
+        if (rawArguments.isEmpty())
+            return parsedArguments;
+
+        final ArgumentsMetadata arguments = this.command.getArguments();
+        return new AbstractList<Object>() {
+            @Override
+            public Object get(int index) {
+                if (index < 0 || index >= rawArguments.size())
+                    throw new IndexOutOfBoundsException();
+                return convertArgument(arguments, index);
+            }
+
+            @Override
+            public int size() {
+                return rawArguments.size();
+            }
+        };
+    }
+
+    /**
+     * Gets the argument values to bind to the command
+     * <p>
+     * These are the values of {@link #getParsedArguments()}, for lazy
+     * arguments values are converted and validated on demand as they are
+     * iterated and a value that fails is skipped by the iterator once the
+     * error has been thrown.
+     * </p>
+     * 
+     * @return Argument values
+     */
+    public Iterable<Object> getArgumentValues() {
+        final List<Object> values = getParsedArguments();
+        if (rawArguments.isEmpty())
+            return values;
+
+        return new Iterable<Object>() {
+            @Override
+            public Iterator<Object> iterator() {
+                return new Iterator<Object>() {
+                    private int index = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return this.index < values.size();
+                    }
+
+                    @Override
+                    public Object next() {
+                        if (!hasNext())
+                            throw new NoSuchElementException();
+                        return values.get(this.index++);
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+
+    private Object convertArgument(ArgumentsMetadata arguments, int index) {
+        // Validate against the state as it was when the argument was seen
+        ParseState<T> state = new ParseState<T>(global, parserConfig, group, command, parsedOptions, optionsCount,
+                locationStack, parsedArguments, rawArguments.prefix(index), currentOption, unparsedInput, pathStats);
+        String rawValue = rawArguments.get(index);
+
+        ArgumentsValidationPlan plan = arguments.getValidationPlan();
+        plan.preValidate(state, arguments, rawValue, null);
+        TypeConverter converter = arguments.getTypeConverterProvider().getTypeConverter(arguments, state);
+        parserConfig.getParseListener().count(ParseCounter.CONVERSIONS, 1);
+        Object value = converter.convert(arguments.getTitle().get(0), arguments.getJavaType(), rawValue);
+        plan.postValidate(state, arguments, value, null);
+        return value;
     }
 
     public List<String> getUnparsedInput() {
         return unparsedInput;
     }
+
+    /**
+     * Gets the cache of file system state for this parse
+     * 
+     * @return File system state cache
+     */
+    public PathStatCache getPathStatCache() {
+        return pathStats;
+    }
 }
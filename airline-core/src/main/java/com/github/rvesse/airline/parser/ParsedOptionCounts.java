@@ -0,0 +1,139 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.restrictions.options.MutuallyExclusiveRestriction;
+import com.github.rvesse.airline.restrictions.options.RequireFromRestriction;
+
+/**
+ * Counts of the option values parsed, computed in a single pass over the
+ * parsed options
+ * <p>
+ * This is used by restrictions that need to know which options, or which
+ * options in a tagged group, were seen so each such restriction can be checked
+ * in constant time rather than each scanning all the parsed options.
+ * </p>
+ * 
+ * @author rvesse
+ *
+ */
+public final class ParsedOptionCounts {
+
+    private final Map<OptionMetadata, Integer> options = new LinkedHashMap<>();
+    private final Map<String, Integer> mutuallyExclusive = new HashMap<>();
+    private final Map<String, Integer> requiredFrom = new HashMap<>();
+
+    ParsedOptionCounts(List<Pair<OptionMetadata, Object>> parsedOptions) {
+        Set<String> mutuallyExclusiveTags = new LinkedHashSet<>(), requiredFromTags = new LinkedHashSet<>();
+        for (Pair<OptionMetadata, Object> parsedOption : parsedOptions) {
+            OptionMetadata option = parsedOption.getLeft();
+            increment(this.options, option);
+
+            // Each value counts once towards each tag of the option
+            mutuallyExclusiveTags.clear();
+            requiredFromTags.clear();
+            for (OptionRestriction restriction : option.getRestrictions()) {
+                if (restriction instanceof MutuallyExclusiveRestriction) {
+                    mutuallyExclusiveTags.add(((MutuallyExclusiveRestriction) restriction).getTag());
+                } else if (restriction instanceof RequireFromRestriction) {
+                    requiredFromTags.add(((RequireFromRestriction) restriction).getTag());
+                }
+            }
+            incrementTags(this.mutuallyExclusive, mutuallyExclusiveTags);
+            incrementTags(this.requiredFrom, requiredFromTags);
+        }
+    }
+
+    private static <K> void increment(Map<K, Integer> counts, K key) {
+        Integer count = counts.get(key);
+        counts.put(key, count == null ? 1 : count + 1);
+    }
+
+    private static void incrementTags(Map<String, Integer> counts, Set<String> tags) {
+        if (tags.isEmpty())
+            return;
+        // A null tag matches any option with the relevant restriction
+        if (!tags.contains(null))
+            increment(counts, null);
+        for (String tag : tags) {
+            increment(counts, tag);
+        }
+    }
+
+    private static <K> int get(Map<K, Integer> counts, K key) {
+        Integer count = counts.get(key);
+        return count != null ? count.intValue() : 0;
+    }
+
+    /**
+     * Gets the number of values parsed for the given option
+     * 
+     * @param option
+     *            Option
+     * @return Number of values
+     */
+    public int count(OptionMetadata option) {
+        return get(this.options, option);
+    }
+
+    /**
+     * Gets the number of values parsed for options that are mutually exclusive
+     * with the given tag
+     * 
+     * @param tag
+     *            Tag, {@code null} counts values for any option with a mutual
+     *            exclusion restriction
+     * @return Number of values
+     */
+    public int countMutuallyExclusive(String tag) {
+        return get(this.mutuallyExclusive, tag);
+    }
+
+    /**
+     * Gets the number of values parsed for options that are required from the
+     * group with the given tag
+     * 
+     * @param tag
+     *            Tag, {@code null} counts values for any option with a require
+     *            from restriction
+     * @return Number of values
+     */
+    public int countRequiredFrom(String tag) {
+        return get(this.requiredFrom, tag);
+    }
+
+    /**
+     * Gets the distinct options for which values were parsed
+     * 
+     * @return Options in the order they were first seen
+     */
+    public Collection<OptionMetadata> getOptions() {
+        return Collections.unmodifiableSet(this.options.keySet());
+    }
+}
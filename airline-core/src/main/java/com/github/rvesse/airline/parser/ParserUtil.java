@@ -25,6 +25,8 @@ import com.github.rvesse.airline.parser.resources.ResourceLocator;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -55,15 +57,12 @@ public class ParserUtil {
             List<Pair<OptionMetadata, Object>> parsedOptions, ArgumentsMetadata arguments,
             Iterable<Object> parsedArguments, Iterable<Accessor> metadataInjection, Map<Class<?>, Object> bindings) {
         // inject options
+        Map<OptionMetadata, List<Object>> values = groupOptionValues(parsedOptions);
         for (OptionMetadata option : options) {
-            List<Object> values = new ArrayList<>();
-            for (Pair<OptionMetadata, Object> parsedOption : parsedOptions) {
-                if (option.equals(parsedOption.getLeft()))
-                    values.add(parsedOption.getRight());
-            }
-            if (values != null && !values.isEmpty()) {
+            List<Object> optionValues = values.get(option);
+            if (optionValues != null) {
                 for (Accessor accessor : option.getAccessors()) {
-                    accessor.addValues(commandInstance, values);
+                    accessor.addValues(commandInstance, optionValues);
                 }
             }
         }
@@ -86,6 +85,42 @@ public class ParserUtil {
         return commandInstance;
     }
 
+    /**
+     * Groups parsed option values by option in a single pass over the parsed
+     * options
+     * <p>
+     * Parsed options normally refer to a handful of distinct option instances
+     * so each instance is resolved to its values list via an identity lookup
+     * and the comparatively expensive {@link OptionMetadata#equals(Object)} is
+     * only used once per distinct instance. Equality is still required since
+     * the same option may be represented by different but equal instances at
+     * different levels of the metadata.
+     * </p>
+     * 
+     * @param parsedOptions
+     *            Parsed options
+     * @return Values for each option in the order they were parsed
+     */
+    static Map<OptionMetadata, List<Object>> groupOptionValues(List<Pair<OptionMetadata, Object>> parsedOptions) {
+        Map<OptionMetadata, List<Object>> values = new HashMap<>();
+        if (parsedOptions == null)
+            return values;
+        Map<OptionMetadata, List<Object>> instances = new IdentityHashMap<>();
+        for (Pair<OptionMetadata, Object> parsedOption : parsedOptions) {
+            List<Object> optionValues = instances.get(parsedOption.getLeft());
+            if (optionValues == null) {
+                optionValues = values.get(parsedOption.getLeft());
+                if (optionValues == null) {
+                    optionValues = new ArrayList<>();
+                    values.put(parsedOption.getLeft(), optionValues);
+                }
+                instances.put(parsedOption.getLeft(), optionValues);
+            }
+            optionValues.add(parsedOption.getRight());
+        }
+        return values;
+    }
+
     public static <T> T createInstance(Class<?> type, Iterable<OptionMetadata> options,
             List<Pair<OptionMetadata, Object>> parsedOptions, ArgumentsMetadata arguments,
             Iterable<Object> parsedArguments, Iterable<Accessor> metadataInjection, Map<Class<?>, Object> bindings,
@@ -0,0 +1,68 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+
+import com.github.rvesse.airline.parser.instrumentation.ParseCounter;
+import com.github.rvesse.airline.parser.instrumentation.ParseListener;
+
+/**
+ * Token iterator that counts the tokens read and reports the count to a
+ * {@link ParseListener} when closed
+ * <p>
+ * The count is reported once on close rather than per token so that counting
+ * adds as little as possible to reading each token.
+ * </p>
+ */
+final class TokenCounter implements Iterator<String>, Closeable {
+
+    private final Iterator<String> tokens;
+    private final ParseListener listener;
+    private int count;
+
+    TokenCounter(Iterator<String> tokens, ParseListener listener) {
+        this.tokens = tokens;
+        this.listener = listener;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return this.tokens.hasNext();
+    }
+
+    @Override
+    public String next() {
+        String token = this.tokens.next();
+        this.count++;
+        return token;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.listener.count(ParseCounter.TOKENS, this.count);
+        this.count = 0;
+        if (this.tokens instanceof Closeable)
+            ((Closeable) this.tokens).close();
+    }
+}
@@ -15,28 +15,32 @@
  */
 package com.github.rvesse.airline.parser.aliases;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.TreeSet;
 
-import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.collections4.Predicate;
 import org.apache.commons.collections4.iterators.PeekingIterator;
 
-import com.github.rvesse.airline.model.AliasMetadata;
-import com.github.rvesse.airline.model.CommandGroupMetadata;
-import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.AbstractParser;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseAliasCircularReferenceException;
-import com.github.rvesse.airline.utils.predicates.parser.AliasFinder;
-import com.github.rvesse.airline.utils.predicates.parser.CommandFinder;
-import com.github.rvesse.airline.utils.predicates.parser.GroupFinder;
 
 /**
  * Resolves aliases
+ * <p>
+ * Aliases are looked up via the precompiled {@link AliasTemplate} instances
+ * held by the {@link ParserMetadata}. Expansion only consumes as many of the
+ * following tokens as the alias has positional parameters, the remaining
+ * tokens are never copied so chained aliases cost proportional to the size of
+ * the aliases rather than the size of the command line.
+ * </p>
  *
  * @param <T>
  *            Command type
@@ -44,148 +48,122 @@ import com.github.rvesse.airline.utils.predicates.parser.GroupFinder;
 public class AliasResolver<T> extends AbstractParser<T> {
 
     public PeekingIterator<String> resolveAliases(PeekingIterator<String> tokens, ParseState<T> state) {
-        Predicate<? super CommandGroupMetadata> findGroupPredicate;
-        Predicate<? super CommandMetadata> findCommandPredicate;
-
         // Nothing to do if no further tokens
         if (!tokens.hasNext())
             return tokens;
 
         // Nothing to do if no aliases defined
-        if (state.getParserConfiguration().getAliases().size() == 0)
+        ParserMetadata<T> config = state.getParserConfiguration();
+        if (config.getAliases().size() == 0)
             return tokens;
 
         Set<String> aliasesSeen = new TreeSet<String>();
+        ExpandedTokens expanded = null;
+        Iterator<String> current = tokens;
+        String token = tokens.peek();
 
         do {
             // Try to find an alias
-            AliasMetadata alias = CollectionUtils.find(state.getParserConfiguration().getAliases(),
-                    new AliasFinder(tokens.peek()));
+            AliasTemplate alias = config.findAlias(token);
 
             // Nothing further to do if no aliases found
             if (alias == null) {
                 // Has the user provided a prefix to force a built-in?
-                if (tokens.peek().startsWith(
-                        new String(new char[] { state.getParserConfiguration().getAliasForceBuiltInPrefix() }))) {
-                    String nextToken = tokens.next().substring(1);
-                    List<String> newTokens = new ArrayList<>();
-                    newTokens.add(nextToken);
-                    while (tokens.hasNext()) {
-                        newTokens.add(tokens.next());
-                    }
-                    return new PeekingIterator<String>(newTokens.iterator());
+                if (token.length() > 0 && token.charAt(0) == config.getAliasForceBuiltInPrefix()) {
+                    current.next();
+                    if (expanded == null)
+                        expanded = new ExpandedTokens(tokens);
+                    expanded.push(token.substring(1));
                 }
-                return tokens;
+                break;
             }
 
             // Check for circular references
             if (!aliasesSeen.add(alias.getName())) {
                 // Handle the error and exit alias resolution
-                state.getParserConfiguration().getErrorHandler()
+                config.getErrorHandler()
                         .handleError(new ParseAliasCircularReferenceException(alias.getName(), aliasesSeen));
-                return tokens;
+                break;
             }
 
             // Can we override built-ins?
-            if (!state.getParserConfiguration().aliasesOverrideBuiltIns()) {
+            if (!config.aliasesOverrideBuiltIns()) {
                 // If not we must check we don't have a default
                 // group/command with the same name as otherwise that
                 // would take precedence
                 if (state.getGlobal() != null) {
                     GlobalMetadata<T> metadata = state.getGlobal();
-                    findGroupPredicate = new GroupFinder(tokens.peek());
-                    findCommandPredicate = new CommandFinder(tokens.peek());
-                    if (CollectionUtils.find(metadata.getCommandGroups(), findGroupPredicate) != null
-                            || CollectionUtils.find(metadata.getDefaultGroupCommands(), findCommandPredicate) != null)
-                        return tokens;
+                    if (metadata.findCommandGroup(token, false) != null
+                            || metadata.findDefaultGroupCommand(token, false) != null)
+                        break;
                 }
             }
 
-            // Discard the alias token
-            tokens.next();
-
-            // Apply the alias
-            List<String> newParams = new ArrayList<String>();
-            List<String> remainingParams = new ArrayList<String>();
-            while (tokens.hasNext()) {
-                remainingParams.add(tokens.next());
+            // Discard the alias token and apply the alias
+            current.next();
+            if (expanded == null) {
+                expanded = new ExpandedTokens(tokens);
+                current = expanded;
             }
+            expanded.pushAll(alias.expand(expanded));
 
-            // Process alias arguments
-            Set<Integer> used = new TreeSet<Integer>();
-            for (String arg : alias.getArguments()) {
-                if (arg.startsWith("$")) {
-                    // May be a positional parameter
-                    Integer num = null;
-                    String defaultValue = null;
-                    try {
-                        num = Integer.parseInt(arg.substring(1));
-                        num--;
-                    } catch (NumberFormatException e) {
-                        try {
-                            // The number was invalid
-                            // May be an expansion with a default i.e.
-                            // ${1:-default}
-                            if (arg.startsWith("${") && arg.endsWith("}")) {
-                                if (arg.indexOf(":-") > 2) {
-                                    // Has a default value
-                                    num = Integer.parseInt(arg.substring(2, arg.indexOf(":-")));
-                                    num--;
-                                    defaultValue = arg.substring(arg.indexOf(":-") + 2, arg.length() - 1);
-                                } else {
-                                    // No default value, maybe just a number?
-                                    num = Integer.parseInt(arg.substring(2, arg.length() - 1));
-                                    num--;
-                                }
-                            }
-                        } catch (NumberFormatException e2) {
-                            // Invalid number, ignore
-                        }
-                    }
-
-                    if (num != null && num >= 0) {
-                        // Valid number, determine how to apply
-                        
-                        if (num < remainingParams.size()) {
-                            // Valid positional parameter with user input
-                            // supplied
-                            newParams.add(remainingParams.get(num));
-                            used.add(num);
-                            continue;
-                        } else if (defaultValue != null) {
-                            // Valid positional parameter, no user input to
-                            // substitute but a default was supplied
-                            newParams.add(defaultValue);
-                            // No need to update used in this case
-                            continue;
-                        } else {
-                            // Positional parameter but no user input or default
-                            // value to substitute so fall through to just
-                            // passing this on as is
-                        }
-                    }
-                }
+            if (!expanded.hasNext())
+                break;
+            token = expanded.peek();
+        } while (config.aliasesMayChain());
 
-                // Some other parameter
-                newParams.add(arg);
-            }
+        return expanded != null ? new PeekingIterator<String>(expanded) : tokens;
+    }
 
-            // Remove used positional parameters
-            int removed = 0;
-            for (int pos : used) {
-                remainingParams.remove(pos - removed);
-                removed++;
-            }
+    /**
+     * Token iterator which yields any tokens produced by alias expansion ahead
+     * of the original tokens
+     */
+    private static final class ExpandedTokens implements Iterator<String> {
 
-            // Pass through any remaining parameters
-            for (String arg : remainingParams) {
-                newParams.add(arg);
-            }
+        private final Deque<String> pending = new ArrayDeque<String>();
+        private final Iterator<String> remaining;
 
-            // Prepare a new tokens iterator
-            tokens = new PeekingIterator<String>(newParams.iterator());
-        } while (state.getParserConfiguration().aliasesMayChain());
+        public ExpandedTokens(Iterator<String> remaining) {
+            this.remaining = remaining;
+        }
 
-        return tokens;
+        public void push(String token) {
+            this.pending.addFirst(token);
+        }
+
+        public void pushAll(List<String> tokens) {
+            ListIterator<String> iter = tokens.listIterator(tokens.size());
+            while (iter.hasPrevious()) {
+                this.pending.addFirst(iter.previous());
+            }
+        }
+
+        public String peek() {
+            if (!this.pending.isEmpty())
+                return this.pending.peekFirst();
+            String next = this.remaining.next();
+            this.pending.addFirst(next);
+            return next;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.pending.isEmpty() || this.remaining.hasNext();
+        }
+
+        @Override
+        public String next() {
+            if (!this.pending.isEmpty())
+                return this.pending.pollFirst();
+            if (!this.remaining.hasNext())
+                throw new NoSuchElementException();
+            return this.remaining.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
     }
 }
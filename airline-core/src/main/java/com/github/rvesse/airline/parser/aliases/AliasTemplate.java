@@ -0,0 +1,166 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.aliases;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.github.rvesse.airline.model.AliasMetadata;
+
+/**
+ * A precompiled form of an alias where each argument of the alias is resolved
+ * up front into either a literal or a positional parameter slot
+ * <p>
+ * Positional parameters are those of the form {@code $N}, {@code ${N}} or
+ * {@code ${N:-default}} where {@code N} is a 1 based index into the tokens that
+ * follow the alias. Arguments that look like positional parameters but are not
+ * valid are treated as literals.
+ * </p>
+ */
+public final class AliasTemplate {
+
+    private static final int LITERAL = -1;
+
+    private final AliasMetadata alias;
+    private final String[] literals, defaults;
+    private final int[] positions;
+    private final int maxPosition;
+
+    /**
+     * Creates a new template
+     * 
+     * @param alias
+     *            Alias
+     */
+    public AliasTemplate(AliasMetadata alias) {
+        if (alias == null)
+            throw new NullPointerException("alias cannot be null");
+        this.alias = alias;
+
+        List<String> arguments = alias.getArguments();
+        this.literals = arguments.toArray(new String[arguments.size()]);
+        this.defaults = new String[this.literals.length];
+        this.positions = new int[this.literals.length];
+
+        int max = LITERAL;
+        for (int i = 0; i < this.literals.length; i++) {
+            this.positions[i] = compileSlot(this.literals[i], i);
+            max = Math.max(max, this.positions[i]);
+        }
+        this.maxPosition = max;
+    }
+
+    private int compileSlot(String arg, int i) {
+        if (!arg.startsWith("$"))
+            return LITERAL;
+
+        int num;
+        try {
+            // Plain $N
+            num = Integer.parseInt(arg.substring(1));
+        } catch (NumberFormatException e) {
+            // May be an expansion i.e. ${N} or with a default i.e.
+            // ${N:-default}
+            if (!arg.startsWith("${") || !arg.endsWith("}"))
+                return LITERAL;
+            int defaultIndex = arg.indexOf(":-");
+            try {
+                if (defaultIndex > 2) {
+                    num = Integer.parseInt(arg.substring(2, defaultIndex));
+                    if (num > 0)
+                        this.defaults[i] = arg.substring(defaultIndex + 2, arg.length() - 1);
+                } else {
+                    num = Integer.parseInt(arg.substring(2, arg.length() - 1));
+                }
+            } catch (NumberFormatException e2) {
+                // Invalid number
+                return LITERAL;
+            }
+        }
+        return num > 0 ? num - 1 : LITERAL;
+    }
+
+    /**
+     * Gets the alias this template was compiled from
+     * 
+     * @return Alias
+     */
+    public AliasMetadata getAlias() {
+        return this.alias;
+    }
+
+    /**
+     * Gets the alias name
+     * 
+     * @return Alias name
+     */
+    public String getName() {
+        return this.alias.getName();
+    }
+
+    /**
+     * Expands the alias
+     * <p>
+     * Only as many tokens as are needed to fill the positional parameters of
+     * the alias are consumed from the given tokens. The returned list contains
+     * the expansion followed by any of the consumed tokens which were not
+     * substituted into the expansion, the caller is responsible for following
+     * this with whatever tokens remain.
+     * </p>
+     * 
+     * @param tokens
+     *            Tokens that follow the alias
+     * @return Expanded tokens
+     */
+    public List<String> expand(Iterator<String> tokens) {
+        String[] supplied = new String[this.maxPosition + 1];
+        int available = 0;
+        while (available < supplied.length && tokens.hasNext()) {
+            supplied[available++] = tokens.next();
+        }
+
+        boolean[] used = new boolean[available];
+        List<String> expanded = new ArrayList<String>(this.literals.length + available);
+        for (int i = 0; i < this.literals.length; i++) {
+            int position = this.positions[i];
+            if (position != LITERAL && position < available) {
+                // Positional parameter with user input supplied
+                expanded.add(supplied[position]);
+                used[position] = true;
+            } else if (position != LITERAL && this.defaults[i] != null) {
+                // Positional parameter with no user input but a default
+                expanded.add(this.defaults[i]);
+            } else {
+                // Literal, or positional parameter with no user input or
+                // default so pass it on as-is
+                expanded.add(this.literals[i]);
+            }
+        }
+
+        // Pass through any consumed tokens that were not used
+        for (int i = 0; i < available; i++) {
+            if (!used[i])
+                expanded.add(supplied[i]);
+        }
+        return expanded;
+    }
+
+    @Override
+    public String toString() {
+        return this.alias.toString();
+    }
+}
@@ -15,20 +15,34 @@
  */
 package com.github.rvesse.airline.parser.aliases;
 
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.lang3.StringUtils;
 
 import com.github.rvesse.airline.model.AliasMetadata;
+import com.github.rvesse.airline.parser.resources.ClasspathLocator;
 import com.github.rvesse.airline.parser.resources.FileLocator;
 import com.github.rvesse.airline.parser.resources.HomeDirectoryLocator;
 import com.github.rvesse.airline.parser.resources.ResourceLocator;
@@ -36,13 +50,35 @@ import com.github.rvesse.airline.parser.resources.WorkingDirectoryLocator;
 
 /**
  * Represents the source of user defined aliases
+ * <p>
+ * Loaded aliases are cached along with the resolved path, last modified time
+ * and size of each file they were loaded from. Subsequent calls to
+ * {@link #load()} only check those details and return the cached aliases if
+ * nothing has changed, so the files are only read and parsed again when they
+ * are actually edited. Classpath resources cannot change so locations resolved
+ * via {@link ClasspathLocator} (and its derivatives) are only resolved once.
+ * Locations resolved via other locators cannot be checked in this way so are
+ * always read, the stream opened to resolve such a location is the one that is
+ * read.
+ * </p>
+ * <p>
+ * A source may optionally be reloadable in which case
+ * {@link com.github.rvesse.airline.model.ParserMetadata#getAliases()} reflects
+ * edits to the files. Additionally {@link #watch()} may be used to start a
+ * background thread that uses a {@link WatchService} to reload the aliases as
+ * soon as the files change, in which case no file system checks are needed
+ * when loading until a change is detected. Search locations that do not yet
+ * exist are watched via their nearest existing ancestor directory so alias
+ * files created later, e.g. in a newly created configuration directory, are
+ * also detected.
+ * </p>
  * 
  * @author rvesse
  *
  * @param <C>
  *            Command type
  */
-public class UserAliasesSource<C> {
+public class UserAliasesSource<C> implements Closeable {
 
     //@formatter:off
     /**
@@ -59,6 +95,117 @@ public class UserAliasesSource<C> {
     private final List<ResourceLocator> locators;
     private final List<String> searchLocations;
     private final String filename, prefix;
+    private final boolean reloadable;
+
+    private final Object lock = new Object();
+    private final AtomicLong hits = new AtomicLong(), misses = new AtomicLong(), reloads = new AtomicLong();
+    private volatile Snapshot cached;
+    private volatile boolean dirty = true;
+    private volatile Watcher watcher;
+    private final Map<Map.Entry<ResourceLocator, String>, Boolean> classpathResolutions = new ConcurrentHashMap<>();
+
+    /**
+     * A resolved source of aliases
+     */
+    private static final class Source {
+        private final ResourceLocator locator;
+        private final String location;
+        private final File file;
+        private final long lastModified, length;
+        private final boolean checkable;
+        private InputStream input;
+
+        private Source(ResourceLocator locator, String location, File file, boolean checkable) {
+            this(locator, location, file, checkable, null);
+        }
+
+        private Source(ResourceLocator locator, String location, File file, boolean checkable, InputStream input) {
+            this.locator = locator;
+            this.location = location;
+            this.file = file;
+            this.lastModified = file != null ? file.lastModified() : 0;
+            this.length = file != null ? file.length() : 0;
+            this.checkable = checkable;
+            this.input = input;
+        }
+
+        /**
+         * Opens the source for reading, if the source was opened when it was
+         * resolved that stream is returned
+         * 
+         * @param filename
+         *            Filename
+         * @return Input stream, may be {@code null} if not supported by the
+         *         locator
+         * @throws IOException
+         *             Thrown if unable to open the source
+         */
+        private InputStream open(String filename) throws IOException {
+            InputStream stream = this.input;
+            if (stream != null) {
+                this.input = null;
+                return stream;
+            }
+            return this.file != null ? new FileInputStream(this.file) : this.locator.open(this.location, filename);
+        }
+
+        private static void closeAll(List<Source> sources) {
+            for (Source source : sources) {
+                InputStream stream = source.input;
+                if (stream == null)
+                    continue;
+                source.input = null;
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                    // Ignore
+                }
+            }
+        }
+
+        /**
+         * Gets whether this source is known to be unchanged from another
+         * source, this is based on the resolved location and, for files, their
+         * last modified time and size
+         * 
+         * @param other
+         *            Other source
+         * @return True if unchanged, false if changed or unknown
+         */
+        private boolean isUnchanged(Source other) {
+            if (!this.checkable || !other.checkable)
+                return false;
+            if (this.file != null)
+                return this.file.equals(other.file) && this.lastModified == other.lastModified
+                        && this.length == other.length;
+            return other.file == null && this.locator == other.locator && this.location.equals(other.location);
+        }
+
+        private static boolean isUnchanged(List<Source> previous, List<Source> current) {
+            if (previous.size() != current.size())
+                return false;
+            for (int i = 0; i < previous.size(); i++) {
+                if (!previous.get(i).isUnchanged(current.get(i)))
+                    return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Immutable snapshot of loaded aliases
+     */
+    private static final class Snapshot {
+        private final List<Source> sources;
+        private final List<AliasMetadata> aliases;
+        private final long generation;
+
+        private Snapshot(List<Source> sources, List<AliasMetadata> aliases, long generation) {
+            this.sources = sources;
+            this.aliases = aliases;
+            this.generation = generation;
+        }
+    }
 
     public UserAliasesSource(String filename, String prefix, String... searchLocations) {
         this(filename, prefix, null, Arrays.asList(searchLocations));
@@ -66,10 +213,16 @@ public class UserAliasesSource<C> {
 
     public UserAliasesSource(String filename, String prefix, List<ResourceLocator> locators,
             List<String> searchLocations) {
+        this(filename, prefix, locators, searchLocations, false);
+    }
+
+    public UserAliasesSource(String filename, String prefix, List<ResourceLocator> locators,
+            List<String> searchLocations, boolean reloadable) {
         this.filename = filename;
         this.prefix = prefix;
         this.searchLocations = Collections.unmodifiableList(searchLocations);
         this.locators = locators == null ? Arrays.asList(DEFAULT_LOCATORS) : Collections.unmodifiableList(locators);
+        this.reloadable = reloadable;
 
         if (StringUtils.isBlank(this.filename)) {
             throw new IllegalArgumentException("Filename cannot be null/empty/blank");
@@ -122,6 +275,56 @@ public class UserAliasesSource<C> {
         return this.locators;
     }
 
+    /**
+     * Gets whether the aliases are reloadable i.e. whether parsers should
+     * reflect changes to the alias files made after the parser was created
+     * 
+     * @return True if reloadable, false otherwise
+     */
+    public boolean isReloadable() {
+        return this.reloadable;
+    }
+
+    /**
+     * Gets the number of loads that were satisfied from the cache
+     * 
+     * @return Cache hits
+     */
+    public long getCacheHits() {
+        return this.hits.get();
+    }
+
+    /**
+     * Gets the number of loads that had nothing cached
+     * 
+     * @return Cache misses
+     */
+    public long getCacheMisses() {
+        return this.misses.get();
+    }
+
+    /**
+     * Gets the number of times the aliases were reloaded because the cached
+     * aliases were out of date
+     * 
+     * @return Reloads
+     */
+    public long getReloads() {
+        return this.reloads.get();
+    }
+
+    /**
+     * Gets the generation of the currently cached aliases, this changes each
+     * time the aliases are (re)loaded and is {@code 0} if the aliases have not
+     * yet been loaded
+     * 
+     * @return Generation
+     */
+    public long getGeneration() {
+        Snapshot snapshot = this.cached;
+        return snapshot != null ? snapshot.generation : 0;
+    }
+
     /**
      * Loads the alias metadata based on the configured sources
      * 
@@ -132,7 +335,94 @@ public class UserAliasesSource<C> {
      *             Thrown if unable to read a properties file
      */
     public List<AliasMetadata> load() throws FileNotFoundException, IOException {
-        Properties properties = new Properties();
+        return new ArrayList<>(refresh0().aliases);
+    }
+
+    /**
+     * Ensures the cached aliases are up to date reloading them if necessary
+     * 
+     * @return Generation of the cached aliases
+     * @throws IOException
+     *             Thrown if unable to read a properties file
+     */
+    public long refresh() throws IOException {
+        return refresh0().generation;
+    }
+
+    private Snapshot refresh0() throws IOException {
+        Snapshot snapshot = this.cached;
+        // When watching, nothing can have changed unless the watcher says so
+        if (snapshot != null && this.watcher != null && !this.dirty) {
+            this.hits.incrementAndGet();
+            return snapshot;
+        }
+
+        // Clear dirty before resolving so changes that happen while we are
+        // resolving and reading are not lost
+        this.dirty = false;
+        List<Source> sources;
+        try {
+            sources = resolve();
+        } catch (IOException | RuntimeException e) {
+            this.dirty = true;
+            throw e;
+        }
+        try {
+            if (snapshot != null && Source.isUnchanged(snapshot.sources, sources)) {
+                this.hits.incrementAndGet();
+                return snapshot;
+            }
+
+            synchronized (this.lock) {
+                Snapshot current = this.cached;
+                if (current != snapshot && current != null && Source.isUnchanged(current.sources, sources)) {
+                    // Another thread already reloaded
+                    this.hits.incrementAndGet();
+                    return current;
+                }
+
+                if (current == null) {
+                    this.misses.incrementAndGet();
+                } else {
+                    this.reloads.incrementAndGet();
+                }
+                Snapshot loaded;
+                try {
+                    loaded = new Snapshot(sources, read(sources), current != null ? current.generation + 1 : 1);
+                } catch (IOException | RuntimeException e) {
+                    this.dirty = true;
+                    throw e;
+                }
+                this.cached = loaded;
+                return loaded;
+            }
+        } finally {
+            // Close any streams opened during resolution that weren't read
+            Source.closeAll(sources);
+        }
+    }
+
+    /**
+     * Gets the cached aliases, loading them if not yet loaded
+     * 
+     * @return Aliases
+     * @throws IOException
+     *             Thrown if unable to read a properties file
+     */
+    public List<AliasMetadata> getCachedAliases() throws IOException {
+        Snapshot snapshot = this.cached;
+        return snapshot != null ? snapshot.aliases : refresh0().aliases;
+    }
+
+    /**
+     * Resolves the sources that would currently be read without reading them
+     * 
+     * @return Sources in the order they should be read
+     * @throws IOException
+     *             Thrown if unable to check a location
+     */
+    private List<Source> resolve() throws IOException {
+        List<Source> sources = new ArrayList<>();
 
         // Search locations in reverse order overwriting previously found values
         // each time. Thus the first location in the list has highest precedence
@@ -144,28 +434,94 @@ public class UserAliasesSource<C> {
                 continue;
 
             // Don't read property files multiple times
-            if (loaded.contains(loc))
+            if (!loaded.add(loc))
                 continue;
 
             for (ResourceLocator locator : this.locators) {
-                try (InputStream input = locator.open(loc, filename)) {
-                    // May not be supported by the locator in which case null
-                    // will be returned and we should try the next locator
-                    if (input == null)
+                if (isFileLocator(locator)) {
+                    File f = ((FileLocator) locator).locate(loc, filename);
+                    if (f == null)
                         continue;
+                    sources.add(new Source(locator, loc, f.getAbsoluteFile(), true));
+                    break;
+                }
 
-                    properties.load(input);
+                // Classpath resources can't change so only need resolving once
+                boolean classpath = locator instanceof ClasspathLocator;
+                Map.Entry<ResourceLocator, String> key = null;
+                if (classpath) {
+                    key = new AbstractMap.SimpleImmutableEntry<>(locator, loc);
+                    Boolean found = this.classpathResolutions.get(key);
+                    if (found != null) {
+                        if (!found)
+                            continue;
+                        sources.add(new Source(locator, loc, null, true));
+                        break;
+                    }
+                }
 
-                    // If we successfully load the input no need to try further
-                    // locators
-                    break;
-                } finally {
-                    // Remember we've tried to read this file so we don't try
-                    // and read it multiple times
-                    loaded.add(loc);
+                // Other locators can only be checked by opening them
+                InputStream input;
+                try {
+                    input = locator.open(loc, filename);
+                } catch (IOException | RuntimeException e) {
+                    Source.closeAll(sources);
+                    throw e;
+                }
+                if (classpath) {
+                    this.classpathResolutions.put(key, input != null);
                 }
+                // May not be supported by the locator in which case null
+                // will be returned and we should try the next locator
+                if (input == null)
+                    continue;
+                if (classpath) {
+                    // Only read when the aliases are (re)loaded
+                    input.close();
+                    sources.add(new Source(locator, loc, null, true));
+                } else {
+                    // We have no way to know whether other resources have
+                    // changed so they are always read, keep the stream open
+                    // for reading
+                    sources.add(new Source(locator, loc, null, false, input));
+                }
+                break;
             }
+        }
+        return sources;
+    }
+
+    private static boolean isFileLocator(ResourceLocator locator) {
+        if (!(locator instanceof FileLocator))
+            return false;
+        try {
+            // Derived locators that change how files are opened can't be
+            // resolved to a file
+            return locator.getClass().getMethod("open", String.class, String.class)
+                    .getDeclaringClass() == FileLocator.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
 
+    private List<AliasMetadata> read(List<Source> sources) throws IOException {
+        Properties properties = new Properties();
+        for (Source source : sources) {
+            InputStream input;
+            try {
+                input = source.open(filename);
+            } catch (FileNotFoundException e) {
+                // Removed since it was resolved, the next load will notice
+                continue;
+            }
+            // May not be supported by the locator
+            if (input == null)
+                continue;
+            try {
+                properties.load(input);
+            } finally {
+                input.close();
+            }
         }
 
         // Strip any irrelevant properties
@@ -198,6 +554,120 @@ public class UserAliasesSource<C> {
             aliases.add(new AliasMetadata(name, args));
         }
 
-        return aliases;
+        return Collections.unmodifiableList(aliases);
+    }
+
+    /**
+     * Starts watching the directories containing the alias files for changes
+     * using a background daemon thread which reloads the aliases whenever a
+     * change is detected
+     * <p>
+     * Only locations resolved via {@link FileLocator} and its derivatives can
+     * be watched. Call {@link #close()} to stop watching.
+     * </p>
+     * 
+     * @throws IOException
+     *             Thrown if unable to start watching
+     */
+    public void watch() throws IOException {
+        synchronized (this.lock) {
+            if (this.watcher != null)
+                return;
+
+            WatchService service = FileSystems.getDefault().newWatchService();
+            Watcher w = new Watcher(service);
+            try {
+                w.register();
+            } catch (IOException | RuntimeException e) {
+                service.close();
+                throw e;
+            }
+
+            // Anything may have changed before we started watching
+            this.dirty = true;
+            this.watcher = w;
+            this.watcher.start();
+        }
+    }
+
+    /**
+     * Stops watching for changes if {@link #watch()} was previously called
+     */
+    @Override
+    public void close() throws IOException {
+        Watcher w;
+        synchronized (this.lock) {
+            w = this.watcher;
+            this.watcher = null;
+        }
+        if (w != null)
+            w.service.close();
+    }
+
+    private final class Watcher extends Thread {
+        private final WatchService service;
+        private final Set<Path> registered = new HashSet<>();
+
+        private Watcher(WatchService service) {
+            super("airline-user-aliases-watcher");
+            this.service = service;
+            setDaemon(true);
+        }
+
+        /**
+         * Registers the directory for each search location, or its nearest
+         * existing ancestor if it does not yet exist, so that we see the
+         * directory, and then the alias file, being created
+         * 
+         * @throws IOException
+         *             Thrown if unable to register a directory
+         */
+        private void register() throws IOException {
+            for (String loc : searchLocations) {
+                if (StringUtils.isBlank(loc))
+                    continue;
+                for (ResourceLocator locator : locators) {
+                    if (!(locator instanceof FileLocator))
+                        continue;
+                    File dir = ((FileLocator) locator).locateNearestDirectory(loc);
+                    if (dir == null)
+                        continue;
+                    Path path = dir.toPath();
+                    if (this.registered.add(path)) {
+                        path.register(this.service, StandardWatchEventKinds.ENTRY_CREATE,
+                                StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    WatchKey key = this.service.take();
+                    // Drain the events, any event means we need to check
+                    key.pollEvents();
+                    if (!key.reset())
+                        this.registered.remove(key.watchable());
+                    dirty = true;
+                    try {
+                        // Directories may have been created, or removed, so
+                        // the directories to watch may have changed
+                        register();
+                    } catch (IOException | RuntimeException e) {
+                        // Retry on the next event
+                    }
+                    try {
+                        refresh0();
+                    } catch (IOException | RuntimeException e) {
+                        // Leave dirty so the next load retries
+                        dirty = true;
+                    }
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // Stopped
+            }
+        }
     }
 }
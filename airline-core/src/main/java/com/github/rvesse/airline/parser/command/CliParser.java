@@ -23,9 +23,10 @@ import com.github.rvesse.airline.parser.AbstractCommandParser;
 import com.github.rvesse.airline.parser.ParseResult;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseException;
-import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
+import com.github.rvesse.airline.parser.instrumentation.ParseCounter;
+import com.github.rvesse.airline.parser.instrumentation.ParseListener;
+import com.github.rvesse.airline.parser.instrumentation.ParsePhase;
 import com.github.rvesse.airline.restrictions.GlobalRestriction;
-import com.github.rvesse.airline.restrictions.OptionRestriction;
 
 public class CliParser<T> extends AbstractCommandParser<T> {
 
@@ -33,6 +34,22 @@ public class CliParser<T> extends AbstractCommandParser<T> {
         if (args == null)
             throw new NullPointerException("args cannot be null");
 
+        ParseListener listener = metadata.getParserConfiguration().getParseListener();
+        boolean lightweight = ParseException
+                .setLightweight(metadata.getParserConfiguration().usesLightweightErrors());
+        try {
+            ParseResult<T> result = parseWithResult0(metadata, args);
+            listener.count(ParseCounter.ERRORS, result.getErrors().size());
+            return result;
+        } catch (ParseException e) {
+            listener.count(ParseCounter.ERRORS, countErrors(e));
+            throw e;
+        } finally {
+            ParseException.setLightweight(lightweight);
+        }
+    }
+
+    private ParseResult<T> parseWithResult0(GlobalMetadata<T> metadata, Iterable<String> args) {
         ParseState<T> state = tryParse(metadata, args);
 
         // If we did not find a command choose the appropriate default command
@@ -45,7 +62,13 @@ public class CliParser<T> extends AbstractCommandParser<T> {
             }
         }
 
-        validate(state);
+        ParseListener listener = metadata.getParserConfiguration().getParseListener();
+        long start = listener.phaseStarted(ParsePhase.VALIDATION);
+        try {
+            validate(state);
+        } finally {
+            listener.phaseFinished(ParsePhase.VALIDATION, start);
+        }
         return metadata.getParserConfiguration().getErrorHandler().finished(state);
     }
 
@@ -66,9 +89,11 @@ public class CliParser<T> extends AbstractCommandParser<T> {
      */
     protected void validate(ParseState<T> state) {
         // Global restrictions
+        ParseListener listener = state.getParserConfiguration().getParseListener();
         for (GlobalRestriction restriction : state.getGlobal().getRestrictions()) {
             if (restriction == null)
                 continue;
+            listener.count(ParseCounter.RESTRICTIONS, 1);
             try {
                 restriction.validate(state);
             } catch (ParseException e) {
@@ -81,30 +106,16 @@ public class CliParser<T> extends AbstractCommandParser<T> {
             // Argument restrictions
             ArgumentsMetadata arguments = command.getArguments();
             if (arguments != null) {
-                for (ArgumentsRestriction restriction : arguments.getRestrictions()) {
-                    if (restriction == null)
-                        continue;
-                    try {
-                        restriction.finalValidate(state, arguments);
-                    } catch (ParseException e) {
-                        state.getParserConfiguration().getErrorHandler().handleError(e);
-                    }
-                }
+                arguments.getValidationPlan().finalValidate(state, arguments,
+                        state.getParserConfiguration().getErrorHandler());
             }
 
             // Option restrictions
             for (OptionMetadata option : command.getAllOptions()) {
                 if (option == null)
                     continue;
-                for (OptionRestriction restriction : option.getRestrictions()) {
-                    if (restriction == null)
-                        continue;
-                    try {
-                        restriction.finalValidate(state, option);
-                    } catch (ParseException e) {
-                        state.getParserConfiguration().getErrorHandler().handleError(e);
-                    }
-                }
+                option.getValidationPlan().finalValidate(state, option,
+                        state.getParserConfiguration().getErrorHandler());
             }
         }
     }
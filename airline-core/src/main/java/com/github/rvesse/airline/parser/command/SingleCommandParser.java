@@ -27,9 +27,10 @@ import com.github.rvesse.airline.parser.AbstractCommandParser;
 import com.github.rvesse.airline.parser.ParseResult;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseException;
-import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
+import com.github.rvesse.airline.parser.instrumentation.ParseCounter;
+import com.github.rvesse.airline.parser.instrumentation.ParseListener;
+import com.github.rvesse.airline.parser.instrumentation.ParsePhase;
 import com.github.rvesse.airline.restrictions.GlobalRestriction;
-import com.github.rvesse.airline.restrictions.OptionRestriction;
 
 public class SingleCommandParser<T> extends AbstractCommandParser<T> {
 
@@ -38,11 +39,26 @@ public class SingleCommandParser<T> extends AbstractCommandParser<T> {
         if (args == null)
             throw new NullPointerException("args is null");
 
-        ParseState<T> state = tryParse(parserConfig, commandMetadata, args);
-        validate(state, IteratorUtils.toList(restrictions.iterator()));
-
-        return state.getParserConfiguration().getErrorHandler().finished(state);
+        ParseListener listener = parserConfig.getParseListener();
+        boolean lightweight = ParseException.setLightweight(parserConfig.usesLightweightErrors());
+        try {
+            ParseState<T> state = tryParse(parserConfig, commandMetadata, args);
+            long start = listener.phaseStarted(ParsePhase.VALIDATION);
+            try {
+                validate(state, IteratorUtils.toList(restrictions.iterator()));
+            } finally {
+                listener.phaseFinished(ParsePhase.VALIDATION, start);
+            }
 
+            ParseResult<T> result = state.getParserConfiguration().getErrorHandler().finished(state);
+            listener.count(ParseCounter.ERRORS, result.getErrors().size());
+            return result;
+        } catch (ParseException e) {
+            listener.count(ParseCounter.ERRORS, countErrors(e));
+            throw e;
+        } finally {
+            ParseException.setLightweight(lightweight);
+        }
     }
 
     public T parse(ParserMetadata<T> parserConfig, CommandMetadata commandMetadata,
@@ -63,9 +79,11 @@ public class SingleCommandParser<T> extends AbstractCommandParser<T> {
      */
     protected void validate(ParseState<T> state, List<GlobalRestriction> restrictions) {
         // Global restrictions
+        ParseListener listener = state.getParserConfiguration().getParseListener();
         for (GlobalRestriction restriction : restrictions) {
             if (restriction == null)
                 continue;
+            listener.count(ParseCounter.RESTRICTIONS, 1);
             try {
                 restriction.validate(state);
             } catch (ParseException e) {
@@ -77,30 +95,16 @@ public class SingleCommandParser<T> extends AbstractCommandParser<T> {
             // Arguments restrictions
             ArgumentsMetadata arguments = command.getArguments();
             if (arguments != null) {
-                for (ArgumentsRestriction restriction : arguments.getRestrictions()) {
-                    if (restriction == null)
-                        continue;
-                    try {
-                        restriction.finalValidate(state, arguments);
-                    } catch (ParseException e) {
-                        state.getParserConfiguration().getErrorHandler().handleError(e);
-                    }
-                }
+                arguments.getValidationPlan().finalValidate(state, arguments,
+                        state.getParserConfiguration().getErrorHandler());
             }
 
             // Option restrictions
             for (OptionMetadata option : command.getAllOptions()) {
                 if (option == null)
                     continue;
-                for (OptionRestriction restriction : option.getRestrictions()) {
-                    if (restriction == null)
-                        continue;
-                    try {
-                        restriction.finalValidate(state, option);
-                    } catch (ParseException e) {
-                        state.getParserConfiguration().getErrorHandler().handleError(e);
-                    }
-                }
+                option.getValidationPlan().finalValidate(state, option,
+                        state.getParserConfiguration().getErrorHandler());
             }
         }
     }
@@ -0,0 +1,52 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.errors;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.github.rvesse.airline.utils.AirlineUtils;
+
+/**
+ * Exception thrown by collecting error handlers when the configured limit on
+ * the number of errors is reached in order to abort parsing early
+ * <p>
+ * The errors collected up to that point are available via {@link #getErrors()}
+ * and are also added as suppressed exceptions.
+ * </p>
+ */
+public class ParseErrorLimitException extends ParseException {
+    private static final long serialVersionUID = -4398117294063265713L;
+
+    private final List<ParseException> errors;
+
+    public ParseErrorLimitException(int limit, Collection<ParseException> errors) {
+        super("Parsing aborted after encountering %d errors, see suppressed errors for details", limit);
+        this.errors = AirlineUtils.unmodifiableListCopy(errors);
+        for (ParseException e : errors) {
+            addSuppressed(e);
+        }
+    }
+
+    /**
+     * Gets the errors collected before parsing was aborted
+     * 
+     * @return Errors
+     */
+    public List<ParseException> getErrors() {
+        return errors;
+    }
+}
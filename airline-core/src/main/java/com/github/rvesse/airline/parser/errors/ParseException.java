@@ -15,21 +15,142 @@
  */
 package com.github.rvesse.airline.parser.errors;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+
 /**
  * Super class of all command line parsing exceptions
+ * <p>
+ * When lightweight errors are enabled for the current thread, see
+ * {@link #setLightweight(boolean)}, exceptions do not capture a stack trace and
+ * only format their message when it is first requested. Parsers enable this
+ * for the duration of a parse when the parser configuration requests it.
+ * </p>
  *
  */
 public class ParseException extends RuntimeException
 {
     private static final long serialVersionUID = 3772132549207742875L;
 
+    private static final ThreadLocal<Boolean> LIGHTWEIGHT = new ThreadLocal<Boolean>();
+
+    private volatile String message;
+    private final transient String format;
+    private final transient Object[] args;
+
     public ParseException(String string, Object... args)
     {
-        super(String.format(string, args));
+        this(null, string, args);
     }
 
     public ParseException(Exception cause, String string, Object... args)
     {
-        super(String.format(string, args), cause);
+        this(cause, isLightweight(), string, args);
+    }
+
+    private ParseException(Exception cause, boolean lightweight, String string, Object... args) {
+        super(null, cause, true, !lightweight);
+        if (lightweight) {
+            this.format = string;
+            this.args = args;
+        } else {
+            this.message = String.format(string, args);
+            this.format = null;
+            this.args = null;
+        }
+    }
+
+    /**
+     * Gets whether exceptions created by the current thread are lightweight
+     * 
+     * @return True if lightweight, false otherwise
+     */
+    public static boolean isLightweight() {
+        return Boolean.TRUE.equals(LIGHTWEIGHT.get());
+    }
+
+    /**
+     * Sets whether exceptions created by the current thread are lightweight
+     * i.e. have no stack trace and lazily formatted messages
+     * 
+     * @param lightweight
+     *            Whether exceptions should be lightweight
+     * @return Previous setting, callers should restore this once done
+     */
+    public static boolean setLightweight(boolean lightweight) {
+        boolean previous = isLightweight();
+        if (lightweight) {
+            LIGHTWEIGHT.set(Boolean.TRUE);
+        } else {
+            LIGHTWEIGHT.remove();
+        }
+        return previous;
+    }
+
+    @Override
+    public String getMessage() {
+        String message = this.message;
+        if (message == null && this.format != null) {
+            message = String.format(this.format, this.args);
+            this.message = message;
+        }
+        return message;
+    }
+
+    /**
+     * Gets a key that identifies this error for the purposes of detecting
+     * duplicate errors
+     * <p>
+     * Two errors have equal keys if they are of the same kind and were created
+     * with the same message and message arguments e.g. the same option and
+     * value. For lightweight errors this does not require formatting the
+     * message.
+     * </p>
+     * 
+     * @return Error key
+     */
+    public Object getErrorKey() {
+        if (this.format != null)
+            return new ErrorKey(getClass(), this.format, this.args);
+        return new ErrorKey(getClass(), getMessage(), null);
+    }
+
+    private void writeObject(ObjectOutputStream output) throws IOException {
+        // Ensure a lazy message is formatted before we lose its arguments
+        getMessage();
+        output.defaultWriteObject();
+    }
+
+    private static final class ErrorKey {
+        private final Class<?> kind;
+        private final String message;
+        private final Object[] args;
+        private final int hashCode;
+
+        private ErrorKey(Class<?> kind, String message, Object[] args) {
+            this.kind = kind;
+            this.message = message;
+            this.args = args;
+            this.hashCode = 31 * (31 * kind.hashCode() + (message != null ? message.hashCode() : 0))
+                    + Arrays.deepHashCode(args);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof ErrorKey))
+                return false;
+            ErrorKey other = (ErrorKey) obj;
+            return this.hashCode == other.hashCode && this.kind.equals(other.kind)
+                    && (this.message == null ? other.message == null : this.message.equals(other.message))
+                    && Arrays.deepEquals(this.args, other.args);
+        }
     }
 }
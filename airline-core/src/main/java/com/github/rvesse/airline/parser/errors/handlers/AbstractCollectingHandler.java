@@ -15,40 +15,175 @@
  */
 package com.github.rvesse.airline.parser.errors.handlers;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-import org.apache.commons.lang3.StringUtils;
-
+import com.github.rvesse.airline.parser.errors.ParseErrorLimitException;
 import com.github.rvesse.airline.parser.errors.ParseException;
 
+/**
+ * Abstract error handler that collects errors
+ * <p>
+ * Errors are collected separately for each thread so that a single parser
+ * configuration may safely be used for concurrent parses on different threads.
+ * Duplicate errors, as determined by {@link ParseException#getErrorKey()}, are
+ * added as suppressed exceptions of the first such error rather than being
+ * collected again.
+ * </p>
+ * <p>
+ * A limit on the number of errors may optionally be given, once that many
+ * distinct errors have been collected a {@link ParseErrorLimitException} is
+ * thrown to abort parsing.
+ * </p>
+ */
 public abstract class AbstractCollectingHandler implements ParserErrorHandler {
 
-    protected List<ParseException> errors = new ArrayList<>();
+    private static final class Collected {
+        private final List<ParseException> errors = new ArrayList<>();
+        private final Map<Object, ParseException> keys = new HashMap<>();
+    }
+
+    /**
+     * View of the errors collected by the current thread
+     */
+    private final class CurrentThreadErrors extends AbstractList<ParseException> {
+
+        @Override
+        public ParseException get(int index) {
+            return collected.get().errors.get(index);
+        }
+
+        @Override
+        public int size() {
+            return collected.get().errors.size();
+        }
+
+        @Override
+        public ParseException set(int index, ParseException e) {
+            return collected.get().errors.set(index, e);
+        }
+
+        @Override
+        public void add(int index, ParseException e) {
+            collected.get().errors.add(index, e);
+        }
+
+        @Override
+        public ParseException remove(int index) {
+            return collected.get().errors.remove(index);
+        }
+    }
+
+    private final ThreadLocal<Collected> collected = new ThreadLocal<Collected>() {
+        @Override
+        protected Collected initialValue() {
+            return new Collected();
+        }
+    };
+    private final List<ParseException> view = new CurrentThreadErrors();
+    private final int maxErrors;
+
+    /**
+     * The errors collected by the current thread
+     * 
+     * @deprecated Errors are now collected separately for each thread, this
+     *             field is a view of the errors collected by the current thread
+     *             retained for compatibility with existing subclasses, use
+     *             {@link #getCollection()} and {@link #resetCollection()}
+     *             instead. If a subclass assigns its own list to this field
+     *             then that list is used to collect errors from all threads as
+     *             in previous releases.
+     */
+    @Deprecated
+    protected List<ParseException> errors = view;
 
     public AbstractCollectingHandler() {
+        this(0);
+    }
+
+    /**
+     * Creates a new handler
+     * 
+     * @param maxErrors
+     *            Maximum number of errors to collect before aborting parsing,
+     *            zero or less for no limit
+     */
+    public AbstractCollectingHandler(int maxErrors) {
         super();
+        this.maxErrors = maxErrors;
     }
 
     @Override
     public void handleError(ParseException e) {
-        // Check for duplicate messages
-        for (ParseException existing : this.errors) {
-            if (StringUtils.equals(existing.getMessage(), e.getMessage())) {
+        // Parsing is being aborted
+        if (e instanceof ParseErrorLimitException)
+            throw e;
+
+        Object key = e.getErrorKey();
+        List<ParseException> errors;
+        if (this.errors != this.view) {
+            // A subclass has supplied its own list
+            errors = this.errors;
+            for (ParseException existing : errors) {
+                if (key.equals(existing.getErrorKey())) {
+                    existing.addSuppressed(e);
+                    return;
+                }
+            }
+            errors.add(e);
+        } else {
+            // Check for duplicate errors
+            Collected collected = this.collected.get();
+            ParseException existing = collected.keys.get(key);
+            if (existing != null) {
                 existing.addSuppressed(e);
                 return;
             }
+
+            collected.keys.put(key, e);
+            collected.errors.add(e);
+            errors = collected.errors;
+        }
+
+        if (this.maxErrors > 0 && errors.size() >= this.maxErrors) {
+            resetCollection();
+            throw new ParseErrorLimitException(this.maxErrors, errors);
         }
-        
-        this.errors.add(e);
     }
 
+    /**
+     * Gets the maximum number of errors that will be collected before parsing
+     * is aborted
+     * 
+     * @return Maximum errors, zero or less if unlimited
+     */
+    public int getMaxErrors() {
+        return this.maxErrors;
+    }
+
+    /**
+     * Gets the errors collected by the current thread
+     * 
+     * @return Errors
+     */
     protected List<ParseException> getCollection() {
-        return this.errors;
+        if (this.errors != this.view)
+            return this.errors;
+        return this.collected.get().errors;
     }
 
+    /**
+     * Resets the errors collected by the current thread
+     */
     protected void resetCollection() {
-        this.errors = new ArrayList<>();
+        if (this.errors != this.view) {
+            this.errors = new ArrayList<>();
+            return;
+        }
+        this.collected.remove();
     }
 
-}
\ No newline at end of file
+}
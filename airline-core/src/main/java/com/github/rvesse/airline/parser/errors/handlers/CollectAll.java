@@ -26,6 +26,21 @@ import com.github.rvesse.airline.parser.ParseState;
  */
 public class CollectAll extends AbstractCollectingHandler {
 
+    public CollectAll() {
+        super();
+    }
+
+    /**
+     * Creates a new handler which aborts parsing once the given number of
+     * errors have been collected
+     * 
+     * @param maxErrors
+     *            Maximum number of errors, zero or less for no limit
+     */
+    public CollectAll(int maxErrors) {
+        super(maxErrors);
+    }
+
     @Override
     public <T> ParseResult<T> finished(ParseState<T> state) {
         ParseResult<T> result = new ParseResult<>(state, getCollection());
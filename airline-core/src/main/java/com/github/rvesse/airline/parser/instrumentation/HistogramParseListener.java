@@ -0,0 +1,231 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.instrumentation;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A parse listener that records counts and per-phase timing histograms
+ * in-memory
+ * <p>
+ * Timings are recorded in nanoseconds into histograms with power of two sized
+ * buckets, so the bucket with index {@code i > 0} counts timings of at least
+ * {@code 2^(i-1)} and less than {@code 2^i} nanoseconds and the bucket with
+ * index {@code 0} counts timings of zero. This keeps recording cheap and the
+ * memory used constant regardless of how many parses are recorded, at the cost
+ * of percentiles only being accurate to within a factor of two.
+ * </p>
+ * <p>
+ * This listener is thread-safe and so a single instance may be shared by many
+ * parsers, the recorded values may be inspected at any time though values read
+ * while parses are in progress may not be mutually consistent.
+ * </p>
+ */
+public class HistogramParseListener implements ParseListener {
+
+    /**
+     * Number of buckets in each phase histogram
+     */
+    public static final int BUCKETS = 65;
+
+    private static final int PHASES = ParsePhase.values().length;
+    private static final int COUNT = 0, TOTAL = 1, MAX = 2, STATS = 3;
+
+    private final AtomicLongArray counters = new AtomicLongArray(ParseCounter.values().length);
+    private final AtomicLongArray stats = new AtomicLongArray(PHASES * STATS);
+    private final AtomicLongArray histograms = new AtomicLongArray(PHASES * BUCKETS);
+
+    @Override
+    public long phaseStarted(ParsePhase phase) {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void phaseFinished(ParsePhase phase, long start) {
+        long elapsed = Math.max(0, System.nanoTime() - start);
+        int offset = phase.ordinal() * STATS;
+        stats.incrementAndGet(offset + COUNT);
+        stats.addAndGet(offset + TOTAL, elapsed);
+        long max = stats.get(offset + MAX);
+        while (elapsed > max && !stats.compareAndSet(offset + MAX, max, elapsed)) {
+            max = stats.get(offset + MAX);
+        }
+        histograms.incrementAndGet(phase.ordinal() * BUCKETS + bucketOf(elapsed));
+    }
+
+    @Override
+    public void count(ParseCounter counter, int amount) {
+        if (amount != 0)
+            counters.addAndGet(counter.ordinal(), amount);
+    }
+
+    private static int bucketOf(long nanos) {
+        return 64 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    /**
+     * Gets the total for a counter
+     * 
+     * @param counter
+     *            Counter
+     * @return Total
+     */
+    public long getCount(ParseCounter counter) {
+        return counters.get(counter.ordinal());
+    }
+
+    /**
+     * Gets how many times a phase has finished
+     * 
+     * @param phase
+     *            Phase
+     * @return Number of times the phase finished
+     */
+    public long getCount(ParsePhase phase) {
+        return stats.get(phase.ordinal() * STATS + COUNT);
+    }
+
+    /**
+     * Gets the total time spent in a phase
+     * 
+     * @param phase
+     *            Phase
+     * @return Total time in nanoseconds
+     */
+    public long getTotalTime(ParsePhase phase) {
+        return stats.get(phase.ordinal() * STATS + TOTAL);
+    }
+
+    /**
+     * Gets the mean time spent in a phase
+     * 
+     * @param phase
+     *            Phase
+     * @return Mean time in nanoseconds, zero if the phase has never finished
+     */
+    public double getMeanTime(ParsePhase phase) {
+        long count = getCount(phase);
+        return count > 0 ? (double) getTotalTime(phase) / count : 0;
+    }
+
+    /**
+     * Gets the maximum time spent in a phase
+     * 
+     * @param phase
+     *            Phase
+     * @return Maximum time in nanoseconds
+     */
+    public long getMaxTime(ParsePhase phase) {
+        return stats.get(phase.ordinal() * STATS + MAX);
+    }
+
+    /**
+     * Gets a copy of the timing histogram for a phase
+     * 
+     * @param phase
+     *            Phase
+     * @return Histogram with {@link #BUCKETS} buckets
+     */
+    public long[] getHistogram(ParsePhase phase) {
+        long[] histogram = new long[BUCKETS];
+        int offset = phase.ordinal() * BUCKETS;
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] = histograms.get(offset + i);
+        }
+        return histogram;
+    }
+
+    /**
+     * Gets an estimate of a percentile of the time spent in a phase
+     * <p>
+     * The estimate is the upper bound of the histogram bucket that contains
+     * the percentile so may be up to twice the true value, though it never
+     * exceeds the maximum recorded time.
+     * </p>
+     * 
+     * @param phase
+     *            Phase
+     * @param percentile
+     *            Percentile, must be in the range 0 to 100
+     * @return Estimated time in nanoseconds, zero if the phase has never
+     *         finished
+     */
+    public long getPercentile(ParsePhase phase, double percentile) {
+        if (percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("percentile must be in the range 0 to 100");
+        long[] histogram = getHistogram(phase);
+        long total = 0;
+        for (long count : histogram) {
+            total += count;
+        }
+        if (total == 0)
+            return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(total * (percentile / 100d)));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += histogram[i];
+            if (seen >= rank) {
+                long upper = i == 0 ? 0 : (i == 64 ? Long.MAX_VALUE : (1L << i) - 1);
+                return Math.min(upper, getMaxTime(phase));
+            }
+        }
+        return getMaxTime(phase);
+    }
+
+    /**
+     * Resets all recorded counts and timings
+     * <p>
+     * Resetting while parses are in progress may leave values that are not
+     * mutually consistent.
+     * </p>
+     */
+    public void reset() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+        for (int i = 0; i < stats.length(); i++) {
+            stats.set(i, 0);
+        }
+        for (int i = 0; i < histograms.length(); i++) {
+            histograms.set(i, 0);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("HistogramParseListener {");
+        for (ParseCounter counter : ParseCounter.values()) {
+            sb.append(counter).append('=').append(getCount(counter)).append(", ");
+        }
+        boolean first = true;
+        sb.append("phases=[");
+        for (ParsePhase phase : ParsePhase.values()) {
+            if (getCount(phase) == 0)
+                continue;
+            if (!first)
+                sb.append(", ");
+            first = false;
+            sb.append(phase).append(" {count=").append(getCount(phase));
+            sb.append(", mean=").append((long) getMeanTime(phase)).append("ns");
+            sb.append(", p99=").append(getPercentile(phase, 99)).append("ns");
+            sb.append(", max=").append(getMaxTime(phase)).append("ns}");
+        }
+        sb.append("]}");
+        return sb.toString();
+    }
+}
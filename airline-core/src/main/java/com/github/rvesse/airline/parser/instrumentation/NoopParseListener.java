@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.instrumentation;
+
+/**
+ * A parse listener that ignores all events, this is the default listener
+ * <p>
+ * The parser recognises this listener and skips any instrumentation work that
+ * would only be needed to report events to a listener.
+ * </p>
+ */
+public final class NoopParseListener implements ParseListener {
+
+    /**
+     * The singleton instance of the listener
+     */
+    public static final NoopParseListener INSTANCE = new NoopParseListener();
+
+    private NoopParseListener() {
+    }
+
+    @Override
+    public long phaseStarted(ParsePhase phase) {
+        return 0;
+    }
+
+    @Override
+    public void phaseFinished(ParsePhase phase, long start) {
+        // No-op
+    }
+
+    @Override
+    public void count(ParseCounter counter, int amount) {
+        // No-op
+    }
+}
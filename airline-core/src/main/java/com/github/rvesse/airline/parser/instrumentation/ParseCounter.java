@@ -0,0 +1,43 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.instrumentation;
+
+/**
+ * The events counted during parsing that are reported to a
+ * {@link ParseListener}
+ */
+public enum ParseCounter {
+    /**
+     * Tokens read from the input, after any argument file expansion
+     */
+    TOKENS,
+    /**
+     * Lookups of options by name made by the option parsers
+     */
+    OPTION_LOOKUPS,
+    /**
+     * Conversions of raw values into strongly typed values
+     */
+    CONVERSIONS,
+    /**
+     * Restrictions evaluated
+     */
+    RESTRICTIONS,
+    /**
+     * Errors encountered
+     */
+    ERRORS;
+}
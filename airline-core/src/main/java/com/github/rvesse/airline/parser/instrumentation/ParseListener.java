@@ -0,0 +1,71 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.instrumentation;
+
+/**
+ * Interface for listeners that receive instrumentation events from the parser
+ * <p>
+ * A listener is part of the parser configuration and so may be shared by many
+ * parses, possibly running concurrently on different threads, implementations
+ * <strong>MUST</strong> therefore be thread-safe. Listeners are called on the
+ * hot paths of the parser so should do as little work as possible.
+ * </p>
+ * <p>
+ * The default listener is the {@link NoopParseListener} which ignores all
+ * events, the {@link HistogramParseListener} may be used to gather timings and
+ * counts in-memory.
+ * </p>
+ */
+public interface ParseListener {
+
+    /**
+     * Called when a parse phase starts
+     * <p>
+     * The returned value is passed back to
+     * {@link #phaseFinished(ParsePhase, long)} when the phase finishes,
+     * implementations that record timings will typically return
+     * {@link System#nanoTime()}. Every started phase is reported as finished,
+     * even if it fails with an exception.
+     * </p>
+     * 
+     * @param phase
+     *            Phase
+     * @return Start value to be passed to
+     *         {@link #phaseFinished(ParsePhase, long)}
+     */
+    public long phaseStarted(ParsePhase phase);
+
+    /**
+     * Called when a parse phase finishes
+     * 
+     * @param phase
+     *            Phase
+     * @param start
+     *            Start value that was returned by
+     *            {@link #phaseStarted(ParsePhase)}
+     */
+    public void phaseFinished(ParsePhase phase, long start);
+
+    /**
+     * Called to count events that occurred during parsing
+     * 
+     * @param counter
+     *            Counter
+     * @param amount
+     *            Number of events
+     */
+    public void count(ParseCounter counter, int amount);
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.instrumentation;
+
+/**
+ * The phases of parsing that are reported to a {@link ParseListener}
+ * <p>
+ * Phases may nest, in particular when parsing a CLI the
+ * {@link #OPTIONS_AND_ARGUMENTS} phase happens within the {@link #COMMAND}
+ * phase. When parsing a single command only the {@link #OPTIONS_AND_ARGUMENTS},
+ * {@link #VALIDATION} and {@link #INSTANTIATION} phases occur.
+ * </p>
+ */
+public enum ParsePhase {
+    /**
+     * Parsing of global scoped options
+     */
+    GLOBAL_OPTIONS,
+    /**
+     * Resolution of aliases
+     */
+    ALIASES,
+    /**
+     * Resolution of the command group(s) and parsing of group scoped options
+     */
+    GROUP,
+    /**
+     * Resolution of the command and parsing of its options and arguments
+     */
+    COMMAND,
+    /**
+     * Parsing of the command options and arguments
+     */
+    OPTIONS_AND_ARGUMENTS,
+    /**
+     * Final validation of the parsed options and arguments against their
+     * restrictions
+     */
+    VALIDATION,
+    /**
+     * Instantiation of the command and injection of the parsed values
+     */
+    INSTANTIATION;
+}
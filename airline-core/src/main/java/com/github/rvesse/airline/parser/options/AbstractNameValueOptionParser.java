@@ -18,12 +18,10 @@ package com.github.rvesse.airline.parser.options;
 import java.util.List;
 
 import org.apache.commons.collections4.iterators.PeekingIterator;
-import org.apache.commons.lang3.StringUtils;
 
 import com.github.rvesse.airline.Context;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.ParseState;
-import com.github.rvesse.airline.utils.AirlineUtils;
 
 /**
  * Abstract option parser for options that are specified in {@code --name=value}
@@ -46,14 +44,30 @@ public abstract class AbstractNameValueOptionParser<T> extends AbstractOptionPar
         this.separator = sep;
     }
 
+    @Override
+    public int getAcceptedTokenShapes() {
+        return TokenShape.OPTION;
+    }
+
     @Override
     public ParseState<T> parseOptions(PeekingIterator<String> tokens, ParseState<T> state, List<OptionMetadata> allowedOptions) {
-        List<String> parts = AirlineUtils.unmodifiableListCopy(StringUtils.split(tokens.peek(), new String(new char[] { this.separator }), 2));
-        if (parts.size() != 2) {
+        String token = tokens.peek();
+        int nameEnd = token.indexOf(this.separator);
+        if (nameEnd <= 0) {
+            return null;
+        }
+
+        // Repeated separators are treated as a single separator, there must
+        // be some value after them
+        int valueStart = nameEnd + 1;
+        while (valueStart < token.length() && token.charAt(valueStart) == this.separator) {
+            valueStart++;
+        }
+        if (valueStart == token.length()) {
             return null;
         }
 
-        OptionMetadata option = findOption(state, allowedOptions, parts.get(0));
+        OptionMetadata option = findOption(state, allowedOptions, token.substring(0, nameEnd));
         if (option == null || option.getArity() != 1) {
             // Only supported for arity 1 options currently
             return null;
@@ -64,7 +78,7 @@ public abstract class AbstractNameValueOptionParser<T> extends AbstractOptionPar
 
         // update state
         state = state.pushContext(Context.OPTION).withOption(option);
-        state = state.withOptionValue(option, parts.get(1)).popContext();
+        state = state.withOptionValue(option, token.substring(valueStart)).popContext();
 
         return state;
     }
@@ -16,13 +16,14 @@
 package com.github.rvesse.airline.parser.options;
 
 import java.util.List;
-import java.util.regex.Pattern;
 
 import org.apache.commons.collections4.Predicate;
 
+import com.github.rvesse.airline.model.OptionIndex;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.AbstractParser;
 import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.instrumentation.ParseCounter;
 import com.github.rvesse.airline.utils.AirlineUtils;
 import com.github.rvesse.airline.utils.predicates.parser.AbbreviatedOptionFinder;
 import com.github.rvesse.airline.utils.predicates.parser.OptionFinder;
@@ -33,7 +34,32 @@ import com.github.rvesse.airline.utils.predicates.parser.OptionFinder;
  */
 public abstract class AbstractOptionParser<T> extends AbstractParser<T> implements OptionParser<T> {
 
-    private static final Pattern SHORT_OPTIONS_PREFIX = Pattern.compile("-[^-].*");
+    /**
+     * Pre-built short option names for ASCII characters
+     */
+    private static final String[] SHORT_NAMES = new String[128];
+
+    static {
+        for (char c = 0; c < SHORT_NAMES.length; c++) {
+            SHORT_NAMES[c] = new String(new char[] { '-', c });
+        }
+    }
+
+    /**
+     * Gets the shapes of tokens this parser may accept, the parser is only
+     * offered tokens with one of these shapes
+     * <p>
+     * The default implementation accepts tokens of any shape, derived classes
+     * which only ever accept tokens that start with the name, or an
+     * abbreviation of the name, of an allowed option should override this
+     * appropriately.
+     * </p>
+     * 
+     * @return Combination of the {@link TokenShape} constants
+     */
+    public int getAcceptedTokenShapes() {
+        return TokenShape.ANY;
+    }
 
     /**
      * Tries to find an option with the given name
@@ -65,6 +91,14 @@ public abstract class AbstractOptionParser<T> extends AbstractParser<T> implemen
      */
     protected final OptionMetadata findOption(ParseState<T> state, List<OptionMetadata> options, final String name,
             OptionMetadata defaultValue) {
+        state.getParserConfiguration().getParseListener().count(ParseCounter.OPTION_LOOKUPS, 1);
+        if (options instanceof OptionIndex) {
+            // Metadata provides pre-computed indexes so use a fast lookup
+            OptionMetadata option = ((OptionIndex) options).find(name,
+                    state.getParserConfiguration().allowsAbbreviatedOptions());
+            return option != null ? option : defaultValue;
+        }
+
         Predicate<OptionMetadata> findOptionPredicate;
         if (state.getParserConfiguration().allowsAbbreviatedOptions()) {
             findOptionPredicate = new AbbreviatedOptionFinder(name, options);
@@ -86,6 +120,18 @@ public abstract class AbstractOptionParser<T> extends AbstractParser<T> implemen
      * @return True if a short name prefix, false otherwise
      */
     protected boolean hasShortNamePrefix(String name) {
-        return SHORT_OPTIONS_PREFIX.matcher(name).matches();
+        return name.length() > 1 && name.charAt(0) == '-' && name.charAt(1) != '-';
+    }
+
+    /**
+     * Gets the short option name formed from a {@code -} followed by the given
+     * character, names for ASCII characters are not created afresh each time
+     * 
+     * @param c
+     *            Character
+     * @return Short option name
+     */
+    protected final String getShortName(char c) {
+        return c < SHORT_NAMES.length ? SHORT_NAMES[c] : new String(new char[] { '-', c });
     }
 }
\ No newline at end of file
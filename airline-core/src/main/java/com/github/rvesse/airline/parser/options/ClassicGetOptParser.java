@@ -38,30 +38,38 @@ import com.github.rvesse.airline.parser.errors.ParseOptionUnexpectedException;
  * @param <T>
  */
 public class ClassicGetOptParser<T> extends AbstractOptionParser<T> {
+
+    @Override
+    public int getAcceptedTokenShapes() {
+        return TokenShape.SHORT;
+    }
+
     public ParseState<T> parseOptions(PeekingIterator<String> tokens, ParseState<T> state,
             List<OptionMetadata> allowedOptions) {
-        if (!hasShortNamePrefix(tokens.peek())) {
+        String token = tokens.peek();
+        if (!hasShortNamePrefix(token)) {
             return null;
         }
 
-        // remove leading dash from token
-        String remainingToken = tokens.peek().substring(1);
+        // skip leading dash, we walk the token in place rather than taking
+        // substrings of it
+        int pos = 1;
 
         ParseState<T> nextState = state;
         boolean first = true;
-        while (!remainingToken.isEmpty()) {
-            char tokenCharacter = remainingToken.charAt(0);
+        while (pos < token.length()) {
+            char tokenCharacter = token.charAt(pos);
 
             // is the current token character a single letter option?
-            OptionMetadata option = findOption(state, allowedOptions, "-" + tokenCharacter);
+            OptionMetadata option = findOption(state, allowedOptions, getShortName(tokenCharacter));
             if (option == null) {
                 return null;
             }
 
             nextState = nextState.pushContext(Context.OPTION).withOption(option);
 
-            // remove current token character
-            remainingToken = remainingToken.substring(1);
+            // move past current token character
+            pos++;
 
             // for no argument options, process the option and remove the
             // character from the token
@@ -81,8 +89,8 @@ public class ClassicGetOptParser<T> extends AbstractOptionParser<T> {
 
                 // if current token has more characters, this is the value;
                 // otherwise it is the next token
-                if (!remainingToken.isEmpty()) {
-                    nextState = nextState.withOptionValue(option, remainingToken).popContext();
+                if (pos < token.length()) {
+                    nextState = nextState.withOptionValue(option, token.substring(pos)).popContext();
                 } else if (tokens.hasNext()) {
                     nextState = nextState.withOptionValue(option, tokens.next()).popContext();
                 }
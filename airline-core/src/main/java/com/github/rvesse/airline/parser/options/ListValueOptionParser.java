@@ -76,6 +76,11 @@ public class ListValueOptionParser<T> extends AbstractOptionParser<T> {
         return values;
     }
 
+    @Override
+    public int getAcceptedTokenShapes() {
+        return TokenShape.OPTION;
+    }
+
     @Override
     public ParseState<T> parseOptions(PeekingIterator<String> tokens, ParseState<T> state,
             List<OptionMetadata> allowedOptions) {
@@ -85,7 +90,7 @@ public class ListValueOptionParser<T> extends AbstractOptionParser<T> {
         if (option == null) {
             // Check if we are looking at a maven style -Pa,b,c argument
             if (hasShortNamePrefix(name) && name.length() > 2) {
-                String shortName = name.substring(0, 2);
+                String shortName = getShortName(name.charAt(1));
                 option = findOption(state, allowedOptions, shortName);
                 noSep = option != null;
             }
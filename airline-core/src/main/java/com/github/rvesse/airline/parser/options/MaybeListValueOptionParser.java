@@ -75,7 +75,7 @@ public class MaybeListValueOptionParser<T> extends ListValueOptionParser<T> {
         if (option == null) {
             // Check if we are looking at a maven style -Pa,b,c argument
             if (hasShortNamePrefix(name) && name.length() > 2) {
-                String shortName = name.substring(0, 2);
+                String shortName = getShortName(name.charAt(1));
                 option = findOption(state, allowedOptions, shortName);
                 noSep = option != null;
             }
@@ -134,7 +134,7 @@ public class MaybeListValueOptionParser<T> extends ListValueOptionParser<T> {
                     // Check if we are looking at a non-separated short form
                     // option
                     if (hasShortNamePrefix(nextValue) && nextValue.length() > 2) {
-                        String shortName = nextValue.substring(0, 2);
+                        String shortName = getShortName(nextValue.charAt(1));
                         nextOption = findOption(state, allowedOptions, shortName);
                         noSep = nextOption != null;
                     }
@@ -57,6 +57,7 @@ public class MaybePairValueOptionParser<T> extends AbstractOptionParser<T> {
 
     private static final char DEFAULT_SEPARATOR = '=';
     private final char separator;
+    private final String separatorChars;
 
     public MaybePairValueOptionParser() {
         this(DEFAULT_SEPARATOR);
@@ -66,11 +67,17 @@ public class MaybePairValueOptionParser<T> extends AbstractOptionParser<T> {
         if (Character.isWhitespace(separator))
             throw new IllegalArgumentException("Pair separator character cannot be a whitespace character");
         this.separator = separator;
+        this.separatorChars = String.valueOf(separator);
     }
 
     protected final List<String> getValues(String list) {
         // NB - Arrays.asList() is a fixed length list so need to copy as we may try to add to this list
-        return new ArrayList<String>(Arrays.asList(StringUtils.split(list, new String(new char[] { this.separator }), 2)));
+        return new ArrayList<String>(Arrays.asList(StringUtils.split(list, this.separatorChars, 2)));
+    }
+
+    @Override
+    public int getAcceptedTokenShapes() {
+        return TokenShape.OPTION;
     }
 
     @Override
@@ -82,7 +89,7 @@ public class MaybePairValueOptionParser<T> extends AbstractOptionParser<T> {
         if (option == null) {
             // Check if we are looking at a maven style -Pa,b,c argument
             if (hasShortNamePrefix(name) && name.length() > 2) {
-                String shortName = name.substring(0, 2);
+                String shortName = getShortName(name.charAt(1));
                 option = findOption(state, allowedOptions, shortName);
                 noSep = option != null;
             }
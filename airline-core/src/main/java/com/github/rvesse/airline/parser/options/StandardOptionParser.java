@@ -33,6 +33,11 @@ import com.github.rvesse.airline.restrictions.AbstractCommonRestriction;
  */
 public class StandardOptionParser<T> extends AbstractOptionParser<T> {
 
+    @Override
+    public int getAcceptedTokenShapes() {
+        return TokenShape.OPTION;
+    }
+
     @Override
     public ParseState<T> parseOptions(PeekingIterator<String> tokens, ParseState<T> state,
             List<OptionMetadata> allowedOptions) {
@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.options;
+
+import java.util.List;
+
+import com.github.rvesse.airline.model.OptionIndex;
+import com.github.rvesse.airline.model.OptionMetadata;
+
+/**
+ * Classifies tokens by their shape so that the parser need only offer a token
+ * to the option parsers that could possibly accept a token of that shape
+ * <p>
+ * A token is classified exactly once by looking at its leading characters,
+ * every token has precisely one of the shapes {@link #NON_OPTION},
+ * {@link #SHORT}, {@link #LONG} or {@link #OTHER}. Option parsers declare the
+ * shapes they accept via {@link AbstractOptionParser#getAcceptedTokenShapes()}
+ * as a combination of these constants.
+ * </p>
+ */
+public final class TokenShape {
+
+    /**
+     * Tokens that cannot name any of the allowed options, or an abbreviation
+     * of them, i.e. empty tokens, the arguments separator and tokens that do
+     * not start with the first character of any allowed option name
+     */
+    public static final int NON_OPTION = 1;
+    /**
+     * Tokens that start with a single {@code -} followed by some other
+     * character e.g. {@code -a} or {@code -abc}
+     */
+    public static final int SHORT = 2;
+    /**
+     * Tokens that start with {@code --} followed by at least one other
+     * character e.g. {@code --name} or {@code --name=value}
+     */
+    public static final int LONG = 4;
+    /**
+     * Tokens that may name an option but which are neither {@link #SHORT} nor
+     * {@link #LONG} e.g. {@code +x} or {@code name}
+     */
+    public static final int OTHER = 8;
+    /**
+     * Any token that may name an option
+     */
+    public static final int OPTION = SHORT | LONG | OTHER;
+    /**
+     * Any token
+     */
+    public static final int ANY = NON_OPTION | OPTION;
+
+    /**
+     * Number of distinct shapes
+     */
+    public static final int COUNT = 4;
+
+    private TokenShape() {
+    }
+
+    /**
+     * Classifies a token
+     * 
+     * @param token
+     *            Token
+     * @param allowedOptions
+     *            Options allowed at this point of the parsing, if these are
+     *            not an {@link OptionIndex} then tokens are only classified as
+     *            {@link #NON_OPTION} if they are empty or the arguments
+     *            separator
+     * @param argumentsSeparator
+     *            Arguments separator
+     * @return Shape of the token
+     */
+    public static int classify(String token, List<OptionMetadata> allowedOptions, String argumentsSeparator) {
+        if (token == null || token.isEmpty() || token.equals(argumentsSeparator))
+            return NON_OPTION;
+        if (allowedOptions instanceof OptionIndex && !((OptionIndex) allowedOptions).isOptionNameStart(token.charAt(0)))
+            return NON_OPTION;
+
+        if (token.length() > 1 && token.charAt(0) == '-') {
+            if (token.charAt(1) != '-')
+                return SHORT;
+            if (token.length() > 2)
+                return LONG;
+        }
+        return OTHER;
+    }
+
+    /**
+     * Gets the index of a shape, in the range 0 to {@link #COUNT} - 1, which
+     * may be used to look up precomputed information for that shape
+     * 
+     * @param shape
+     *            Shape, must be exactly one of the shape constants
+     * @return Index
+     */
+    public static int indexOf(int shape) {
+        return Integer.numberOfTrailingZeros(shape);
+    }
+}
@@ -49,8 +49,17 @@ public class FileLocator implements ResourceLocator {
         return searchLocation;
     }
 
-    @Override
-    public InputStream open(String searchLocation, String resourceName) throws IOException {
+    /**
+     * Locates the file that {@link #open(String, String)} would open without
+     * actually opening it
+     * 
+     * @param searchLocation
+     *            Search location
+     * @param resourceName
+     *            Resource name expected in the search location
+     * @return File, or {@code null} if not a valid location
+     */
+    public File locate(String searchLocation, String resourceName) {
         if (searchLocation == null)
             return null;
 
@@ -62,18 +71,61 @@ public class FileLocator implements ResourceLocator {
         File f = new File(new File(searchLocation), resourceName);
         if (f.exists() && f.isFile() && f.canRead()) {
             // If the resource in the location is valid return it
-            return new FileInputStream(f);
+            return f;
         }
 
         // Otherwise see if the location itself 
         f = new File(searchLocation);
         if (f.exists() && f.isFile() && f.canRead()) {
             // If the location is itself a valid readable file just return that
-            return new FileInputStream(f);
+            return f;
         }
 
-        
         return null;
     }
 
+    /**
+     * Gets the directory that a search location refers to, this is the search
+     * location itself if it is a directory or its parent otherwise
+     * 
+     * @param searchLocation
+     *            Search location
+     * @return Directory, or {@code null} if no such directory
+     */
+    public File locateDirectory(String searchLocation) {
+        if (searchLocation == null)
+            return null;
+
+        File f = new File(resolve(searchLocation)).getAbsoluteFile();
+        if (!f.isDirectory())
+            f = f.getParentFile();
+        return f != null && f.isDirectory() ? f : null;
+    }
+
+    /**
+     * Gets the nearest existing directory to a search location, this is the
+     * directory that {@link #locateDirectory(String)} returns if it exists or
+     * otherwise its nearest existing ancestor
+     * 
+     * @param searchLocation
+     *            Search location
+     * @return Directory, or {@code null} if no such directory
+     */
+    public File locateNearestDirectory(String searchLocation) {
+        if (searchLocation == null)
+            return null;
+
+        File f = new File(resolve(searchLocation)).getAbsoluteFile();
+        while (f != null && !f.isDirectory()) {
+            f = f.getParentFile();
+        }
+        return f;
+    }
+
+    @Override
+    public InputStream open(String searchLocation, String resourceName) throws IOException {
+        File f = locate(searchLocation, resourceName);
+        return f != null ? new FileInputStream(f) : null;
+    }
+
 }
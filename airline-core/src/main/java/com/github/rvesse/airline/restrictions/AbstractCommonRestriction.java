@@ -26,31 +26,37 @@ import com.github.rvesse.airline.parser.ParseState;
 
 public abstract class AbstractCommonRestriction implements OptionRestriction, ArgumentsRestriction {
 
+    @NoValidation
     @Override
     public <T> void finalValidate(ParseState<T> state, OptionMetadata option) {
         // Does no validation
     }
     
+    @NoValidation
     @Override
     public <T> void postValidate(ParseState<T> state, OptionMetadata option, Object value) {
         // Does no validation
     }    
 
+    @NoValidation
     @Override
     public <T> void preValidate(ParseState<T> state, OptionMetadata option, String value) {
         // Does no validation
     }
 
+    @NoValidation
     @Override
     public <T> void preValidate(ParseState<T> state, ArgumentsMetadata arguments, String value) {
         // Does no validation
     }
     
+    @NoValidation
     @Override
     public <T> void postValidate(ParseState<T> state, ArgumentsMetadata arguments, Object value) {
         // Does no validation
     }
 
+    @NoValidation
     @Override
     public <T> void finalValidate(ParseState<T> state, ArgumentsMetadata arguments) {
         // Does no validation
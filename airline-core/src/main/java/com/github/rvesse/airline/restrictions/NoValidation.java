@@ -0,0 +1,44 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions;
+
+import static java.lang.annotation.ElementType.METHOD;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a validation method of a restriction as doing no validation
+ * <p>
+ * Airline builds a validation plan for each option and arguments that only
+ * includes the restrictions that actually participate in each validation
+ * phase, methods marked with this annotation are never called. Since method
+ * annotations are not inherited a restriction that overrides a method marked
+ * with this annotation automatically participates in that phase unless its
+ * override is also marked.
+ * </p>
+ * 
+ * @author rvesse
+ *
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ METHOD })
+public @interface NoValidation {
+
+}
@@ -0,0 +1,214 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
+import com.github.rvesse.airline.parser.instrumentation.ParseCounter;
+
+/**
+ * The restrictions of an option that participate in each validation phase
+ * <p>
+ * A restriction only participates in a phase if its implementation of the
+ * relevant method is not marked with {@link NoValidation}, so the cost of
+ * validating a value scales with the restrictions that actually do something
+ * rather than with all the restrictions declared.
+ * </p>
+ * 
+ * @author rvesse
+ *
+ */
+public final class OptionValidationPlan {
+
+    private static final int PRE = 0, POST = 1, FINAL = 2;
+
+    private static final ClassValue<boolean[]> PHASES = new ClassValue<boolean[]>() {
+        @Override
+        protected boolean[] computeValue(Class<?> type) {
+            return new boolean[] {
+                    participates(type, "preValidate", ParseState.class, OptionMetadata.class, String.class),
+                    participates(type, "postValidate", ParseState.class, OptionMetadata.class, Object.class),
+                    participates(type, "finalValidate", ParseState.class, OptionMetadata.class) };
+        }
+    };
+
+    private static final OptionRestriction[] EMPTY = new OptionRestriction[0];
+
+    private final OptionRestriction[] pre, post, fin;
+
+    /**
+     * Creates a new validation plan
+     * 
+     * @param restrictions
+     *            Restrictions
+     */
+    public OptionValidationPlan(Iterable<OptionRestriction> restrictions) {
+        List<OptionRestriction> pre = new ArrayList<>(), post = new ArrayList<>(), fin = new ArrayList<>();
+        for (OptionRestriction restriction : restrictions) {
+            if (restriction == null)
+                continue;
+            boolean[] phases = PHASES.get(restriction.getClass());
+            if (phases[PRE])
+                pre.add(restriction);
+            if (phases[POST])
+                post.add(restriction);
+            if (phases[FINAL])
+                fin.add(restriction);
+        }
+        this.pre = pre.toArray(EMPTY);
+        this.post = post.toArray(EMPTY);
+        this.fin = fin.toArray(EMPTY);
+    }
+
+    /**
+     * Gets whether the given implementation of a validation method does
+     * anything
+     * 
+     * @param type
+     *            Restriction type
+     * @param name
+     *            Method name
+     * @param parameters
+     *            Method parameter types
+     * @return True if it participates, false if it is marked with
+     *         {@link NoValidation}
+     */
+    static boolean participates(Class<?> type, String name, Class<?>... parameters) {
+        try {
+            Method method = type.getMethod(name, parameters);
+            return !method.isAnnotationPresent(NoValidation.class);
+        } catch (NoSuchMethodException | SecurityException e) {
+            // Can't tell so assume it does
+            return true;
+        }
+    }
+
+    /**
+     * Gets whether any restriction participates in pre-validation
+     * 
+     * @return True if pre-validation is needed, false otherwise
+     */
+    public boolean hasPreValidation() {
+        return this.pre.length > 0;
+    }
+
+    /**
+     * Gets whether any restriction participates in post-validation
+     * 
+     * @return True if post-validation is needed, false otherwise
+     */
+    public boolean hasPostValidation() {
+        return this.post.length > 0;
+    }
+
+    /**
+     * Gets whether any restriction participates in final validation
+     * 
+     * @return True if final validation is needed, false otherwise
+     */
+    public boolean hasFinalValidation() {
+        return this.fin.length > 0;
+    }
+
+    /**
+     * Pre-validates a value
+     * 
+     * @param state
+     *            Parser state
+     * @param option
+     *            Option meta-data
+     * @param value
+     *            String value
+     * @param errorHandler
+     *            Error handler that violations are reported to, if
+     *            {@code null} violations are thrown
+     */
+    public <T> void preValidate(ParseState<T> state, OptionMetadata option, String value,
+            ParserErrorHandler errorHandler) {
+        countRestrictions(state, this.pre.length);
+        for (int i = 0; i < this.pre.length; i++) {
+            try {
+                this.pre[i].preValidate(state, option, value);
+            } catch (ParseException e) {
+                if (errorHandler == null)
+                    throw e;
+                errorHandler.handleError(e);
+            }
+        }
+    }
+
+    /**
+     * Post-validates a value
+     * 
+     * @param state
+     *            Parser state
+     * @param option
+     *            Option meta-data
+     * @param value
+     *            Strongly typed value
+     * @param errorHandler
+     *            Error handler that violations are reported to, if
+     *            {@code null} violations are thrown
+     */
+    public <T> void postValidate(ParseState<T> state, OptionMetadata option, Object value,
+            ParserErrorHandler errorHandler) {
+        countRestrictions(state, this.post.length);
+        for (int i = 0; i < this.post.length; i++) {
+            try {
+                this.post[i].postValidate(state, option, value);
+            } catch (ParseException e) {
+                if (errorHandler == null)
+                    throw e;
+                errorHandler.handleError(e);
+            }
+        }
+    }
+
+    /**
+     * Carries out final validation
+     * 
+     * @param state
+     *            Parser state
+     * @param option
+     *            Option meta-data
+     * @param errorHandler
+     *            Error handler that violations are reported to, if
+     *            {@code null} violations are thrown
+     */
+    public <T> void finalValidate(ParseState<T> state, OptionMetadata option, ParserErrorHandler errorHandler) {
+        countRestrictions(state, this.fin.length);
+        for (int i = 0; i < this.fin.length; i++) {
+            try {
+                this.fin[i].finalValidate(state, option);
+            } catch (ParseException e) {
+                if (errorHandler == null)
+                    throw e;
+                errorHandler.handleError(e);
+            }
+        }
+    }
+
+    private static <T> void countRestrictions(ParseState<T> state, int restrictions) {
+        if (restrictions > 0 && state != null)
+            state.getParserConfiguration().getParseListener().count(ParseCounter.RESTRICTIONS, restrictions);
+    }
+}
@@ -44,6 +44,24 @@ public class AllowedRawValuesRestriction extends AbstractAllowedValuesRestrictio
         }
     }
 
+    /**
+     * Checks whether a value, already normalised if ignoring case, is allowed
+     * <p>
+     * The allowed values are held in a hash set so the common case is a single
+     * lookup, only when that misses do we fall back to a locale sensitive
+     * comparison against each value.
+     * </p>
+     * 
+     * @param value
+     *            Value
+     * @return True if allowed, false otherwise
+     */
+    private boolean isAllowed(String value) {
+        if (this.rawValues.contains(value))
+            return true;
+        return IterableUtils.matchesAny(this.rawValues, new LocaleSensitiveStringFinder(value, this.locale));
+    }
+
     @Override
     public <T> void preValidate(ParseState<T> state, OptionMetadata option, String value) {
         // Not enforced if no values specified
@@ -56,7 +74,7 @@ public class AllowedRawValuesRestriction extends AbstractAllowedValuesRestrictio
         }
 
         // Check in list of values
-        if (!IterableUtils.matchesAny(this.rawValues, new LocaleSensitiveStringFinder(value, this.locale)))
+        if (!isAllowed(value))
             throw new ParseOptionIllegalValueException(AirlineUtils.first(option.getOptions()), AbstractCommonRestriction.getOptionTitle(state, option), value, asObjects(rawValues));
     }
 
@@ -72,7 +90,7 @@ public class AllowedRawValuesRestriction extends AbstractAllowedValuesRestrictio
         }
 
         // Check in list of values
-        if (!IterableUtils.matchesAny(this.rawValues, new LocaleSensitiveStringFinder(value, this.locale))) {
+        if (!isAllowed(value)) {
             throw new ParseArgumentsIllegalValueException(AbstractCommonRestriction.getArgumentTitle(state, arguments),
                     value, asObjects(rawValues));
         }
@@ -16,6 +16,7 @@
 package com.github.rvesse.airline.restrictions.common;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
@@ -32,8 +33,35 @@ import com.github.rvesse.airline.utils.AirlineUtils;
 
 public class AllowedValuesRestriction extends AbstractAllowedValuesRestriction {
 
-    private Object currentState = null;
-    private Set<Object> allowedValues = null;
+    /**
+     * Maximum number of distinct type and converter combinations for which
+     * converted values are cached
+     */
+    private static final int MAX_CACHED_CONVERSIONS = 8;
+
+    private static final TypeConverter DEFAULT_CONVERTER = new DefaultTypeConverter();
+
+    /**
+     * Allowed values converted for a specific type with a specific converter
+     */
+    private static final class ConvertedValues {
+        private final Class<?> type;
+        private final TypeConverter converter;
+        private final Set<Object> values;
+
+        private ConvertedValues(Class<?> type, TypeConverter converter, Set<Object> values) {
+            this.type = type;
+            this.converter = converter;
+            this.values = values;
+        }
+    }
+
+    /**
+     * Copy on write cache of converted values, restrictions are shared by all
+     * parses so this is read without locking and replaced wholesale when a new
+     * combination is seen
+     */
+    private volatile ConvertedValues[] converted = new ConvertedValues[0];
 
     public AllowedValuesRestriction(String... rawValues) {
         super(CASE_SENSITIVE);
@@ -53,17 +81,20 @@ public class AllowedValuesRestriction extends AbstractAllowedValuesRestriction {
         }
     }
 
-    protected synchronized <T> Set<Object> createAllowedValues(ParseState<T> state, String title, Class<?> type,
+    protected <T> Set<Object> createAllowedValues(ParseState<T> state, String title, Class<?> type,
             TypeConverter converter) {
+        if (converter == null)
+            converter = DEFAULT_CONVERTER;
+
         // Re-use cached values if possible
-        if (currentState == state) {
-            return allowedValues;
+        ConvertedValues[] cache = this.converted;
+        for (ConvertedValues entry : cache) {
+            if (entry.converter == converter && entry.type.equals(type))
+                return entry.values;
         }
 
         // Convert values
         Set<Object> actualValues = new LinkedHashSet<Object>();
-        if (converter == null)
-            converter = new DefaultTypeConverter();
         for (String rawValue : this.rawValues) {
             try {
                 actualValues.add(converter.convert(title, type, rawValue));
@@ -72,10 +103,15 @@ public class AllowedValuesRestriction extends AbstractAllowedValuesRestriction {
                         "Unable to parse raw value '%s' in order to apply allowed values restriction", rawValue);
             }
         }
+        actualValues = Collections.unmodifiableSet(actualValues);
 
-        // Cache for re-use
-        currentState = state;
-        this.allowedValues = actualValues;
+        // Cache for re-use, if we race with another thread one of the entries
+        // may be lost in which case it is simply converted again later
+        int size = Math.min(cache.length, MAX_CACHED_CONVERSIONS - 1);
+        ConvertedValues[] updated = new ConvertedValues[size + 1];
+        System.arraycopy(cache, cache.length - size, updated, 0, size);
+        updated[size] = new ConvertedValues(type, converter, actualValues);
+        this.converted = updated;
 
         return actualValues;
     }
@@ -15,26 +15,38 @@
  */
 package com.github.rvesse.airline.restrictions.common;
 
-import java.io.File;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
 import com.github.rvesse.airline.annotations.restrictions.PathKind;
 import com.github.rvesse.airline.help.sections.HelpFormat;
 import com.github.rvesse.airline.help.sections.HelpHint;
 import com.github.rvesse.airline.model.ArgumentsMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.errors.ParseException;
 import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
 import com.github.rvesse.airline.restrictions.AbstractCommonRestriction;
+import com.github.rvesse.airline.restrictions.common.PathStatCache.PathStat;
 
 /**
  * Implements restriction on options and arguments that expect to receive a path
  * to a file and/or directory
+ * <p>
+ * File system checks are made via the {@link PathStatCache} of the parse so
+ * each path, and each ancestor of paths that do not exist, is only checked
+ * once per parse regardless of how many values refer to it.
+ * </p>
  * 
  * @author rvesse
  *
  */
 public class PathRestriction extends AbstractCommonRestriction implements HelpHint {
 
-    private final boolean mustExist, readable, writable, executable;
+    private final boolean mustExist, readable, writable, executable, parallel;
     private final PathKind kind;
 
     /**
@@ -57,93 +69,117 @@ public class PathRestriction extends AbstractCommonRestriction implements HelpHi
      * @param kind
      */
     public PathRestriction(boolean mustExist, boolean readable, boolean writable, boolean executable, PathKind kind) {
+        this(mustExist, readable, writable, executable, kind, false);
+    }
+
+    /**
+     * Creates a new path restriction
+     * 
+     * @param mustExist
+     *            Whether the path must exist
+     * @param readable
+     *            Whether the path must be readable, if the specific path does
+     *            not exist then this check validates that the first parent in
+     *            the path that exists is readable
+     * @param writable
+     *            Whether the path must be writable, if the specific path does
+     *            not exist then this check validates that the first parent in
+     *            the path that exists is writable
+     * @param executable
+     *            Whether the path must be executable, if the specific path does
+     *            not exist then this check validates that the first parent in
+     *            the path that exists is executable
+     * @param kind
+     *            Kind of path expected
+     * @param parallel
+     *            Whether argument values are checked in parallel once all
+     *            arguments have been parsed rather than as each argument is
+     *            parsed
+     */
+    public PathRestriction(boolean mustExist, boolean readable, boolean writable, boolean executable, PathKind kind,
+            boolean parallel) {
         this.mustExist = mustExist;
         this.readable = readable;
         this.writable = writable;
         this.executable = executable;
         this.kind = kind;
+        this.parallel = parallel;
     }
 
     protected void validate(String title, String path) {
+        validate(new PathStatCache(), title, path);
+    }
+
+    protected void validate(PathStatCache cache, String title, String path) {
         if (path == null)
             throw new ParseRestrictionViolatedException("%s must be given a non-null path", title, path);
 
-        File f = new File(path);
+        // Without any checks configured any value is acceptable
+        if (!this.mustExist && !this.readable && !this.writable && !this.executable)
+            return;
 
-        if (this.mustExist && !f.exists())
+        Path p;
+        try {
+            p = Paths.get(path);
+        } catch (InvalidPathException e) {
+            throw new ParseRestrictionViolatedException("%s was given value '%s' which is not a valid path", title,
+                    path);
+        }
+        PathStat stat = cache.stat(p);
+
+        if (this.mustExist && !stat.exists())
             throw new ParseRestrictionViolatedException(
                     "Option value '%s' was given value '%s' which is not a path to an existing file/directory", title, path);
 
-        if (this.mustExist && f.exists()) {
+        if (this.mustExist) {
             // Some things require the file to exist in order for direct
             // validation to be applied
             switch (kind) {
             case FILE:
-                if (!f.isFile())
+                if (!stat.isFile())
                     throw new ParseRestrictionViolatedException("%s was given value '%s' which is not a path to a file",
                             title, path);
                 break;
             case DIRECTORY:
-                if (!f.isDirectory())
+                if (!stat.isDirectory())
                     throw new ParseRestrictionViolatedException(
                             "%s was given value '%s' which is not a path to a directory", title, path);
                 break;
             default:
-                if (!f.isFile() && !f.isDirectory())
+                if (!stat.isFile() && !stat.isDirectory())
                     throw new ParseRestrictionViolatedException(
                             "%s was given value '%s' which is not a path to a file/directory", title, path);
                 break;
             }
 
             // Check permissions
-            if (this.readable && !f.canRead())
-                notReadable(title, path);
-
-            if (this.writable && !f.canWrite())
-                notWritable(title, path);
-
-            if (this.executable && !f.canExecute())
-                notExecutable(title, path);
+            checkPermissions(stat, title, path);
         } else if (this.readable || this.writable || this.executable) {
-            if (!f.isAbsolute())
-                f = f.getAbsoluteFile();
-
             // May be able to check the conditions directly if the file exists
-            if (f.exists()) {
-                if (this.readable && !f.canRead())
-                    notReadable(title, path);
-
-                if (this.writable && !f.canWrite())
-                    notWritable(title, path);
-
-                if (this.executable && !f.canExecute())
-                    notExecutable(title, path);
+            if (stat.exists()) {
+                checkPermissions(stat, title, path);
             } else {
                 // Otherwise verify that the first portion of the path that
-                // exists has the desired properties
-                while (f.getParentFile() != null) {
-                    f = f.getParentFile();
-                    if (f.exists()) {
-                        // All conditions must be met by first part of the path
-                        // that exists
-                        if (this.readable && !f.canRead())
-                            notReadable(title, path);
-
-                        if (this.writable && !f.canWrite())
-                            notWritable(title, path);
-
-                        if (this.executable && !f.canExecute())
-                            notExecutable(title, path);
-
-                        // All conditions satisfied so no need to continue going
-                        // up the path
-                        break;
-                    }
-                }
+                // exists has the desired properties, shared ancestors are only
+                // checked once thanks to the cache
+                PathStat ancestor = cache.firstExistingAncestor(p.toAbsolutePath());
+                if (ancestor != null)
+                    checkPermissions(ancestor, title, path);
             }
         }
     }
 
+    private void checkPermissions(PathStat stat, String title, String path) {
+        if (this.readable && !stat.isReadable())
+            notReadable(title, path);
+
+        if (this.writable && !stat.isWritable())
+            notWritable(title, path);
+
+        if (this.executable && !stat.isExecutable())
+            notExecutable(title, path);
+    }
+
     private void notExecutable(String title, String path) {
         throw new ParseRestrictionViolatedException("%s was given value '%s' which is not a executable path", title,
                 path);
@@ -161,13 +197,47 @@ public class PathRestriction extends AbstractCommonRestriction implements HelpHi
 
     @Override
     public <T> void preValidate(ParseState<T> state, OptionMetadata option, String value) {
-        this.validate(String.format("Option '%s'", AbstractCommonRestriction.getOptionTitle(state, option)), value);
+        this.validate(state.getPathStatCache(),
+                String.format("Option '%s'", AbstractCommonRestriction.getOptionTitle(state, option)), value);
     }
 
     @Override
     public <T> void preValidate(ParseState<T> state, ArgumentsMetadata arguments, String value) {
-        this.validate(String.format("Argument '%s'", AbstractCommonRestriction.getArgumentTitle(state, arguments)),
-                value);
+        String title = String.format("Argument '%s'", AbstractCommonRestriction.getArgumentTitle(state, arguments));
+        if (this.parallel && !arguments.isLazy()) {
+            // Check all the values together at the end of parsing
+            state.getPathStatCache().defer(this, title, value);
+            return;
+        }
+        this.validate(state.getPathStatCache(), title, value);
+    }
+
+    @Override
+    public <T> void finalValidate(ParseState<T> state, ArgumentsMetadata arguments) {
+        if (!this.parallel)
+            return;
+
+        PathStatCache cache = state.getPathStatCache();
+        List<String[]> deferred = cache.drain(this);
+        List<Path> paths = new ArrayList<>();
+        for (String[] value : deferred) {
+            try {
+                if (value[1] != null)
+                    paths.add(Paths.get(value[1]));
+            } catch (InvalidPathException e) {
+                // Reported when validated
+            }
+        }
+        cache.prefetch(paths, this.readable, this.writable, this.executable);
+
+        // Report violations in the order the values were given
+        for (String[] value : deferred) {
+            try {
+                this.validate(cache, value[0], value[1]);
+            } catch (ParseException e) {
+                state.getParserConfiguration().getErrorHandler().handleError(e);
+            }
+        }
     }
 
     @Override
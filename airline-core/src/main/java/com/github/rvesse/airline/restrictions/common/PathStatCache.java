@@ -0,0 +1,311 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions.common;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A cache of file system state that lives for the duration of a single parse
+ * <p>
+ * Each path is checked via a single {@link Files#readAttributes(Path, Class,
+ * java.nio.file.LinkOption...)} call the first time it is seen, permissions
+ * are checked on demand and likewise only once, so when many values share
+ * common ancestor directories those are only checked once per parse. A new
+ * cache is created for each parse so changes to the file system between
+ * parses are always seen.
+ * </p>
+ * 
+ * @author rvesse
+ *
+ */
+public final class PathStatCache {
+
+    /**
+     * Minimum number of paths for which checking them in parallel is
+     * worthwhile
+     */
+    private static final int MIN_PARALLEL_BATCH = 16;
+
+    private final ConcurrentMap<Path, PathStat> stats = new ConcurrentHashMap<>();
+    private final Map<Object, List<String[]>> deferred = new HashMap<>();
+
+    /**
+     * Cached file system state of a path
+     */
+    public static final class PathStat {
+        private static final int UNKNOWN = 0, TRUE = 1, FALSE = 2;
+
+        private final Path path;
+        private final boolean exists, file, directory;
+        private volatile int readable = UNKNOWN, writable = UNKNOWN, executable = UNKNOWN;
+
+        private PathStat(Path path) {
+            this.path = path;
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            } catch (IOException | SecurityException e) {
+                // Same as java.io.File we treat anything we can't see as
+                // non-existent
+                attributes = null;
+            }
+            this.exists = attributes != null;
+            this.file = attributes != null && attributes.isRegularFile();
+            this.directory = attributes != null && attributes.isDirectory();
+        }
+
+        /**
+         * Gets the path
+         * 
+         * @return Path
+         */
+        public Path getPath() {
+            return this.path;
+        }
+
+        /**
+         * Gets whether the path exists
+         * 
+         * @return True if exists, false otherwise
+         */
+        public boolean exists() {
+            return this.exists;
+        }
+
+        /**
+         * Gets whether the path is a regular file
+         * 
+         * @return True if a file, false otherwise
+         */
+        public boolean isFile() {
+            return this.file;
+        }
+
+        /**
+         * Gets whether the path is a directory
+         * 
+         * @return True if a directory, false otherwise
+         */
+        public boolean isDirectory() {
+            return this.directory;
+        }
+
+        /**
+         * Gets whether the path is readable
+         * 
+         * @return True if readable, false otherwise
+         */
+        public boolean isReadable() {
+            int value = this.readable;
+            if (value == UNKNOWN)
+                this.readable = value = this.exists && Files.isReadable(this.path) ? TRUE : FALSE;
+            return value == TRUE;
+        }
+
+        /**
+         * Gets whether the path is writable
+         * 
+         * @return True if writable, false otherwise
+         */
+        public boolean isWritable() {
+            int value = this.writable;
+            if (value == UNKNOWN)
+                this.writable = value = this.exists && Files.isWritable(this.path) ? TRUE : FALSE;
+            return value == TRUE;
+        }
+
+        /**
+         * Gets whether the path is executable
+         * 
+         * @return True if executable, false otherwise
+         */
+        public boolean isExecutable() {
+            int value = this.executable;
+            if (value == UNKNOWN)
+                this.executable = value = this.exists && Files.isExecutable(this.path) ? TRUE : FALSE;
+            return value == TRUE;
+        }
+    }
+
+    /**
+     * Gets the file system state of a path
+     * 
+     * @param path
+     *            Path
+     * @return Path state
+     */
+    public PathStat stat(Path path) {
+        PathStat stat = this.stats.get(path);
+        if (stat == null) {
+            stat = new PathStat(path);
+            PathStat existing = this.stats.putIfAbsent(path, stat);
+            if (existing != null)
+                stat = existing;
+        }
+        return stat;
+    }
+
+    /**
+     * Gets the file system state of the first ancestor of the given absolute
+     * path that exists
+     * 
+     * @param path
+     *            Absolute path
+     * @return State of the first existing ancestor, {@code null} if no
+     *         ancestor exists
+     */
+    public PathStat firstExistingAncestor(Path path) {
+        Path parent = path.getParent();
+        while (parent != null) {
+            PathStat stat = stat(parent);
+            if (stat.exists())
+                return stat;
+            parent = parent.getParent();
+        }
+        return null;
+    }
+
+    /**
+     * Checks the state of the given paths, and the requested permissions,
+     * populating the cache in parallel
+     * <p>
+     * This is intended for use where large numbers of paths are to be checked
+     * on file systems, such as network file systems, where each check has
+     * significant latency.
+     * </p>
+     * 
+     * @param paths
+     *            Paths
+     * @param readable
+     *            Whether readability will be checked
+     * @param writable
+     *            Whether writability will be checked
+     * @param executable
+     *            Whether executability will be checked
+     */
+    public void prefetch(Collection<Path> paths, final boolean readable, final boolean writable,
+            final boolean executable) {
+        List<Path> pending = new ArrayList<>();
+        for (Path path : paths) {
+            if (!this.stats.containsKey(path))
+                pending.add(path);
+        }
+        if (pending.size() < MIN_PARALLEL_BATCH) {
+            for (Path path : pending) {
+                check(stat(path), readable, writable, executable);
+            }
+            return;
+        }
+
+        ExecutorService executor = Workers.EXECUTOR;
+        int tasks = Math.min(Workers.THREADS, pending.size());
+        int chunk = (pending.size() + tasks - 1) / tasks;
+        List<Callable<Void>> work = new ArrayList<>();
+        for (int i = 0; i < pending.size(); i += chunk) {
+            final List<Path> batch = pending.subList(i, Math.min(i + chunk, pending.size()));
+            work.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    for (Path path : batch) {
+                        check(stat(path), readable, writable, executable);
+                    }
+                    return null;
+                }
+            });
+        }
+        try {
+            executor.invokeAll(work);
+        } catch (InterruptedException e) {
+            // Anything not yet checked will be checked on demand
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void check(PathStat stat, boolean readable, boolean writable, boolean executable) {
+        if (!stat.exists())
+            return;
+        if (readable)
+            stat.isReadable();
+        if (writable)
+            stat.isWritable();
+        if (executable)
+            stat.isExecutable();
+    }
+
+    /**
+     * Defers validation of a value until the end of the parse
+     * 
+     * @param owner
+     *            Owner of the deferred value
+     * @param title
+     *            Title of the option/argument the value is for
+     * @param value
+     *            Value
+     */
+    synchronized void defer(Object owner, String title, String value) {
+        List<String[]> values = this.deferred.get(owner);
+        if (values == null) {
+            values = new ArrayList<>();
+            this.deferred.put(owner, values);
+        }
+        values.add(new String[] { title, value });
+    }
+
+    /**
+     * Removes and returns the values previously deferred by the given owner
+     * 
+     * @param owner
+     *            Owner
+     * @return Deferred title and value pairs in the order they were deferred
+     */
+    synchronized List<String[]> drain(Object owner) {
+        List<String[]> values = this.deferred.remove(owner);
+        return values != null ? values : Collections.<String[]> emptyList();
+    }
+
+    /**
+     * Shared daemon workers used for parallel checks
+     */
+    private static final class Workers {
+        private static final int THREADS = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+        private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(THREADS, new ThreadFactory() {
+            private final AtomicInteger id = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "airline-path-checker-" + id.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+}
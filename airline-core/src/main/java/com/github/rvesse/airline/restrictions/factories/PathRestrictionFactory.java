@@ -33,15 +33,15 @@ public class PathRestrictionFactory implements OptionRestrictionFactory, Argumen
         if (annotation instanceof Path) {
             Path path = (Path) annotation;
             return new PathRestriction(path.mustExist(), path.readable(), path.writable(), path.executable(),
-                    path.kind());
+                    path.kind(), path.parallel());
         } else if (annotation instanceof File) {
             File path = (File) annotation;
             return new PathRestriction(path.mustExist(), path.readable(), path.writable(), path.executable(),
-                    PathKind.FILE);
+                    PathKind.FILE, path.parallel());
         } else if (annotation instanceof Directory) {
             Directory path = (Directory) annotation;
             return new PathRestriction(path.mustExist(), path.readable(), path.writable(), path.executable(),
-                    PathKind.DIRECTORY);
+                    PathKind.DIRECTORY, path.parallel());
         }
         return null;
     }
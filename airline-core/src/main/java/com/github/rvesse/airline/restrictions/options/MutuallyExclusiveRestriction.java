@@ -20,19 +20,15 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
-import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang3.tuple.Pair;
-
 import com.github.rvesse.airline.help.sections.HelpFormat;
 import com.github.rvesse.airline.help.sections.HelpHint;
+import com.github.rvesse.airline.model.OptionIndex;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.ParsedOptionCounts;
 import com.github.rvesse.airline.parser.errors.ParseOptionGroupException;
+import com.github.rvesse.airline.restrictions.NoValidation;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
-import com.github.rvesse.airline.utils.predicates.parser.ParsedOptionFinder;
-import com.github.rvesse.airline.utils.predicates.restrictions.MutuallyExclusiveWithFinder;
-import com.github.rvesse.airline.utils.predicates.restrictions.MutuallyExclusiveWithOptionFinder;
-import com.github.rvesse.airline.utils.predicates.restrictions.MutuallyExclusiveWithTagParsedOptionFinder;
 
 public class MutuallyExclusiveRestriction implements OptionRestriction, HelpHint {
 
@@ -44,30 +40,35 @@ public class MutuallyExclusiveRestriction implements OptionRestriction, HelpHint
 
     @Override
     public <T> void finalValidate(ParseState<T> state, OptionMetadata option) {
-        Collection<Pair<OptionMetadata, Object>> parsedOptions = CollectionUtils.select(state.getParsedOptions(),
-                new ParsedOptionFinder(option));
-
-        Collection<OptionRestriction> restrictions = CollectionUtils.select(option.getRestrictions(),
-                new MutuallyExclusiveWithFinder(this.tag));
-
-        for (@SuppressWarnings("unused")
-        OptionRestriction restriction : restrictions) {
-            // Find other parsed options which have the same tag
-            Collection<Pair<OptionMetadata, Object>> otherParsedOptions = CollectionUtils
-                    .select(state.getParsedOptions(), new MutuallyExclusiveWithTagParsedOptionFinder(this.tag));
-
-            // There are some parsed options but ONLY for this option
-            if (otherParsedOptions.size() > 0 && otherParsedOptions.size() == parsedOptions.size())
-                continue;
-
-            // Otherwise may need to error
-            if (parsedOptions.size() > 0 && otherParsedOptions.size() > parsedOptions.size()) {
-                Collection<OptionMetadata> taggedOptions = getTaggedOptions(state);
-                throw new ParseOptionGroupException(
-                        "Only one of the following options may be specified but %d were found: %s", tag, taggedOptions,
-                        otherParsedOptions.size(), toOptionsList(taggedOptions));
-            }
+        if (!hasTag(option))
+            return;
+
+        ParsedOptionCounts counts = state.getParsedOptionCounts();
+        int parsedOptions = counts.count(option);
+
+        // Count parsed options which have the same tag
+        int otherParsedOptions = counts.countMutuallyExclusive(this.tag);
+
+        // There are some parsed options but ONLY for this option
+        if (otherParsedOptions > 0 && otherParsedOptions == parsedOptions)
+            return;
+
+        // Otherwise may need to error
+        if (parsedOptions > 0 && otherParsedOptions > parsedOptions) {
+            Collection<OptionMetadata> taggedOptions = getTaggedOptions(state);
+            throw new ParseOptionGroupException(
+                    "Only one of the following options may be specified but %d were found: %s", tag, taggedOptions,
+                    otherParsedOptions, toOptionsList(taggedOptions));
+        }
+    }
+
+    private boolean hasTag(OptionMetadata option) {
+        for (OptionRestriction restriction : option.getRestrictions()) {
+            if (restriction instanceof MutuallyExclusiveRestriction
+                    && (this.tag == null || this.tag.equals(((MutuallyExclusiveRestriction) restriction).getTag())))
+                return true;
         }
+        return false;
     }
 
     private static String toOptionsList(Iterable<OptionMetadata> options) {
@@ -93,7 +94,7 @@ public class MutuallyExclusiveRestriction implements OptionRestriction, HelpHint
         if (options == null)
             options = state.getGlobal() != null ? state.getGlobal().getOptions()
                     : Collections.<OptionMetadata> emptyList();
-        return CollectionUtils.select(options, new MutuallyExclusiveWithOptionFinder(this.tag));
+        return OptionIndex.of(options).getMutuallyExclusiveOptions(this.tag);
     }
     
     public String getTag() {
@@ -123,11 +124,13 @@ public class MutuallyExclusiveRestriction implements OptionRestriction, HelpHint
                 "This option is part of the group '%s' from which only one option may be specified", this.tag) };
     }
 
+    @NoValidation
     @Override
     public <T> void preValidate(ParseState<T> state, OptionMetadata option, String value) {
         // No pre-validation
     }
 
+    @NoValidation
     @Override
     public <T> void postValidate(ParseState<T> state, OptionMetadata option, Object value) {
         // No post-validation
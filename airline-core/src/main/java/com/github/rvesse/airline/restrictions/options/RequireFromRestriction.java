@@ -20,19 +20,15 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
-import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang3.tuple.Pair;
-
 import com.github.rvesse.airline.help.sections.HelpFormat;
 import com.github.rvesse.airline.help.sections.HelpHint;
+import com.github.rvesse.airline.model.OptionIndex;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.ParsedOptionCounts;
 import com.github.rvesse.airline.parser.errors.ParseOptionGroupException;
+import com.github.rvesse.airline.restrictions.NoValidation;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
-import com.github.rvesse.airline.utils.predicates.parser.ParsedOptionFinder;
-import com.github.rvesse.airline.utils.predicates.restrictions.RequiredFromFinder;
-import com.github.rvesse.airline.utils.predicates.restrictions.RequiredTagOptionFinder;
-import com.github.rvesse.airline.utils.predicates.restrictions.RequiredTagParsedOptionFinder;
 
 public class RequireFromRestriction implements OptionRestriction, HelpHint {
 
@@ -46,34 +42,39 @@ public class RequireFromRestriction implements OptionRestriction, HelpHint {
 
     @Override
     public <T> void finalValidate(ParseState<T> state, OptionMetadata option) {
-        Collection<Pair<OptionMetadata, Object>> parsedOptions = CollectionUtils.select(state.getParsedOptions(),
-                new ParsedOptionFinder(option));
-
-        Collection<OptionRestriction> restrictions = CollectionUtils.select(option.getRestrictions(),
-                new RequiredFromFinder(this.tag));
-
-        for (@SuppressWarnings("unused")
-        OptionRestriction restriction : restrictions) {
-            // Find other parsed options which have the same tag
-            Collection<Pair<OptionMetadata, Object>> otherParsedOptions = CollectionUtils
-                    .select(state.getParsedOptions(), new RequiredTagParsedOptionFinder(this.tag));
-
-            // There are some parsed options but ONLY for this option
-            if (otherParsedOptions.size() > 0 && otherParsedOptions.size() == parsedOptions.size())
-                continue;
-
-            // Otherwise may need to error
-            if (mutuallyExclusive && parsedOptions.size() > 0 && otherParsedOptions.size() > parsedOptions.size()) {
-                Collection<OptionMetadata> taggedOptions = getTaggedOptions(state);
-                throw new ParseOptionGroupException(
-                        "Only one of the following options may be specified but %d were found: %s", tag, taggedOptions,
-                        otherParsedOptions.size(), toOptionsList(taggedOptions));
-            } else if (otherParsedOptions.size() == 0) {
-                Collection<OptionMetadata> taggedOptions = getTaggedOptions(state);
-                throw new ParseOptionGroupException("%s of the following options must be specified: %s", tag,
-                        taggedOptions, mutuallyExclusive ? "One" : "One/more", toOptionsList(taggedOptions));
-            }
+        if (!hasTag(option))
+            return;
+
+        ParsedOptionCounts counts = state.getParsedOptionCounts();
+        int parsedOptions = counts.count(option);
+
+        // Count parsed options which have the same tag
+        int otherParsedOptions = counts.countRequiredFrom(this.tag);
+
+        // There are some parsed options but ONLY for this option
+        if (otherParsedOptions > 0 && otherParsedOptions == parsedOptions)
+            return;
+
+        // Otherwise may need to error
+        if (mutuallyExclusive && parsedOptions > 0 && otherParsedOptions > parsedOptions) {
+            Collection<OptionMetadata> taggedOptions = getTaggedOptions(state);
+            throw new ParseOptionGroupException(
+                    "Only one of the following options may be specified but %d were found: %s", tag, taggedOptions,
+                    otherParsedOptions, toOptionsList(taggedOptions));
+        } else if (otherParsedOptions == 0) {
+            Collection<OptionMetadata> taggedOptions = getTaggedOptions(state);
+            throw new ParseOptionGroupException("%s of the following options must be specified: %s", tag,
+                    taggedOptions, mutuallyExclusive ? "One" : "One/more", toOptionsList(taggedOptions));
+        }
+    }
+
+    private boolean hasTag(OptionMetadata option) {
+        for (OptionRestriction restriction : option.getRestrictions()) {
+            if (restriction instanceof RequireFromRestriction
+                    && (this.tag == null || this.tag.equals(((RequireFromRestriction) restriction).getTag())))
+                return true;
         }
+        return false;
     }
 
     private static String toOptionsList(Iterable<OptionMetadata> options) {
@@ -99,7 +100,7 @@ public class RequireFromRestriction implements OptionRestriction, HelpHint {
         if (options == null)
             options = state.getGlobal() != null ? state.getGlobal().getOptions()
                     : Collections.<OptionMetadata> emptyList();
-        return CollectionUtils.select(options, new RequiredTagOptionFinder(this.tag));
+        return OptionIndex.of(options).getRequiredFromOptions(this.tag);
     }
 
     public String getTag() {
@@ -135,11 +136,13 @@ public class RequireFromRestriction implements OptionRestriction, HelpHint {
         }
     }
 
+    @NoValidation
     @Override
     public <T> void preValidate(ParseState<T> state, OptionMetadata option, String value) {
         // No pre-validation
     }
 
+    @NoValidation
     @Override
     public <T> void postValidate(ParseState<T> state, OptionMetadata option, Object value) {
         // No post-validation
@@ -16,22 +16,20 @@
 package com.github.rvesse.airline.restrictions.options;
 
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
-import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.tuple.Pair;
 
 import com.github.rvesse.airline.help.sections.HelpFormat;
 import com.github.rvesse.airline.help.sections.HelpHint;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.ParsedOptionCounts;
 import com.github.rvesse.airline.parser.errors.ParseOptionMissingException;
+import com.github.rvesse.airline.restrictions.NoValidation;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
 import com.github.rvesse.airline.utils.AirlineUtils;
-import com.github.rvesse.airline.utils.predicates.parser.ParsedOptionFinder;
 
 public class RequiredOnlyIfRestriction implements OptionRestriction, HelpHint {
 
@@ -46,28 +44,28 @@ public class RequiredOnlyIfRestriction implements OptionRestriction, HelpHint {
         if (this.names.isEmpty())
             return;
 
-        Collection<Pair<OptionMetadata, Object>> parsedOptions = CollectionUtils.select(state.getParsedOptions(),
-                new ParsedOptionFinder(option));
+        ParsedOptionCounts counts = state.getParsedOptionCounts();
 
         // If this option was seen then the required criteria has been fulfilled
         // regardless of whether any of the triggering options was actually
         // present
-        if (parsedOptions.size() > 0)
+        if (counts.count(option) > 0)
             return;
 
         // Were any of the options that would trigger the required restriction
         // present?
-        for (Pair<OptionMetadata, Object> otherOption : state.getParsedOptions()) {
-            if (otherOption.getLeft().equals(option))
+        for (OptionMetadata otherOption : counts.getOptions()) {
+            if (otherOption.equals(option))
                 continue;
 
             for (String name : this.names) {
-                if (otherOption.getLeft().getOptions().contains(name))
+                if (otherOption.getOptions().contains(name))
                     throw new ParseOptionMissingException(option.getTitle(0));
             }
         }
     }
 
+    @NoValidation
     @Override
     public <T> void preValidate(ParseState<T> state, OptionMetadata option, String value) {
         // No pre-validation
@@ -96,6 +94,7 @@ public class RequiredOnlyIfRestriction implements OptionRestriction, HelpHint {
                 StringUtils.join(this.names, ", ")) };
     }
 
+    @NoValidation
     @Override
     public <T> void postValidate(ParseState<T> state, OptionMetadata option, Object value) {
         // No post-validation
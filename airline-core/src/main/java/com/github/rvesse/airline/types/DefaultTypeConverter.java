@@ -18,9 +18,15 @@ package com.github.rvesse.airline.types;
 import com.github.rvesse.airline.parser.errors.ParseOptionConversionException;
 import com.github.rvesse.airline.types.numerics.DefaultNumericConverter;
 import com.github.rvesse.airline.types.numerics.NumericTypeConverter;
+import com.github.rvesse.airline.types.numerics.PrimitiveNumericTypeConverter;
+import com.github.rvesse.airline.utils.AirlineUtils;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 
 /**
  * The default type converter
@@ -30,8 +36,62 @@ import java.lang.reflect.Method;
  * {@code valueOf(String)} method. Finally it supports any class that defines a
  * constructor that takes a string.
  * </p>
+ * <p>
+ * Which of the static methods and constructor a type supports is resolved once
+ * per type and cached so subsequent conversions directly invoke the resolved
+ * method handles. Types which support none of them are also cached so they
+ * fail fast.
+ * </p>
+ * <p>
+ * Values may also be converted to primitives without boxing via the
+ * {@link PrimitiveTypeConverter} methods provided the numeric converter in
+ * use is a {@link PrimitiveNumericTypeConverter}. If a derived class overrides
+ * {@link #convert(String, Class, String)} then the primitive conversions use
+ * that method instead so they always agree with it.
+ * </p>
  */
-public class DefaultTypeConverter extends DefaultTypeConverterProvider implements TypeConverter  {
+public class DefaultTypeConverter extends DefaultTypeConverterProvider implements PrimitiveTypeConverter {
+
+    private static final MethodType STRING_CONVERSION = MethodType.methodType(Object.class, String.class);
+
+    /**
+     * Cache of the conversion strategies each type supports
+     */
+    private static final ClassValue<ConversionPlan> PLANS = new ClassValue<ConversionPlan>() {
+        @Override
+        protected ConversionPlan computeValue(Class<?> type) {
+            return new ConversionPlan(type);
+        }
+    };
+
+    /**
+     * The resolved string conversion strategies for a type, each strategy is
+     * {@code null} if the type does not support it
+     */
+    private static final class ConversionPlan {
+        private final MethodHandle fromString, valueOf, constructor;
+
+        private ConversionPlan(Class<?> type) {
+            this.fromString = findStringMethod(type, "fromString");
+            this.valueOf = findStringMethod(type, "valueOf");
+            this.constructor = findStringConstructor(type);
+        }
+
+        private boolean isEmpty() {
+            return this.fromString == null && this.valueOf == null && this.constructor == null;
+        }
+    }
+
+    /**
+     * Whether a converter type overrides {@link #convert(String, Class, String)}
+     */
+    private static final ClassValue<Boolean> OVERRIDES_CONVERT = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return !DefaultTypeConverter.class
+                    .equals(AirlineUtils.findDeclaringClass(type, "convert", String.class, Class.class, String.class));
+        }
+    };
 
     private NumericTypeConverter numericConverter;
 
@@ -43,6 +103,19 @@ public class DefaultTypeConverter extends DefaultTypeConverterProvider implement
         this.numericConverter = numericConverter != null ? numericConverter : new DefaultNumericConverter();
     }
 
+    /**
+     * Resolves and caches the conversion strategy for the given type ahead of
+     * time so that the first conversion to that type does not pay the
+     * resolution cost
+     * 
+     * @param type
+     *            Target type
+     */
+    public static void prepare(Class<?> type) {
+        if (type != null)
+            PLANS.get(type);
+    }
+
     @Override
     public Object convert(String name, Class<?> type, String value) {
         checkArguments(name, type, value);
@@ -52,25 +125,65 @@ public class DefaultTypeConverter extends DefaultTypeConverterProvider implement
         if (result.wasSuccessfull())
             return result.getConvertedValue();
 
-        // Then look for a static fromString(String) method
-        result = tryConvertFromString(name, type, value);
-        if (result.wasSuccessfull())
-            return result.getConvertedValue();
+        // Types with no other means of conversion can fail immediately
+        ConversionPlan plan = PLANS.get(type);
+        if (!plan.isEmpty()) {
+            // Then look for a static fromString(String) method
+            result = tryInvoke(plan.fromString, value);
+            if (result.wasSuccessfull())
+                return result.getConvertedValue();
 
-        // Then look for a static valueOf(String) method
-        // This covers enums which have a valueOf method
-        result = tryConvertFromValueOf(name, type, value);
-        if (result.wasSuccessfull())
-            return result.getConvertedValue();
+            // Then look for a static valueOf(String) method
+            // This covers enums which have a valueOf method
+            result = tryInvoke(plan.valueOf, value);
+            if (result.wasSuccessfull())
+                return result.getConvertedValue();
 
-        // Finally look for a constructor taking a string
-        result = tryConvertStringConstructor(name, type, value);
-        if (result.wasSuccessfull())
-            return result.getConvertedValue();
+            // Finally look for a constructor taking a string
+            result = tryInvoke(plan.constructor, value);
+            if (result.wasSuccessfull())
+                return result.getConvertedValue();
+        }
 
         throw new ParseOptionConversionException(name, value, type.getSimpleName());
     }
 
+    @Override
+    public long convertLong(String name, Class<?> type, String value) {
+        checkArguments(name, type, value);
+        if (!usesPrimitiveNumerics())
+            return ((Number) convert(name, type, value)).longValue();
+        try {
+            return ((PrimitiveNumericTypeConverter) this.numericConverter).convertIntegral(name, type, value);
+        } catch (Exception e) {
+            throw new ParseOptionConversionException(name, value, type.getSimpleName());
+        }
+    }
+
+    @Override
+    public double convertDouble(String name, Class<?> type, String value) {
+        checkArguments(name, type, value);
+        if (!usesPrimitiveNumerics())
+            return ((Number) convert(name, type, value)).doubleValue();
+        try {
+            return ((PrimitiveNumericTypeConverter) this.numericConverter).convertFloatingPoint(name, type, value);
+        } catch (Exception e) {
+            throw new ParseOptionConversionException(name, value, type.getSimpleName());
+        }
+    }
+
+    @Override
+    public boolean convertBoolean(String name, Class<?> type, String value) {
+        checkArguments(name, type, value);
+        if (OVERRIDES_CONVERT.get(getClass()))
+            return (Boolean) convert(name, type, value);
+        return Boolean.parseBoolean(value);
+    }
+
+    private boolean usesPrimitiveNumerics() {
+        return this.numericConverter instanceof PrimitiveNumericTypeConverter && !OVERRIDES_CONVERT.get(getClass());
+    }
+
     /**
      * Checks that the arguments are all non-null
      * 
@@ -101,12 +214,7 @@ public class DefaultTypeConverter extends DefaultTypeConverterProvider implement
      * @return Conversion result
      */
     protected final ConvertResult tryConvertStringConstructor(String name, Class<?> type, String value) {
-        try {
-            Constructor<?> constructor = type.getConstructor(String.class);
-            return new ConvertResult(constructor.newInstance(value));
-        } catch (Throwable ignored) {
-        }
-        return ConvertResult.FAILURE;
+        return tryInvoke(PLANS.get(type).constructor, value);
     }
 
     /**
@@ -120,7 +228,7 @@ public class DefaultTypeConverter extends DefaultTypeConverterProvider implement
      * @return Conversion result
      */
     protected final ConvertResult tryConvertFromValueOf(String name, Class<?> type, String value) {
-        return tryConvertStringMethod(name, type, value, "valueOf");
+        return tryInvoke(PLANS.get(type).valueOf, value);
     }
 
     /**
@@ -134,8 +242,7 @@ public class DefaultTypeConverter extends DefaultTypeConverterProvider implement
      * @return Conversion result
      */
     protected final ConvertResult tryConvertFromString(String name, Class<?> type, String value) {
-        return tryConvertStringMethod(name, type, value, "fromString");
-
+        return tryInvoke(PLANS.get(type).fromString, value);
     }
 
     /**
@@ -150,14 +257,67 @@ public class DefaultTypeConverter extends DefaultTypeConverterProvider implement
      * @return Conversion Result
      */
     protected final ConvertResult tryConvertStringMethod(String name, Class<?> type, String value, String methodName) {
+        return tryInvoke(findStringMethod(type, methodName), value);
+    }
+
+    /**
+     * Tries to convert the value by invoking a previously resolved conversion
+     * method handle
+     * 
+     * @param handle
+     *            Method handle, may be {@code null} if the conversion is not
+     *            supported
+     * @param value
+     *            Value
+     * @return Conversion result
+     */
+    private static ConvertResult tryInvoke(MethodHandle handle, String value) {
+        if (handle == null)
+            return ConvertResult.FAILURE;
+        try {
+            return new ConvertResult((Object) handle.invokeExact(value));
+        } catch (Throwable ignored) {
+        }
+        return ConvertResult.FAILURE;
+    }
+
+    /**
+     * Finds a public static method with the given name that takes a string and
+     * returns the type
+     * 
+     * @param type
+     *            Type
+     * @param methodName
+     *            Method name
+     * @return Method handle, or {@code null} if no such usable method
+     */
+    private static MethodHandle findStringMethod(Class<?> type, String methodName) {
         try {
             Method method = type.getMethod(methodName, String.class);
-            if (method.getReturnType().isAssignableFrom(type)) {
-                return new ConvertResult(method.invoke(null, value));
+            if (Modifier.isStatic(method.getModifiers()) && method.getReturnType().isAssignableFrom(type)) {
+                return MethodHandles.publicLookup().unreflect(method).asType(STRING_CONVERSION);
             }
         } catch (Throwable ignored) {
         }
-        return ConvertResult.FAILURE;
+        return null;
+    }
+
+    /**
+     * Finds a public constructor that takes a string
+     * 
+     * @param type
+     *            Type
+     * @return Method handle, or {@code null} if no such usable constructor
+     */
+    private static MethodHandle findStringConstructor(Class<?> type) {
+        if (Modifier.isAbstract(type.getModifiers()))
+            return null;
+        try {
+            Constructor<?> constructor = type.getConstructor(String.class);
+            return MethodHandles.publicLookup().unreflectConstructor(constructor).asType(STRING_CONVERSION);
+        } catch (Throwable ignored) {
+        }
+        return null;
     }
 
     /**
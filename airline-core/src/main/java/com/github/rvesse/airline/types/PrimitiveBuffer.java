@@ -0,0 +1,274 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.types;
+
+import java.lang.reflect.Array;
+
+/**
+ * A growable buffer of primitive values of a single primitive type
+ * <p>
+ * This allows large numbers of values to be collected without boxing each
+ * value, all the primitive types except {@code char} are supported. Integral
+ * values are added via {@link #add(long)}, floating point values via
+ * {@link #add(double)} and boolean values via {@link #add(boolean)}.
+ * </p>
+ * <p>
+ * This is not thread safe.
+ * </p>
+ */
+public final class PrimitiveBuffer implements PrimitiveValues {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final int BYTE = 0, SHORT = 1, INT = 2, LONG = 3, FLOAT = 4, DOUBLE = 5, BOOLEAN = 6;
+
+    private final Class<?> type;
+    private final int kind;
+    private Object values;
+    private int size, capacity;
+
+    /**
+     * Creates a new empty buffer
+     * 
+     * @param type
+     *            Primitive type
+     * @throws IllegalArgumentException
+     *             Thrown if the type is not a supported primitive type
+     */
+    public PrimitiveBuffer(Class<?> type) {
+        this(type, INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates a new empty buffer
+     * 
+     * @param type
+     *            Primitive type
+     * @param capacity
+     *            Initial capacity
+     * @throws IllegalArgumentException
+     *             Thrown if the type is not a supported primitive type
+     */
+    public PrimitiveBuffer(Class<?> type, int capacity) {
+        this(type, Array.newInstance(checkType(type), Math.max(capacity, 1)), 0);
+    }
+
+    private PrimitiveBuffer(Class<?> type, Object values, int size) {
+        this.type = type;
+        this.kind = kindOf(type);
+        this.values = values;
+        this.size = size;
+        this.capacity = Array.getLength(values);
+    }
+
+    private static Class<?> checkType(Class<?> type) {
+        if (!isSupported(type))
+            throw new IllegalArgumentException(String.format("%s is not a supported primitive type", type));
+        return type;
+    }
+
+    private static int kindOf(Class<?> type) {
+        if (type == Byte.TYPE)
+            return BYTE;
+        if (type == Short.TYPE)
+            return SHORT;
+        if (type == Integer.TYPE)
+            return INT;
+        if (type == Long.TYPE)
+            return LONG;
+        if (type == Float.TYPE)
+            return FLOAT;
+        if (type == Double.TYPE)
+            return DOUBLE;
+        return BOOLEAN;
+    }
+
+    /**
+     * Gets whether a buffer may be created for the given type
+     * 
+     * @param type
+     *            Type
+     * @return True if a supported primitive type, false otherwise
+     */
+    public static boolean isSupported(Class<?> type) {
+        return type != null && type.isPrimitive() && type != Void.TYPE && type != Character.TYPE;
+    }
+
+    @Override
+    public Class<?> getPrimitiveType() {
+        return this.type;
+    }
+
+    /**
+     * Gets the number of values in the buffer
+     * 
+     * @return Number of values
+     */
+    public int size() {
+        return this.size;
+    }
+
+    private void ensureCapacity() {
+        if (this.size < this.capacity)
+            return;
+        this.capacity *= 2;
+        this.values = copyOf(this.values, this.size, this.capacity);
+    }
+
+    private Object copyOf(Object values, int length, int capacity) {
+        Object copy = Array.newInstance(this.type, capacity);
+        System.arraycopy(values, 0, copy, 0, length);
+        return copy;
+    }
+
+    /**
+     * Adds an integral value
+     * 
+     * @param value
+     *            Value, narrowed to the primitive type of the buffer
+     * @throws IllegalStateException
+     *             Thrown if this is not a buffer of an integral type
+     */
+    public void add(long value) {
+        ensureCapacity();
+        switch (this.kind) {
+        case BYTE:
+            ((byte[]) this.values)[this.size] = (byte) value;
+            break;
+        case SHORT:
+            ((short[]) this.values)[this.size] = (short) value;
+            break;
+        case INT:
+            ((int[]) this.values)[this.size] = (int) value;
+            break;
+        case LONG:
+            ((long[]) this.values)[this.size] = value;
+            break;
+        default:
+            throw new IllegalStateException(String.format("Cannot add integral values to a %s buffer", this.type));
+        }
+        this.size++;
+    }
+
+    /**
+     * Adds a floating point value
+     * 
+     * @param value
+     *            Value, narrowed to the primitive type of the buffer
+     * @throws IllegalStateException
+     *             Thrown if this is not a buffer of a floating point type
+     */
+    public void add(double value) {
+        ensureCapacity();
+        switch (this.kind) {
+        case FLOAT:
+            ((float[]) this.values)[this.size] = (float) value;
+            break;
+        case DOUBLE:
+            ((double[]) this.values)[this.size] = value;
+            break;
+        default:
+            throw new IllegalStateException(
+                    String.format("Cannot add floating point values to a %s buffer", this.type));
+        }
+        this.size++;
+    }
+
+    /**
+     * Adds a boolean value
+     * 
+     * @param value
+     *            Value
+     * @throws IllegalStateException
+     *             Thrown if this is not a buffer of booleans
+     */
+    public void add(boolean value) {
+        if (this.kind != BOOLEAN)
+            throw new IllegalStateException(String.format("Cannot add boolean values to a %s buffer", this.type));
+        ensureCapacity();
+        ((boolean[]) this.values)[this.size++] = value;
+    }
+
+    /**
+     * Adds a boxed value
+     * 
+     * @param value
+     *            Value, must be a {@link Number} or a {@link Boolean} as
+     *            appropriate to the primitive type of the buffer
+     * @throws ClassCastException
+     *             Thrown if the value is not of an appropriate type
+     */
+    public void add(Object value) {
+        switch (this.kind) {
+        case FLOAT:
+        case DOUBLE:
+            add(((Number) value).doubleValue());
+            break;
+        case BOOLEAN:
+            add(((Boolean) value).booleanValue());
+            break;
+        default:
+            add(((Number) value).longValue());
+        }
+    }
+
+    /**
+     * Gets a value from the buffer
+     * 
+     * @param index
+     *            Index
+     * @return Boxed value
+     */
+    public Object get(int index) {
+        if (index < 0 || index >= this.size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        return Array.get(this.values, index);
+    }
+
+    /**
+     * Creates a new buffer containing a copy of the first {@code length}
+     * values of this buffer
+     * 
+     * @param length
+     *            Number of values to copy
+     * @return New buffer
+     */
+    public PrimitiveBuffer copy(int length) {
+        if (length < 0 || length > this.size)
+            throw new IndexOutOfBoundsException("Length: " + length + ", Size: " + this.size);
+        return new PrimitiveBuffer(this.type, copyOf(this.values, length, Math.max(INITIAL_CAPACITY, length * 2)),
+                length);
+    }
+
+    /**
+     * Creates a new primitive array containing the first {@code length}
+     * values of this buffer
+     * 
+     * @param length
+     *            Number of values
+     * @return Primitive array
+     */
+    public Object toPrimitiveArray(int length) {
+        if (length < 0 || length > this.size)
+            throw new IndexOutOfBoundsException("Length: " + length + ", Size: " + this.size);
+        return copyOf(this.values, length, length);
+    }
+
+    @Override
+    public Object toPrimitiveArray() {
+        return toPrimitiveArray(this.size);
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.types;
+
+/**
+ * Interface for type converters which can convert values to primitive types
+ * without boxing
+ * <p>
+ * This is used when binding values to primitive array fields so that large
+ * numbers of values may be converted without creating an object for each
+ * value. Implementations must produce the same values, and fail for the same
+ * inputs, as {@link #convert(String, Class, String)} does for the same
+ * primitive type.
+ * </p>
+ */
+public interface PrimitiveTypeConverter extends TypeConverter {
+
+    /**
+     * Converts a string value into an integral value i.e. a {@code byte},
+     * {@code short}, {@code int} or {@code long}
+     * 
+     * @param name
+     *            Option Name
+     * @param type
+     *            Target Type
+     * @param value
+     *            String Value
+     * @return Integral value, which is within the range of the target type
+     * @exception ParseOptionConversionException
+     *                Should be thrown if the type converter cannot convert the
+     *                value
+     */
+    public abstract long convertLong(String name, Class<?> type, String value);
+
+    /**
+     * Converts a string value into a floating point value i.e. a
+     * {@code float} or {@code double}
+     * 
+     * @param name
+     *            Option Name
+     * @param type
+     *            Target Type
+     * @param value
+     *            String Value
+     * @return Floating point value, which is within the range of the target
+     *         type
+     * @exception ParseOptionConversionException
+     *                Should be thrown if the type converter cannot convert the
+     *                value
+     */
+    public abstract double convertDouble(String name, Class<?> type, String value);
+
+    /**
+     * Converts a string value into a boolean value
+     * 
+     * @param name
+     *            Option Name
+     * @param type
+     *            Target Type
+     * @param value
+     *            String Value
+     * @return Boolean value
+     * @exception ParseOptionConversionException
+     *                Should be thrown if the type converter cannot convert the
+     *                value
+     */
+    public abstract boolean convertBoolean(String name, Class<?> type, String value);
+}
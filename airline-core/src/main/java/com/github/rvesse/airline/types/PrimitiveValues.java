@@ -0,0 +1,45 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.types;
+
+/**
+ * Interface for collections of values that may be stored as primitives
+ * <p>
+ * Collections of values which implement this interface can be bound to
+ * primitive array fields by copying their primitive storage directly rather
+ * than unboxing each value in turn.
+ * </p>
+ */
+public interface PrimitiveValues {
+
+    /**
+     * Gets the primitive type of the values
+     * 
+     * @return Primitive type, or {@code null} if the values are not stored as
+     *         primitives
+     */
+    public abstract Class<?> getPrimitiveType();
+
+    /**
+     * Creates a new primitive array containing the values, the component type
+     * of the array is the type given by {@link #getPrimitiveType()}
+     * 
+     * @return Primitive array
+     * @throws IllegalStateException
+     *             Thrown if the values are not stored as primitives
+     */
+    public abstract Object toPrimitiveArray();
+}
@@ -138,4 +138,50 @@ public abstract class ComplexNumericTypeConverter extends DefaultNumericConverte
 
         return new ConvertResult((byte) result);
     }
+
+    @Override
+    protected long parseIntegral(String name, Class<?> type, String value) {
+        NumericCandidate candidate = parse(value);
+        long base = Long.parseLong(candidate.getValue(), getRadix(candidate));
+        long multiplier = getMultiplier(candidate);
+        long result = multiplier != 1l ? base * multiplier : base;
+
+        if (Byte.class.isAssignableFrom(type) || Byte.TYPE.isAssignableFrom(type)) {
+            checkRange(name, value, result, Byte.MIN_VALUE, Byte.MAX_VALUE, Byte.class);
+        } else if (Short.class.isAssignableFrom(type) || Short.TYPE.isAssignableFrom(type)) {
+            checkRange(name, value, result, Short.MIN_VALUE, Short.MAX_VALUE, Short.class);
+        } else if (Integer.class.isAssignableFrom(type) || Integer.TYPE.isAssignableFrom(type)) {
+            checkRange(name, value, result, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.class);
+        } else if (!Long.class.isAssignableFrom(type) && !Long.TYPE.isAssignableFrom(type)) {
+            throw new IllegalArgumentException(String.format("%s is not an integral type", type));
+        }
+        return result;
+    }
+
+    @Override
+    protected double parseFloatingPoint(String name, Class<?> type, String value) {
+        NumericCandidate candidate = parse(value);
+        long multiplier = getMultiplier(candidate);
+
+        if (Float.class.isAssignableFrom(type) || Float.TYPE.isAssignableFrom(type)) {
+            float base = Float.parseFloat(candidate.getValue());
+            double result = multiplier != 1l ? base * multiplier : base;
+            checkRange(name, value, result, Float.MIN_VALUE, Float.MAX_VALUE, Float.class);
+            return (float) result;
+        } else if (Double.class.isAssignableFrom(type) || Double.TYPE.isAssignableFrom(type)) {
+            double base = Double.parseDouble(candidate.getValue());
+            double result = multiplier != 1l ? base * multiplier : base;
+            checkRange(name, value, result, Double.MIN_VALUE, Double.MAX_VALUE, Double.class);
+            return result;
+        }
+        throw new IllegalArgumentException(String.format("%s is not a floating point type", type));
+    }
+
+    private static void checkRange(String name, String value, double result, double min, double max,
+            Class<?> type) {
+        if (result < min || result > max)
+            throw new ParseOptionConversionException(String.format(
+                    "%s: Abbreviated numeric value \"%s\" evaluates to a value outside the range of the numeric type %s",
+                    name, value, type.getSimpleName()), name, value, type.getSimpleName());
+    }
 }
@@ -22,8 +22,39 @@ import com.github.rvesse.airline.types.ConvertResult;
 import com.github.rvesse.airline.types.DefaultTypeConverter;
 import com.github.rvesse.airline.types.TypeConverter;
 import com.github.rvesse.airline.types.TypeConverterProvider;
+import com.github.rvesse.airline.utils.AirlineUtils;
 
-public class DefaultNumericConverter implements TypeConverterProvider, NumericTypeConverter {
+public class DefaultNumericConverter implements TypeConverterProvider, PrimitiveNumericTypeConverter {
+
+    /**
+     * Whether a converter type may use the primitive conversions, this is
+     * only the case if it does not override any of the boxed conversion
+     * methods since the primitive conversions would otherwise bypass those
+     * overrides
+     */
+    private static final ClassValue<Boolean> PRIMITIVES = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            if (!isBuiltIn(AirlineUtils.findDeclaringClass(type, "tryConvertNumerics", String.class, Class.class,
+                    String.class)))
+                return false;
+            for (String method : new String[] { "tryConvertByte", "tryConvertShort", "tryConvertInteger",
+                    "tryConvertLong", "tryConvertFloat", "tryConvertDouble" }) {
+                if (!isBuiltIn(AirlineUtils.findDeclaringClass(type, method, String.class, String.class)))
+                    return false;
+            }
+            for (String method : new String[] { "getLong", "getDouble", "getFloat" }) {
+                Class<?> declarer = AirlineUtils.findDeclaringClass(type, method, NumericCandidate.class);
+                if (declarer != null && !isBuiltIn(declarer))
+                    return false;
+            }
+            return true;
+        }
+
+        private boolean isBuiltIn(Class<?> declarer) {
+            return DefaultNumericConverter.class.equals(declarer) || ComplexNumericTypeConverter.class.equals(declarer);
+        }
+    };
 
     @Override
     public <T> TypeConverter getTypeConverter(OptionMetadata option, ParseState<T> state) {
@@ -80,4 +111,71 @@ public class DefaultNumericConverter implements TypeConverterProvider, NumericTy
     protected ConvertResult tryConvertByte(String name, String value) {
         return new ConvertResult(Byte.valueOf(value));
     }
+
+    @Override
+    public long convertIntegral(String name, Class<?> type, String value) {
+        if (!PRIMITIVES.get(getClass()))
+            return ((Number) convertBoxed(name, type, value)).longValue();
+        return parseIntegral(name, type, value);
+    }
+
+    @Override
+    public double convertFloatingPoint(String name, Class<?> type, String value) {
+        if (!PRIMITIVES.get(getClass()))
+            return ((Number) convertBoxed(name, type, value)).doubleValue();
+        return parseFloatingPoint(name, type, value);
+    }
+
+    private Object convertBoxed(String name, Class<?> type, String value) {
+        ConvertResult result = tryConvertNumerics(name, type, value);
+        if (!result.wasSuccessfull())
+            throw new NumberFormatException(String.format("Cannot convert \"%s\" to a %s", value, type));
+        return result.getConvertedValue();
+    }
+
+    /**
+     * Parses an integral value without boxing, this must give identical
+     * results to the relevant {@code tryConvert} method for the type
+     * 
+     * @param name
+     *            Option/Argument name
+     * @param type
+     *            Integral type
+     * @param value
+     *            Value
+     * @return Integral value
+     */
+    protected long parseIntegral(String name, Class<?> type, String value) {
+        if (Byte.class.isAssignableFrom(type) || Byte.TYPE.isAssignableFrom(type)) {
+            return Byte.parseByte(value);
+        } else if (Short.class.isAssignableFrom(type) || Short.TYPE.isAssignableFrom(type)) {
+            return Short.parseShort(value);
+        } else if (Integer.class.isAssignableFrom(type) || Integer.TYPE.isAssignableFrom(type)) {
+            return Integer.parseInt(value);
+        } else if (Long.class.isAssignableFrom(type) || Long.TYPE.isAssignableFrom(type)) {
+            return Long.parseLong(value);
+        }
+        throw new IllegalArgumentException(String.format("%s is not an integral type", type));
+    }
+
+    /**
+     * Parses a floating point value without boxing, this must give identical
+     * results to the relevant {@code tryConvert} method for the type
+     * 
+     * @param name
+     *            Option/Argument name
+     * @param type
+     *            Floating point type
+     * @param value
+     *            Value
+     * @return Floating point value
+     */
+    protected double parseFloatingPoint(String name, Class<?> type, String value) {
+        if (Float.class.isAssignableFrom(type) || Float.TYPE.isAssignableFrom(type)) {
+            return Float.parseFloat(value);
+        } else if (Double.class.isAssignableFrom(type) || Double.TYPE.isAssignableFrom(type)) {
+            return Double.parseDouble(value);
+        }
+        throw new IllegalArgumentException(String.format("%s is not a floating point type", type));
+    }
 }
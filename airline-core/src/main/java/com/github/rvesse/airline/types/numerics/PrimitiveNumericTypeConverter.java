@@ -0,0 +1,60 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.types.numerics;
+
+/**
+ * Interface for numeric type converters which can convert numerics to
+ * primitive values without boxing
+ * <p>
+ * Implementations must produce the same values, and fail for the same inputs,
+ * as {@link #tryConvertNumerics(String, Class, String)} does for the same
+ * type.
+ * </p>
+ */
+public interface PrimitiveNumericTypeConverter extends NumericTypeConverter {
+
+    /**
+     * Converts an integral numeric i.e. a {@code byte}, {@code short},
+     * {@code int} or {@code long}
+     * 
+     * @param name
+     *            Option/Argument name
+     * @param type
+     *            Type
+     * @param value
+     *            Value
+     * @return Integral value, which is within the range of the type
+     * @throws RuntimeException
+     *             Any exception may be thrown if the value cannot be converted
+     */
+    public abstract long convertIntegral(String name, Class<?> type, String value);
+
+    /**
+     * Converts a floating point numeric i.e. a {@code float} or
+     * {@code double}
+     * 
+     * @param name
+     *            Option/Argument name
+     * @param type
+     *            Type
+     * @param value
+     *            Value
+     * @return Floating point value, which is within the range of the type
+     * @throws RuntimeException
+     *             Any exception may be thrown if the value cannot be converted
+     */
+    public abstract double convertFloatingPoint(String name, Class<?> type, String value);
+}
@@ -56,7 +56,7 @@ public class AirlineUtils {
     }
 
     public static <T> T last(Iterable<T> iterable) {
-        return last(iterable.iterator(), null);
+        return last(iterable, null);
     }
 
     public static <T> T last(Iterator<T> iterator) {
@@ -64,6 +64,10 @@ public class AirlineUtils {
     }
 
     public static <T> T last(Iterable<T> iterable, T defaultValue) {
+        if (iterable instanceof List) {
+            List<T> list = (List<T>) iterable;
+            return list.isEmpty() ? defaultValue : list.get(list.size() - 1);
+        }
         return last(iterable.iterator(), defaultValue);
     }
 
@@ -219,4 +223,29 @@ public class AirlineUtils {
         
         return builder.toString();
     }
+
+    /**
+     * Finds the class which declares the most specific implementation of a
+     * method on a type, unlike {@link Class#getMethod(String, Class...)} this
+     * also finds non-public methods
+     * 
+     * @param type
+     *            Type
+     * @param name
+     *            Method name
+     * @param parameterTypes
+     *            Method parameter types
+     * @return Declaring class, or {@code null} if the type has no such method
+     */
+    public static Class<?> findDeclaringClass(Class<?> type, String name, Class<?>... parameterTypes) {
+        for (Class<?> cls = type; cls != null; cls = cls.getSuperclass()) {
+            try {
+                cls.getDeclaredMethod(name, parameterTypes);
+                return cls;
+            } catch (NoSuchMethodException e) {
+                // Try the super class
+            }
+        }
+        return null;
+    }
 }
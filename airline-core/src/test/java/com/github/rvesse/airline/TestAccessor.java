@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.parser.errors.ParseException;
+
+public class TestAccessor {
+
+    public static class Inner {
+        private List<String> values;
+        private int count;
+    }
+
+    public static class Outer {
+        private Inner inner;
+        private final Set<String> set = new LinkedHashSet<>();
+        private static String shared;
+    }
+
+    @Test
+    public void accessor_nested_01() throws NoSuchFieldException {
+        Accessor accessor = new Accessor(Outer.class.getDeclaredField("inner"), Inner.class.getDeclaredField("count"));
+        Outer outer = new Outer();
+        accessor.addValues(outer, Arrays.asList(1, 2, 3));
+
+        // Intermediate instance is created and last value wins
+        Assert.assertNotNull(outer.inner);
+        Assert.assertEquals(outer.inner.count, 3);
+    }
+
+    @Test
+    public void accessor_collection_01() throws NoSuchFieldException {
+        Accessor accessor = new Accessor(Outer.class.getDeclaredField("inner"),
+                Inner.class.getDeclaredField("values"));
+        Assert.assertTrue(accessor.isMultiValued());
+        Assert.assertEquals(accessor.getJavaType(), String.class);
+
+        Outer outer = new Outer();
+        accessor.addValues(outer, Arrays.asList("a", "b"));
+        accessor.addValues(outer, new LinkedHashSet<>(Arrays.asList("c")));
+        Assert.assertEquals(outer.inner.values, Arrays.asList("a", "b", "c"));
+    }
+
+    @Test
+    public void accessor_final_01() throws NoSuchFieldException {
+        Accessor accessor = new Accessor(Outer.class.getDeclaredField("set"));
+        Outer outer = new Outer();
+        accessor.addValues(outer, Arrays.asList("a", "b", "a"));
+        Assert.assertEquals(outer.set.size(), 2);
+    }
+
+    @Test
+    public void accessor_static_01() throws NoSuchFieldException {
+        Accessor accessor = new Accessor(Outer.class.getDeclaredField("shared"));
+        accessor.addValues(new Outer(), Arrays.asList("value"));
+        Assert.assertEquals(Outer.shared, "value");
+    }
+
+    @Test(expectedExceptions = ParseException.class)
+    public void accessor_bad_instance_01() throws NoSuchFieldException {
+        Accessor accessor = new Accessor(Inner.class.getDeclaredField("count"));
+        accessor.addValues(new Outer(), Arrays.asList(1));
+    }
+}
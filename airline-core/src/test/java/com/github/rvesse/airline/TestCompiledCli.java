@@ -0,0 +1,146 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Git.Add;
+import com.github.rvesse.airline.Git.RemoteAdd;
+import com.github.rvesse.airline.Git.RemoteShow;
+import com.github.rvesse.airline.args.Args1;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.errors.handlers.CollectAll;
+
+public class TestCompiledCli {
+
+    private static final int THREADS = 8;
+    private static final int PARSES = 500;
+
+    @Test
+    public void compiled_cli_01() {
+        CompiledCli<Runnable> cli = new Cli<Runnable>(GitWithCliAnnotation.class).compile();
+
+        Runnable cmd = cli.parse("add", "-i", "file");
+        Assert.assertTrue(cmd instanceof Add);
+        Assert.assertEquals(((Add) cmd).patterns.get(0), "file");
+
+        cmd = cli.parse("remote", "add", "origin", "git@github.com:airlift/airline.git");
+        Assert.assertTrue(cmd instanceof RemoteAdd);
+
+        // Group default command
+        cmd = cli.parse("remote");
+        Assert.assertTrue(cmd instanceof RemoteShow);
+
+        // Instances are never shared between parses
+        Assert.assertNotSame(cli.parse("remote"), cmd);
+    }
+
+    @Test
+    public void compiled_cli_concurrent_01() throws Exception {
+        final CompiledCli<Runnable> cli = new Cli<Runnable>(GitWithCliAnnotation.class,
+                new ParserBuilder<Runnable>().withErrorHandler(new CollectAll()).build()).compile();
+
+        // Option missing its value
+        final String[] failing = { "remote", "add", "-t" };
+        final int expectedErrors = cli.parseWithResult(failing).getErrors().size();
+        Assert.assertTrue(expectedErrors > 0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                final boolean fail = t % 2 == 0;
+                futures.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        for (int i = 0; i < PARSES; i++) {
+                            ParseResult<Runnable> result = fail ? cli.parseWithResult(failing)
+                                    : cli.parseWithResult("add", "-i", "file" + i);
+                            // Errors from other threads must never leak into
+                            // this result
+                            if (result.wasSuccessful() == fail)
+                                return i;
+                            if (fail && result.getErrors().size() != expectedErrors)
+                                return i;
+                        }
+                        return -1;
+                    }
+                }));
+            }
+            for (Future<Integer> future : futures) {
+                Assert.assertEquals(future.get().intValue(), -1);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void compiled_command_01() {
+        CompiledCommand<Args1> command = SingleCommand.singleCommand(Args1.class).compile();
+
+        Args1 args = command.parse("-long", "5", "a", "b");
+        Assert.assertEquals(args.l, 5L);
+        Assert.assertEquals(args.parameters.size(), 2);
+
+        args = command.parse("-debug");
+        Assert.assertTrue(args.debug);
+        Assert.assertEquals(args.l, 0L);
+        Assert.assertEquals(args.parameters.size(), 0);
+    }
+
+    @Test
+    public void compiled_command_concurrent_01() throws Exception {
+        final CompiledCommand<Args1> command = SingleCommand.singleCommand(Args1.class,
+                new ParserBuilder<Args1>().withErrorHandler(new CollectAll()).build()).compile();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                final boolean fail = t % 2 == 0;
+                futures.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        for (int i = 0; i < PARSES; i++) {
+                            ParseResult<Args1> result = command.parseWithResult("-long",
+                                    fail ? "nan" : Integer.toString(i));
+                            if (result.wasSuccessful() == fail)
+                                return i;
+                            if (!fail && result.getCommand().l != i)
+                                return i;
+                        }
+                        return -1;
+                    }
+                }));
+            }
+            for (Future<Integer> future : futures) {
+                Assert.assertEquals(future.get().intValue(), -1);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -56,13 +56,17 @@ import com.github.rvesse.airline.args.OptionsRequired;
 import com.github.rvesse.airline.command.CommandRemove;
 import com.github.rvesse.airline.help.Help;
 import com.github.rvesse.airline.help.UsageHelper;
+import com.github.rvesse.airline.help.cli.CliCommandGroupUsageGenerator;
 import com.github.rvesse.airline.help.cli.CliCommandUsageGenerator;
 import com.github.rvesse.airline.help.cli.CliGlobalUsageGenerator;
 import com.github.rvesse.airline.help.cli.CliGlobalUsageSummaryGenerator;
 import com.github.rvesse.airline.help.common.AbstractCommandUsageGenerator;
 import com.github.rvesse.airline.help.sections.CliWithSections;
 import com.github.rvesse.airline.help.sections.common.VersionSection;
+import com.github.rvesse.airline.io.printers.UsagePrinter;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
 import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.resources.ClasspathLocator;
 import com.github.rvesse.airline.parser.resources.ResourceLocator;
 import com.github.rvesse.airline.restrictions.partial.PartialAnnotated;
@@ -1288,4 +1292,104 @@ public class TestHelp {
                 "\n");
         //@formatter:on
     }
+
+    private static class CountingUsageGenerator extends CliCommandUsageGenerator {
+        private int renders = 0;
+
+        public CountingUsageGenerator(int columns) {
+            super(columns);
+        }
+
+        @Override
+        protected boolean isCacheable() {
+            return true;
+        }
+
+        @Override
+        public <T> void usage(String programName, String[] groupNames, String commandName, CommandMetadata command,
+                ParserMetadata<T> parserConfig, UsagePrinter out) throws IOException {
+            renders++;
+            super.usage(programName, groupNames, commandName, command, parserConfig, out);
+        }
+    }
+
+    @Test
+    public void testUsageCache() throws IOException {
+        SingleCommand<ArgsMultiParagraphDiscussion> command = singleCommand(ArgsMultiParagraphDiscussion.class);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        Help.help(command.getCommandMetadata(), expected);
+
+        CountingUsageGenerator generator = new CountingUsageGenerator(79);
+        for (int i = 0; i < 5; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            generator.usage(command.getCommandMetadata(), null, out);
+            assertEquals(new String(out.toByteArray(), utf8), new String(expected.toByteArray(), utf8));
+        }
+        assertEquals(generator.renders, 1);
+
+        // Other generators of the same type and configuration share the cached
+        // output
+        CountingUsageGenerator other = new CountingUsageGenerator(79);
+        other.usage(command.getCommandMetadata(), null, new ByteArrayOutputStream());
+        assertEquals(other.renders, 0);
+
+        // Different widths are rendered separately
+        CountingUsageGenerator narrow = new CountingUsageGenerator(10);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        narrow.usage(command.getCommandMetadata(), null, out);
+        assertEquals(narrow.renders, 1);
+        Assert.assertNotEquals(new String(out.toByteArray(), utf8), new String(expected.toByteArray(), utf8));
+    }
+
+    @Test
+    public void testUsageCacheSubclassOptIn() throws IOException {
+        SingleCommand<ArgsMultiParagraphDiscussion> command = singleCommand(ArgsMultiParagraphDiscussion.class);
+
+        // Subclasses are not cached unless they opt in
+        final int[] renders = new int[1];
+        CliCommandUsageGenerator generator = new CliCommandUsageGenerator(79) {
+            @Override
+            public <T> void usage(String programName, String[] groupNames, String commandName,
+                    CommandMetadata command, ParserMetadata<T> parserConfig, UsagePrinter out) throws IOException {
+                renders[0]++;
+                super.usage(programName, groupNames, commandName, command, parserConfig, out);
+            }
+        };
+        for (int i = 0; i < 3; i++) {
+            generator.usage(command.getCommandMetadata(), null, new ByteArrayOutputStream());
+        }
+        assertEquals(renders[0], 3);
+    }
+
+    @Test
+    public void testUsageCacheGroupHideGlobalOptions() throws IOException {
+        //@formatter:off
+        CliBuilder<Runnable> builder = Cli.<Runnable>builder("git")
+                .withCommand(Help.class);
+        builder.withGroup("remote")
+                .withDescription("Manage set of tracked repositories")
+                .withCommand(RemoteShow.class)
+                .withCommand(RemoteAdd.class);
+        //@formatter:on
+        Cli<Runnable> gitParser = builder.build();
+        CommandGroupMetadata[] groups = new CommandGroupMetadata[] { gitParser.getMetadata().getCommandGroups()
+                .get(0) };
+
+        // Generators differing only in whether global options are hidden must
+        // not share cached output
+        ByteArrayOutputStream hidden = new ByteArrayOutputStream();
+        new CliCommandGroupUsageGenerator<Runnable>(79, true, UsageHelper.DEFAULT_HINT_COMPARATOR,
+                UsageHelper.DEFAULT_OPTION_COMPARATOR, UsageHelper.DEFAULT_COMMAND_COMPARATOR, false)
+                        .usage(gitParser.getMetadata(), groups, hidden);
+        ByteArrayOutputStream shown = new ByteArrayOutputStream();
+        new CliCommandGroupUsageGenerator<Runnable>(79, false, UsageHelper.DEFAULT_HINT_COMPARATOR,
+                UsageHelper.DEFAULT_OPTION_COMPARATOR, UsageHelper.DEFAULT_COMMAND_COMPARATOR, false)
+                        .usage(gitParser.getMetadata(), groups, shown);
+
+        String hiddenUsage = new String(hidden.toByteArray(), utf8);
+        String shownUsage = new String(shown.toByteArray(), utf8);
+        Assert.assertNotEquals(shownUsage, hiddenUsage);
+        assertTrue(shownUsage.contains("-v"));
+        Assert.assertFalse(hiddenUsage.contains("-v"));
+    }
 }
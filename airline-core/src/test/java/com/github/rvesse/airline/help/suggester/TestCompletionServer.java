@@ -0,0 +1,184 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.suggester;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.collections4.IteratorUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.Git.Add;
+import com.github.rvesse.airline.Git.RemoteAdd;
+import com.github.rvesse.airline.Git.RemoteShow;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.model.GlobalMetadata;
+
+public class TestCompletionServer {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private GlobalMetadata<Runnable> prepareGit() {
+        //@formatter:off
+        CliBuilder<Runnable> builder = Cli.<Runnable>builder("git")
+                .withDescription("the stupid content tracker")
+                .withDefaultCommand(Help.class)
+                .withCommand(Help.class)
+                .withCommand(Add.class);
+
+        builder.withGroup("remote")
+               .withDescription("Manage set of tracked repositories")
+               .withDefaultCommand(RemoteShow.class)
+               .withCommand(RemoteShow.class)
+               .withCommand(RemoteAdd.class);
+        builder.withParser().withArgumentsSeparator("@@");
+        //@formatter:on
+        return builder.build().getMetadata();
+    }
+
+    private List<String> request(int port, String... arguments) throws IOException {
+        return authenticatedRequest(port, null, arguments);
+    }
+
+    private List<String> authenticatedRequest(int port, String token, String... arguments) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getByName(null), port)) {
+            Writer writer = new OutputStreamWriter(socket.getOutputStream(), UTF8);
+            if (token != null)
+                writer.append(token).append('\n');
+            for (String argument : arguments) {
+                writer.append(argument).append('\n');
+            }
+            writer.append('\n').flush();
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), UTF8));
+            List<String> suggestions = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                suggestions.add(line);
+            }
+            return suggestions;
+        }
+    }
+
+    private List<String> sorted(Iterable<String> values) {
+        List<String> list = IteratorUtils.toList(values.iterator());
+        Collections.sort(list);
+        return list;
+    }
+
+    @Test
+    public void completion_server_01() throws IOException {
+        GlobalMetadata<Runnable> metadata = prepareGit();
+        try (CompletionServer<Runnable> server = new CompletionServer<>(metadata)) {
+            server.start();
+            Assert.assertTrue(server.getPort() > 0);
+
+            // Global suggestions
+            Assert.assertEquals(sorted(request(server.getPort())),
+                    sorted(SuggestCommand.generateSuggestions(metadata, Collections.<String> emptyList())));
+            Assert.assertTrue(request(server.getPort()).containsAll(Arrays.asList("add", "help", "remote")));
+
+            // Group suggestions
+            Assert.assertTrue(request(server.getPort(), "remote").containsAll(Arrays.asList("add", "show")));
+
+            // Command suggestions use the arguments separator of the CLI
+            List<String> suggestions = request(server.getPort(), "add");
+            Assert.assertTrue(suggestions.contains("-i"));
+            Assert.assertTrue(suggestions.contains("@@"));
+            Assert.assertFalse(suggestions.contains("--"));
+        }
+    }
+
+    @Test
+    public void completion_server_02() throws IOException {
+        try (CompletionServer<Runnable> server = new CompletionServer<>(prepareGit())) {
+            server.start();
+
+            // Unparseable arguments, here an option missing its value, produce
+            // no suggestions rather than an error
+            Assert.assertEquals(request(server.getPort(), "remote", "add", "-t"), Collections.emptyList());
+
+            // And the server carries on answering requests
+            Assert.assertFalse(request(server.getPort(), "add").isEmpty());
+        }
+    }
+
+    @Test
+    public void completion_server_03() throws IOException {
+        CompletionServer<Runnable> server = new CompletionServer<>(prepareGit());
+        Thread thread = server.start();
+        Assert.assertFalse(server.isClosed());
+        server.close();
+        Assert.assertTrue(server.isClosed());
+        try {
+            thread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Assert.assertFalse(thread.isAlive());
+    }
+
+    @Test
+    public void completion_server_04() throws IOException {
+        File tokenFile = Files.createTempFile("airline-completion", ".token").toFile();
+        try (CompletionServer<Runnable> server = new CompletionServer<>(prepareGit(), 0, tokenFile)) {
+            server.start();
+            Assert.assertEquals(server.getTokenFile(), tokenFile);
+            String[] tokens = new String(Files.readAllBytes(tokenFile.toPath()), UTF8).trim().split(" ");
+            Assert.assertEquals(tokens.length, 2);
+            Assert.assertNotEquals(tokens[0], tokens[1]);
+
+            // Requests without the client token are ignored
+            Assert.assertEquals(request(server.getPort(), "add"), Collections.emptyList());
+            Assert.assertEquals(authenticatedRequest(server.getPort(), "wrong", "add"), Collections.emptyList());
+
+            // Responses start with the server token
+            List<String> response = authenticatedRequest(server.getPort(), tokens[0], "remote");
+            Assert.assertEquals(response.get(0), tokens[1]);
+            Assert.assertTrue(response.subList(1, response.size()).containsAll(Arrays.asList("add", "show")));
+        }
+        Assert.assertFalse(tokenFile.exists());
+    }
+
+    @Test
+    public void completion_server_05() throws IOException {
+        try (CompletionServer<Runnable> server = new CompletionServer<>(prepareGit())) {
+            server.start();
+
+            // An idle client does not delay requests from other clients
+            try (Socket idle = new Socket(InetAddress.getByName(null), server.getPort())) {
+                long start = System.currentTimeMillis();
+                Assert.assertFalse(request(server.getPort(), "add").isEmpty());
+                Assert.assertTrue(System.currentTimeMillis() - start < 1000);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.args.Args1;
+
+public class TestFieldIndex {
+
+    private static List<String> getOptionNames(Class<?> type) {
+        List<String> names = new ArrayList<>();
+        for (OptionMetadata option : MetadataLoader.loadCommand(type).getAllOptions()) {
+            names.addAll(option.getOptions());
+        }
+        return names;
+    }
+
+    @Test
+    public void field_index_01() {
+        // Only indexed fields are considered when an index is present
+        List<String> names = getOptionNames(IndexedCommand.class);
+        Assert.assertEquals(names.size(), 1);
+        Assert.assertEquals(names.get(0), "--indexed");
+    }
+
+    @Test
+    public void field_index_stale_01() {
+        // Stale index is ignored in favour of reflection
+        List<String> names = getOptionNames(StaleIndexedCommand.class);
+        Assert.assertEquals(names.size(), 2);
+        Assert.assertTrue(names.contains("--first"));
+        Assert.assertTrue(names.contains("--second"));
+    }
+
+    @Test
+    public void field_index_missing_01() {
+        // No index so reflection is used
+        Assert.assertEquals(MetadataLoader.loadCommand(Args1.class).getAllOptions().size(), 8);
+    }
+}
@@ -0,0 +1,163 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.Git;
+import com.github.rvesse.airline.Git.Add;
+import com.github.rvesse.airline.Git.RemoteAdd;
+import com.github.rvesse.airline.Git.RemoteShow;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.DefaultOption;
+import com.github.rvesse.airline.annotations.Group;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.builder.CliBuilder;
+
+public class TestLazyCommands {
+
+    //@formatter:off
+    @com.github.rvesse.airline.annotations.Cli(name = "git", 
+                                               commands = { Add.class, Broken.class }, 
+                                               groups = { 
+                                                   @Group(name = "remote", 
+                                                          defaultCommand = RemoteShow.class,
+                                                          commands = { RemoteShow.class, RemoteAdd.class })
+                                               }, 
+                                               lazyCommands = true)
+    //@formatter:on
+    public static class LazyGit {
+    }
+
+    @Command(name = "broken")
+    public static class Broken extends Git.GitCommand {
+        @Option(name = "--value")
+        @DefaultOption
+        public String value;
+
+        @Arguments
+        public List<String> args;
+    }
+
+    private static void assertLoaded(CommandMetadata command, boolean loaded) {
+        Assert.assertTrue(command instanceof LazyCommandMetadata, command.getName() + " is not lazy");
+        Assert.assertEquals(((LazyCommandMetadata) command).isLoaded(), loaded, command.getName());
+    }
+
+    private static CommandMetadata findCommand(GlobalMetadata<?> metadata, String group, String name) {
+        if (group == null)
+            return metadata.findDefaultGroupCommand(name, false);
+        return metadata.findCommandGroup(group, false).findCommand(name, false);
+    }
+
+    @Test
+    public void lazy_commands_01() {
+        Cli<Runnable> cli = new Cli<>(LazyGit.class);
+        GlobalMetadata<Runnable> metadata = cli.getMetadata();
+
+        // Nothing loaded yet but global options known
+        assertLoaded(findCommand(metadata, null, "add"), false);
+        assertLoaded(findCommand(metadata, null, "broken"), false);
+        assertLoaded(findCommand(metadata, "remote", "show"), false);
+        assertLoaded(findCommand(metadata, "remote", "add"), false);
+        Assert.assertEquals(metadata.getOptions().size(), 1);
+        Assert.assertEquals(metadata.getOptions().get(0).getOptions(), Arrays.asList("-v"));
+
+        // Parsing only loads the command used
+        Runnable cmd = cli.parse("-v", "add", "foo", "bar");
+        Assert.assertTrue(cmd instanceof Add);
+        Assert.assertTrue(((Add) cmd).verbose);
+        Assert.assertEquals(((Add) cmd).patterns, Arrays.asList("foo", "bar"));
+        assertLoaded(findCommand(metadata, null, "add"), true);
+        assertLoaded(findCommand(metadata, null, "broken"), false);
+        assertLoaded(findCommand(metadata, "remote", "show"), false);
+        assertLoaded(findCommand(metadata, "remote", "add"), false);
+
+        // Describing a command does not load it
+        Assert.assertTrue(findCommand(metadata, "remote", "add").toString().contains("LazyCommandMetadata"));
+        assertLoaded(findCommand(metadata, "remote", "add"), false);
+    }
+
+    @Test
+    public void lazy_commands_02() {
+        Cli<Runnable> cli = new Cli<>(LazyGit.class);
+        GlobalMetadata<Runnable> metadata = cli.getMetadata();
+
+        // Group default command
+        Runnable cmd = cli.parse("remote", "-v");
+        Assert.assertTrue(cmd instanceof RemoteShow);
+        Assert.assertTrue(((RemoteShow) cmd).verbose);
+        assertLoaded(metadata.findCommandGroup("remote", false).getDefaultCommand(), true);
+        assertLoaded(findCommand(metadata, "remote", "add"), false);
+        assertLoaded(findCommand(metadata, null, "add"), false);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void lazy_commands_03() {
+        // Errors in the command annotations are only detected once the
+        // command is loaded
+        Cli<Runnable> cli = new Cli<>(LazyGit.class);
+        cli.parse("broken", "foo");
+    }
+
+    @Test
+    public void lazy_commands_04() {
+        //@formatter:off
+        CliBuilder<Runnable> builder = Cli.<Runnable>builder("git")
+                                          .withLazyCommands()
+                                          .withCommand(Add.class);
+        builder.withGroup("remote")
+               .withDefaultCommand(RemoteShow.class)
+               .withCommands(RemoteShow.class, RemoteAdd.class);
+        //@formatter:on
+        Cli<Runnable> cli = builder.build();
+        GlobalMetadata<Runnable> metadata = cli.getMetadata();
+        assertLoaded(findCommand(metadata, null, "add"), false);
+
+        Runnable cmd = cli.parse("remote", "add", "-t", "main", "origin", "example.org");
+        Assert.assertTrue(cmd instanceof RemoteAdd);
+        Assert.assertEquals(((RemoteAdd) cmd).branch, "main");
+        Assert.assertEquals(((RemoteAdd) cmd).remote, Arrays.asList("origin", "example.org"));
+        assertLoaded(findCommand(metadata, "remote", "add"), true);
+        assertLoaded(findCommand(metadata, "remote", "show"), false);
+        assertLoaded(findCommand(metadata, null, "add"), false);
+    }
+
+    @Test
+    public void lazy_commands_05() {
+        // Lazy and eager loading give equivalent meta-data
+        CommandMetadata eager = MetadataLoader.loadCommand(RemoteAdd.class);
+        CommandMetadata lazy = MetadataLoader.loadCommand(RemoteAdd.class,
+                java.util.Collections.<String, com.github.rvesse.airline.help.sections.HelpSection> emptyMap(), true);
+        Assert.assertFalse(eager instanceof LazyCommandMetadata);
+        Assert.assertEquals(lazy, eager);
+        Assert.assertEquals(lazy.getGlobalOptions(), eager.getGlobalOptions());
+        Assert.assertEquals(lazy.getGroupOptions(), eager.getGroupOptions());
+        assertLoaded(lazy, false);
+
+        Assert.assertEquals(lazy.getCommandOptions(), eager.getCommandOptions());
+        Assert.assertEquals(lazy.getAllOptions(), eager.getAllOptions());
+        Assert.assertEquals(lazy.getArguments().getTitle(), eager.getArguments().getTitle());
+        Assert.assertEquals(lazy.getHelpSections(), eager.getHelpSections());
+        assertLoaded(lazy, true);
+    }
+}
@@ -0,0 +1,268 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Group;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.help.Discussion;
+import com.github.rvesse.airline.annotations.restrictions.AllowedRawValues;
+import com.github.rvesse.airline.annotations.restrictions.MaxOccurrences;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+import com.github.rvesse.airline.help.sections.HelpSection;
+import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
+import com.github.rvesse.airline.restrictions.OptionRestriction;
+
+public class TestMetadataSnapshot {
+
+    //@formatter:off
+    @com.github.rvesse.airline.annotations.Cli(name = "snap",
+                                               defaultCommand = Build.class,
+                                               commands = { Build.class },
+                                               groups = {
+                                                   @Group(name = "remote",
+                                                          commands = { Push.class })
+                                               })
+    //@formatter:on
+    @Discussion(paragraphs = { "A CLI for testing metadata snapshots" })
+    public static class SnapshotCli {
+    }
+
+    public static class Verbosity {
+        @Option(name = "-v")
+        public boolean verbose;
+    }
+
+    @Command(name = "build")
+    @Discussion(paragraphs = { "Builds things" })
+    public static class Build {
+        @Inject
+        public Verbosity verbosity = new Verbosity();
+
+        @Option(name = "--mode")
+        @Required
+        @AllowedRawValues(allowedValues = { "fast", "slow" })
+        public String mode;
+
+        @Arguments
+        @MaxOccurrences(occurrences = 2)
+        public List<String> args;
+
+        public int unannotated;
+    }
+
+    public static class Remote {
+        @Option(name = "--remote")
+        public String remote;
+    }
+
+    @Command(name = "push")
+    public static class Push extends Remote {
+        @Option(name = "--force")
+        public boolean force;
+    }
+
+    private static List<String> describe(GlobalMetadata<?> metadata) {
+        List<String> descriptions = new ArrayList<>();
+        for (HelpSection section : metadata.getBaseHelpSections()) {
+            descriptions.add("cli section " + section.getTitle());
+        }
+        List<CommandMetadata> commands = new ArrayList<>(metadata.getDefaultGroupCommands());
+        for (CommandGroupMetadata group : metadata.getCommandGroups()) {
+            commands.addAll(group.getCommands());
+        }
+        for (CommandMetadata command : commands) {
+            descriptions.add("command " + command.getName());
+            for (HelpSection section : command.getHelpSections()) {
+                descriptions.add("section " + section.getTitle());
+            }
+            for (OptionMetadata option : command.getAllOptions()) {
+                descriptions.add("option " + option.getOptions() + " " + option.getAccessors().size());
+                for (OptionRestriction restriction : option.getRestrictions()) {
+                    descriptions.add("restriction " + restriction.getClass().getName());
+                }
+            }
+            if (command.getArguments() != null) {
+                for (ArgumentsRestriction restriction : command.getArguments().getRestrictions()) {
+                    descriptions.add("arguments restriction " + restriction.getClass().getName());
+                }
+            }
+        }
+        return descriptions;
+    }
+
+    private static File createTempDir() throws IOException {
+        File dir = Files.createTempDirectory("airline-snapshots").toFile();
+        dir.deleteOnExit();
+        return dir;
+    }
+
+    @Test
+    public void metadata_snapshot_01() throws IOException {
+        MetadataSnapshot snapshot = MetadataSnapshot.capture(SnapshotCli.class);
+        Assert.assertEquals(snapshot.getCliClassName(), SnapshotCli.class.getName());
+        Assert.assertTrue(snapshot.getClassNames().contains(Build.class.getName()));
+        Assert.assertTrue(snapshot.getClassNames().contains(Verbosity.class.getName()));
+        Assert.assertTrue(snapshot.getClassNames().contains(Push.class.getName()));
+        Assert.assertTrue(snapshot.getClassNames().contains(Remote.class.getName()));
+
+        // Round trip
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        snapshot.write(output);
+        MetadataSnapshot read = MetadataSnapshot.read(new ByteArrayInputStream(output.toByteArray()));
+        Assert.assertEquals(read.getCliClassName(), snapshot.getCliClassName());
+        Assert.assertEquals(read.getClassNames(), snapshot.getClassNames());
+        Assert.assertTrue(read.isValid(SnapshotCli.class.getClassLoader()));
+    }
+
+    @Test
+    public void metadata_snapshot_02() throws IOException {
+        List<String> expected = describe(MetadataLoader.<Object> loadGlobal(SnapshotCli.class));
+
+        File dir = createTempDir();
+        File file = new File(dir, SnapshotCli.class.getName() + MetadataSnapshot.EXTENSION);
+        file.deleteOnExit();
+        try {
+            // Cold start captures and caches the snapshot
+            GlobalMetadata<Object> cold = MetadataLoader.loadGlobal(SnapshotCli.class, null, dir);
+            Assert.assertTrue(file.isFile());
+            Assert.assertNotNull(MetadataSnapshot.getEntry(Build.class));
+            Assert.assertEquals(describe(cold), expected);
+
+            // Warm start uses the cached snapshot
+            long modified = file.lastModified();
+            GlobalMetadata<Object> warm = MetadataLoader.loadGlobal(SnapshotCli.class, null, dir);
+            Assert.assertEquals(file.lastModified(), modified);
+            Assert.assertEquals(describe(warm), expected);
+
+            Build build = (Build) new Cli<Object>(warm).parse("build", "-v", "--mode", "fast", "a");
+            Assert.assertTrue(build.verbosity.verbose);
+            Assert.assertEquals(build.mode, "fast");
+            Assert.assertEquals(build.args.size(), 1);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void metadata_snapshot_03() throws IOException {
+        MetadataSnapshot snapshot = MetadataSnapshot.capture(SnapshotCli.class);
+        ClassLoader loader = SnapshotCli.class.getClassLoader();
+        Assert.assertTrue(snapshot.isValid(loader));
+
+        // Changing a class invalidates the snapshot
+        File classFile = new File(Build.class.getProtectionDomain().getCodeSource().getLocation().getPath(),
+                Build.class.getName().replace('.', File.separatorChar) + ".class");
+        if (!classFile.isFile())
+            return;
+        long modified = classFile.lastModified();
+        try {
+            Assert.assertTrue(classFile.setLastModified(modified - 60000));
+            Assert.assertFalse(snapshot.isValid(loader));
+            Assert.assertFalse(snapshot.install(loader));
+        } finally {
+            classFile.setLastModified(modified);
+        }
+        Assert.assertTrue(snapshot.isValid(loader));
+    }
+
+    @Test
+    public void metadata_snapshot_04() throws IOException {
+        File dir = createTempDir();
+        File file = new File(dir, SnapshotCli.class.getName() + MetadataSnapshot.EXTENSION);
+        file.deleteOnExit();
+        try {
+            // Corrupt snapshots are ignored and replaced
+            try (OutputStream output = new FileOutputStream(file)) {
+                output.write(new byte[] { 1, 2, 3, 4 });
+            }
+            MetadataSnapshot snapshot = MetadataSnapshot.load(SnapshotCli.class, dir);
+            Assert.assertNotNull(snapshot);
+            Assert.assertTrue(file.length() > 4);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void metadata_snapshot_05() {
+        // Without a cache directory only shipped snapshots are used
+        Assert.assertNull(MetadataSnapshot.load(SnapshotCli.class, null));
+    }
+
+    @Test
+    public void metadata_snapshot_06() throws IOException {
+        MetadataSnapshot snapshot = MetadataSnapshot.capture(SnapshotCli.class, true);
+        Assert.assertTrue(snapshot.isBytecodeFingerprint());
+        ClassLoader loader = SnapshotCli.class.getClassLoader();
+        Assert.assertTrue(snapshot.isValid(loader));
+
+        // Bytecode fingerprints do not depend on modification times
+        File classes = new File(Build.class.getProtectionDomain().getCodeSource().getLocation().getPath());
+        File classFile = new File(classes, Build.class.getName().replace('.', File.separatorChar) + ".class");
+        if (!classFile.isFile())
+            return;
+        long modified = classFile.lastModified();
+        try {
+            Assert.assertTrue(classFile.setLastModified(modified - 60000));
+            Assert.assertTrue(snapshot.isValid(loader));
+        } finally {
+            classFile.setLastModified(modified);
+        }
+
+        // Shipped snapshots are used without a cache directory
+        File shipped = new File(classes,
+                MetadataSnapshot.RESOURCE_PREFIX + SnapshotCli.class.getName() + MetadataSnapshot.EXTENSION);
+        Assert.assertTrue(shipped.getParentFile().isDirectory() || shipped.getParentFile().mkdirs());
+        try {
+            try (OutputStream output = new FileOutputStream(shipped)) {
+                snapshot.write(output);
+            }
+            MetadataSnapshot loaded = MetadataSnapshot.load(SnapshotCli.class, null);
+            Assert.assertNotNull(loaded);
+            Assert.assertTrue(loaded.isBytecodeFingerprint());
+        } finally {
+            shipped.delete();
+        }
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void metadata_snapshot_bad_01() throws IOException {
+        MetadataSnapshot.read(new ByteArrayInputStream(new byte[] { 0, 0, 0, 0, 0, 0, 0, 1 }));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void metadata_snapshot_bad_02() {
+        MetadataSnapshot.capture(Build.class);
+    }
+}
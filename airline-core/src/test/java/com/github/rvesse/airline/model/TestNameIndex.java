@@ -0,0 +1,106 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Accessor;
+import com.github.rvesse.airline.annotations.Group;
+import com.github.rvesse.airline.args.Args1;
+import com.github.rvesse.airline.help.sections.HelpSection;
+import com.github.rvesse.airline.utils.AirlineUtils;
+import com.github.rvesse.airline.utils.predicates.parser.AbbreviatedCommandFinder;
+import com.github.rvesse.airline.utils.predicates.parser.AbbreviatedGroupFinder;
+import com.github.rvesse.airline.utils.predicates.parser.CommandFinder;
+import com.github.rvesse.airline.utils.predicates.parser.GroupFinder;
+
+public class TestNameIndex {
+
+    private static final String[] TOKENS = { "add", "a", "ad", "addition", "remove", "re", "rem", "rename", "ren",
+            "list", "l", "x", "", "removed" };
+
+    private static CommandMetadata command(String name) {
+        return new CommandMetadata(name, null, false, Collections.<OptionMetadata> emptyList(),
+                Collections.<OptionMetadata> emptyList(), Collections.<OptionMetadata> emptyList(), null, null,
+                Collections.<Accessor> emptyList(), Args1.class, Collections.<String> emptyList(),
+                Collections.<Group> emptyList(), Collections.<HelpSection> emptyList());
+    }
+
+    private static CommandGroupMetadata group(String name) {
+        return new CommandGroupMetadata(name, null, false, Collections.<OptionMetadata> emptyList(),
+                Collections.<CommandGroupMetadata> emptyList(), null, Collections.<CommandMetadata> emptyList());
+    }
+
+    @Test
+    public void name_index_commands_01() {
+        List<CommandMetadata> commands = new ArrayList<>();
+        for (String name : new String[] { "add", "addition", "remove", "rename", "list" }) {
+            commands.add(command(name));
+        }
+        CommandGroupMetadata group = new CommandGroupMetadata("group", null, false,
+                Collections.<OptionMetadata> emptyList(), Collections.<CommandGroupMetadata> emptyList(), null,
+                commands);
+
+        for (String token : TOKENS) {
+            Assert.assertEquals(group.findCommand(token, false),
+                    AirlineUtils.find(commands, new CommandFinder(token), null), "Exact lookup differs for " + token);
+            Assert.assertEquals(group.findCommand(token, true),
+                    AirlineUtils.find(commands, new AbbreviatedCommandFinder(token, commands), null),
+                    "Abbreviated lookup differs for " + token);
+        }
+    }
+
+    @Test
+    public void name_index_groups_01() {
+        List<CommandGroupMetadata> groups = new ArrayList<>();
+        for (String name : new String[] { "add", "addition", "remove", "rename", "list", "list" }) {
+            groups.add(group(name));
+        }
+        CommandGroupMetadata parent = group("parent");
+        for (CommandGroupMetadata subGroup : groups) {
+            parent.addSubGroup(subGroup);
+        }
+
+        for (String token : TOKENS) {
+            Assert.assertSame(parent.findSubGroup(token, false),
+                    AirlineUtils.find(groups, new GroupFinder(token), null), "Exact lookup differs for " + token);
+            Assert.assertSame(parent.findSubGroup(token, true),
+                    AirlineUtils.find(groups, new AbbreviatedGroupFinder(token, groups), null),
+                    "Abbreviated lookup differs for " + token);
+        }
+    }
+
+    @Test
+    public void name_index_mutation_01() {
+        CommandGroupMetadata parent = group("parent");
+        Assert.assertNull(parent.findSubGroup("child", false));
+
+        // Index must reflect groups added after a lookup
+        CommandGroupMetadata child = group("child");
+        parent.addSubGroup(child);
+        Assert.assertSame(parent.findSubGroup("child", false), child);
+        Assert.assertSame(parent.findSubGroup("ch", true), child);
+
+        CommandMetadata command = command("cmd");
+        parent.addCommand(command);
+        Assert.assertSame(parent.findCommand("cmd", false), command);
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.collections4.CollectionUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.annotations.OptionType;
+import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.restrictions.options.MutuallyExclusiveRestriction;
+import com.github.rvesse.airline.restrictions.options.RequireFromRestriction;
+import com.github.rvesse.airline.utils.AirlineUtils;
+import com.github.rvesse.airline.utils.predicates.parser.AbbreviatedOptionFinder;
+import com.github.rvesse.airline.utils.predicates.parser.OptionFinder;
+import com.github.rvesse.airline.utils.predicates.restrictions.MutuallyExclusiveWithOptionFinder;
+import com.github.rvesse.airline.utils.predicates.restrictions.RequiredTagOptionFinder;
+
+public class TestOptionIndex {
+
+    private static OptionMetadata option(String... names) {
+        return new OptionMetadata(OptionType.COMMAND, Arrays.asList(names), Arrays.asList("value"), null, 1, false,
+                false, false, null, null, null);
+    }
+
+    private static List<OptionMetadata> createOptions() {
+        List<OptionMetadata> options = new ArrayList<>();
+        options.add(option("-a", "--alpha"));
+        options.add(option("-b", "--beta", "--better"));
+        options.add(option("--bet"));
+        options.add(option("-c", "--charlie"));
+        options.add(option("--charlene"));
+        options.add(option("-v", "--verbose", "--verbosity"));
+        return options;
+    }
+
+    private void verifySameAsFinders(List<OptionMetadata> options, String name) {
+        OptionIndex index = OptionIndex.of(options);
+        Assert.assertEquals(index.find(name, false), AirlineUtils.find(options, new OptionFinder(name), null),
+                "Exact lookup differs for " + name);
+        Assert.assertEquals(index.find(name, true),
+                AirlineUtils.find(options, new AbbreviatedOptionFinder(name, options), null),
+                "Abbreviated lookup differs for " + name);
+    }
+
+    @Test
+    public void option_index_01() {
+        List<OptionMetadata> options = createOptions();
+        for (String name : new String[] { "-a", "--alpha", "--al", "--a", "-b", "--be", "--bet", "--bett", "-c",
+                "--char", "--charl", "--charle", "--charli", "--verb", "--verbosi", "-", "--", "", "-x", "--zulu",
+                "-v", "--verbose" }) {
+            verifySameAsFinders(options, name);
+        }
+    }
+
+    @Test
+    public void option_index_02() {
+        OptionIndex index = OptionIndex.of(createOptions());
+
+        Assert.assertEquals(index.find("--alp", true).getOptions().iterator().next(), "-a");
+        Assert.assertNull(index.find("--alp", false));
+        // Ambiguous abbreviations
+        Assert.assertNull(index.find("--char", true));
+        // Exact match beats abbreviations
+        Assert.assertEquals(index.find("--bet", true).getOptions().iterator().next(), "--bet");
+        // Multiple names of the same option are not ambiguous
+        Assert.assertEquals(index.find("--verbos", true).getOptions().iterator().next(), "-v");
+        Assert.assertNull(index.find(null, true));
+    }
+
+    @Test
+    public void option_index_duplicates_01() {
+        List<OptionMetadata> options = createOptions();
+        options.add(option("-a", "--alpha"));
+        for (String name : new String[] { "-a", "--alpha", "--alp", "--be" }) {
+            verifySameAsFinders(options, name);
+        }
+    }
+
+    @Test
+    public void option_index_empty_01() {
+        OptionIndex index = OptionIndex.of(new ArrayList<OptionMetadata>());
+        Assert.assertSame(index, OptionIndex.empty());
+        Assert.assertNull(index.find("--alpha", true));
+        Assert.assertSame(OptionIndex.of(index), index);
+    }
+
+    private static OptionMetadata taggedOption(String name, OptionRestriction... restrictions) {
+        return new OptionMetadata(OptionType.COMMAND, Arrays.asList(name), Arrays.asList("value"), null, 1, false,
+                false, false, Arrays.asList(restrictions), null, null);
+    }
+
+    @Test
+    public void option_index_tags_01() {
+        List<OptionMetadata> options = new ArrayList<>();
+        options.add(taggedOption("-a", new MutuallyExclusiveRestriction("ab")));
+        options.add(
+                taggedOption("-b", new MutuallyExclusiveRestriction("ab"), new MutuallyExclusiveRestriction("ab")));
+        options.add(taggedOption("-c", new RequireFromRestriction("cd", false)));
+        options.add(
+                taggedOption("-d", new RequireFromRestriction("cd", true), new MutuallyExclusiveRestriction("other")));
+        options.add(taggedOption("-e"));
+        OptionIndex index = OptionIndex.of(options);
+
+        // Tag lookups should be identical to scanning with the predicates
+        for (String tag : new String[] { "ab", "cd", "other", "none", null }) {
+            Assert.assertEquals(index.getMutuallyExclusiveOptions(tag),
+                    new ArrayList<>(CollectionUtils.select(options, new MutuallyExclusiveWithOptionFinder(tag))),
+                    "Mutually exclusive options differ for " + tag);
+            Assert.assertEquals(index.getRequiredFromOptions(tag),
+                    new ArrayList<>(CollectionUtils.select(options, new RequiredTagOptionFinder(tag))),
+                    "Required from options differ for " + tag);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.args.Args1;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.parser.aliases.AliasArgumentsParser;
+import com.github.rvesse.airline.parser.errors.ParseArgumentFileException;
+import com.github.rvesse.airline.parser.errors.handlers.CollectAll;
+
+public class TestArgumentFiles {
+
+    private static File createFile(String contents) throws IOException {
+        File f = File.createTempFile("args", ".txt");
+        f.deleteOnExit();
+        Files.write(f.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+        return f;
+    }
+
+    private static List<String> tokenize(String contents) {
+        List<String> tokens = new ArrayList<>();
+        try (ArgumentFileTokenizer tokenizer = new ArgumentFileTokenizer("test", new StringReader(contents))) {
+            while (tokenizer.hasNext()) {
+                tokens.add(tokenizer.next());
+            }
+        }
+        return tokens;
+    }
+
+    @Test
+    public void argument_file_tokenizer_01() {
+        for (String contents : new String[] { "", "   ", "a", "a b  c", " a\tb\nc\r\n", "\"a b\" c", "\"a \\\"b\\\"\"",
+                "a\\ b c", "a\\b", "a\"b", "\"\"", "\"a\"b", "trailing\\", "\"x\\y\"" }) {
+            Assert.assertEquals(tokenize(contents), AliasArgumentsParser.parse(contents),
+                    "Tokenization differs for " + contents);
+        }
+    }
+
+    @Test
+    public void argument_file_tokenizer_02() {
+        // Tokens spanning the read buffer boundaries
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            builder.append("\"token ").append(i).append("\" value\\ ").append(i).append(' ');
+        }
+        String contents = builder.toString();
+        Assert.assertEquals(tokenize(contents), AliasArgumentsParser.parse(contents));
+    }
+
+    @Test(expectedExceptions = ParseArgumentFileException.class)
+    public void argument_file_tokenizer_bad_01() {
+        tokenize("a \"b");
+    }
+
+    @Test
+    public void argument_file_01() throws IOException {
+        File f = createFile("-long 5\na \"b c\"\n");
+        SingleCommand<Args1> parser = SingleCommand.singleCommand(Args1.class,
+                new ParserBuilder<Args1>().withArgumentFiles().build());
+
+        Args1 cmd = parser.parse("-debug", "@" + f.getAbsolutePath(), "d");
+        Assert.assertTrue(cmd.debug);
+        Assert.assertEquals(cmd.l, 5L);
+        Assert.assertEquals(cmd.parameters, Arrays.asList("a", "b c", "d"));
+    }
+
+    @Test
+    public void argument_file_02() throws IOException {
+        File f = createFile("-long 5");
+        SingleCommand<Args1> parser = SingleCommand.singleCommand(Args1.class,
+                new ParserBuilder<Args1>().withArgumentFilePrefix("+").build());
+
+        // Escaped and bare prefixes are not expanded
+        Args1 cmd = parser.parse("+" + f.getAbsolutePath(), "++foo", "+", "@foo");
+        Assert.assertEquals(cmd.l, 5L);
+        Assert.assertEquals(cmd.parameters, Arrays.asList("+foo", "+", "@foo"));
+    }
+
+    @Test
+    public void argument_file_03() {
+        // Disabled by default
+        Args1 cmd = SingleCommand.singleCommand(Args1.class).parse("@foo");
+        Assert.assertEquals(cmd.parameters, Arrays.asList("@foo"));
+    }
+
+    @Test
+    public void argument_file_large_01() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 200000; i++) {
+            builder.append("/some/path/").append(i).append('\n');
+        }
+        File f = createFile(builder.toString());
+        SingleCommand<Args1> parser = SingleCommand.singleCommand(Args1.class,
+                new ParserBuilder<Args1>().withArgumentFiles().build());
+
+        Args1 cmd = parser.parse("@" + f.getAbsolutePath());
+        Assert.assertEquals(cmd.parameters.size(), 200000);
+        Assert.assertEquals(cmd.parameters.get(199999), "/some/path/199999");
+    }
+
+    @Test(expectedExceptions = ParseArgumentFileException.class)
+    public void argument_file_missing_01() {
+        SingleCommand<Args1> parser = SingleCommand.singleCommand(Args1.class,
+                new ParserBuilder<Args1>().withArgumentFiles().build());
+        parser.parse("@/no/such/file");
+    }
+
+    @Test
+    public void argument_file_missing_02() throws IOException {
+        File bad = createFile("a \"b");
+        SingleCommand<Args1> parser = SingleCommand.singleCommand(Args1.class,
+                new ParserBuilder<Args1>().withArgumentFiles().withErrorHandler(new CollectAll()).build());
+
+        ParseResult<Args1> result = parser.parseWithResult("@/no/such/file", "@" + bad.getAbsolutePath(), "c");
+        Assert.assertFalse(result.wasSuccessful());
+        Assert.assertEquals(result.getErrors().size(), 2);
+        for (Exception e : result.getErrors()) {
+            Assert.assertTrue(e instanceof ParseArgumentFileException);
+        }
+        Assert.assertEquals(((ParseArgumentFileException) result.getErrors().iterator().next()).getFile(),
+                "/no/such/file");
+        // Tokens before the error are still used
+        Assert.assertEquals(result.getCommand().parameters, Arrays.asList("a", "c"));
+    }
+}
@@ -0,0 +1,182 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.ranges.IntegerRange;
+import com.github.rvesse.airline.parser.errors.ParseOptionConversionException;
+import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
+import com.github.rvesse.airline.types.DefaultTypeConverter;
+import com.github.rvesse.airline.types.ConvertResult;
+import com.github.rvesse.airline.types.numerics.DefaultNumericConverter;
+import com.github.rvesse.airline.types.numerics.abbreviated.KiloAs1024;
+import com.github.rvesse.airline.types.numerics.bases.Hexadecimal;
+
+public class TestArrayBinding {
+
+    @Command(name = "ints")
+    public static class IntsCommand {
+        @Option(name = "--id")
+        public long[] ids;
+
+        @Arguments
+        public int[] values;
+    }
+
+    @Command(name = "doubles")
+    public static class DoublesCommand {
+        @Option(name = "--flag", arity = 1)
+        public boolean[] flags;
+
+        @Arguments
+        public double[] values;
+    }
+
+    @Command(name = "hex")
+    public static class HexCommand {
+        @Option(name = "--size", typeConverterProvider = KiloAs1024.class)
+        public long[] sizes;
+
+        @Arguments(typeConverterProvider = Hexadecimal.class)
+        public int[] values;
+    }
+
+    @Command(name = "range")
+    public static class RangeCommand {
+        @Arguments
+        @IntegerRange(min = 0, max = 10)
+        public int[] values;
+    }
+
+    @Command(name = "custom")
+    public static class CustomCommand {
+        @Arguments(typeConverterProvider = Doubling.class)
+        public int[] values;
+    }
+
+    /**
+     * Numeric converter which overrides a boxed conversion so must not use
+     * the primitive conversions
+     */
+    public static class Doubling extends DefaultNumericConverter {
+        @Override
+        protected ConvertResult tryConvertInteger(String name, String value) {
+            return new ConvertResult(Integer.parseInt(value) * 2);
+        }
+    }
+
+    @Test
+    public void array_binding_01() {
+        IntsCommand cmd = SingleCommand.singleCommand(IntsCommand.class).parse("--id", "1", "--id", "12345678901",
+                "1", "2", "3");
+        Assert.assertEquals(cmd.ids, new long[] { 1, 12345678901l });
+        Assert.assertEquals(cmd.values, new int[] { 1, 2, 3 });
+    }
+
+    @Test
+    public void array_binding_02() {
+        IntsCommand cmd = SingleCommand.singleCommand(IntsCommand.class).parse();
+        Assert.assertNull(cmd.ids);
+        Assert.assertNull(cmd.values);
+    }
+
+    @Test
+    public void array_binding_03() {
+        // Enough values to require the buffers to grow several times
+        String[] args = new String[1000];
+        int[] expected = new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = Integer.toString(i - 500);
+            expected[i] = i - 500;
+        }
+        IntsCommand cmd = SingleCommand.singleCommand(IntsCommand.class).parse(args);
+        Assert.assertEquals(cmd.values, expected);
+    }
+
+    @Test
+    public void array_binding_04() {
+        DoublesCommand cmd = SingleCommand.singleCommand(DoublesCommand.class).parse("--flag", "true", "--flag",
+                "false", "1.5", "-2.25");
+        Assert.assertTrue(Arrays.equals(cmd.flags, new boolean[] { true, false }));
+        Assert.assertTrue(Arrays.equals(cmd.values, new double[] { 1.5, -2.25 }));
+    }
+
+    @Test
+    public void array_binding_05() {
+        HexCommand cmd = SingleCommand.singleCommand(HexCommand.class).parse("--size", "4k", "--size", "1mb", "ff",
+                "10");
+        Assert.assertEquals(cmd.sizes, new long[] { 4096, 1024 * 1024 });
+        Assert.assertEquals(cmd.values, new int[] { 255, 16 });
+    }
+
+    @Test(expectedExceptions = ParseOptionConversionException.class)
+    public void array_binding_bad_01() {
+        SingleCommand.singleCommand(IntsCommand.class).parse("1", "foo");
+    }
+
+    @Test(expectedExceptions = ParseOptionConversionException.class)
+    public void array_binding_bad_02() {
+        // Out of range for an int
+        SingleCommand.singleCommand(IntsCommand.class).parse("12345678901");
+    }
+
+    @Test(expectedExceptions = ParseOptionConversionException.class)
+    public void array_binding_bad_03() {
+        // Not valid hexadecimal
+        SingleCommand.singleCommand(HexCommand.class).parse("fg");
+    }
+
+    @Test
+    public void array_binding_restricted_01() {
+        RangeCommand cmd = SingleCommand.singleCommand(RangeCommand.class).parse("0", "5", "10");
+        Assert.assertEquals(cmd.values, new int[] { 0, 5, 10 });
+    }
+
+    @Test(expectedExceptions = ParseRestrictionViolatedException.class)
+    public void array_binding_restricted_02() {
+        SingleCommand.singleCommand(RangeCommand.class).parse("0", "11");
+    }
+
+    @Test
+    public void array_binding_custom_01() {
+        CustomCommand cmd = SingleCommand.singleCommand(CustomCommand.class).parse("1", "2");
+        Assert.assertEquals(cmd.values, new int[] { 2, 4 });
+    }
+
+    @Test
+    public void array_binding_converter_01() {
+        DefaultTypeConverter converter = new DefaultTypeConverter(new KiloAs1024());
+        Assert.assertEquals(converter.convertLong("test", Long.TYPE, "2k"), 2048l);
+        Assert.assertEquals(converter.convertLong("test", Long.TYPE, "2k"),
+                ((Long) converter.convert("test", Long.TYPE, "2k")).longValue());
+        Assert.assertEquals(converter.convertDouble("test", Float.TYPE, "1.5k"), 1536d);
+        Assert.assertTrue(converter.convertBoolean("test", Boolean.TYPE, "true"));
+    }
+
+    @Test(expectedExceptions = ParseOptionConversionException.class)
+    public void array_binding_converter_02() {
+        // Out of range for a byte
+        new DefaultTypeConverter(new KiloAs1024()).convertLong("test", Byte.TYPE, "1k");
+    }
+}
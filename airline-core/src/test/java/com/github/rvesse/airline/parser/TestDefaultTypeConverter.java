@@ -191,4 +191,66 @@ public class TestDefaultTypeConverter {
             Assert.assertEquals(converted, item);
         }
     }
+
+    @Test(expectedExceptions = ParseOptionConversionException.class)
+    public void convert_enum_bad_value() {
+        testConvert(ConversionEnum.class, "baz");
+    }
+
+    @Test
+    public void convert_enum_after_failure() {
+        // Failed conversions must not poison the cached conversion for the type
+        try {
+            testConvert(ConversionEnum.class, "baz");
+            Assert.fail("Expected conversion to fail");
+        } catch (ParseOptionConversionException e) {
+            // Expected
+        }
+        Assert.assertEquals(testConvert(ConversionEnum.class, "FOO"), ConversionEnum.FOO);
+    }
+
+    public static class FallbackConversion extends ConversionExample {
+
+        public FallbackConversion(String value) {
+            super(value);
+        }
+
+        public static FallbackConversion fromString(String value) {
+            if (value.startsWith("from:"))
+                return new FallbackConversion(value.substring(5));
+            throw new IllegalArgumentException("Not a from value");
+        }
+    }
+
+    @Test
+    public void convert_fallback_to_constructor() {
+        // Conversion strategies are still tried in order for each value
+        FallbackConversion converted = testConvert(FallbackConversion.class, "from:test");
+        Assert.assertEquals(converted.value, "test");
+        converted = testConvert(FallbackConversion.class, "test");
+        Assert.assertEquals(converted.value, "test");
+    }
+
+    public static class InstanceValueOf {
+        public InstanceValueOf valueOf(String value) {
+            return this;
+        }
+    }
+
+    @Test(expectedExceptions = ParseOptionConversionException.class)
+    public void convert_instance_method_failure() {
+        testConvert(InstanceValueOf.class, "test");
+    }
+
+    @Test
+    public void convert_unsupported_type_repeated_failure() {
+        for (int i = 0; i < 10; i++) {
+            try {
+                testConvert(Unconvertible.class, "test");
+                Assert.fail("Expected conversion to fail");
+            } catch (ParseOptionConversionException e) {
+                // Expected
+            }
+        }
+    }
 }
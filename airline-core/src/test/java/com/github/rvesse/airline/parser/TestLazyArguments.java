@@ -0,0 +1,160 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.NotBlank;
+import com.github.rvesse.airline.annotations.restrictions.Partial;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+import com.github.rvesse.airline.annotations.restrictions.ranges.IntegerRange;
+import com.github.rvesse.airline.parser.errors.ParseArgumentsMissingException;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
+
+public class TestLazyArguments {
+
+    @Command(name = "lazy")
+    public static class LazyCommand {
+        @Option(name = "-v")
+        public boolean verbose;
+
+        @Arguments
+        @IntegerRange(min = 0, max = 10)
+        public Iterator<Integer> values;
+    }
+
+    @Command(name = "lazy-required")
+    public static class LazyRequiredCommand {
+        @Arguments
+        @Required
+        public Iterator<String> values;
+    }
+
+    @Command(name = "lazy-partial")
+    public static class LazyPartialCommand {
+        @Arguments
+        @Partial(appliesTo = { 1 }, restriction = NotBlank.class)
+        @NotBlank
+        public Iterator<String> values;
+    }
+
+    private static <T> List<T> toList(Iterator<T> iter) {
+        List<T> values = new ArrayList<>();
+        while (iter.hasNext()) {
+            values.add(iter.next());
+        }
+        return values;
+    }
+
+    @Test
+    public void lazy_arguments_01() {
+        LazyCommand cmd = SingleCommand.singleCommand(LazyCommand.class).parse("1", "-v", "2", "3");
+        Assert.assertTrue(cmd.verbose);
+        Assert.assertEquals(toList(cmd.values), Arrays.asList(1, 2, 3));
+    }
+
+    @Test
+    public void lazy_arguments_02() {
+        // No arguments leaves the field alone
+        LazyCommand cmd = SingleCommand.singleCommand(LazyCommand.class).parse("-v");
+        Assert.assertNull(cmd.values);
+        Assert.assertTrue(SingleCommand.singleCommand(LazyCommand.class).getCommandMetadata().getArguments()
+                .isLazy());
+    }
+
+    @Test
+    public void lazy_arguments_state_01() {
+        // Parsed arguments are the converted values even when lazy
+        ParseResult<LazyCommand> result = SingleCommand.singleCommand(LazyCommand.class).parseWithResult("1", "2",
+                "3");
+        List<Object> parsed = result.getState().getParsedArguments();
+        Assert.assertEquals(parsed.size(), 3);
+        Assert.assertEquals(parsed, Arrays.<Object> asList(1, 2, 3));
+
+        // Conversion errors surface on access but the size is still known
+        parsed = SingleCommand.singleCommand(LazyCommand.class).parseWithResult("1", "foo").getState()
+                .getParsedArguments();
+        Assert.assertEquals(parsed.size(), 2);
+        Assert.assertEquals(parsed.get(0), 1);
+        try {
+            parsed.get(1);
+            Assert.fail("Expected a conversion error");
+        } catch (ParseException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void lazy_arguments_conversion_01() {
+        // Conversion is deferred so parsing succeeds
+        LazyCommand cmd = SingleCommand.singleCommand(LazyCommand.class).parse("1", "foo", "3");
+        Assert.assertEquals(cmd.values.next().intValue(), 1);
+        try {
+            cmd.values.next();
+            Assert.fail("Expected a conversion error");
+        } catch (ParseException e) {
+            // Expected
+        }
+        Assert.assertEquals(cmd.values.next().intValue(), 3);
+    }
+
+    @Test
+    public void lazy_arguments_restriction_01() {
+        LazyCommand cmd = SingleCommand.singleCommand(LazyCommand.class).parse("1", "11");
+        Assert.assertEquals(cmd.values.next().intValue(), 1);
+        try {
+            cmd.values.next();
+            Assert.fail("Expected a restriction violation");
+        } catch (ParseRestrictionViolatedException e) {
+            // Expected
+        }
+    }
+
+    @Test(expectedExceptions = ParseArgumentsMissingException.class)
+    public void lazy_arguments_restriction_02() {
+        // Final validation still happens during parsing
+        SingleCommand.singleCommand(LazyRequiredCommand.class).parse();
+    }
+
+    @Test
+    public void lazy_arguments_restriction_03() {
+        // Restrictions see each value at its original position
+        LazyPartialCommand cmd = SingleCommand.singleCommand(LazyPartialCommand.class).parse(" ", "a", " ");
+        Assert.assertEquals(cmd.values.next(), " ");
+        Assert.assertEquals(cmd.values.next(), "a");
+        Assert.assertEquals(cmd.values.next(), " ");
+
+        cmd = SingleCommand.singleCommand(LazyPartialCommand.class).parse("a", " ");
+        cmd.values.next();
+        try {
+            cmd.values.next();
+            Assert.fail("Expected a restriction violation");
+        } catch (ParseRestrictionViolatedException e) {
+            // Expected
+        }
+    }
+}
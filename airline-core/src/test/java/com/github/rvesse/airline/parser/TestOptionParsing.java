@@ -16,17 +16,24 @@
 package com.github.rvesse.airline.parser;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+import org.apache.commons.collections4.iterators.PeekingIterator;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.Context;
 import com.github.rvesse.airline.annotations.Arguments;
 import com.github.rvesse.airline.annotations.Command;
 import com.github.rvesse.airline.annotations.DefaultOption;
 import com.github.rvesse.airline.annotations.Option;
 import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.model.OptionIndex;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.errors.ParseArgumentsUnexpectedException;
 import com.github.rvesse.airline.parser.errors.ParseOptionMissingValueException;
 import com.github.rvesse.airline.parser.errors.ParseOptionUnexpectedException;
@@ -36,7 +43,9 @@ import com.github.rvesse.airline.parser.options.ListValueOptionParser;
 import com.github.rvesse.airline.parser.options.LongGetOptParser;
 import com.github.rvesse.airline.parser.options.MaybeListValueOptionParser;
 import com.github.rvesse.airline.parser.options.MaybePairValueOptionParser;
+import com.github.rvesse.airline.parser.options.OptionParser;
 import com.github.rvesse.airline.parser.options.StandardOptionParser;
+import com.github.rvesse.airline.parser.options.TokenShape;
 
 public class TestOptionParsing {
 
@@ -660,4 +669,78 @@ public class TestOptionParsing {
         //@formatter:on
         return builder.build();
     }
+
+    @Test
+    public void option_parsing_token_shape_01() {
+        Cli<OptionParsing> parser = createDefaultParser(OptionParsing.class);
+        List<OptionMetadata> options = parser.getMetadata().getDefaultGroupCommands().get(0).getAllOptions();
+
+        Assert.assertEquals(TokenShape.classify("-a", options, "--"), TokenShape.SHORT);
+        Assert.assertEquals(TokenShape.classify("-abc", options, "--"), TokenShape.SHORT);
+        Assert.assertEquals(TokenShape.classify("--beta=foo", options, "--"), TokenShape.LONG);
+        Assert.assertEquals(TokenShape.classify("-", options, "--"), TokenShape.OTHER);
+        Assert.assertEquals(TokenShape.classify("--", options, "--"), TokenShape.NON_OPTION);
+        Assert.assertEquals(TokenShape.classify("--", options, "@@"), TokenShape.OTHER);
+        Assert.assertEquals(TokenShape.classify("", options, "--"), TokenShape.NON_OPTION);
+        Assert.assertEquals(TokenShape.classify("foo", options, "--"), TokenShape.NON_OPTION);
+
+        // Without an index we can't rule out option names
+        Assert.assertEquals(TokenShape.classify("foo", new ArrayList<OptionMetadata>(options), "--"),
+                TokenShape.OTHER);
+    }
+
+    @Test
+    public void option_parsing_token_shape_02() {
+        ParserMetadata<OptionParsing> config = createDefaultParser(OptionParsing.class).getMetadata()
+                .getParserConfiguration();
+
+        // Default parsers never see tokens that can't be options
+        Assert.assertTrue(config.getOptionParsers(TokenShape.NON_OPTION).isEmpty());
+        Assert.assertEquals(config.getOptionParsers(TokenShape.SHORT).size(), config.getOptionParsers().size());
+        for (OptionParser<OptionParsing> optionParser : config.getOptionParsers(TokenShape.LONG)) {
+            Assert.assertFalse(optionParser instanceof ClassicGetOptParser);
+        }
+    }
+
+    @Test
+    public void option_parsing_token_shape_03() {
+        // Custom option parsers are offered every token
+        //@formatter:off
+        CliBuilder<OptionAndArgumentParsing> builder = Cli.<OptionAndArgumentParsing>builder("test")
+                                                          .withCommand(OptionAndArgumentParsing.class);
+        builder.withParser()
+               .withOptionParser(new OptionParser<OptionAndArgumentParsing>() {
+                   @Override
+                   public ParseState<OptionAndArgumentParsing> parseOptions(PeekingIterator<String> tokens,
+                           ParseState<OptionAndArgumentParsing> state, List<OptionMetadata> allowedOptions) {
+                       if (!tokens.peek().equals("+a"))
+                           return null;
+                       tokens.next();
+                       OptionMetadata alpha = ((OptionIndex) allowedOptions).find("-a", false);
+                       return state.pushContext(Context.OPTION).withOption(alpha).withOptionValue(alpha, "true")
+                               .popContext();
+                   }
+               })
+               .withDefaultOptionParsers();
+        //@formatter:on
+        OptionAndArgumentParsing cmd = testParsing(builder.build(), "OptionParsing1", "+a", "--beta=foo", "bar");
+
+        Assert.assertTrue(cmd.alpha);
+        Assert.assertEquals(cmd.beta, "foo");
+        Assert.assertEquals(cmd.args, Collections.singletonList("bar"));
+    }
+
+    @Test
+    public void option_parsing_token_shape_04() {
+        Cli<OptionAndArgumentParsing> parser = createLongGetOptParser(OptionAndArgumentParsing.class);
+
+        // Repeated separators are a single separator
+        OptionAndArgumentParsing cmd = testParsing(parser, "OptionParsing1", "--beta==foo=bar");
+        Assert.assertEquals(cmd.beta, "foo=bar");
+
+        // Name value options must have a name and a value
+        cmd = testParsing(parser, "OptionParsing1", "--beta=", "=foo");
+        Assert.assertNull(cmd.beta);
+        Assert.assertEquals(cmd.args, Arrays.asList("--beta=", "=foo"));
+    }
 }
@@ -0,0 +1,194 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.collections4.CollectionUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Context;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.MutuallyExclusiveWith;
+import com.github.rvesse.airline.annotations.restrictions.RequireSome;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.utils.predicates.parser.ParsedOptionFinder;
+import com.github.rvesse.airline.utils.predicates.restrictions.MutuallyExclusiveWithTagParsedOptionFinder;
+import com.github.rvesse.airline.utils.predicates.restrictions.RequiredTagParsedOptionFinder;
+
+public class TestParseState {
+
+    @Command(name = "state")
+    public static class StateCommand {
+        @Option(name = "-a")
+        public List<String> values;
+
+        @Arguments
+        public List<String> args;
+    }
+
+    @Command(name = "tagged")
+    public static class TaggedCommand {
+        @Option(name = "-a")
+        @MutuallyExclusiveWith(tag = "ab")
+        public List<String> a;
+
+        @Option(name = "-b")
+        @MutuallyExclusiveWith(tag = "ab")
+        public List<String> b;
+
+        @Option(name = "-c")
+        @RequireSome(tag = "cd")
+        public List<String> c;
+
+        @Option(name = "-d")
+        @RequireSome(tag = "cd")
+        @MutuallyExclusiveWith(tag = "ab")
+        public List<String> d;
+    }
+
+    private OptionMetadata getOption() {
+        return SingleCommand.singleCommand(StateCommand.class).getCommandMetadata().getAllOptions().get(0);
+    }
+
+    @Test
+    public void append_only_list_01() {
+        AppendOnlyList<String> empty = AppendOnlyList.empty();
+        AppendOnlyList<String> a = empty.append("a");
+        AppendOnlyList<String> ab = a.append("b");
+
+        Assert.assertEquals(empty.size(), 0);
+        Assert.assertEquals(a, Arrays.asList("a"));
+        Assert.assertEquals(ab, Arrays.asList("a", "b"));
+        Assert.assertTrue(ab.isLatest());
+        Assert.assertFalse(a.isLatest());
+    }
+
+    @Test
+    public void append_only_list_branching_01() {
+        AppendOnlyList<String> a = AppendOnlyList.<String> empty().append("a");
+        AppendOnlyList<String> ab = a.append("b");
+        AppendOnlyList<String> ac = a.append("c");
+
+        // Branching must not affect either list
+        Assert.assertEquals(ab, Arrays.asList("a", "b"));
+        Assert.assertEquals(ac, Arrays.asList("a", "c"));
+        Assert.assertEquals(a, Arrays.asList("a"));
+        Assert.assertTrue(ab.isLatest());
+        Assert.assertTrue(ac.isLatest());
+    }
+
+    @Test
+    public void append_only_list_growth_01() {
+        AppendOnlyList<Integer> list = AppendOnlyList.empty();
+        for (int i = 0; i < 10000; i++) {
+            list = list.append(i);
+        }
+        Assert.assertEquals(list.size(), 10000);
+        for (int i = 0; i < 10000; i++) {
+            Assert.assertEquals(list.get(i).intValue(), i);
+        }
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void append_only_list_bad_index_01() {
+        AppendOnlyList<String> a = AppendOnlyList.<String> empty().append("a");
+        a.append("b");
+        a.get(1);
+    }
+
+    @Test
+    public void parse_state_option_values_branching_01() {
+        OptionMetadata option = getOption();
+        ParseState<StateCommand> base = ParseState.<StateCommand> newInstance().pushContext(Context.GLOBAL);
+        ParseState<StateCommand> first = base.withOptionValue(option, "a");
+        ParseState<StateCommand> second = first.withOptionValue(option, "b");
+
+        // Discard second and branch from first instead
+        ParseState<StateCommand> branch = first.withOptionValue(option, "c").withOptionValue(option, "d");
+
+        Assert.assertEquals(base.getOptionValuesSeen(option), 0);
+        Assert.assertEquals(first.getOptionValuesSeen(option), 1);
+        Assert.assertEquals(second.getOptionValuesSeen(option), 2);
+        Assert.assertEquals(branch.getOptionValuesSeen(option), 3);
+
+        Assert.assertEquals(second.getParsedOptions().get(1).getRight(), "b");
+        Assert.assertEquals(branch.getParsedOptions().get(1).getRight(), "c");
+        Assert.assertEquals(branch.getParsedOptions().get(2).getRight(), "d");
+        Assert.assertEquals(base.getParsedOptions().size(), 0);
+    }
+
+    @Test
+    public void parse_state_context_01() {
+        ParseState<StateCommand> global = ParseState.<StateCommand> newInstance().pushContext(Context.GLOBAL);
+        ParseState<StateCommand> command = global.pushContext(Context.COMMAND);
+        ParseState<StateCommand> option = command.pushContext(Context.OPTION);
+
+        Assert.assertEquals(global.getLocation(), Context.GLOBAL);
+        Assert.assertEquals(command.getLocation(), Context.COMMAND);
+        Assert.assertEquals(option.getLocation(), Context.OPTION);
+        Assert.assertEquals(option.popContext().getLocation(), Context.COMMAND);
+        Assert.assertEquals(option.popContext().popContext().getLocation(), Context.GLOBAL);
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void parse_state_context_02() {
+        ParseState.newInstance().getLocation();
+    }
+
+    @Test
+    public void parse_state_many_arguments_01() {
+        String[] args = new String[50000];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = Integer.toString(i);
+        }
+
+        StateCommand cmd = SingleCommand.singleCommand(StateCommand.class).parse(args);
+        Assert.assertEquals(cmd.args.size(), args.length);
+        Assert.assertEquals(cmd.args.get(args.length - 1), args[args.length - 1]);
+    }
+
+    @Test
+    public void parsed_option_counts_01() {
+        List<OptionMetadata> options = SingleCommand.singleCommand(TaggedCommand.class).getCommandMetadata()
+                .getAllOptions();
+        ParseState<TaggedCommand> state = ParseState.<TaggedCommand> newInstance().pushContext(Context.GLOBAL);
+        // -a twice, -c once, -d once
+        for (int i : new int[] { 0, 0, 2, 3 }) {
+            state = state.withOptionValue(options.get(i), "x");
+        }
+
+        // Counts should match those computed by the predicates
+        ParsedOptionCounts counts = state.getParsedOptionCounts();
+        Assert.assertSame(state.getParsedOptionCounts(), counts);
+        for (OptionMetadata option : options) {
+            Assert.assertEquals(counts.count(option),
+                    CollectionUtils.countMatches(state.getParsedOptions(), new ParsedOptionFinder(option)));
+        }
+        for (String tag : new String[] { "ab", "cd", "none", null }) {
+            Assert.assertEquals(counts.countMutuallyExclusive(tag), CollectionUtils
+                    .countMatches(state.getParsedOptions(), new MutuallyExclusiveWithTagParsedOptionFinder(tag)));
+            Assert.assertEquals(counts.countRequiredFrom(tag), CollectionUtils
+                    .countMatches(state.getParsedOptions(), new RequiredTagParsedOptionFinder(tag)));
+        }
+        Assert.assertEquals(counts.getOptions().size(), 3);
+    }
+}
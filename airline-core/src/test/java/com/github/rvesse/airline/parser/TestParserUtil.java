@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Accessor;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.model.OptionMetadata;
+
+public class TestParserUtil {
+
+    @Command(name = "inject")
+    public static class InjectCommand {
+        @Option(name = "-D", arity = 2)
+        public List<String> properties;
+
+        @Option(name = "-v")
+        public int verbosity;
+    }
+
+    private static OptionMetadata copy(OptionMetadata option) {
+        return new OptionMetadata(Collections.singletonList(option));
+    }
+
+    @Test
+    public void group_option_values_01() {
+        List<OptionMetadata> options = SingleCommand.singleCommand(InjectCommand.class).getCommandMetadata()
+                .getAllOptions();
+        OptionMetadata a = options.get(0);
+        OptionMetadata b = options.get(1);
+        OptionMetadata aCopy = copy(a);
+        Assert.assertNotSame(aCopy, a);
+        Assert.assertEquals(aCopy, a);
+
+        List<Pair<OptionMetadata, Object>> parsed = new ArrayList<>();
+        parsed.add(Pair.<OptionMetadata, Object> of(a, "1"));
+        parsed.add(Pair.<OptionMetadata, Object> of(b, 1));
+        parsed.add(Pair.<OptionMetadata, Object> of(aCopy, "2"));
+        parsed.add(Pair.<OptionMetadata, Object> of(a, "3"));
+        parsed.add(Pair.<OptionMetadata, Object> of(b, 2));
+
+        // Equal instances share values and parse order is preserved
+        Map<OptionMetadata, List<Object>> values = ParserUtil.groupOptionValues(parsed);
+        Assert.assertEquals(values.size(), 2);
+        Assert.assertEquals(values.get(a), Arrays.<Object> asList("1", "2", "3"));
+        Assert.assertEquals(values.get(aCopy), Arrays.<Object> asList("1", "2", "3"));
+        Assert.assertEquals(values.get(b), Arrays.<Object> asList(1, 2));
+    }
+
+    @Test
+    public void inject_options_01() {
+        List<OptionMetadata> options = SingleCommand.singleCommand(InjectCommand.class).getCommandMetadata()
+                .getAllOptions();
+        List<Pair<OptionMetadata, Object>> parsed = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            parsed.add(Pair.<OptionMetadata, Object> of(options.get(0), "key" + i));
+            parsed.add(Pair.<OptionMetadata, Object> of(options.get(1), i));
+        }
+
+        InjectCommand cmd = ParserUtil.injectOptions(new InjectCommand(), options, parsed, null, null,
+                Collections.<Accessor> emptyList(), Collections.<Class<?>, Object> emptyMap());
+        Assert.assertEquals(cmd.properties.size(), 10000);
+        Assert.assertEquals(cmd.properties.get(9999), "key9999");
+        Assert.assertEquals(cmd.verbosity, 9999);
+    }
+}
@@ -15,12 +15,16 @@
  */
 package com.github.rvesse.airline.parser.aliases;
 
+import java.util.Arrays;
+import java.util.Iterator;
+
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import com.github.rvesse.airline.Cli;
 import com.github.rvesse.airline.args.Args1;
 import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.model.AliasMetadata;
 import com.github.rvesse.airline.parser.errors.ParseAliasCircularReferenceException;
 import com.github.rvesse.airline.parser.errors.ParseOptionConversionException;
 
@@ -213,4 +217,69 @@ public class TestAliasResolver {
         
         builder.build().parse("a");
     }
+
+    @Test
+    public void alias_resolution_positional_08() {
+        //@formatter:off
+        CliBuilder<Args1> builder = prepareBuilder();
+        builder.withParser()
+               .withAlias("a")
+               .withArguments("-groups", "$2", "-long", "$2");
+        //@formatter:on
+
+        // Unused positionals pass through in order ahead of the remaining
+        // tokens
+        Args1 cmd = builder.build().parse("a", "x", "7", "y", "z");
+        Assert.assertEquals(cmd.groups, "7");
+        Assert.assertEquals(cmd.l, 7l);
+        Assert.assertEquals(cmd.parameters, Arrays.asList("x", "y", "z"));
+    }
+
+    @Test
+    public void alias_resolution_chained_04() {
+        //@formatter:off
+        CliBuilder<Args1> builder = prepareBuilder();
+        builder.withParser()
+               .withAlias("a")
+               .withArguments("b", "$1");
+        builder.withParser()
+               .withAlias("b")
+               .withArguments("-long", "$1", "-debug");
+        builder.withParser()
+               .withAliasesChaining();
+        //@formatter:on
+
+        String[] args = new String[10001];
+        args[0] = "a";
+        args[1] = "5";
+        for (int i = 2; i < args.length; i++) {
+            args[i] = Integer.toString(i);
+        }
+        Args1 cmd = builder.build().parse(args);
+        Assert.assertTrue(cmd.debug);
+        Assert.assertEquals(cmd.l, 5l);
+        Assert.assertEquals(cmd.parameters.size(), args.length - 2);
+        Assert.assertEquals(cmd.parameters.get(0), "2");
+    }
+
+    @Test
+    public void alias_template_01() {
+        AliasTemplate template = new AliasTemplate(new AliasMetadata("a",
+                Arrays.asList("$1", "${2}", "${3:-three}", "$0", "${0:-zero}", "$x", "${x:-y}", "${1", "literal")));
+
+        Assert.assertEquals(template.expand(Arrays.asList("one", "two", "extra").iterator()),
+                Arrays.asList("one", "two", "extra", "$0", "${0:-zero}", "$x", "${x:-y}", "${1", "literal"));
+        Assert.assertEquals(template.expand(Arrays.asList("one").iterator()),
+                Arrays.asList("one", "${2}", "three", "$0", "${0:-zero}", "$x", "${x:-y}", "${1", "literal"));
+    }
+
+    @Test
+    public void alias_template_02() {
+        AliasTemplate template = new AliasTemplate(new AliasMetadata("a", Arrays.asList("-x", "$2")));
+        Iterator<String> tokens = Arrays.asList("1", "2", "3", "4").iterator();
+
+        // Only consumes as many tokens as necessary
+        Assert.assertEquals(template.expand(tokens), Arrays.asList("-x", "2", "1"));
+        Assert.assertEquals(tokens.next(), "3");
+    }
 }
@@ -0,0 +1,272 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.aliases;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.args.Args1;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.model.AliasMetadata;
+import com.github.rvesse.airline.model.ParserMetadata;
+import com.github.rvesse.airline.parser.options.OptionParser;
+import com.github.rvesse.airline.parser.resources.ClasspathLocator;
+import com.github.rvesse.airline.parser.resources.ResourceLocator;
+
+public class TestUserAliasesSource {
+
+    /**
+     * Locator that counts how many times it opens a resource
+     */
+    private static class CountingLocator implements ResourceLocator {
+        private final ResourceLocator locator;
+        private final AtomicInteger opens = new AtomicInteger();
+
+        private CountingLocator(ResourceLocator locator) {
+            this.locator = locator;
+        }
+
+        @Override
+        public InputStream open(String searchLocation, String filename) throws IOException {
+            InputStream input = this.locator.open(searchLocation, filename);
+            if (input != null)
+                this.opens.incrementAndGet();
+            return input;
+        }
+    }
+
+    /**
+     * Classpath locator that counts how many times it opens a resource
+     */
+    private static class CountingClasspathLocator extends ClasspathLocator {
+        private final AtomicInteger opens = new AtomicInteger();
+
+        @Override
+        public InputStream open(String searchLocation, String filename) throws IOException {
+            InputStream input = super.open(searchLocation, filename);
+            if (input != null)
+                this.opens.incrementAndGet();
+            return input;
+        }
+    }
+
+    private static File prepareDirectory(String name) {
+        File dir = new File("target/" + name + "/");
+        dir.mkdirs();
+        return dir;
+    }
+
+    @Test
+    public void user_aliases_cache_01() throws IOException {
+        File dir = prepareDirectory("user-aliases-cache-01");
+        File f = new File(dir, "test.config");
+        TestAliases.prepareConfig(f, "foo=Args1 bar");
+
+        UserAliasesSource<Args1> source = new UserAliasesSource<>("test.config", null, dir.getPath() + "/");
+        List<AliasMetadata> aliases = source.load();
+        Assert.assertEquals(aliases.size(), 1);
+        Assert.assertEquals(source.getCacheMisses(), 1);
+        Assert.assertEquals(source.getCacheHits(), 0);
+        Assert.assertEquals(source.getGeneration(), 1);
+
+        // Unchanged so should be served from the cache
+        aliases = source.load();
+        Assert.assertEquals(aliases.size(), 1);
+        Assert.assertEquals(source.getCacheMisses(), 1);
+        Assert.assertEquals(source.getCacheHits(), 1);
+        Assert.assertEquals(source.getReloads(), 0);
+        Assert.assertEquals(source.getGeneration(), 1);
+    }
+
+    @Test
+    public void user_aliases_cache_02() throws IOException {
+        File dir = prepareDirectory("user-aliases-cache-02");
+        File f = new File(dir, "test.config");
+        TestAliases.prepareConfig(f, "foo=Args1 bar");
+
+        UserAliasesSource<Args1> source = new UserAliasesSource<>("test.config", null, dir.getPath() + "/");
+        Assert.assertEquals(source.load().size(), 1);
+
+        // Edit the file, size changes so must be reloaded
+        TestAliases.prepareConfig(f, "foo=Args1 bar", "baz=Args1 faz");
+        List<AliasMetadata> aliases = source.load();
+        Assert.assertEquals(aliases.size(), 2);
+        Assert.assertEquals(source.getReloads(), 1);
+        Assert.assertEquals(source.getGeneration(), 2);
+
+        // Removing the file must also be noticed
+        Assert.assertTrue(f.delete());
+        Assert.assertEquals(source.load().size(), 0);
+        Assert.assertEquals(source.getReloads(), 2);
+    }
+
+    @Test
+    public void user_aliases_reloadable_01() throws IOException {
+        File dir = prepareDirectory("user-aliases-reloadable-01");
+        File f = new File(dir, "test.config");
+        TestAliases.prepareConfig(f, "foo=Args1 bar");
+
+        //@formatter:off
+        CliBuilder<Args1> builder = Cli.<Args1>builder("test")
+                                       .withCommand(Args1.class);
+        builder.withParser()
+               .withUserAliases()
+                   .withFilename("test.config")
+                   .withSearchLocation(dir.getPath() + "/")
+                   .withReloading();
+        Cli<Args1> cli = builder.build();
+        //@formatter:on
+
+        Args1 cmd = cli.parse("foo");
+        Assert.assertEquals(cmd.parameters.get(0), "bar");
+
+        // Edits are reflected without rebuilding the CLI
+        TestAliases.prepareConfig(f, "foo=Args1 other");
+        Assert.assertTrue(f.setLastModified(f.lastModified() + 2000));
+        cmd = cli.parse("foo");
+        Assert.assertEquals(cmd.parameters.get(0), "other");
+
+        List<AliasMetadata> aliases = cli.getMetadata().getParserConfiguration().getAliases();
+        Assert.assertEquals(aliases.size(), 1);
+        Assert.assertEquals(aliases.get(0).getArguments().get(1), "other");
+    }
+
+    @Test
+    public void user_aliases_not_reloadable_01() throws IOException {
+        File dir = prepareDirectory("user-aliases-not-reloadable-01");
+        File f = new File(dir, "test.config");
+        TestAliases.prepareConfig(f, "foo=Args1 bar");
+
+        //@formatter:off
+        CliBuilder<Args1> builder = Cli.<Args1>builder("test")
+                                       .withCommand(Args1.class);
+        builder.withParser()
+               .withUserAliases()
+                   .withFilename("test.config")
+                   .withSearchLocation(dir.getPath() + "/");
+        Cli<Args1> cli = builder.build();
+        //@formatter:on
+
+        // Without reloading aliases are fixed when the CLI is built
+        TestAliases.prepareConfig(f, "foo=Args1 other");
+        Assert.assertTrue(f.setLastModified(f.lastModified() + 2000));
+        Args1 cmd = cli.parse("foo");
+        Assert.assertEquals(cmd.parameters.get(0), "bar");
+    }
+
+    @Test(timeOut = 30000)
+    public void user_aliases_watch_01() throws IOException, InterruptedException {
+        File dir = prepareDirectory("user-aliases-watch-01");
+        File f = new File(dir, "test.config");
+        TestAliases.prepareConfig(f, "foo=Args1 bar");
+
+        UserAliasesSource<Args1> source = new UserAliasesSource<>("test.config", null, null,
+                Collections.singletonList(dir.getPath() + "/"), true);
+        try {
+            source.watch();
+            Assert.assertEquals(source.load().size(), 1);
+            long generation = source.getGeneration();
+
+            TestAliases.prepareConfig(f, "foo=Args1 bar", "baz=Args1 faz");
+            Assert.assertTrue(f.setLastModified(f.lastModified() + 2000));
+
+            // Watch services may poll so wait for the change to be noticed
+            while (source.load().size() != 2) {
+                Thread.sleep(100);
+            }
+            Assert.assertTrue(source.getGeneration() > generation);
+        } finally {
+            source.close();
+        }
+    }
+
+    @Test
+    public void user_aliases_cache_03() throws IOException {
+        // Locations that can't be checked are opened once per load
+        CountingLocator locator = new CountingLocator(new ClasspathLocator());
+        UserAliasesSource<Args1> source = new UserAliasesSource<>("aliases.config", null,
+                Collections.<ResourceLocator> singletonList(locator), Collections.singletonList("/"));
+        Assert.assertFalse(source.load().isEmpty());
+        Assert.assertEquals(locator.opens.get(), 1);
+        Assert.assertFalse(source.load().isEmpty());
+        Assert.assertEquals(locator.opens.get(), 2);
+        Assert.assertEquals(source.getReloads(), 1);
+    }
+
+    @Test
+    public void user_aliases_cache_04() throws IOException {
+        // Classpath locations are resolved once and only read when loading
+        CountingClasspathLocator locator = new CountingClasspathLocator();
+        UserAliasesSource<Args1> source = new UserAliasesSource<>("aliases.config", null,
+                Collections.<ResourceLocator> singletonList(locator), Collections.singletonList("/"));
+        Assert.assertFalse(source.load().isEmpty());
+        Assert.assertEquals(locator.opens.get(), 2);
+        Assert.assertFalse(source.load().isEmpty());
+        Assert.assertEquals(locator.opens.get(), 2);
+        Assert.assertEquals(source.getCacheHits(), 1);
+    }
+
+    @Test
+    public void user_aliases_metadata_01() throws IOException {
+        // Constructing parser metadata directly must not load user aliases
+        CountingLocator locator = new CountingLocator(new ClasspathLocator());
+        UserAliasesSource<Args1> source = new UserAliasesSource<>("aliases.config", null,
+                Collections.<ResourceLocator> singletonList(locator), Collections.singletonList("/"));
+        ParserMetadata<Args1> metadata = new ParserMetadata<>(null, Collections.<OptionParser<Args1>> emptyList(),
+                null, null, false, false, Collections.<AliasMetadata> emptyList(), source, false, false, '\0', null,
+                null);
+        Assert.assertEquals(locator.opens.get(), 0);
+        Assert.assertTrue(metadata.getAliases().isEmpty());
+        Assert.assertEquals(locator.opens.get(), 0);
+    }
+
+    @Test(timeOut = 30000)
+    public void user_aliases_watch_02() throws IOException, InterruptedException {
+        File parent = prepareDirectory("user-aliases-watch-02");
+        File dir = new File(parent, "app");
+        File f = new File(dir, "test.config");
+        if (f.exists())
+            Assert.assertTrue(f.delete());
+        if (dir.exists())
+            Assert.assertTrue(dir.delete());
+
+        UserAliasesSource<Args1> source = new UserAliasesSource<>("test.config", null, null,
+                Collections.singletonList(dir.getPath() + "/"), true);
+        try {
+            source.watch();
+            Assert.assertEquals(source.load().size(), 0);
+
+            // Directory and file are created after we started watching
+            Assert.assertTrue(dir.mkdirs());
+            TestAliases.prepareConfig(f, "foo=Args1 bar");
+
+            // Watch services may poll so wait for the change to be noticed
+            while (source.load().size() != 1) {
+                Thread.sleep(100);
+            }
+        } finally {
+            source.close();
+        }
+    }
+}
@@ -15,6 +15,9 @@
  */
 package com.github.rvesse.airline.parser.errors.handlers;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -23,7 +26,10 @@ import com.github.rvesse.airline.args.ArgsRequired;
 import com.github.rvesse.airline.builder.ParserBuilder;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.errors.ParseErrorLimitException;
 import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.ParseOptionIllegalValueException;
+import com.github.rvesse.airline.restrictions.Allowable;
 import com.github.rvesse.airline.restrictions.Some;
 import com.github.rvesse.airline.restrictions.Strings;
 
@@ -96,4 +102,150 @@ public class TestErrorHandlers {
         Strings cmd = result.getCommand();
         Assert.assertFalse(cmd.helpOption.showHelpIfErrors(result));
     }
+
+    private static List<String> illegalValues(int count, int distinct) {
+        List<String> args = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            args.add("--raw");
+            args.add("illegal" + (i % distinct));
+        }
+        return args;
+    }
+
+    @Test
+    public void errorHandlerLightweight01() {
+        ParseResult<Allowable> result = SingleCommand
+                .<Allowable> singleCommand(Allowable.class,
+                        new ParserBuilder<Allowable>().withErrorHandler(new CollectAll()).withLightweightErrors()
+                                .build())
+                .parseWithResult(illegalValues(100, 10));
+        Assert.assertFalse(result.wasSuccessful());
+        Assert.assertEquals(result.getErrors().size(), 10);
+        for (ParseException e : result.getErrors()) {
+            Assert.assertTrue(e instanceof ParseOptionIllegalValueException);
+            Assert.assertEquals(e.getStackTrace().length, 0);
+            Assert.assertEquals(e.getSuppressed().length, 9);
+            Assert.assertTrue(e.getMessage().contains("'illegal"));
+        }
+
+        // Lightweight mode only applies for the duration of the parse
+        Assert.assertFalse(ParseException.isLightweight());
+        Assert.assertNotEquals(new ParseException("Test").getStackTrace().length, 0);
+    }
+
+    @Test
+    public void errorHandlerLightweight02() {
+        ParseResult<Allowable> result = SingleCommand
+                .<Allowable> singleCommand(Allowable.class, this.<Allowable> prepareParser(new CollectAll()))
+                .parseWithResult(illegalValues(100, 10));
+        Assert.assertEquals(result.getErrors().size(), 10);
+        for (ParseException e : result.getErrors()) {
+            Assert.assertNotEquals(e.getStackTrace().length, 0);
+            Assert.assertEquals(e.getSuppressed().length, 9);
+        }
+    }
+
+    @Test
+    public void errorHandlerLightweight03() {
+        boolean previous = ParseException.setLightweight(true);
+        try {
+            ParseException a = new ParseException("Value %s for %s", "foo", "--bar");
+            ParseException b = new ParseException("Value %s for %s", "foo", "--bar");
+            ParseException c = new ParseException("Value %s for %s", "foo", "--other");
+            Assert.assertEquals(a.getErrorKey(), b.getErrorKey());
+            Assert.assertEquals(a.getErrorKey().hashCode(), b.getErrorKey().hashCode());
+            Assert.assertNotEquals(a.getErrorKey(), c.getErrorKey());
+            Assert.assertNotEquals(a.getErrorKey(), new ParseErrorLimitException(1, new ArrayList<ParseException>())
+                    .getErrorKey());
+            Assert.assertEquals(a.getMessage(), "Value foo for --bar");
+            Assert.assertEquals(c.getMessage(), "Value foo for --other");
+        } finally {
+            ParseException.setLightweight(previous);
+        }
+    }
+
+    @Test
+    public void errorHandlerLimit01() {
+        SingleCommand<Allowable> parser = SingleCommand.<Allowable> singleCommand(Allowable.class,
+                this.<Allowable> prepareParser(new CollectAll(5)));
+        try {
+            parser.parseWithResult(illegalValues(100, 100));
+            Assert.fail("Expected parsing to be aborted");
+        } catch (ParseErrorLimitException e) {
+            Assert.assertEquals(e.getErrors().size(), 5);
+            Assert.assertEquals(e.getSuppressed().length, 5);
+        }
+
+        // Collected errors are reset after aborting
+        ParseResult<Allowable> result = parser.parseWithResult(illegalValues(2, 2));
+        Assert.assertEquals(result.getErrors().size(), 2);
+    }
+
+    @Test
+    public void errorHandlerLimit02() {
+        // Duplicates do not count towards the limit
+        ParseResult<Allowable> result = SingleCommand
+                .<Allowable> singleCommand(Allowable.class, this.<Allowable> prepareParser(new CollectAll(5)))
+                .parseWithResult(illegalValues(100, 4));
+        Assert.assertEquals(result.getErrors().size(), 4);
+    }
+
+    @Test
+    public void errorHandlerLimit03() {
+        try {
+            SingleCommand.<Allowable> singleCommand(Allowable.class, this.<Allowable> prepareParser(new FailAll(3)))
+                    .parseWithResult(illegalValues(10, 10));
+            Assert.fail("Expected parsing to be aborted");
+        } catch (ParseErrorLimitException e) {
+            Assert.assertEquals(e.getErrors().size(), 3);
+        }
+    }
+
+    /**
+     * Handler that reads the deprecated errors field as subclasses written for
+     * earlier releases may do
+     */
+    private static class ErrorsViewHandler extends CollectAll {
+        private int seen;
+
+        @SuppressWarnings("deprecation")
+        @Override
+        public void handleError(ParseException e) {
+            super.handleError(e);
+            this.seen = this.errors.size();
+        }
+    }
+
+    /**
+     * Handler that supplies its own errors list as subclasses written for
+     * earlier releases may do
+     */
+    private static class OwnErrorsHandler extends CollectAll {
+        @SuppressWarnings("deprecation")
+        public OwnErrorsHandler() {
+            this.errors = new ArrayList<>();
+        }
+    }
+
+    @Test
+    public void errorHandlerLegacy01() {
+        ErrorsViewHandler handler = new ErrorsViewHandler();
+        ParseResult<Allowable> result = SingleCommand
+                .<Allowable> singleCommand(Allowable.class, this.<Allowable> prepareParser(handler))
+                .parseWithResult(illegalValues(3, 3));
+        Assert.assertEquals(result.getErrors().size(), 3);
+        Assert.assertEquals(handler.seen, 3);
+    }
+
+    @Test
+    public void errorHandlerLegacy02() {
+        SingleCommand<Allowable> parser = SingleCommand.<Allowable> singleCommand(Allowable.class,
+                this.<Allowable> prepareParser(new OwnErrorsHandler()));
+        ParseResult<Allowable> result = parser.parseWithResult(illegalValues(4, 2));
+        Assert.assertEquals(result.getErrors().size(), 2);
+
+        // Collected errors are still reset after each parse
+        result = parser.parseWithResult(illegalValues(1, 1));
+        Assert.assertEquals(result.getErrors().size(), 1);
+    }
 }
@@ -0,0 +1,276 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.instrumentation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.OptionType;
+import com.github.rvesse.airline.annotations.Parser;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.model.ParserMetadata;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.handlers.CollectAll;
+
+public class TestParseListener {
+
+    @Command(name = "sum")
+    public static class Sum {
+        @Option(name = "-v", type = OptionType.GLOBAL)
+        public boolean verbose;
+
+        @Option(name = "--scale")
+        @Required
+        public int scale;
+
+        @Arguments
+        public List<Integer> values;
+    }
+
+    @Command(name = "listened")
+    @Parser(parseListener = RecordingListener.class)
+    public static class Listened {
+        @Option(name = "--name")
+        public String name;
+    }
+
+    /**
+     * Listener that records the events it receives
+     */
+    public static class RecordingListener implements ParseListener {
+        private final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+
+        @Override
+        public long phaseStarted(ParsePhase phase) {
+            events.add("+" + phase);
+            return 0;
+        }
+
+        @Override
+        public void phaseFinished(ParsePhase phase, long start) {
+            events.add("-" + phase);
+        }
+
+        @Override
+        public void count(ParseCounter counter, int amount) {
+            if (amount > 0)
+                events.add(counter + "=" + amount);
+        }
+    }
+
+    private static <T> ParserMetadata<T> prepareParser(ParseListener listener) {
+        return new ParserBuilder<T>().withParseListener(listener).build();
+    }
+
+    @Test
+    public void parse_listener_default_01() {
+        Assert.assertSame(ParserBuilder.defaultConfiguration().getParseListener(), NoopParseListener.INSTANCE);
+        Assert.assertSame(SingleCommand.singleCommand(Sum.class).getParserConfiguration().getParseListener(),
+                NoopParseListener.INSTANCE);
+    }
+
+    @Test
+    public void parse_listener_single_01() {
+        HistogramParseListener listener = new HistogramParseListener();
+        SingleCommand<Sum> parser = SingleCommand.singleCommand(Sum.class, TestParseListener.<Sum> prepareParser(listener));
+        Sum cmd = parser.parse("--scale", "2", "1", "2", "3");
+        Assert.assertEquals(cmd.scale, 2);
+        Assert.assertEquals(cmd.values, Arrays.asList(1, 2, 3));
+
+        Assert.assertEquals(listener.getCount(ParseCounter.TOKENS), 5);
+        Assert.assertEquals(listener.getCount(ParseCounter.CONVERSIONS), 4);
+        Assert.assertTrue(listener.getCount(ParseCounter.OPTION_LOOKUPS) > 0);
+        Assert.assertTrue(listener.getCount(ParseCounter.RESTRICTIONS) > 0);
+        Assert.assertEquals(listener.getCount(ParseCounter.ERRORS), 0);
+
+        Assert.assertEquals(listener.getCount(ParsePhase.GLOBAL_OPTIONS), 0);
+        Assert.assertEquals(listener.getCount(ParsePhase.COMMAND), 0);
+        Assert.assertEquals(listener.getCount(ParsePhase.OPTIONS_AND_ARGUMENTS), 1);
+        Assert.assertEquals(listener.getCount(ParsePhase.VALIDATION), 1);
+        Assert.assertEquals(listener.getCount(ParsePhase.INSTANTIATION), 1);
+
+        parser.parse("--scale", "4");
+        Assert.assertEquals(listener.getCount(ParsePhase.INSTANTIATION), 2);
+        Assert.assertEquals(listener.getCount(ParseCounter.TOKENS), 7);
+    }
+
+    @Test
+    public void parse_listener_cli_01() {
+        RecordingListener listener = new RecordingListener();
+        //@formatter:off
+        CliBuilder<Sum> builder = Cli.<Sum>builder("test")
+                                     .withCommand(Sum.class);
+        builder.withParser()
+               .withParseListener(listener);
+        //@formatter:on
+        Cli<Sum> cli = builder.build();
+        cli.parse("-v", "sum", "--scale", "1");
+
+        List<String> phases = new ArrayList<>();
+        for (String event : listener.events) {
+            if (event.startsWith("+") || event.startsWith("-"))
+                phases.add(event);
+        }
+        //@formatter:off
+        Assert.assertEquals(phases, Arrays.asList("+GLOBAL_OPTIONS", "-GLOBAL_OPTIONS", 
+                                                  "+ALIASES", "-ALIASES",
+                                                  "+GROUP", "-GROUP",
+                                                  "+COMMAND", 
+                                                  "+OPTIONS_AND_ARGUMENTS", "-OPTIONS_AND_ARGUMENTS", 
+                                                  "-COMMAND",
+                                                  "+VALIDATION", "-VALIDATION", 
+                                                  "+INSTANTIATION", "-INSTANTIATION"));
+        //@formatter:on
+        Assert.assertTrue(listener.events.contains("TOKENS=4"));
+    }
+
+    @Test
+    public void parse_listener_errors_01() {
+        HistogramParseListener listener = new HistogramParseListener();
+        ParserMetadata<Sum> config = new ParserBuilder<Sum>().withParseListener(listener)
+                .withErrorHandler(new CollectAll()).build();
+        SingleCommand<Sum> parser = SingleCommand.singleCommand(Sum.class, config);
+        ParseResult<Sum> result = parser.parseWithResult("a", "b");
+        Assert.assertFalse(result.wasSuccessful());
+        Assert.assertEquals(listener.getCount(ParseCounter.ERRORS), result.getErrors().size());
+        Assert.assertTrue(listener.getCount(ParseCounter.ERRORS) > 0);
+    }
+
+    @Test
+    public void parse_listener_errors_02() {
+        HistogramParseListener listener = new HistogramParseListener();
+        SingleCommand<Sum> parser = SingleCommand.singleCommand(Sum.class, TestParseListener.<Sum> prepareParser(listener));
+        try {
+            parser.parse("1");
+            Assert.fail("Expected a parse error");
+        } catch (ParseException e) {
+            // Expected
+        }
+        Assert.assertEquals(listener.getCount(ParseCounter.ERRORS), 1);
+        // Failed phases are still reported as finished
+        Assert.assertEquals(listener.getCount(ParsePhase.OPTIONS_AND_ARGUMENTS), 1);
+        Assert.assertEquals(listener.getCount(ParsePhase.VALIDATION), 1);
+        Assert.assertEquals(listener.getCount(ParsePhase.INSTANTIATION), 0);
+    }
+
+    @Test
+    public void parse_listener_errors_03() {
+        RecordingListener listener = new RecordingListener();
+        //@formatter:off
+        CliBuilder<Sum> builder = Cli.<Sum>builder("test")
+                                     .withCommand(Sum.class);
+        builder.withParser()
+               .withParseListener(listener);
+        //@formatter:on
+        Cli<Sum> cli = builder.build();
+        try {
+            // Missing required --scale option fails validation
+            cli.parse("sum", "1");
+            Assert.fail("Expected a parse error");
+        } catch (ParseException e) {
+            // Expected
+        }
+
+        List<String> phases = new ArrayList<>();
+        for (String event : listener.events) {
+            if (event.startsWith("+") || event.startsWith("-"))
+                phases.add(event);
+        }
+        Assert.assertEquals(phases.subList(phases.size() - 2, phases.size()),
+                Arrays.asList("+VALIDATION", "-VALIDATION"));
+
+        try {
+            // Unconvertible argument fails while parsing the command
+            cli.parse("sum", "--scale", "foo");
+            Assert.fail("Expected a parse error");
+        } catch (ParseException e) {
+            // Expected
+        }
+        int started = 0, finished = 0;
+        for (String event : listener.events) {
+            if (event.startsWith("+"))
+                started++;
+            else if (event.startsWith("-"))
+                finished++;
+        }
+        Assert.assertEquals(finished, started);
+        Assert.assertTrue(listener.events.contains("-COMMAND"));
+    }
+
+    @Test
+    public void parse_listener_annotation_01() {
+        SingleCommand<Listened> parser = SingleCommand.singleCommand(Listened.class);
+        ParseListener listener = parser.getParserConfiguration().getParseListener();
+        Assert.assertTrue(listener instanceof RecordingListener);
+
+        parser.parse("--name", "foo");
+        List<String> events = ((RecordingListener) listener).events;
+        Assert.assertTrue(events.contains("TOKENS=2"));
+        Assert.assertTrue(events.contains("CONVERSIONS=1"));
+        Assert.assertTrue(events.contains("-INSTANTIATION"));
+    }
+
+    @Test
+    public void parse_listener_histogram_01() {
+        HistogramParseListener listener = new HistogramParseListener();
+        Assert.assertEquals(listener.getPercentile(ParsePhase.COMMAND, 50), 0);
+        Assert.assertEquals(listener.getMeanTime(ParsePhase.COMMAND), 0d);
+
+        // Record timings of 1000ns, 1000ns and 100000ns
+        long now = System.nanoTime();
+        listener.phaseFinished(ParsePhase.COMMAND, now - 1000);
+        listener.phaseFinished(ParsePhase.COMMAND, now - 1000);
+        listener.phaseFinished(ParsePhase.COMMAND, now - 100000);
+
+        Assert.assertEquals(listener.getCount(ParsePhase.COMMAND), 3);
+        Assert.assertTrue(listener.getTotalTime(ParsePhase.COMMAND) >= 102000);
+        Assert.assertTrue(listener.getMaxTime(ParsePhase.COMMAND) >= 100000);
+
+        long total = 0;
+        for (long count : listener.getHistogram(ParsePhase.COMMAND)) {
+            total += count;
+        }
+        Assert.assertEquals(total, 3);
+
+        // Percentiles are upper bounds of power of two buckets
+        long p50 = listener.getPercentile(ParsePhase.COMMAND, 50);
+        Assert.assertTrue(p50 >= 1000 && p50 < 100000, "p50 was " + p50);
+        Assert.assertEquals(listener.getPercentile(ParsePhase.COMMAND, 100), listener.getMaxTime(ParsePhase.COMMAND));
+
+        listener.count(ParseCounter.TOKENS, 5);
+        listener.reset();
+        Assert.assertEquals(listener.getCount(ParseCounter.TOKENS), 0);
+        Assert.assertEquals(listener.getCount(ParsePhase.COMMAND), 0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void parse_listener_histogram_02() {
+        new HistogramParseListener().getPercentile(ParsePhase.COMMAND, 101);
+    }
+}
@@ -15,14 +15,25 @@
  */
 package com.github.rvesse.airline.restrictions;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import com.github.rvesse.airline.SingleCommand;
 import com.github.rvesse.airline.parser.errors.ParseOptionIllegalValueException;
+import com.github.rvesse.airline.restrictions.common.AllowedValuesRestriction;
+import com.github.rvesse.airline.types.DefaultTypeConverter;
+import com.github.rvesse.airline.types.TypeConverter;
 
 public class TestAllowedValues {
 
@@ -88,4 +99,84 @@ public class TestAllowedValues {
             Assert.assertEquals(cmd.enumTyped, unit);
         }
     }
+
+    private static class CountingConverter extends DefaultTypeConverter {
+        private final AtomicInteger conversions = new AtomicInteger();
+
+        @Override
+        public Object convert(String name, Class<?> type, String value) {
+            conversions.incrementAndGet();
+            return super.convert(name, type, value);
+        }
+    }
+
+    private static class ExposedAllowedValues extends AllowedValuesRestriction {
+        public ExposedAllowedValues(String... rawValues) {
+            super(rawValues);
+        }
+
+        public Set<Object> allowed(Class<?> type, TypeConverter converter) {
+            return createAllowedValues(null, "value", type, converter);
+        }
+    }
+
+    @Test
+    public void allowed_typed_cache_01() {
+        ExposedAllowedValues restriction = new ExposedAllowedValues("1", "2", "3");
+        CountingConverter converter = new CountingConverter();
+
+        Set<Object> values = restriction.allowed(Integer.class, converter);
+        Assert.assertEquals(values.size(), 3);
+        Assert.assertTrue(values.contains(2));
+        Assert.assertEquals(converter.conversions.get(), 3);
+
+        // Same type and converter re-uses the converted values
+        for (int i = 0; i < 10; i++) {
+            Assert.assertSame(restriction.allowed(Integer.class, converter), values);
+        }
+        Assert.assertEquals(converter.conversions.get(), 3);
+
+        // Different type is converted separately
+        Set<Object> longs = restriction.allowed(Long.class, converter);
+        Assert.assertTrue(longs.contains(2l));
+        Assert.assertEquals(converter.conversions.get(), 6);
+        Assert.assertSame(restriction.allowed(Integer.class, converter), values);
+
+        // As is a different converter
+        CountingConverter other = new CountingConverter();
+        Assert.assertEquals(restriction.allowed(Integer.class, other), values);
+        Assert.assertEquals(other.conversions.get(), 3);
+        Assert.assertEquals(converter.conversions.get(), 6);
+    }
+
+    @Test
+    public void allowed_typed_concurrent_01() throws Exception {
+        final SingleCommand<Allowable> parser = SingleCommand.singleCommand(Allowable.class);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                final int id = i;
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        String value = Integer.toString((id % 3) + 1);
+                        Allowable cmd = parser.parse("--typed", value, "--raw", "foo");
+                        Assert.assertEquals(cmd.typed, Double.parseDouble(value));
+                        try {
+                            parser.parse("--typed", "4");
+                            return false;
+                        } catch (ParseOptionIllegalValueException e) {
+                            return true;
+                        }
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                Assert.assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
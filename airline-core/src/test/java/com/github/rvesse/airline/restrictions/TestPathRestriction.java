@@ -20,13 +20,21 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.builder.ParserBuilder;
 import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.errors.ParseException;
 import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
+import com.github.rvesse.airline.parser.errors.handlers.CollectAll;
+import com.github.rvesse.airline.restrictions.common.PathStatCache;
+import com.github.rvesse.airline.restrictions.common.PathStatCache.PathStat;
 
 public class TestPathRestriction {
 
@@ -265,6 +273,24 @@ public class TestPathRestriction {
         }
     }
 
+    @Test
+    public void path_restriction_any_01() {
+        SingleCommand<Paths> parser = SingleCommand.<Paths> singleCommand(Paths.class);
+
+        // Values that cannot be resolved to a path are accepted when no checks
+        // are configured
+        Paths cmd = parser.parse("--any", "bad\u0000path");
+        Assert.assertEquals(cmd.anyPath, "bad\u0000path");
+    }
+
+    @Test(expectedExceptions = ParseRestrictionViolatedException.class)
+    public void path_restriction_any_02() {
+        SingleCommand<Paths> parser = SingleCommand.<Paths> singleCommand(Paths.class);
+
+        // But are rejected when checks are configured
+        parser.parse("--path", "bad\u0000path");
+    }
+
     @Test
     public void path_restriction_help() throws IOException {
         SingleCommand<Paths> parser = SingleCommand.<Paths> singleCommand(Paths.class);
@@ -286,4 +312,81 @@ public class TestPathRestriction {
         Assert.assertTrue(usage.contains("must be executable"));
         Assert.assertTrue(usage.contains("must exist"));
     }
+
+    private static List<String> preparePaths(File dir, int count) throws IOException {
+        dir.mkdirs();
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            File f = new File(dir, "file" + i + ".txt");
+            try (FileWriter writer = new FileWriter(f)) {
+                writer.append("test");
+            }
+            paths.add(f.getPath());
+        }
+        return paths;
+    }
+
+    @Test
+    public void path_restriction_parallel_01() throws IOException {
+        List<String> paths = preparePaths(new File("target/parallel-paths-01"), 100);
+
+        SingleCommand<ParallelPaths> parser = SingleCommand.<ParallelPaths> singleCommand(ParallelPaths.class);
+        ParallelPaths cmd = parser.parse(paths);
+        Assert.assertEquals(cmd.files, paths);
+    }
+
+    @Test
+    public void path_restriction_parallel_02() throws IOException {
+        List<String> paths = preparePaths(new File("target/parallel-paths-02"), 100);
+        paths.add(10, "target/parallel-paths-02/missing1.txt");
+        paths.add(50, "target/parallel-paths-02/missing2.txt");
+
+        //@formatter:off
+        SingleCommand<ParallelPaths> parser = SingleCommand.<ParallelPaths> singleCommand(ParallelPaths.class,
+                new ParserBuilder<ParallelPaths>().withErrorHandler(new CollectAll()).build());
+        //@formatter:on
+        ParseResult<ParallelPaths> result = parser.parseWithResult(paths);
+        Assert.assertFalse(result.wasSuccessful());
+
+        // Violations are reported in the order the values were given
+        List<ParseException> errors = new ArrayList<>(result.getErrors());
+        Assert.assertEquals(errors.size(), 2);
+        Assert.assertTrue(errors.get(0).getMessage().contains("missing1.txt"));
+        Assert.assertTrue(errors.get(1).getMessage().contains("missing2.txt"));
+    }
+
+    @Test(expectedExceptions = ParseRestrictionViolatedException.class)
+    public void path_restriction_parallel_03() throws IOException {
+        List<String> paths = preparePaths(new File("target/parallel-paths-03"), 20);
+        paths.add("target/parallel-paths-03/missing.txt");
+
+        SingleCommand<ParallelPaths> parser = SingleCommand.<ParallelPaths> singleCommand(ParallelPaths.class);
+        parser.parse(paths);
+    }
+
+    @Test
+    public void path_stat_cache_01() throws IOException {
+        File dir = new File("target/path-stat-cache-01");
+        preparePaths(dir, 1);
+
+        PathStatCache cache = new PathStatCache();
+        java.nio.file.Path file = new File(dir, "file0.txt").toPath();
+        PathStat stat = cache.stat(file);
+        Assert.assertTrue(stat.exists());
+        Assert.assertTrue(stat.isFile());
+        Assert.assertFalse(stat.isDirectory());
+        Assert.assertTrue(stat.isReadable());
+
+        // Each path is only checked once
+        Assert.assertSame(cache.stat(file), stat);
+
+        // Non-existent paths share their existing ancestor
+        java.nio.file.Path missing1 = new File(dir, "a/b/missing1.txt").toPath().toAbsolutePath();
+        java.nio.file.Path missing2 = new File(dir, "a/missing2.txt").toPath().toAbsolutePath();
+        Assert.assertFalse(cache.stat(missing1).exists());
+        PathStat ancestor = cache.firstExistingAncestor(missing1);
+        Assert.assertNotNull(ancestor);
+        Assert.assertTrue(ancestor.isDirectory());
+        Assert.assertSame(cache.firstExistingAncestor(missing2), ancestor);
+    }
 }
@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.restrictions;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.restrictions.common.IsRequiredRestriction;
+import com.github.rvesse.airline.restrictions.common.NotBlankRestriction;
+import com.github.rvesse.airline.restrictions.options.MutuallyExclusiveRestriction;
+
+public class TestValidationPlan {
+
+    /**
+     * Counts the calls to the one phase it participates in
+     */
+    private static class PreValidateOnly extends AbstractCommonRestriction {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public <T> void preValidate(ParseState<T> state, OptionMetadata option, String value) {
+            calls.incrementAndGet();
+        }
+
+        @Override
+        public <T> void preValidate(ParseState<T> state, ArgumentsMetadata arguments, String value) {
+            calls.incrementAndGet();
+        }
+    }
+
+    /**
+     * Overrides a method but explicitly marks it as doing nothing
+     */
+    private static class MarkedOverride extends AbstractCommonRestriction {
+        @NoValidation
+        @Override
+        public <T> void postValidate(ParseState<T> state, OptionMetadata option, Object value) {
+            // No validation
+        }
+    }
+
+    @Test
+    public void validation_plan_01() {
+        OptionValidationPlan plan = new OptionValidationPlan(Arrays.<OptionRestriction> asList(
+                new MutuallyExclusiveRestriction("tag"), new IsRequiredRestriction(), new MarkedOverride()));
+
+        // These restrictions only apply once parsing is finished
+        Assert.assertFalse(plan.hasPreValidation());
+        Assert.assertFalse(plan.hasPostValidation());
+        Assert.assertTrue(plan.hasFinalValidation());
+    }
+
+    @Test
+    public void validation_plan_02() {
+        PreValidateOnly restriction = new PreValidateOnly();
+        OptionValidationPlan plan = new OptionValidationPlan(
+                Arrays.<OptionRestriction> asList(restriction, null, new NotBlankRestriction()));
+        Assert.assertTrue(plan.hasPreValidation());
+        Assert.assertFalse(plan.hasPostValidation());
+        Assert.assertFalse(plan.hasFinalValidation());
+
+        plan.preValidate(ParseState.newInstance(), null, "test", null);
+        Assert.assertEquals(restriction.calls.get(), 1);
+    }
+
+    @Test
+    public void validation_plan_03() {
+        ArgumentsValidationPlan plan = new ArgumentsValidationPlan(
+                Arrays.<ArgumentsRestriction> asList(new PreValidateOnly(), new IsRequiredRestriction()));
+        Assert.assertTrue(plan.hasPreValidation());
+        Assert.assertFalse(plan.hasPostValidation());
+        Assert.assertTrue(plan.hasFinalValidation());
+    }
+}
@@ -30,6 +30,7 @@ import org.apache.commons.lang3.StringUtils;
 import com.github.rvesse.airline.Accessor;
 import com.github.rvesse.airline.annotations.help.BashCompletion;
 import com.github.rvesse.airline.help.common.AbstractGlobalUsageGenerator;
+import com.github.rvesse.airline.help.suggester.CompletionServer;
 import com.github.rvesse.airline.model.ArgumentsMetadata;
 import com.github.rvesse.airline.model.CommandGroupMetadata;
 import com.github.rvesse.airline.model.CommandMetadata;
@@ -43,6 +44,8 @@ public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T>
     private static final char NEWLINE = '\n';
     private static final String DOUBLE_NEWLINE = "\n\n";
     private final boolean withDebugging;
+    private final int completionServerPort;
+    private final String completionServerTokenFile;
 
     public BashCompletionGenerator() {
         this(false, false);
@@ -57,8 +60,60 @@ public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T>
      *            {@code set +o xtrace} at the end of its functions
      */
     public BashCompletionGenerator(boolean includeHidden, boolean enableDebugging) {
+        this(includeHidden, enableDebugging, 0);
+    }
+
+    /**
+     * Creates a new completion generator whose script first tries to obtain
+     * completions from a {@link CompletionServer}
+     * <p>
+     * When the server is running on the given port the script sends it the
+     * words entered so far and uses its suggestions, if the server is not
+     * running or makes no suggestions that match then the script falls back to
+     * its normal completion logic. This requires Bash 4.1 or higher.
+     * </p>
+     * 
+     * @param includeHidden
+     *            Whether to include hidden commands and options
+     * @param enableDebugging
+     *            Whether to enable debugging
+     * @param completionServerPort
+     *            Port on the loopback interface the completion server listens
+     *            on, zero or less to not use a completion server
+     */
+    public BashCompletionGenerator(boolean includeHidden, boolean enableDebugging, int completionServerPort) {
+        this(includeHidden, enableDebugging, completionServerPort, null);
+    }
+
+    /**
+     * Creates a new completion generator whose script first tries to obtain
+     * completions from a {@link CompletionServer} that authenticates requests
+     * <p>
+     * The script reads the tokens from the token file written by the server,
+     * sends the client token with its request and only uses the response if it
+     * starts with the server token, so a process that has bound the port in
+     * place of the server cannot supply suggestions.
+     * </p>
+     * 
+     * @param includeHidden
+     *            Whether to include hidden commands and options
+     * @param enableDebugging
+     *            Whether to enable debugging
+     * @param completionServerPort
+     *            Port on the loopback interface the completion server listens
+     *            on, zero or less to not use a completion server
+     * @param completionServerTokenFile
+     *            Path to the token file of the completion server, this is
+     *            placed in double quotes in the script so may reference shell
+     *            variables e.g. {@code ${HOME}}, {@code null} if the server does
+     *            not authenticate requests
+     */
+    public BashCompletionGenerator(boolean includeHidden, boolean enableDebugging, int completionServerPort,
+            String completionServerTokenFile) {
         super(includeHidden);
         this.withDebugging = enableDebugging;
+        this.completionServerPort = completionServerPort;
+        this.completionServerTokenFile = completionServerTokenFile;
     }
 
     @Override
@@ -96,6 +151,10 @@ public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T>
         indent(writer, 2);
         writer.append("fi").append(DOUBLE_NEWLINE);
 
+        if (this.completionServerPort > 0) {
+            writeCompletionServerRequest(writer, 2);
+        }
+
         // Prepare list of top level commands and groups
         Set<String> commandNames = new HashSet<>();
         for (CommandMetadata command : global.getDefaultGroupCommands()) {
@@ -230,6 +289,70 @@ public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T>
         }
     }
 
+    private void writeCompletionServerRequest(Writer writer, int indent) throws IOException {
+        indent(writer, indent);
+        writer.append("# Try the completion server, if it isn't running fall back to our own logic").append(NEWLINE);
+        indent(writer, indent);
+        writer.append("local SERVER_FD SUGGESTION SERVER_TOKENS=() SERVER_SUGGESTIONS=()").append(NEWLINE);
+        indent(writer, indent);
+        writer.append("if ");
+        if (this.completionServerTokenFile != null) {
+            String tokenFile = this.completionServerTokenFile.replace("\\", "\\\\").replace("\"", "\\\"")
+                    .replace("`", "\\`");
+            writer.append("read -r -a SERVER_TOKENS < \"").append(tokenFile)
+                    .append("\" 2>/dev/null && [[ ${#SERVER_TOKENS[@]} -eq 2 ]] && ");
+        }
+        writer.append("{ exec {SERVER_FD}<>/dev/tcp/127.0.0.1/").append(Integer.toString(this.completionServerPort))
+                .append("; } 2>/dev/null; then").append(NEWLINE);
+        if (this.completionServerTokenFile != null) {
+            // Authenticate to the server and verify that the server is genuine
+            indent(writer, indent + 2);
+            writer.append("printf '%s\\n' \"${SERVER_TOKENS[0]}\" \"${COMP_WORDS[@]:1:COMP_CWORD-1}\" \"\" >&${SERVER_FD}")
+                    .append(NEWLINE);
+            indent(writer, indent + 2);
+            writer.append(
+                    "if IFS= read -r -t 1 -u ${SERVER_FD} SUGGESTION && [[ \"${SUGGESTION}\" == \"${SERVER_TOKENS[1]}\" ]]; then")
+                    .append(NEWLINE);
+            writeServerSuggestionsRead(writer, indent + 4);
+            indent(writer, indent + 2);
+            writer.append("fi").append(NEWLINE);
+        } else {
+            indent(writer, indent + 2);
+            writer.append("printf '%s\\n' \"${COMP_WORDS[@]:1:COMP_CWORD-1}\" \"\" >&${SERVER_FD}").append(NEWLINE);
+            writeServerSuggestionsRead(writer, indent + 2);
+        }
+        indent(writer, indent + 2);
+        writer.append("exec {SERVER_FD}<&-").append(NEWLINE);
+
+        // Suggestions are matched literally, they must never be subject to
+        // expansion since they come from outside the script
+        indent(writer, indent + 2);
+        writer.append("COMPREPLY=()").append(NEWLINE);
+        indent(writer, indent + 2);
+        writer.append("for SUGGESTION in \"${SERVER_SUGGESTIONS[@]}\"; do").append(NEWLINE);
+        indent(writer, indent + 4);
+        writer.append("[[ \"${SUGGESTION}\" == \"${CURR_WORD}\"* ]] && COMPREPLY+=(\"${SUGGESTION}\")").append(NEWLINE);
+        indent(writer, indent + 2);
+        writer.append("done").append(NEWLINE);
+        indent(writer, indent + 2);
+        writer.append("if [[ ${#COMPREPLY[@]} -gt 0 ]]; then").append(NEWLINE);
+        indent(writer, indent + 4);
+        writer.append("return 0").append(NEWLINE);
+        indent(writer, indent + 2);
+        writer.append("fi").append(NEWLINE);
+        indent(writer, indent);
+        writer.append("fi").append(DOUBLE_NEWLINE);
+    }
+
+    private void writeServerSuggestionsRead(Writer writer, int indent) throws IOException {
+        indent(writer, indent);
+        writer.append("while IFS= read -r -t 1 -u ${SERVER_FD} SUGGESTION; do").append(NEWLINE);
+        indent(writer, indent + 2);
+        writer.append("SERVER_SUGGESTIONS+=(\"${SUGGESTION}\")").append(NEWLINE);
+        indent(writer, indent);
+        writer.append("done").append(NEWLINE);
+    }
+
     private void writeHeader(Writer writer) throws IOException {
         // Bash Header
         writer.append("#!/bin/bash").append(DOUBLE_NEWLINE);
@@ -574,7 +697,7 @@ public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T>
         if (completion != null && completion.behaviour() == CompletionBehaviour.CLI_COMMANDS) {
             writer.append(" ${COMMANDS}");
         }
-        writer.append("\" -- ${CURR_WORD}) )").append(NEWLINE);
+        writer.append("\" -- \"${CURR_WORD}\") )").append(NEWLINE);
 
         // Echo is necessary due when using a nested function calls
         if (isNestedFunction) {
@@ -15,6 +15,7 @@
  */
 package com.github.rvesse.airline.io.printers;
 
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -96,14 +97,15 @@ public class UsagePrinter {
                 int columnSize = columnSizes.get(column);
                 if (value != null) {
                     line.append(value);
-                    line.append(spaces(columnSize - value.length()));
+                    appendSpaces(line, columnSize - value.length());
                 } else {
-                    line.append(spaces(columnSize));
+                    appendSpaces(line, columnSize);
                 }
                 line.append("   ");
                 column++;
             }
-            out.append(spaces(indent)).append(trimEnd(line.toString())).append("\n");
+            appendSpaces(out, indent);
+            out.append(trimEnd(line.toString())).append("\n");
 
             for (int i = 0; i < rowSpacing; i++) {
                 out.append('\n');
@@ -146,7 +148,7 @@ public class UsagePrinter {
         if (value == null)
             return this;
         if (avoidNewlines) {
-            return appendWords(Arrays.asList(value.split("\\s+")), avoidNewlines);
+            return appendWords(splitWords(value), avoidNewlines);
         } else {
             return appendLines(Arrays.asList(StringUtils.split(value, '\n')), avoidNewlines);
         }
@@ -162,7 +164,7 @@ public class UsagePrinter {
             String line = iter.next();
             if (line == null || line.isEmpty())
                 continue;
-            appendWords(Arrays.asList(line.split("\\s+")), avoidNewlines);
+            appendWords(splitWords(line), avoidNewlines);
             if (iter.hasNext()) {
                 this.newline();
             }
@@ -182,7 +184,7 @@ public class UsagePrinter {
             }
             if (currentPosition.get() == 0) {
                 // beginning of line
-                out.append(spaces(indent));
+                appendSpaces(out, indent);
                 currentPosition.getAndAdd((indent));
             } else if (word.length() > maxSize || currentPosition.get() + word.length() + 1 <= maxSize || bracketCount > 0
                     || avoidNewlines) {
@@ -191,7 +193,8 @@ public class UsagePrinter {
                 currentPosition.getAndIncrement();
             } else {
                 // wrap line
-                out.append("\n").append(spaces(indent)).append(spaces(hangingIndent));
+                out.append("\n");
+                appendSpaces(out, indent + hangingIndent);
                 currentPosition.set(indent + hangingIndent);
             }
 
@@ -215,11 +218,69 @@ public class UsagePrinter {
         this.out.close();
     }
 
-    private static String spaces(int count) {
-        StringBuilder result = new StringBuilder();
-        for (int i = 0; i < count; i++) {
-            result.append(" ");
+    /**
+     * Splits text into words on runs of whitespace
+     * <p>
+     * This gives the same result as splitting on the regular expression
+     * {@code \s+} without the overhead of regular expression matching. Thus
+     * leading whitespace produces an empty first word, empty text produces a
+     * single empty word and text that is entirely whitespace produces no
+     * words.
+     * </p>
+     * 
+     * @param value
+     *            Text
+     * @return Words
+     */
+    public static List<String> splitWords(String value) {
+        List<String> words = new ArrayList<>();
+        int length = value.length();
+        if (length == 0) {
+            // No match so the text itself is the only word
+            words.add(value);
+            return words;
+        }
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            if (isWhitespace(value.charAt(i))) {
+                if (i > start || i == 0)
+                    words.add(value.substring(start, i));
+                start = i + 1;
+            }
+        }
+        if (start < length) {
+            words.add(value.substring(start));
+        } else if (words.size() == 1 && words.get(0).isEmpty()) {
+            // Entirely whitespace, trailing empty words are discarded
+            words.clear();
+        }
+        return words;
+    }
+
+    /**
+     * Gets whether a character is whitespace as matched by {@code \s} in a
+     * regular expression
+     * 
+     * @param c
+     *            Character
+     * @return True if whitespace, false otherwise
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static final String SPACES = "                                                                ";
+
+    private static void appendSpaces(Appendable target, int count) {
+        try {
+            while (count > 0) {
+                int n = Math.min(count, SPACES.length());
+                target.append(SPACES, 0, n);
+                count -= n;
+            }
+        } catch (IOException e) {
+            // Only used with targets that do not throw
+            throw new IllegalStateException(e);
         }
-        return result.toString();
     }
 }
@@ -0,0 +1,71 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.io.printers;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestUsagePrinter {
+
+    private void verifySplit(String value) {
+        Assert.assertEquals(UsagePrinter.splitWords(value), Arrays.asList(value.split("\\s+")),
+                "Unexpected split for '" + value + "'");
+    }
+
+    @Test
+    public void split_words_01() {
+        verifySplit("foo");
+        verifySplit("foo bar");
+        verifySplit("foo   bar\tfaz");
+        verifySplit(" foo bar");
+        verifySplit("\t\n foo  bar");
+        verifySplit("foo bar   ");
+        verifySplit("foo\u000Bbar\fbaz\r\nqux");
+        // Non-breaking space is not whitespace
+        verifySplit("foo\u00A0bar");
+        verifySplit("");
+        verifySplit("   ");
+        verifySplit(" ");
+        verifySplit("   foo");
+        verifySplit("\t foo ");
+    }
+
+    @Test
+    public void wrap_01() {
+        StringWriter writer = new StringWriter();
+        UsagePrinter printer = new UsagePrinter(new PrintWriter(writer), 20);
+        printer.newIndentedPrinter(4).newPrinterWithHangingIndent(2)
+                .append("The quick brown fox jumps over the lazy dog").newline();
+        printer.flush();
+
+        Assert.assertEquals(writer.toString(),
+                "    The quick brown\n      fox jumps over\n      the lazy dog\n");
+    }
+
+    @Test
+    public void table_01() {
+        StringWriter writer = new StringWriter();
+        UsagePrinter printer = new UsagePrinter(new PrintWriter(writer), 79).newIndentedPrinter(2);
+        printer.appendTable(Arrays.asList(Arrays.asList("a", "bb", "c"), Arrays.asList("ddd", null, "e")), 0);
+        printer.flush();
+
+        Assert.assertEquals(writer.toString(), "  a     bb   c\n  ddd        e\n");
+    }
+}
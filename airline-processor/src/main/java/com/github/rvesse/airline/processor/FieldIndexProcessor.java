@@ -0,0 +1,170 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.JavaFileObject;
+
+import com.github.rvesse.airline.model.FieldIndex;
+import com.github.rvesse.airline.model.MetadataLoader;
+
+/**
+ * Annotation processor that generates a {@link FieldIndex} for each class that
+ * declares Airline annotated fields or is a {@code @Command}
+ * <p>
+ * The generated indexes allow {@link MetadataLoader} to go straight to the
+ * relevant fields of a class rather than reflecting over every declared field
+ * of every class in the hierarchy. To use simply add this module to the
+ * annotation processor path when compiling your commands.
+ * </p>
+ */
+//@formatter:off
+@SupportedAnnotationTypes({
+    FieldIndexProcessor.COMMAND,
+    FieldIndexProcessor.OPTION,
+    FieldIndexProcessor.ARGUMENTS,
+    FieldIndexProcessor.DEFAULT_OPTION,
+    FieldIndexProcessor.INJECT,
+    FieldIndexProcessor.GUICE_INJECT
+})
+//@formatter:on
+public class FieldIndexProcessor extends AbstractProcessor {
+
+    static final String COMMAND = "com.github.rvesse.airline.annotations.Command";
+    static final String OPTION = "com.github.rvesse.airline.annotations.Option";
+    static final String ARGUMENTS = "com.github.rvesse.airline.annotations.Arguments";
+    static final String DEFAULT_OPTION = "com.github.rvesse.airline.annotations.DefaultOption";
+    static final String INJECT = "javax.inject.Inject";
+    static final String GUICE_INJECT = "com.google.inject.Inject";
+
+    private static final Set<String> FIELD_ANNOTATIONS = new HashSet<>(
+            Arrays.asList(OPTION, ARGUMENTS, DEFAULT_OPTION, INJECT, GUICE_INJECT));
+
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> types = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            boolean isCommand = annotation.getQualifiedName().contentEquals(COMMAND);
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.FIELD) {
+                    types.add((TypeElement) element.getEnclosingElement());
+                } else if (isCommand && element.getKind() == ElementKind.CLASS) {
+                    types.add((TypeElement) element);
+                }
+            }
+        }
+
+        for (TypeElement type : types) {
+            // Interfaces are never inspected and local/anonymous classes have
+            // no predictable binary name
+            if (type.getKind() == ElementKind.INTERFACE || type.getNestingKind() == NestingKind.LOCAL
+                    || type.getNestingKind() == NestingKind.ANONYMOUS)
+                continue;
+            generateIndex(type);
+        }
+
+        // Never claim the annotations, other processors may be interested in
+        // them
+        return false;
+    }
+
+    private void generateIndex(TypeElement type) {
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        if (!this.generated.add(binaryName))
+            return;
+
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String indexName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                + FieldIndex.SUFFIX;
+
+        List<String> fields = new ArrayList<>();
+        for (Element element : type.getEnclosedElements()) {
+            if (element.getKind() == ElementKind.FIELD && isRelevant(element)) {
+                fields.add(element.getSimpleName().toString());
+            }
+        }
+
+        try {
+            JavaFileObject file = processingEnv.getFiler()
+                    .createSourceFile(packageName.isEmpty() ? indexName : packageName + "." + indexName, type);
+            try (Writer writer = file.openWriter()) {
+                writeIndex(writer, packageName, indexName, type.getQualifiedName().toString(), fields);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Kind.ERROR,
+                    String.format("Failed to generate Airline field index for %s: %s", binaryName, e.getMessage()),
+                    type);
+        }
+    }
+
+    private static boolean isRelevant(Element field) {
+        for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (FIELD_ANNOTATIONS.contains(annotationType.getQualifiedName().toString()))
+                return true;
+        }
+        return false;
+    }
+
+    static void writeIndex(Writer writer, String packageName, String indexName, String typeName,
+            List<String> fields) throws IOException {
+        if (!packageName.isEmpty()) {
+            writer.append("package ").append(packageName).append(";\n\n");
+        }
+        writer.append("/**\n");
+        writer.append(" * Airline field index for {@code ").append(typeName).append("}\n");
+        writer.append(" * <p>\n");
+        writer.append(" * Generated by ").append(FieldIndexProcessor.class.getName()).append(", do not edit\n");
+        writer.append(" * </p>\n");
+        writer.append(" */\n");
+        writer.append("public final class ").append(indexName).append(" implements ")
+                .append(FieldIndex.class.getName()).append(" {\n\n");
+        writer.append("    @Override\n");
+        writer.append("    public String[] getAnnotatedFields() {\n");
+        writer.append("        return new String[] {");
+        for (int i = 0; i < fields.size(); i++) {
+            writer.append(i == 0 ? " " : ", ").append('"').append(fields.get(i)).append('"');
+        }
+        writer.append(fields.isEmpty() ? "};\n" : " };\n");
+        writer.append("    }\n");
+        writer.append("}\n");
+    }
+}
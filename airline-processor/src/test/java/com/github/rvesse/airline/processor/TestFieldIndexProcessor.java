@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.FieldIndex;
+import com.github.rvesse.airline.model.MetadataLoader;
+
+public class TestFieldIndexProcessor {
+
+    //@formatter:off
+    private static final String SOURCE = 
+            "package sample;\n" +
+            "import com.github.rvesse.airline.annotations.*;\n" +
+            "@Command(name = \"sample\")\n" +
+            "public class Sample extends Base {\n" +
+            "    private int notAnnotated;\n" +
+            "    @Option(name = \"-a\") public String a;\n" +
+            "    @Deprecated public String deprecated;\n" +
+            "    @Arguments public java.util.List<String> args;\n" +
+            "    @Option(name = \"-b\") public int b;\n" +
+            "    public static class Nested {\n" +
+            "        @Option(name = \"-n\") public boolean n;\n" +
+            "    }\n" +
+            "}\n" +
+            "class Base {\n" +
+            "    @Option(name = \"-c\") public boolean c;\n" +
+            "}\n";
+    //@formatter:on
+
+    private static String getClassPath() {
+        return new File(Command.class.getProtectionDomain().getCodeSource().getLocation().getPath())
+                .getAbsolutePath();
+    }
+
+    private ClassLoader compile(File dir) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null)
+            throw new SkipException("No system Java compiler available");
+
+        File source = new File(dir, "sample/Sample.java");
+        Assert.assertTrue(source.getParentFile().mkdirs());
+        Files.write(source.toPath(), SOURCE.getBytes(StandardCharsets.UTF_8));
+
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null,
+                StandardCharsets.UTF_8)) {
+            Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjects(source);
+            List<String> options = Arrays.asList("-classpath", getClassPath(), "-d", dir.getAbsolutePath(), "-s",
+                    dir.getAbsolutePath());
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null, units);
+            task.setProcessors(Collections.singletonList(new FieldIndexProcessor()));
+            Assert.assertTrue(task.call(), "Compilation failed");
+        }
+        return new URLClassLoader(new URL[] { dir.toURI().toURL() }, FieldIndex.class.getClassLoader());
+    }
+
+    private static String[] getIndex(ClassLoader loader, String name) throws ReflectiveOperationException {
+        Class<?> indexClass = Class.forName(name + FieldIndex.SUFFIX, true, loader);
+        return ((FieldIndex) indexClass.getConstructor().newInstance()).getAnnotatedFields();
+    }
+
+    @Test
+    public void field_index_processor_01() throws Exception {
+        File dir = Files.createTempDirectory("airline-processor").toFile();
+        ClassLoader loader = compile(dir);
+
+        Assert.assertEquals(getIndex(loader, "sample.Sample"), new String[] { "a", "args", "b" });
+        Assert.assertEquals(getIndex(loader, "sample.Base"), new String[] { "c" });
+        Assert.assertEquals(getIndex(loader, "sample.Sample$Nested"), new String[] { "n" });
+    }
+
+    @Test
+    public void field_index_processor_02() throws Exception {
+        File dir = Files.createTempDirectory("airline-processor").toFile();
+        ClassLoader loader = compile(dir);
+
+        CommandMetadata metadata = MetadataLoader.loadCommand(Class.forName("sample.Sample", true, loader));
+        Assert.assertEquals(metadata.getName(), "sample");
+        Assert.assertEquals(metadata.getCommandOptions().size(), 3);
+        Assert.assertNotNull(metadata.getArguments());
+    }
+}